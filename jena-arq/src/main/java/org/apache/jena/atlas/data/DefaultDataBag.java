@@ -215,6 +215,7 @@ public class DefaultDataBag<E> extends AbstractDataBag<E>
             closeIterators();
             deleteSpillFiles();
             
+            policy.reset();
             memory = null;
             closed = true;
         }
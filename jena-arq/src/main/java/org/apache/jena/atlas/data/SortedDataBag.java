@@ -295,6 +295,7 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
             closeIterators();
             deleteSpillFiles();
 
+            policy.reset();
             memory = null;
             closed = true;
         }
@@ -19,6 +19,7 @@
 package org.apache.jena.atlas.data ;
 
 import org.apache.jena.query.ARQ ;
+import org.apache.jena.sparql.engine.QueryMemoryBudget ;
 import org.apache.jena.sparql.util.Context ;
 
 public class ThresholdPolicyFactory
@@ -67,17 +68,15 @@ public class ThresholdPolicyFactory
     /**
      * A threshold policy based on the {@link org.apache.jena.query.ARQ#spillToDiskThreshold} symbol in the given Context.
      * If the symbol is not set, then the {@link #never()} policy is used by default.
+     * If the context has a {@link QueryMemoryBudget}, the threshold is also exceeded when the budget is used up.
      */
     public static <E> ThresholdPolicy<E> policyFromContext(Context context)
     {
         long threshold = context.getLong(ARQ.spillToDiskThreshold, defaultThreshold) ;
-        if ( threshold >= 0 )
-        {
-            return count(threshold);
-        }
-        else
-        {
-            return never() ;
-        }
+        ThresholdPolicy<E> policy = ( threshold >= 0 ) ? count(threshold) : never() ;
+        QueryMemoryBudget budget = QueryMemoryBudget.get(context) ;
+        if ( budget == null )
+            return policy ;
+        return budget.thresholdPolicy(policy) ;
     }
 }
@@ -286,6 +286,28 @@ public class ARQ
     // Hash table: GROUP BY, MINUS, SERVICE, VALUES, and hash joins <br>
     public static final Symbol spillToDiskThreshold = SystemARQ.allocSymbol("spillToDiskThreshold") ;
 
+    /**
+     * A Long value that limits the number of bindings held in memory, in total, by all the
+     * operations of one query execution. The value defaults to -1, meaning no limit.
+     * <p/>
+     * ORDER BY and DISTINCT switch to temporary disk files when the budget is used up;
+     * GROUP BY and hash joins can not spill and the query execution fails with a
+     * {@link QueryBudgetExceededException}.
+     * <p/>
+     * Unlike {@link #spillToDiskThreshold}, which applies to each operation separately,
+     * this limit is shared by all the operations of the query execution.
+     */
+    public static final Symbol queryMemoryBudget = SystemARQ.allocSymbol("queryMemoryBudget") ;
+
+    /**
+     * A Long value that is the limit of the estimated number of solutions of the basic
+     * graph patterns of a query. A query estimated to exceed the limit is rejected with
+     * a {@link QueryBudgetExceededException} before it executes. The estimate depends on
+     * the storage; for example, TDB2 uses the statistics file of the database, if present.
+     * Default is -1, meaning no limit.
+     */
+    public static final Symbol queryCostLimit = SystemARQ.allocSymbol("queryCostLimit") ;
+
     // Optimizer controls.
 
     /**
@@ -356,6 +378,26 @@ public class ARQ
      */
     public static final Symbol topNSortingThreshold = SystemARQ.allocSymbol("topNSortingThreshold") ;
 
+    /**
+     *  Context key controlling whether the algebra, after optimization, for a query is
+     *  kept and reused when an equal query (see {@link Query#equals}) is executed again.
+     *  Only used for queries without an initial binding or a dataset description.
+     *  Plans are kept per dataset and per setting of the optimizer controls in the context.
+     *  Default is "false".
+     */
+    public static final Symbol queryPlanCache = SystemARQ.allocSymbol("queryPlanCache") ;
+
+    /**
+     *  Context key controlling whether the branches of a UNION are evaluated concurrently,
+     *  on worker threads from a shared, bounded pool, with results merged in no defined order.
+     *  Inside a read transaction, each worker begins its own read transaction and runs its branch
+     *  only if it sees the same data as the caller; this needs a dataset that implements
+     *  {@link org.apache.jena.sparql.core.TransactionalDataVersion} (TIM and TDB2 do).
+     *  Not used inside a write transaction.
+     *  Default is "false".
+     */
+    public static final Symbol parallelUnion = SystemARQ.allocSymbol("parallelUnion") ;
+
     /**
      *  Context key controlling whether a DISTINCT-ORDER BY query is done by replacing the distinct with a reduced.
      *  Default is "true" - the reduced operator does not need to keep a data structure with all previously seen bindings.
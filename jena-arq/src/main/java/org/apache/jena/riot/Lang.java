@@ -80,6 +80,9 @@ public class Lang
 
     //** The RDF syntax "RDF Thrift" : see http://jena.apache.org/documentation/io */ 
     public static Lang RDFTHRIFT ;
+
+    /** The binary RDF syntax "RDF Blocks", for random access */
+    public static Lang RDFBLOCKS ;
     
     /** "CSV" - Used in various ways. */
     public static Lang CSV ;
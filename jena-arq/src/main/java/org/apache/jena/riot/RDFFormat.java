@@ -18,6 +18,7 @@
 
 package org.apache.jena.riot ;
 
+import static org.apache.jena.riot.RDFLanguages.RDFBLOCKS ;
 import static org.apache.jena.riot.RDFLanguages.THRIFT ;
 
 import java.util.Objects;
@@ -40,6 +41,8 @@ public class RDFFormat {
     public static final RDFFormatVariant UTF8           = new RDFFormatVariant("utf-8") ;
     /** Variant for RDF Thrift using values */
     public static final RDFFormatVariant ValueEncoding  = new RDFFormatVariant("Value") ;
+    /** Variant for RDF Thrift using REPEAT for a term that is the same as in the previous row */
+    public static final RDFFormatVariant RepeatEncoding = new RDFFormatVariant("Repeat") ;
 
     /** Turtle - pretty form */
     public static final RDFFormat        TURTLE_PRETTY  = new RDFFormat(Lang.TURTLE, PRETTY) ;
@@ -139,6 +142,8 @@ public class RDFFormat {
     public static final RDFFormat        JSONLD_PRETTY  = JSONLD_COMPACT_PRETTY ;
     public static final RDFFormat        JSONLD         = JSONLD_COMPACT_PRETTY ;
     public static final RDFFormat        JSONLD_FLAT    = JSONLD_COMPACT_FLAT ;
+    /** JSON-LD, written in a streaming fashion : one node object for each run of triples with the same subject. */
+    public static final RDFFormat        JSONLD_BLOCKS  = new RDFFormat(Lang.JSONLD, BLOCKS) ;
 
     /** RDF/XML ABBREV variant */
     public static final RDFFormatVariant ABBREV         = new RDFFormatVariant("pretty") ;
@@ -149,6 +154,8 @@ public class RDFFormat {
     public static final RDFFormat        RDFXML_ABBREV  = RDFXML_PRETTY ;
     public static final RDFFormat        RDFXML         = RDFXML_PRETTY ;
     public static final RDFFormat        RDFXML_PLAIN   = new RDFFormat(Lang.RDFXML, PLAIN) ;
+    /** RDF/XML - written in a streaming fashion : one rdf:Description for each run of triples with the same subject. */
+    public static final RDFFormat        RDFXML_BLOCKS  = new RDFFormat(Lang.RDFXML, BLOCKS) ;
 
     public static final RDFFormat        RDFJSON        = new RDFFormat(Lang.RDFJSON) ;
     public static final RDFFormat        TRIX           = new RDFFormat(Lang.TRIX) ;
@@ -174,6 +181,23 @@ public class RDFFormat {
      * @see #RDF_THRIFT
      */
     public static final RDFFormat RDF_THRIFT_VALUES     = new RDFFormat(THRIFT, ValueEncoding) ;
+    /**
+     * A variant of RDF Thrift output that writes a term that is the same as the term
+     * in the same position of the previous row as {@code REPEAT}. This makes output
+     * sorted by subject or graph, such as database dumps, smaller. Readers must
+     * support {@code REPEAT}; older readers of RDF Thrift do not.
+     *
+     * @see #RDF_THRIFT
+     */
+    public static final RDFFormat RDF_THRIFT_REPEAT     = new RDFFormat(THRIFT, RepeatEncoding) ;
+
+    /**
+     * RDF Blocks output. A binary format of self-contained blocks, each with its own
+     * dictionary of RDF terms, and an index, for random access to large files.
+     *
+     * @see org.apache.jena.riot.blocks.RDFBlocksFile
+     */
+    public static final RDFFormat RDF_BLOCKS            = new RDFFormat(RDFBLOCKS) ;
 
     /**
      * The "null" output format (a sink that prints nothing, usually quite
@@ -28,6 +28,7 @@ import static org.apache.jena.riot.WebContent.contentTypeNQuadsAlt1;
 import static org.apache.jena.riot.WebContent.contentTypeNQuadsAlt2;
 import static org.apache.jena.riot.WebContent.contentTypeNTriples;
 import static org.apache.jena.riot.WebContent.contentTypeNTriplesAlt;
+import static org.apache.jena.riot.WebContent.contentTypeRDFBlocks;
 import static org.apache.jena.riot.WebContent.contentTypeRDFJSON;
 import static org.apache.jena.riot.WebContent.contentTypeRDFThrift;
 import static org.apache.jena.riot.WebContent.contentTypeRDFXML;
@@ -70,6 +71,7 @@ public class RDFLanguages
     public static final String strLangTSV        = "TSV";
     public static final String strLangTriX       = "TriX";
     public static final String strLangRDFTHRIFT  = "RDF-THRIFT";
+    public static final String strLangRDFBLOCKS  = "RDF-BLOCKS";
     
     /*
      * ".owl" is not a formally registered file extension for OWL 
@@ -145,6 +147,12 @@ public class RDFLanguages
                                                      .addAltNames("RDF_THRIFT", "RDFTHRIFT", "RDF/THRIFT", "TRDF")
                                                      .addFileExtensions("rt", "trdf")
                                                      .build() ;
+
+    /** The binary RDF syntax "RDF Blocks", for random access : see {@link org.apache.jena.riot.blocks.RDFBlocks} */
+    public static final Lang RDFBLOCKS  = LangBuilder.create(strLangRDFBLOCKS, contentTypeRDFBlocks)
+                                                     .addAltNames("RDF_BLOCKS", "RDFBLOCKS", "RDF/BLOCKS")
+                                                     .addFileExtensions("rbk")
+                                                     .build() ;
     
     /** Text */
     public static final Lang TEXT       = LangBuilder.create("text", contentTypeTextPlain)
@@ -198,6 +206,7 @@ public class RDFLanguages
         Lang.NQ         = RDFLanguages.NQ ;
         Lang.TRIG       = RDFLanguages.TRIG ;
         Lang.RDFTHRIFT  = RDFLanguages.THRIFT ;
+        Lang.RDFBLOCKS  = RDFLanguages.RDFBLOCKS ;
         Lang.TRIX       = RDFLanguages.TRIX ;
         Lang.RDFNULL    = RDFLanguages.RDFNULL ;
         
@@ -228,6 +237,7 @@ public class RDFLanguages
         register(TRIG) ;
         register(NQUADS) ;
         register(THRIFT) ;
+        register(RDFBLOCKS) ;
         register(TRIX) ;
         register(RDFNULL) ;
         
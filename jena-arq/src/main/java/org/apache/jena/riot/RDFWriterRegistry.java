@@ -21,6 +21,8 @@ package org.apache.jena.riot;
 import java.util.* ;
 
 import org.apache.jena.atlas.lib.CharSpace ;
+import org.apache.jena.riot.blocks.WriterDatasetBlocks ;
+import org.apache.jena.riot.blocks.WriterGraphBlocks ;
 import org.apache.jena.riot.system.RiotLib ;
 import org.apache.jena.riot.thrift.WriterDatasetThrift ;
 import org.apache.jena.riot.thrift.WriterGraphThrift ;
@@ -66,6 +68,8 @@ public class RDFWriterRegistry
                 return new RDFXMLAbbrevWriter() ;
             if ( Objects.equals(RDFFormat.RDFXML_PLAIN, serialization) )
                 return new RDFXMLPlainWriter() ;
+            if ( Objects.equals(RDFFormat.RDFXML_BLOCKS, serialization) )
+                return new RDFXMLWriterBlocks() ;
             
             WriterDatasetRIOT dsw = wdsfactory.create(serialization) ;
             if ( dsw != null )
@@ -88,6 +92,8 @@ public class RDFWriterRegistry
                 return new NQuadsWriter() ;
             if ( Objects.equals(RDFFormat.NQUADS_ASCII, serialization) )
                 return new NQuadsWriter(CharSpace.ASCII) ;
+            if ( Objects.equals(RDFFormat.JSONLD_BLOCKS, serialization) )
+                return new JsonLDWriterBlocks() ;
             if ( Objects.equals(RDFFormat.RDFNULL, serialization) )
                 return NullWriter.factory.create(RDFFormat.RDFNULL) ;
             return null ;
@@ -123,6 +129,20 @@ public class RDFWriterRegistry
         }
     } ;
     
+    static WriterGraphRIOTFactory wgBlocksFactory = new WriterGraphRIOTFactory(){
+        @Override
+        public WriterGraphRIOT create(RDFFormat syntaxForm) {
+            return new WriterGraphBlocks() ;
+        }
+    } ;
+
+    static WriterDatasetRIOTFactory wdsBlocksFactory = new WriterDatasetRIOTFactory(){
+        @Override
+        public WriterDatasetRIOT create(RDFFormat syntaxForm) {
+            return new WriterDatasetBlocks() ;
+        }
+    } ;
+
     static WriterGraphRIOTFactory wgTriXFactory = new WriterGraphRIOTFactory() {
 
         @Override
@@ -156,6 +176,7 @@ public class RDFWriterRegistry
          register(Lang.NQUADS,      RDFFormat.NQUADS) ;
          register(Lang.RDFNULL,     RDFFormat.RDFNULL) ;
          register(Lang.RDFTHRIFT,   RDFFormat.RDF_THRIFT) ;
+         register(Lang.RDFBLOCKS,   RDFFormat.RDF_BLOCKS) ;
          register(Lang.TRIX,        RDFFormat.TRIX) ;
 
          // Writer factories.
@@ -177,11 +198,13 @@ public class RDFWriterRegistry
          register(RDFFormat.JSONLD_FLATTEN_FLAT,         wgJsonldfactory) ;
          register(RDFFormat.JSONLD_EXPAND_FLAT,          wgJsonldfactory) ;
          register(RDFFormat.JSONLD_FRAME_FLAT,           wgJsonldfactory) ;
+         register(RDFFormat.JSONLD_BLOCKS,               wgfactory) ;
         
          register(RDFFormat.RDFJSON,        wgfactory) ;
 
          register(RDFFormat.RDFXML_PRETTY,  wgfactory) ;
          register(RDFFormat.RDFXML_PLAIN,   wgfactory) ;
+         register(RDFFormat.RDFXML_BLOCKS,  wgfactory) ;
 
          // Graphs in a quad format.
          register(RDFFormat.TRIG_PRETTY,    wgfactory) ;
@@ -194,6 +217,8 @@ public class RDFWriterRegistry
          
          register(RDFFormat.RDF_THRIFT,     wgThriftFactory) ;
          register(RDFFormat.RDF_THRIFT_VALUES, wgThriftFactory) ;
+         register(RDFFormat.RDF_THRIFT_REPEAT, wgThriftFactory) ;
+         register(RDFFormat.RDF_BLOCKS,     wgBlocksFactory) ;
 
          register(RDFFormat.TRIX, wgTriXFactory) ;
 
@@ -217,9 +242,12 @@ public class RDFWriterRegistry
          register(RDFFormat.JSONLD_FLATTEN_FLAT,         wdsJsonldfactory) ;
          register(RDFFormat.JSONLD_EXPAND_FLAT,          wdsJsonldfactory) ;
          register(RDFFormat.JSONLD_FRAME_FLAT,           wdsJsonldfactory) ;
+         register(RDFFormat.JSONLD_BLOCKS,               wdsfactory) ;
 
          register(RDFFormat.RDF_THRIFT,     wdsThriftFactory) ;
          register(RDFFormat.RDF_THRIFT_VALUES, wdsThriftFactory) ;
+         register(RDFFormat.RDF_THRIFT_REPEAT, wdsThriftFactory) ;
+         register(RDFFormat.RDF_BLOCKS,     wdsBlocksFactory) ;
          
          register(RDFFormat.TRIX, wdsTriXFactory) ;
      }
@@ -116,6 +116,14 @@ public class RIOT {
      * as expected by the JSONLD-java API (a Map) */
     public static final Symbol JSONLD_CONTEXT = Symbol.create("http://jena.apache.org/riot/jsonld#JSONLD_CONTEXT");
 
+    /**
+     * Symbol to use to ask for JSON-LD to be read with the streaming reader,
+     * {@link org.apache.jena.riot.lang.JsonLDStreamReader}, which does not read the whole
+     * document into memory but only handles documents with the "@context" before the data.
+     * Expected value: "true" or Boolean.TRUE
+     */
+    public static final Symbol JSONLD_STREAMING = Symbol.create("http://jena.apache.org/riot/jsonld#JSONLD_STREAMING");
+
     private static String TURTLE_SYMBOL_BASE = "http://jena.apache.org/riot/turtle#";
     
     /** 
@@ -83,6 +83,9 @@ public class WebContent
     public static final String      contentTypeRDFThrift         = "application/rdf+thrift" ;
     public static final ContentType ctRDFTHRIFT                  = ContentType.create(contentTypeRDFThrift) ;
 
+    public static final String      contentTypeRDFBlocks         = "application/rdf+blocks" ;
+    public static final ContentType ctRDFBLOCKS                  = ContentType.create(contentTypeRDFBlocks) ;
+
     public static final String      contentTypeNQuadsAlt1        = "text/n-quads" ;
     public static final ContentType ctNQuadsAlt1                 = ContentType.create(contentTypeNQuadsAlt1) ;
 
@@ -126,6 +129,10 @@ public class WebContent
     // Unofficial
     public static final String      contentTypeResultsThrift     = "application/sparql-results+thrift" ;
     public static final ContentType ctResultsThrift              = ContentType.create(contentTypeResultsThrift) ;
+
+    // Unofficial
+    public static final String      contentTypeResultsColumnar   = "application/sparql-results+columnar" ;
+    public static final ContentType ctResultsColumnar            = ContentType.create(contentTypeResultsColumnar) ;
     
     public static final String      contentTypeSPARQLQuery       = "application/sparql-query" ;
     public static final ContentType ctSPARQLQuery                = ContentType.create(contentTypeSPARQLQuery) ;
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.blocks;
+
+import static org.apache.jena.riot.blocks.RDFBlocks.* ;
+
+import java.nio.ByteBuffer ;
+import java.nio.charset.StandardCharsets ;
+
+import org.apache.jena.datatypes.TypeMapper ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.sparql.core.Quad ;
+
+/**
+ * One block of an RDF Blocks file, read directly from a {@link ByteBuffer}
+ * (a memory mapped region of a file, or bytes read from an input stream).
+ * <p>
+ * Rows are read from the buffer when asked for. RDF terms are decoded from the
+ * block dictionary the first time they are used and then cached, so a block that is
+ * only partly read only decodes the terms it needs.
+ * <p>
+ * Safe for concurrent readers.
+ *
+ * @see RDFBlocks for the layout.
+ */
+public class RDFBlock {
+    private final ByteBuffer bytes ;
+    private final int numTerms ;
+    private final int numPrefixes ;
+    private final int numRows ;
+    private final int offsetsStart ;
+    private final int prefixesStart ;
+    private final int rowsStart ;
+    private final int termsStart ;
+    // Decoded terms. Decoding is idempotent so a race between readers is harmless.
+    private final Node[] nodes ;
+
+    /** The bytes of the block, from the number of terms (after the block length) to the end of the block. */
+    RDFBlock(ByteBuffer buffer) {
+        this.bytes = buffer.slice() ;
+        this.numTerms = bytes.getInt(0) ;
+        this.numPrefixes = bytes.getInt(4) ;
+        this.numRows = bytes.getInt(8) ;
+        if ( numTerms < 0 || numPrefixes < 0 || numRows < 0 )
+            throw new RiotException("RDF Blocks: Bad block header") ;
+        this.offsetsStart = 12 ;
+        this.prefixesStart = offsetsStart + 4*(numTerms+1) ;
+        this.rowsStart = prefixesStart + 8*numPrefixes ;
+        this.termsStart = rowsStart + 16*numRows ;
+        if ( termsStart < 0 || termsStart > bytes.limit() )
+            throw new RiotException("RDF Blocks: Bad block layout") ;
+        this.nodes = new Node[numTerms] ;
+    }
+
+    /** Number of rows (triples and quads) in the block. */
+    public int size() {
+        return numRows ;
+    }
+
+    /** Number of distinct RDF terms in the block. */
+    public int getNumTerms() {
+        return numTerms ;
+    }
+
+    /** Whether row {@code i} is a triple (rather than a quad in a named graph). */
+    public boolean isTriple(int i) {
+        return termId(i, 0) == NO_GRAPH ;
+    }
+
+    /** Row {@code i} as a triple. For a quad, this is the triple part of the quad. */
+    public Triple getTriple(int i) {
+        return Triple.create(getNode(termId(i, 1)), getNode(termId(i, 2)), getNode(termId(i, 3))) ;
+    }
+
+    /** Row {@code i} as a quad. A triple is returned as a quad in the default graph. */
+    public Quad getQuad(int i) {
+        int g = termId(i, 0) ;
+        Node gn = ( g == NO_GRAPH ) ? Quad.defaultGraphIRI : getNode(g) ;
+        return Quad.create(gn, getNode(termId(i, 1)), getNode(termId(i, 2)), getNode(termId(i, 3))) ;
+    }
+
+    /** Send the prefixes and then the rows of this block to a {@link StreamRDF}. */
+    public void sendTo(StreamRDF dest) {
+        for ( int i = 0 ; i < numPrefixes ; i++ ) {
+            int idx = prefixesStart + 8*i ;
+            Node prefix = getNode(bytes.getInt(idx)) ;
+            Node iri = getNode(bytes.getInt(idx+4)) ;
+            dest.prefix(prefix.getLiteralLexicalForm(), iri.getURI()) ;
+        }
+        for ( int i = 0 ; i < numRows ; i++ ) {
+            if ( isTriple(i) )
+                dest.triple(getTriple(i)) ;
+            else
+                dest.quad(getQuad(i)) ;
+        }
+    }
+
+    private int termId(int row, int slot) {
+        if ( row < 0 || row >= numRows )
+            throw new IndexOutOfBoundsException("Row "+row+" : block has "+numRows+" rows") ;
+        return bytes.getInt(rowsStart + 16*row + 4*slot) ;
+    }
+
+    /** The RDF term for a term id of this block. */
+    public Node getNode(int id) {
+        if ( id < 0 || id >= numTerms )
+            throw new RiotException("RDF Blocks: Bad term id: "+id) ;
+        Node n = nodes[id] ;
+        if ( n == null ) {
+            n = decode(id) ;
+            nodes[id] = n ;
+        }
+        return n ;
+    }
+
+    private Node decode(int id) {
+        int start = termStart(id) ;
+        int end = termsStart + bytes.getInt(offsetsStart + 4*(id+1)) ;
+        if ( end <= start || end > bytes.limit() )
+            throw new RiotException("RDF Blocks: Bad term offsets: "+id) ;
+        byte kind = bytes.get(start) ;
+        switch (kind) {
+            case KIND_IRI:
+                return NodeFactory.createURI(string(start+1, end)) ;
+            case KIND_BNODE:
+                return NodeFactory.createBlankNode(string(start+1, end)) ;
+            case KIND_STRING:
+                return NodeFactory.createLiteral(string(start+1, end)) ;
+            case KIND_LANG: {
+                int langStart = start+3 ;
+                int lexStart = langStart + (bytes.getShort(start+1) & 0xFFFF) ;
+                return NodeFactory.createLiteral(string(lexStart, end), string(langStart, lexStart)) ;
+            }
+            case KIND_DATATYPE: {
+                int dtId = bytes.getInt(start+1) ;
+                // Check the kind before decoding so that datatype ids that
+                // refer to each other can not recurse.
+                if ( dtId < 0 || dtId >= numTerms || bytes.get(termStart(dtId)) != KIND_IRI )
+                    throw new RiotException("RDF Blocks: Bad datatype: "+id) ;
+                Node dt = getNode(dtId) ;
+                return NodeFactory.createLiteral(string(start+5, end), TypeMapper.getInstance().getSafeTypeByName(dt.getURI())) ;
+            }
+            default:
+                throw new RiotException("RDF Blocks: Unknown term kind: "+kind) ;
+        }
+    }
+
+    private int termStart(int id) {
+        int start = termsStart + bytes.getInt(offsetsStart + 4*id) ;
+        if ( start < termsStart || start >= bytes.limit() )
+            throw new RiotException("RDF Blocks: Bad term offsets: "+id) ;
+        return start ;
+    }
+
+    // UTF-8 string from the buffer.
+    private String string(int start, int end) {
+        if ( end < start || end > bytes.limit() )
+            throw new RiotException("RDF Blocks: Bad term encoding") ;
+        if ( bytes.hasArray() )
+            return new String(bytes.array(), bytes.arrayOffset()+start, end-start, StandardCharsets.UTF_8) ;
+        // Direct (memory mapped) buffer. Read through a duplicate so readers do not share a position.
+        byte[] b = new byte[end-start] ;
+        ByteBuffer dup = bytes.duplicate() ;
+        dup.position(start) ;
+        dup.get(b) ;
+        return new String(b, StandardCharsets.UTF_8) ;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.blocks;
+
+import java.io.BufferedOutputStream ;
+import java.io.DataInputStream ;
+import java.io.EOFException ;
+import java.io.IOException ;
+import java.io.InputStream ;
+import java.io.OutputStream ;
+import java.nio.ByteBuffer ;
+import java.util.function.Consumer ;
+
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.system.StreamRDF ;
+
+/**
+ * Operations on RDF Blocks, a binary RDF format for random access.
+ * <p>
+ * The data is written as a sequence of self-contained blocks. Each block has its
+ * own dictionary of RDF terms and the rows (triples and quads) of the block are
+ * fixed size tuples of term ids, so a block can be decoded without reading any
+ * other block and the n'th row of a block can be read directly. An index of the
+ * blocks at the end of the file allows seeking.
+ * <p>
+ * Files are read sequentially with {@link #fileToStream} or, for random access,
+ * memory mapped with {@link #openFile} which decodes terms only as they are used.
+ *
+ * <pre>
+ * File:     "RDFB" version:int Block* -1:int Index Trailer
+ * Block:    length:int numTerms:int numPrefixes:int numRows:int
+ *           termOffsets:int[numTerms+1] prefixes:int[2*numPrefixes] rows:int[4*numRows]
+ *           termData:byte[] (padded to a multiple of 4)
+ * Term:     kind:byte (IRI, blank node or string literal: UTF-8 bytes)
+ *                     (language literal: langLength:short lang:UTF-8 lex:UTF-8)
+ *                     (datatype literal: datatype term id:int lex:UTF-8)
+ * Row:      G S P O term ids; G is -1 for a triple.
+ * Index:    (blockOffset:long numRows:int)*
+ * Trailer:  indexOffset:long numBlocks:int "RDFB"
+ * </pre>
+ * All numbers are big-endian.
+ *
+ * @see StreamRDF2Blocks
+ * @see RDFBlocksFile
+ */
+public class RDFBlocks {
+
+    /** File magic number, "RDFB". */
+    static final int MAGIC          = 0x52444642 ;
+    static final int VERSION        = 1 ;
+    /** Marker, in place of a block length, for the end of the blocks. */
+    static final int END_BLOCKS     = -1 ;
+    /** Graph id in a row for a triple. */
+    static final int NO_GRAPH       = -1 ;
+    static final int TRAILER_SIZE   = 16 ;
+    static final int INDEX_ENTRY    = 12 ;
+
+    // Term kinds.
+    static final byte KIND_IRI      = 1 ;
+    static final byte KIND_BNODE    = 2 ;
+    static final byte KIND_STRING   = 3 ;
+    static final byte KIND_LANG     = 4 ;
+    static final byte KIND_DATATYPE = 5 ;
+
+    /** Default maximum number of rows in a block. */
+    public static final int DFT_BLOCK_ROWS = 64*1024 ;
+
+    private static int BUFSIZE_OUT  = 128*1024 ;
+
+    /**
+     * Create an {@link StreamRDF} for output.
+     * The file is closed when {@link StreamRDF#finish()} is called.
+     * Call {@link StreamRDF#start()}...{@link StreamRDF#finish()}.
+     *
+     * @param filename The file
+     * @return StreamRDF A stream to send to.
+     */
+    public static StreamRDF streamToFile(String filename) {
+        OutputStream out = IO.openOutputFile(filename) ;
+        BufferedOutputStream bout = new BufferedOutputStream(out, BUFSIZE_OUT) ;
+        return new StreamRDF2Blocks(bout, DFT_BLOCK_ROWS, true) ;
+    }
+
+    /**
+     * Create an {@link StreamRDF} for output.
+     * The {@code OutputStream} is flushed, not closed, when {@link StreamRDF#finish()} is called.
+     * Call {@link StreamRDF#start()}...{@link StreamRDF#finish()}.
+     * @param out OutputStream
+     * @return StreamRDF A stream to send to.
+     */
+    public static StreamRDF streamToOutputStream(OutputStream out) {
+        return streamToOutputStream(out, DFT_BLOCK_ROWS) ;
+    }
+
+    /**
+     * Create an {@link StreamRDF} for output with blocks of at most {@code blockRows} rows.
+     * Smaller blocks give finer grained seeking; larger blocks share more terms.
+     * @param out OutputStream
+     * @param blockRows Maximum number of triples and quads in a block.
+     * @return StreamRDF A stream to send to.
+     */
+    public static StreamRDF streamToOutputStream(OutputStream out, int blockRows) {
+        return new StreamRDF2Blocks(out, blockRows, false) ;
+    }
+
+    /**
+     * Decode the contents of the file and send to the {@link StreamRDF}.
+     * @param filename The file.
+     * @param dest Sink
+     */
+    public static void fileToStream(String filename, StreamRDF dest) {
+        try ( InputStream in = IO.openFile(filename) ) {
+            inputStreamToStream(in, dest) ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+
+    /**
+     * Decode the contents of the input stream, reading the blocks in order, and send to the {@link StreamRDF}.
+     * @param in InputStream
+     * @param dest StreamRDF
+     */
+    public static void inputStreamToStream(InputStream in, StreamRDF dest) {
+        dest.start() ;
+        readBlocks(in, block -> block.sendTo(dest)) ;
+        dest.finish() ;
+    }
+
+    /** Read the blocks of an input stream, in order. The index is not used. */
+    private static void readBlocks(InputStream in, Consumer<RDFBlock> action) {
+        DataInputStream data = new DataInputStream(in) ;
+        try {
+            if ( data.readInt() != MAGIC )
+                throw new RiotException("RDF Blocks: Not an RDF Blocks file") ;
+            int version = data.readInt() ;
+            if ( version != VERSION )
+                throw new RiotException("RDF Blocks: Unsupported version: "+version) ;
+            for (;;) {
+                int length = data.readInt() ;
+                if ( length == END_BLOCKS )
+                    return ;
+                if ( length < 0 )
+                    throw new RiotException("RDF Blocks: Bad block length: "+length) ;
+                byte[] bytes = new byte[length] ;
+                data.readFully(bytes) ;
+                action.accept(new RDFBlock(ByteBuffer.wrap(bytes))) ;
+            }
+        }
+        catch (EOFException ex) { throw new RiotException("RDF Blocks: Truncated input") ; }
+        catch (IOException ex) { IO.exception(ex) ; }
+    }
+
+    /**
+     * Open a file for random access. The file is memory mapped and RDF terms are
+     * decoded as they are used.
+     * @param filename The file.
+     * @return RDFBlocksFile
+     */
+    public static RDFBlocksFile openFile(String filename) {
+        return RDFBlocksFile.open(filename) ;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.blocks;
+
+import static org.apache.jena.riot.blocks.RDFBlocks.* ;
+
+import java.io.IOException ;
+import java.nio.ByteBuffer ;
+import java.nio.channels.FileChannel ;
+import java.nio.file.Paths ;
+import java.nio.file.StandardOpenOption ;
+import java.util.Arrays ;
+import java.util.Iterator ;
+import java.util.NoSuchElementException ;
+
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.sparql.core.Quad ;
+
+/**
+ * Random access to an RDF Blocks file.
+ * <p>
+ * The block index is read when the file is opened. Blocks are memory mapped when
+ * first accessed; no data is copied onto the heap except the RDF terms that are
+ * actually used. Rows are numbered across the whole file, from 0.
+ * <p>
+ * Safe for concurrent readers.
+ */
+public class RDFBlocksFile implements AutoCloseable {
+    private final String filename ;
+    private final FileChannel channel ;
+    // Offset of each block (its length field) and of the end marker after the last block.
+    private final long[] blockOffsets ;
+    // Row number of the first row of each block, and the total number of rows.
+    private final long[] blockStarts ;
+    private final RDFBlock[] blocks ;
+
+    /** Open an RDF Blocks file. */
+    public static RDFBlocksFile open(String filename) {
+        try {
+            FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ) ;
+            try {
+                return new RDFBlocksFile(filename, channel) ;
+            } catch (RuntimeException ex) {
+                channel.close() ;
+                throw ex ;
+            }
+        } catch (IOException ex) { IO.exception(ex) ; return null ; }
+    }
+
+    private RDFBlocksFile(String filename, FileChannel channel) throws IOException {
+        this.filename = filename ;
+        this.channel = channel ;
+        long fileSize = channel.size() ;
+        if ( fileSize < 8 + 4 + TRAILER_SIZE )
+            throw new RiotException("RDF Blocks: File too short: "+filename) ;
+        ByteBuffer header = read(0, 8) ;
+        if ( header.getInt(0) != MAGIC || header.getInt(4) != VERSION )
+            throw new RiotException("RDF Blocks: Not an RDF Blocks file (or unsupported version): "+filename) ;
+        ByteBuffer trailer = read(fileSize - TRAILER_SIZE, TRAILER_SIZE) ;
+        if ( trailer.getInt(12) != MAGIC )
+            throw new RiotException("RDF Blocks: No index (incomplete file?): "+filename) ;
+        long indexOffset = trailer.getLong(0) ;
+        int numBlocks = trailer.getInt(8) ;
+        if ( numBlocks < 0 || indexOffset < 12 || indexOffset + (long)INDEX_ENTRY*numBlocks != fileSize - TRAILER_SIZE )
+            throw new RiotException("RDF Blocks: Bad index: "+filename) ;
+        ByteBuffer indexBytes = read(indexOffset, INDEX_ENTRY*numBlocks) ;
+        blockOffsets = new long[numBlocks+1] ;
+        blockStarts = new long[numBlocks+1] ;
+        for ( int i = 0 ; i < numBlocks ; i++ ) {
+            blockOffsets[i] = indexBytes.getLong(INDEX_ENTRY*i) ;
+            blockStarts[i+1] = blockStarts[i] + indexBytes.getInt(INDEX_ENTRY*i+8) ;
+        }
+        // The end marker.
+        blockOffsets[numBlocks] = indexOffset - 4 ;
+        blocks = new RDFBlock[numBlocks] ;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(length) ;
+        while ( bb.hasRemaining() ) {
+            int x = channel.read(bb, position + bb.position()) ;
+            if ( x < 0 )
+                throw new RiotException("RDF Blocks: Truncated file: "+filename) ;
+        }
+        bb.flip() ;
+        return bb ;
+    }
+
+    /** Number of blocks. */
+    public int getNumBlocks() {
+        return blocks.length ;
+    }
+
+    /** Total number of rows (triples and quads). */
+    public long size() {
+        return blockStarts[blocks.length] ;
+    }
+
+    /** Get a block, mapping it into memory if necessary. */
+    public RDFBlock getBlock(int i) {
+        if ( i < 0 || i >= blocks.length )
+            throw new IndexOutOfBoundsException("Block "+i+" : file has "+blocks.length+" blocks") ;
+        RDFBlock block = blocks[i] ;
+        if ( block == null ) {
+            block = mapBlock(i) ;
+            blocks[i] = block ;
+        }
+        return block ;
+    }
+
+    private RDFBlock mapBlock(int i) {
+        // Skip the length field.
+        long start = blockOffsets[i] + 4 ;
+        long length = blockOffsets[i+1] - start ;
+        if ( length < 12 || length > Integer.MAX_VALUE )
+            throw new RiotException("RDF Blocks: Bad block "+i+": "+filename) ;
+        try {
+            return new RDFBlock(channel.map(FileChannel.MapMode.READ_ONLY, start, length)) ;
+        } catch (IOException ex) { IO.exception(ex) ; return null ; }
+    }
+
+    /** The index of the block containing row {@code n}. */
+    public int findBlock(long n) {
+        if ( n < 0 || n >= size() )
+            throw new IndexOutOfBoundsException("Row "+n+" : file has "+size()+" rows") ;
+        int x = Arrays.binarySearch(blockStarts, n) ;
+        if ( x < 0 )
+            return -(x+1) - 1 ;
+        // Skip empty blocks (only prefixes) which have the same start.
+        while ( blockStarts[x+1] == n )
+            x++ ;
+        return x ;
+    }
+
+    /** Row {@code n} of the file as a quad; a triple is a quad in the default graph. */
+    public Quad get(long n) {
+        int b = findBlock(n) ;
+        return getBlock(b).getQuad((int)(n - blockStarts[b])) ;
+    }
+
+    /** Iterate over all rows from row {@code n} as quads; a triple is a quad in the default graph. */
+    public Iterator<Quad> iterator(long n) {
+        if ( n == size() )
+            return new QuadIterator(blocks.length, 0) ;
+        int b = findBlock(n) ;
+        return new QuadIterator(b, (int)(n - blockStarts[b])) ;
+    }
+
+    /** Iterate over all rows as quads; a triple is a quad in the default graph. */
+    public Iterator<Quad> iterator() {
+        return iterator(0) ;
+    }
+
+    /** Send the whole file to a {@link StreamRDF}. */
+    public void sendTo(StreamRDF dest) {
+        dest.start() ;
+        for ( int i = 0 ; i < blocks.length ; i++ )
+            getBlock(i).sendTo(dest) ;
+        dest.finish() ;
+    }
+
+    private class QuadIterator implements Iterator<Quad> {
+        private int blockIdx ;
+        private int row ;
+
+        QuadIterator(int blockIdx, int row) {
+            this.blockIdx = blockIdx ;
+            this.row = row ;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ( blockIdx < blocks.length ) {
+                if ( row < blockStarts[blockIdx+1] - blockStarts[blockIdx] )
+                    return true ;
+                blockIdx++ ;
+                row = 0 ;
+            }
+            return false ;
+        }
+
+        @Override
+        public Quad next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException(filename) ;
+            return getBlock(blockIdx).getQuad(row++) ;
+        }
+    }
+
+    @Override
+    public void close() {
+        try { channel.close() ; }
+        catch (IOException ex) { IO.exception(ex) ; }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.blocks;
+
+import static org.apache.jena.riot.blocks.RDFBlocks.* ;
+
+import java.io.DataOutputStream ;
+import java.io.IOException ;
+import java.io.OutputStream ;
+import java.nio.charset.StandardCharsets ;
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.HashMap ;
+import java.util.List ;
+import java.util.Map ;
+
+import org.apache.jena.JenaRuntime ;
+import org.apache.jena.atlas.io.IO ;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.sparql.core.Quad ;
+
+/** Encode a StreamRDF as RDF Blocks.
+ *  Usually used via {@link RDFBlocks} functions.
+ *  <p>
+ *  Rows are buffered until the block is full, then the block, with its term
+ *  dictionary, is written. The block index is written by {@link #finish}.
+ */
+public class StreamRDF2Blocks implements StreamRDF, AutoCloseable
+{
+    // Start a new block when the term data reaches this size.
+    private static final int MaxTermBytes = 16*1024*1024 ;
+
+    private final DataOutputStream out ;
+    private final boolean closeOnFinish ;
+    private final int blockRows ;
+    private boolean started = false ;
+    private boolean finished = false ;
+    // Bytes written so far: the offset of the next block.
+    private long position = 0 ;
+    private final List<long[]> index = new ArrayList<>() ;
+
+    // The current block.
+    private final Map<Node, Integer> terms = new HashMap<>() ;
+    private int[] termOffsets = new int[1024] ;
+    private byte[] termData = new byte[64*1024] ;
+    private int termDataLen = 0 ;
+    private final List<int[]> prefixes = new ArrayList<>() ;
+    private final int[] rows ;
+    private int numRows = 0 ;
+
+    public StreamRDF2Blocks(OutputStream out, int blockRows, boolean closeOnFinish) {
+        if ( blockRows <= 0 )
+            throw new IllegalArgumentException("Block size must be positive: "+blockRows) ;
+        this.out = new DataOutputStream(out) ;
+        this.blockRows = blockRows ;
+        this.closeOnFinish = closeOnFinish ;
+        this.rows = new int[4*blockRows] ;
+    }
+
+    @Override
+    public void start() {
+        if ( started )
+            return ;
+        started = true ;
+        try {
+            out.writeInt(MAGIC) ;
+            out.writeInt(VERSION) ;
+            position = 8 ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        row(NO_GRAPH, triple.getSubject(), triple.getPredicate(), triple.getObject()) ;
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        if ( quad.getGraph() == null || quad.isDefaultGraph() ) {
+            row(NO_GRAPH, quad.getSubject(), quad.getPredicate(), quad.getObject()) ;
+            return ;
+        }
+        row(termId(quad.getGraph()), quad.getSubject(), quad.getPredicate(), quad.getObject()) ;
+    }
+
+    private void row(int g, Node s, Node p, Node o) {
+        int idx = 4*numRows ;
+        rows[idx] = g ;
+        rows[idx+1] = termId(s) ;
+        rows[idx+2] = termId(p) ;
+        rows[idx+3] = termId(o) ;
+        numRows++ ;
+        if ( numRows == blockRows || termDataLen >= MaxTermBytes )
+            writeBlock() ;
+    }
+
+    @Override
+    public void base(String base) {
+        // Ignore.
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        prefixes.add(new int[] {termId(NodeFactory.createLiteral(prefix)), termId(NodeFactory.createURI(iri))}) ;
+    }
+
+    private int termId(Node node) {
+        Integer x = terms.get(node) ;
+        if ( x != null )
+            return x ;
+        byte[] encoded = encode(node) ;
+        int id = terms.size() ;
+        if ( id+1 >= termOffsets.length )
+            termOffsets = Arrays.copyOf(termOffsets, 2*termOffsets.length) ;
+        ensureTermData(encoded.length) ;
+        System.arraycopy(encoded, 0, termData, termDataLen, encoded.length) ;
+        termOffsets[id] = termDataLen ;
+        termDataLen += encoded.length ;
+        termOffsets[id+1] = termDataLen ;
+        terms.put(node, id) ;
+        return id ;
+    }
+
+    private void ensureTermData(int n) {
+        long needed = (long)termDataLen + n ;
+        if ( needed > Integer.MAX_VALUE - 8 )
+            throw new RiotException("RDF Blocks: Block too large") ;
+        if ( needed > termData.length )
+            termData = Arrays.copyOf(termData, (int)Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L*termData.length))) ;
+    }
+
+    private byte[] encode(Node node) {
+        if ( node.isURI() )
+            return encode(KIND_IRI, node.getURI()) ;
+        if ( node.isBlank() )
+            return encode(KIND_BNODE, node.getBlankNodeLabel()) ;
+        if ( node.isLiteral() ) {
+            String lex = node.getLiteralLexicalForm() ;
+            String lang = node.getLiteralLanguage() ;
+            if ( lang != null && ! lang.isEmpty() ) {
+                byte[] langBytes = lang.getBytes(StandardCharsets.UTF_8) ;
+                byte[] lexBytes = lex.getBytes(StandardCharsets.UTF_8) ;
+                if ( langBytes.length > 0xFFFF )
+                    throw new RiotException("RDF Blocks: Language tag too long") ;
+                byte[] b = new byte[3+langBytes.length+lexBytes.length] ;
+                b[0] = KIND_LANG ;
+                b[1] = (byte)(langBytes.length >>> 8) ;
+                b[2] = (byte)langBytes.length ;
+                System.arraycopy(langBytes, 0, b, 3, langBytes.length) ;
+                System.arraycopy(lexBytes, 0, b, 3+langBytes.length, lexBytes.length) ;
+                return b ;
+            }
+            String dt = node.getLiteralDatatypeURI() ;
+            if ( dt == null || ( JenaRuntime.isRDF11 && XSDDatatype.XSDstring.getURI().equals(dt) ) )
+                return encode(KIND_STRING, lex) ;
+            // The datatype IRI is a term of the block.
+            int dtId = termId(NodeFactory.createURI(dt)) ;
+            byte[] lexBytes = lex.getBytes(StandardCharsets.UTF_8) ;
+            byte[] b = new byte[5+lexBytes.length] ;
+            b[0] = KIND_DATATYPE ;
+            b[1] = (byte)(dtId >>> 24) ;
+            b[2] = (byte)(dtId >>> 16) ;
+            b[3] = (byte)(dtId >>> 8) ;
+            b[4] = (byte)dtId ;
+            System.arraycopy(lexBytes, 0, b, 5, lexBytes.length) ;
+            return b ;
+        }
+        throw new RiotException("RDF Blocks: Can not encode "+node) ;
+    }
+
+    private static byte[] encode(byte kind, String str) {
+        byte[] strBytes = str.getBytes(StandardCharsets.UTF_8) ;
+        byte[] b = new byte[1+strBytes.length] ;
+        b[0] = kind ;
+        System.arraycopy(strBytes, 0, b, 1, strBytes.length) ;
+        return b ;
+    }
+
+    private void writeBlock() {
+        if ( numRows == 0 && prefixes.isEmpty() )
+            return ;
+        int numTerms = terms.size() ;
+        int padding = (4 - termDataLen % 4) % 4 ;
+        long length = 12L + 4L*(numTerms+1) + 8L*prefixes.size() + 16L*numRows + termDataLen + padding ;
+        if ( length > Integer.MAX_VALUE )
+            throw new RiotException("RDF Blocks: Block too large") ;
+        try {
+            out.writeInt((int)length) ;
+            out.writeInt(numTerms) ;
+            out.writeInt(prefixes.size()) ;
+            out.writeInt(numRows) ;
+            for ( int i = 0 ; i <= numTerms ; i++ )
+                out.writeInt(termOffsets[i]) ;
+            for ( int[] pair : prefixes ) {
+                out.writeInt(pair[0]) ;
+                out.writeInt(pair[1]) ;
+            }
+            for ( int i = 0 ; i < 4*numRows ; i++ )
+                out.writeInt(rows[i]) ;
+            out.write(termData, 0, termDataLen) ;
+            for ( int i = 0 ; i < padding ; i++ )
+                out.write(0) ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+        index.add(new long[] {position, numRows}) ;
+        position += 4 + length ;
+        // Reset for the next block.
+        terms.clear() ;
+        termOffsets[0] = 0 ;
+        termDataLen = 0 ;
+        prefixes.clear() ;
+        numRows = 0 ;
+    }
+
+    @Override
+    public void close() {
+        finish() ;
+    }
+
+    @Override
+    public void finish() {
+        if ( finished )
+            return ;
+        finished = true ;
+        start() ;
+        writeBlock() ;
+        try {
+            out.writeInt(END_BLOCKS) ;
+            long indexOffset = position + 4 ;
+            for ( long[] entry : index ) {
+                out.writeLong(entry[0]) ;
+                out.writeInt((int)entry[1]) ;
+            }
+            out.writeLong(indexOffset) ;
+            out.writeInt(index.size()) ;
+            out.writeInt(MAGIC) ;
+            if ( closeOnFinish )
+                out.close() ;
+            else
+                out.flush() ;
+        } catch (IOException ex) { IO.exception(ex) ; }
+    }
+}
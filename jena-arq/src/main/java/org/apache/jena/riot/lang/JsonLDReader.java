@@ -52,6 +52,9 @@ import com.github.jsonldjava.utils.JsonUtils ;
  * Note: it is possible to override jsonld's "@context" value by providing one,
  * using a {@link org.apache.jena.sparql.util.Context}, and setting the {@link RIOT#JSONLD_CONTEXT} Symbol's value
  * to the data expected by JSON-LD java API (a {@link Map}).
+ * <p>
+ * If {@link RIOT#JSONLD_STREAMING} is set in the {@link org.apache.jena.sparql.util.Context},
+ * the document is read with {@link JsonLDStreamReader}.
  */
 public class JsonLDReader implements ReaderRIOT
 {
@@ -65,6 +68,10 @@ public class JsonLDReader implements ReaderRIOT
     
     @Override
     public void read(Reader reader, String baseURI, ContentType ct, StreamRDF output, Context context) {
+        if ( isStreaming(context) ) {
+            new JsonLDStreamReader(profile, errorHandler).read(reader, baseURI, ct, output, context) ;
+            return ;
+        }
         try {
             Object jsonObject = JsonUtils.fromReader(reader) ;
             read$(jsonObject, baseURI, ct, output, context) ;
@@ -85,6 +92,10 @@ public class JsonLDReader implements ReaderRIOT
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     public void read(InputStream in, String baseURI, ContentType ct, StreamRDF output, Context context) {
+        if ( isStreaming(context) ) {
+            new JsonLDStreamReader(profile, errorHandler).read(in, baseURI, ct, output, context) ;
+            return ;
+        }
         try {
             Object jsonObject = JsonUtils.fromInputStream(in) ;
             
@@ -113,6 +124,10 @@ public class JsonLDReader implements ReaderRIOT
         }
     }
     
+    private static boolean isStreaming(Context context) {
+        return context != null && context.isTrue(RIOT.JSONLD_STREAMING) ;
+    }
+
     private void read$(Object jsonObject, String baseURI, ContentType ct, final StreamRDF output, Context context) {
         output.start() ;
         try {       	
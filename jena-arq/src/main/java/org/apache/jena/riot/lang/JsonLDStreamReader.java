@@ -0,0 +1,858 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.lang ;
+
+import java.io.InputStream ;
+import java.io.Reader ;
+import java.math.BigDecimal ;
+import java.text.DecimalFormat ;
+import java.text.DecimalFormatSymbols ;
+import java.util.ArrayList ;
+import java.util.HashMap ;
+import java.util.List ;
+import java.util.Locale ;
+import java.util.Map ;
+import java.util.function.Consumer ;
+
+import org.apache.jena.atlas.json.JsonArray ;
+import org.apache.jena.atlas.json.JsonObject ;
+import org.apache.jena.atlas.json.JsonParseException ;
+import org.apache.jena.atlas.json.JsonValue ;
+import org.apache.jena.atlas.json.io.JSONHandler ;
+import org.apache.jena.atlas.json.io.JSONMaker ;
+import org.apache.jena.atlas.json.io.parser.JSONParser ;
+import org.apache.jena.atlas.web.ContentType ;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.riot.ReaderRIOT ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.system.ErrorHandler ;
+import org.apache.jena.riot.system.IRIResolver ;
+import org.apache.jena.riot.system.ParserProfile ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.sparql.util.Context ;
+import org.apache.jena.vocabulary.RDF ;
+
+/**
+ * Streaming JSON-LD reader for documents that have their {@code @context} before the data.
+ * <p>
+ * {@link JsonLDReader} builds the whole document in memory before producing any
+ * triples. This reader uses a streaming JSON parser and only holds the active context
+ * and one top level node object (an element of the top level {@code @graph}, or of
+ * a top level array) at a time. Triples and quads are sent to the {@link StreamRDF}
+ * as each node object is completed.
+ * <p>
+ * Supported:
+ * <ul>
+ * <li>Local contexts: term definitions (a string, or an object with {@code @id},
+ *     {@code @type}, {@code @language} and a {@code @container} of {@code @list} or {@code @set}),
+ *     {@code @vocab}, {@code @base} and {@code @language}. Node objects may have their own {@code @context}.
+ * <li>Aliases for {@code @id} and {@code @type} (e.g. {@code "id": "@id"}).
+ * <li>Node objects with {@code @id}, {@code @type}, properties, embedded node objects,
+ *     {@code @graph} (named graphs), value objects, {@code @list} and {@code @set}.
+ * <li>The top level is an object with {@code @context} and {@code @graph}, an array of node
+ *     objects, or a single node object. If the top level object has an {@code @id}
+ *     or properties as well as {@code @graph}, they must come before {@code @graph}.
+ * </ul>
+ * Anything else, including remote contexts, {@code @reverse}, aliases of other keywords, and a top level
+ * {@code @context} after {@code @graph}, is an error; use {@link JsonLDReader} for
+ * those documents.
+ * <p>
+ * The top level {@code @context} terms that map to IRIs ending in {@code /} or {@code #}
+ * (and other IRI gen-delims characters) are sent to the {@link StreamRDF} as prefixes.
+ */
+public class JsonLDStreamReader implements ReaderRIOT
+{
+    private final ErrorHandler errorHandler ;
+    private final ParserProfile profile ;
+
+    public JsonLDStreamReader(ParserProfile profile, ErrorHandler errorHandler) {
+        this.profile = profile ;
+        this.errorHandler = errorHandler ;
+    }
+
+    @Override
+    public void read(InputStream in, String baseURI, ContentType ct, StreamRDF output, Context context) {
+        Handler handler = new Handler(output, baseURI) ;
+        output.start() ;
+        try { JSONParser.parseAny(in, handler) ; }
+        catch (JsonParseException ex) { throw error(ex.getMessage(), ex.getLine(), ex.getColumn()) ; }
+        output.finish() ;
+    }
+
+    @Override
+    public void read(Reader reader, String baseURI, ContentType ct, StreamRDF output, Context context) {
+        Handler handler = new Handler(output, baseURI) ;
+        output.start() ;
+        try { JSONParser.parseAny(reader, handler) ; }
+        catch (JsonParseException ex) { throw error(ex.getMessage(), ex.getLine(), ex.getColumn()) ; }
+        output.finish() ;
+    }
+
+    private RiotException error(String message, long line, long col) {
+        errorHandler.error(message, line, col) ;
+        return new RiotException(message) ;
+    }
+
+    /** A term definition. */
+    private static class TermDef {
+        // null for a term explicitly mapped to null.
+        final String iri ;
+        // "@id", "@vocab", a datatype IRI, or null.
+        final String type ;
+        // Set if the definition has "@language" (possibly null).
+        final boolean hasLanguage ;
+        final String language ;
+        // "@list", "@set" or null.
+        final String container ;
+
+        TermDef(String iri, String type, boolean hasLanguage, String language, String container) {
+            this.iri = iri ;
+            this.type = type ;
+            this.hasLanguage = hasLanguage ;
+            this.language = language ;
+            this.container = container ;
+        }
+    }
+
+    /** The active context. Contexts are copied, not changed, when a local context is processed. */
+    private static class ActiveContext {
+        String base = null ;
+        String vocab = null ;
+        String language = null ;
+        final Map<String, TermDef> terms ;
+        // Keyword aliases: term to "@id" or "@type".
+        final Map<String, String> aliases ;
+
+        ActiveContext(String base) {
+            this.base = base ;
+            this.terms = new HashMap<>() ;
+            this.aliases = new HashMap<>() ;
+        }
+
+        ActiveContext(ActiveContext other) {
+            this.base = other.base ;
+            this.vocab = other.vocab ;
+            this.language = other.language ;
+            this.terms = new HashMap<>(other.terms) ;
+            this.aliases = new HashMap<>(other.aliases) ;
+        }
+    }
+
+    private interface Action { void accept(JsonValue value, long line, long col) ; }
+
+    private enum State { START, TOP_OBJECT, TOP_ARRAY, GRAPH_VALUE, GRAPH_ARRAY, END }
+
+    private static final String xsdString   = XSDDatatype.XSDstring.getURI() ;
+    private static final String xsdInteger  = XSDDatatype.XSDinteger.getURI() ;
+    private static final String xsdDouble   = XSDDatatype.XSDdouble.getURI() ;
+    private static final String xsdBoolean  = XSDDatatype.XSDboolean.getURI() ;
+    private static final BigDecimal maxInteger = new BigDecimal("1E21") ;
+
+    /**
+     * Receives the JSON parser events.
+     * <p>
+     * The "skeleton" (the top level object or array and the top level {@code @graph}
+     * array) is tracked by state; every other JSON value is captured as a
+     * {@link JsonValue}, using a {@link JSONMaker}, and processed when it is complete.
+     */
+    private class Handler implements JSONHandler {
+        private final StreamRDF output ;
+        private final String documentBase ;
+        private ActiveContext context ;
+
+        private State state = State.START ;
+        // True when the next string is a key of the top level object.
+        private boolean expectKey = false ;
+        private String key = null ;
+        // Set when the top level @graph starts.
+        private boolean graphStarted = false ;
+        private Node graphName = null ;
+        // The members of the top level object other than @context and @graph.
+        private final JsonObject topNode = new JsonObject() ;
+        private Node topSubject = null ;
+
+        // The value being captured.
+        private JSONMaker maker = null ;
+        private int depth = 0 ;
+        private Action action = null ;
+        private long captureLine ;
+        private long captureCol ;
+
+        Handler(StreamRDF output, String baseURI) {
+            this.output = output ;
+            this.documentBase = baseURI ;
+            this.context = new ActiveContext(baseURI) ;
+        }
+
+        private boolean capturing() {
+            return maker != null ;
+        }
+
+        private void startCapture(Action action, long line, long col) {
+            this.maker = new JSONMaker() ;
+            this.depth = 0 ;
+            this.action = action ;
+            this.captureLine = line ;
+            this.captureCol = col ;
+        }
+
+        // Called after an event sent to the maker. 
+        private void checkCaptured() {
+            if ( depth > 0 )
+                return ;
+            JsonValue value = maker.jsonValue() ;
+            Action a = action ;
+            maker = null ;
+            action = null ;
+            a.accept(value, captureLine, captureCol) ;
+        }
+
+        @Override
+        public void startParse(long line, long col) {}
+
+        @Override
+        public void finishParse(long line, long col) {}
+
+        @Override
+        public void startObject(long line, long col) {
+            if ( ! capturing() ) {
+                switch (state) {
+                    case START:
+                        state = State.TOP_OBJECT ;
+                        return ;
+                    case GRAPH_VALUE:
+                        // "@graph" : { ... }
+                        state = State.TOP_OBJECT ;
+                        startCapture(this::topLevelNode, line, col) ;
+                        break ;
+                    case TOP_ARRAY: case GRAPH_ARRAY:
+                        startCapture(this::topLevelNode, line, col) ;
+                        break ;
+                    default:
+                        throw error("Unexpected JSON object", line, col) ;
+                }
+            }
+            maker.startObject(line, col) ;
+            depth++ ;
+        }
+
+        @Override
+        public void finishObject(long line, long col) {
+            if ( capturing() ) {
+                maker.finishObject(line, col) ;
+                depth-- ;
+                checkCaptured() ;
+                return ;
+            }
+            // End of the top level object.
+            state = State.END ;
+            if ( ! topNode.isEmpty() )
+                node(context, topNode, topSubject, null, line, col) ;
+        }
+
+        @Override
+        public void startPair(long line, long col) {
+            if ( capturing() ) {
+                maker.startPair(line, col) ;
+                return ;
+            }
+            expectKey = true ;
+        }
+
+        @Override
+        public void keyPair(long line, long col) {
+            if ( capturing() ) {
+                maker.keyPair(line, col) ;
+                return ;
+            }
+            switch (key) {
+                case "@context":
+                    if ( graphStarted )
+                        throw error("@context after @graph is not supported when streaming", line, col) ;
+                    startCapture(this::topLevelContext, line, col) ;
+                    return ;
+                case "@graph":
+                    startGraph(line, col) ;
+                    state = State.GRAPH_VALUE ;
+                    return ;
+                default:
+                    if ( graphStarted )
+                        throw error("Key after @graph is not supported when streaming: " + key, line, col) ;
+                    String k = key ;
+                    startCapture((value, l, c) -> topNode.put(k, value), line, col) ;
+            }
+        }
+
+        @Override
+        public void finishPair(long line, long col) {
+            if ( capturing() )
+                maker.finishPair(line, col) ;
+        }
+
+        @Override
+        public void startArray(long line, long col) {
+            if ( ! capturing() ) {
+                switch (state) {
+                    case START:
+                        state = State.TOP_ARRAY ;
+                        return ;
+                    case GRAPH_VALUE:
+                        state = State.GRAPH_ARRAY ;
+                        return ;
+                    case TOP_ARRAY: case GRAPH_ARRAY:
+                        // Nested arrays are flattened.
+                        startCapture(this::topLevelNode, line, col) ;
+                        break ;
+                    default:
+                        throw error("Unexpected JSON array", line, col) ;
+                }
+            }
+            maker.startArray(line, col) ;
+            depth++ ;
+        }
+
+        @Override
+        public void element(long line, long col) {
+            if ( capturing() )
+                maker.element(line, col) ;
+        }
+
+        @Override
+        public void finishArray(long line, long col) {
+            if ( capturing() ) {
+                maker.finishArray(line, col) ;
+                depth-- ;
+                checkCaptured() ;
+                return ;
+            }
+            state = ( state == State.GRAPH_ARRAY ) ? State.TOP_OBJECT : State.END ;
+        }
+
+        @Override
+        public void valueString(String image, long line, long col) {
+            if ( capturing() ) {
+                maker.valueString(image, line, col) ;
+                checkCaptured() ;
+                return ;
+            }
+            if ( expectKey ) {
+                key = image ;
+                expectKey = false ;
+                return ;
+            }
+            scalar(line, col) ;
+        }
+
+        @Override
+        public void valueInteger(String image, long line, long col) {
+            if ( capturing() ) {
+                maker.valueInteger(image, line, col) ;
+                checkCaptured() ;
+                return ;
+            }
+            scalar(line, col) ;
+        }
+
+        @Override
+        public void valueDouble(String image, long line, long col) {
+            if ( capturing() ) {
+                maker.valueDouble(image, line, col) ;
+                checkCaptured() ;
+                return ;
+            }
+            scalar(line, col) ;
+        }
+
+        @Override
+        public void valueDecimal(String image, long line, long col) {
+            if ( capturing() ) {
+                maker.valueDecimal(image, line, col) ;
+                checkCaptured() ;
+                return ;
+            }
+            scalar(line, col) ;
+        }
+
+        @Override
+        public void valueBoolean(boolean b, long line, long col) {
+            if ( capturing() ) {
+                maker.valueBoolean(b, line, col) ;
+                checkCaptured() ;
+                return ;
+            }
+            scalar(line, col) ;
+        }
+
+        @Override
+        public void valueNull(long line, long col) {
+            if ( capturing() ) {
+                maker.valueNull(line, col) ;
+                checkCaptured() ;
+                return ;
+            }
+            scalar(line, col) ;
+        }
+
+        // A JSON value in the skeleton that is not an object or an array.
+        private void scalar(long line, long col) {
+            switch (state) {
+                case START:
+                    throw error("Not a JSON-LD document", line, col) ;
+                case GRAPH_VALUE:
+                    state = State.TOP_OBJECT ;
+                    return ;
+                default:
+                    // Free-floating values are dropped.
+            }
+        }
+
+        private void startGraph(long line, long col) {
+            graphStarted = true ;
+            if ( topNode.isEmpty() )
+                return ;
+            // The top level object is a node object and @graph is its named graph.
+            JsonValue id = keywordValue(context, topNode, "@id") ;
+            if ( id != null )
+                topSubject = iriOrBlank(expandIri(context, string(id, line, col), false, true), line, col) ;
+            else
+                topSubject = profile.createBlankNode(null, line, col) ;
+            graphName = topSubject ;
+        }
+
+        private void topLevelContext(JsonValue value, long line, long col) {
+            context = processContext(context, value, line, col) ;
+            prefixes(value) ;
+        }
+
+        private void prefixes(JsonValue value) {
+            if ( value.isArray() ) {
+                for ( JsonValue v : value.getAsArray() )
+                    prefixes(v) ;
+                return ;
+            }
+            if ( ! value.isObject() )
+                return ;
+            for ( String term : value.getAsObject().keys() ) {
+                if ( term.startsWith("@") || term.indexOf(':') >= 0 )
+                    continue ;
+                TermDef def = context.terms.get(term) ;
+                if ( def != null && def.iri != null && isPrefixIRI(def.iri) )
+                    output.prefix(term, def.iri) ;
+            }
+        }
+
+        private void topLevelNode(JsonValue value, long line, long col) {
+            forEachValue(value, v -> {
+                if ( v.isObject() )
+                    node(context, v.getAsObject(), null, graphName, line, col) ;
+            }) ;
+        }
+
+        /** Process a node object, sending its triples or quads to the output, and return its subject. */
+        private Node node(ActiveContext active, JsonObject obj, Node subject, Node graph, long line, long col) {
+            if ( obj.hasKey("@context") )
+                active = processContext(active, obj.get("@context"), line, col) ;
+            if ( obj.hasKey("@value") )
+                throw error("Value object where a node object is expected", line, col) ;
+            if ( subject == null ) {
+                JsonValue id = keywordValue(active, obj, "@id") ;
+                subject = ( id != null )
+                    ? iriOrBlank(expandIri(active, string(id, line, col), false, true), line, col)
+                    : profile.createBlankNode(null, line, col) ;
+            }
+            for ( String key : obj.keys() ) {
+                JsonValue value = obj.get(key) ;
+                String keyword = active.aliases.getOrDefault(key, key) ;
+                switch (keyword) {
+                    case "@context": case "@id": case "@index":
+                        break ;
+                    case "@type": {
+                        Node s = subject ;
+                        ActiveContext cxt = active ;
+                        forEachValue(value, t -> {
+                            String iri = expandIri(cxt, string(t, line, col), true, true) ;
+                            if ( iri != null )
+                                emit(graph, s, RDF.Nodes.type, iriOrBlank(iri, line, col), line, col) ;
+                        }) ;
+                        break ;
+                    }
+                    case "@graph": {
+                        Node g = subject ;
+                        ActiveContext cxt = active ;
+                        forEachValue(value, x -> {
+                            if ( x.isObject() )
+                                node(cxt, x.getAsObject(), null, g, line, col) ;
+                        }) ;
+                        break ;
+                    }
+                    case "@reverse": case "@included": case "@nest":
+                        throw error("Not supported when streaming: " + key, line, col) ;
+                    default:
+                        if ( key.startsWith("@") )
+                            break ;
+                        property(active, subject, key, value, graph, line, col) ;
+                }
+            }
+            return subject ;
+        }
+
+        private void property(ActiveContext active, Node subject, String key, JsonValue value, Node graph, long line, long col) {
+            String p = expandIri(active, key, true, false) ;
+            // Properties that do not expand to an absolute IRI are dropped.
+            if ( p == null || p.startsWith("_:") || p.indexOf(':') < 0 )
+                return ;
+            Node property = profile.createURI(p, line, col) ;
+            TermDef def = active.terms.get(key) ;
+            if ( def != null && "@list".equals(def.container) && ! isListObject(value) ) {
+                emit(graph, subject, property, list(active, def, value, graph, line, col), line, col) ;
+                return ;
+            }
+            forEachValue(value, v -> {
+                Node o = object(active, def, v, graph, line, col) ;
+                if ( o != null )
+                    emit(graph, subject, property, o, line, col) ;
+            }) ;
+        }
+
+        private Node object(ActiveContext active, TermDef def, JsonValue value, Node graph, long line, long col) {
+            if ( value.isNull() )
+                return null ;
+            if ( value.isObject() ) {
+                JsonObject obj = value.getAsObject() ;
+                if ( obj.hasKey("@value") )
+                    return valueObject(active, obj, line, col) ;
+                if ( obj.hasKey("@list") )
+                    return list(active, def, obj.get("@list"), graph, line, col) ;
+                return node(active, obj, null, graph, line, col) ;
+            }
+            String type = ( def == null ) ? null : def.type ;
+            if ( value.isString() ) {
+                String s = value.getAsString().value() ;
+                if ( "@id".equals(type) )
+                    return iriOrBlank(expandIri(active, s, false, true), line, col) ;
+                if ( "@vocab".equals(type) )
+                    return iriOrBlank(expandIri(active, s, true, true), line, col) ;
+                if ( type != null )
+                    return typedLiteral(s, type, line, col) ;
+                String lang = ( def != null && def.hasLanguage ) ? def.language : active.language ;
+                if ( lang != null )
+                    return profile.createLangLiteral(s, lang, line, col) ;
+                return profile.createStringLiteral(s, line, col) ;
+            }
+            if ( "@id".equals(type) || "@vocab".equals(type) )
+                type = null ;
+            return nativeLiteral(value, type, line, col) ;
+        }
+
+        private Node valueObject(ActiveContext active, JsonObject obj, long line, long col) {
+            JsonValue value = obj.get("@value") ;
+            if ( value.isNull() )
+                return null ;
+            JsonValue t = keywordValue(active, obj, "@type") ;
+            String type = ( t == null ) ? null : expandIri(active, string(t, line, col), true, true) ;
+            if ( value.isString() ) {
+                String s = value.getAsString().value() ;
+                if ( type != null )
+                    return typedLiteral(s, type, line, col) ;
+                JsonValue lang = obj.get("@language") ;
+                if ( lang != null && ! lang.isNull() )
+                    return profile.createLangLiteral(s, string(lang, line, col), line, col) ;
+                return profile.createStringLiteral(s, line, col) ;
+            }
+            if ( ! value.isPrimitive() )
+                throw error("Bad @value: " + value, line, col) ;
+            return nativeLiteral(value, type, line, col) ;
+        }
+
+        // JSON numbers and booleans.
+        private Node nativeLiteral(JsonValue value, String type, long line, long col) {
+            if ( value.isBoolean() ) {
+                String lex = Boolean.toString(value.getAsBoolean().value()) ;
+                return typedLiteral(lex, type == null ? xsdBoolean : type, line, col) ;
+            }
+            if ( ! value.isNumber() )
+                throw error("Not a JSON-LD value: " + value, line, col) ;
+            // JSON-LD 1.1 : a number with a fractional part, or too large, or coerced to
+            // xsd:double is an xsd:double. Otherwise it is an xsd:integer.
+            BigDecimal number = (BigDecimal)value.getAsNumber().value() ;
+            boolean isInteger = number.signum() == 0 || number.stripTrailingZeros().scale() <= 0 ;
+            if ( isInteger && number.abs().compareTo(maxInteger) < 0 && ! xsdDouble.equals(type) )
+                return typedLiteral(number.toBigIntegerExact().toString(), type == null ? xsdInteger : type, line, col) ;
+            return typedLiteral(canonicalDouble(number.doubleValue()), type == null ? xsdDouble : type, line, col) ;
+        }
+
+        private Node list(ActiveContext active, TermDef def, JsonValue value, Node graph, long line, long col) {
+            List<Node> items = new ArrayList<>() ;
+            forEachValue(value, v -> {
+                Node n = object(active, def, v, graph, line, col) ;
+                if ( n != null )
+                    items.add(n) ;
+            }) ;
+            Node head = RDF.Nodes.nil ;
+            for ( int i = items.size()-1 ; i >= 0 ; i-- ) {
+                Node cell = profile.createBlankNode(null, line, col) ;
+                emit(graph, cell, RDF.Nodes.first, items.get(i), line, col) ;
+                emit(graph, cell, RDF.Nodes.rest, head, line, col) ;
+                head = cell ;
+            }
+            return head ;
+        }
+
+        // The value of a keyword, or of an alias of the keyword, in a JSON object.
+        private JsonValue keywordValue(ActiveContext active, JsonObject obj, String keyword) {
+            JsonValue v = obj.get(keyword) ;
+            if ( v != null )
+                return v ;
+            for ( Map.Entry<String, String> e : active.aliases.entrySet() ) {
+                if ( keyword.equals(e.getValue()) && obj.hasKey(e.getKey()) )
+                    return obj.get(e.getKey()) ;
+            }
+            return null ;
+        }
+
+        private void emit(Node graph, Node s, Node p, Node o, long line, long col) {
+            if ( graph == null )
+                output.triple(profile.createTriple(s, p, o, line, col)) ;
+            else
+                output.quad(profile.createQuad(graph, s, p, o, line, col)) ;
+        }
+
+        private Node iriOrBlank(String iri, long line, long col) {
+            if ( iri == null )
+                throw error("Not an IRI", line, col) ;
+            if ( iri.startsWith("_:") )
+                return profile.createBlankNode(null, iri.substring(2), line, col) ;
+            return profile.createURI(iri, line, col) ;
+        }
+
+        private Node typedLiteral(String lex, String datatype, long line, long col) {
+            if ( xsdString.equals(datatype) )
+                return profile.createStringLiteral(lex, line, col) ;
+            return profile.createTypedLiteral(lex, NodeFactory.getType(datatype), line, col) ;
+        }
+
+        // ---- Contexts
+
+        private ActiveContext processContext(ActiveContext active, JsonValue local, long line, long col) {
+            if ( local.isArray() ) {
+                for ( JsonValue v : local.getAsArray() )
+                    active = processContext(active, v, line, col) ;
+                return active ;
+            }
+            if ( local.isNull() )
+                return new ActiveContext(documentBase) ;
+            if ( local.isString() )
+                throw error("Remote contexts are not supported when streaming: " + local.getAsString().value(), line, col) ;
+            if ( ! local.isObject() )
+                throw error("Bad @context: " + local, line, col) ;
+            JsonObject obj = local.getAsObject() ;
+            ActiveContext result = new ActiveContext(active) ;
+            if ( obj.hasKey("@import") )
+                throw error("@import is not supported when streaming", line, col) ;
+            if ( obj.hasKey("@base") ) {
+                JsonValue v = obj.get("@base") ;
+                result.base = v.isNull() ? null : resolve(result.base, string(v, line, col)) ;
+            }
+            if ( obj.hasKey("@vocab") ) {
+                JsonValue v = obj.get("@vocab") ;
+                result.vocab = v.isNull() ? null : expandIri(result, string(v, line, col), true, true) ;
+            }
+            if ( obj.hasKey("@language") ) {
+                JsonValue v = obj.get("@language") ;
+                result.language = v.isNull() ? null : string(v, line, col) ;
+            }
+            // Terms can use prefixes defined later in the same context
+            // so terms are defined on demand.
+            Map<String, Boolean> defined = new HashMap<>() ;
+            for ( String term : obj.keys() ) {
+                if ( ! term.startsWith("@") )
+                    define(result, obj, term, defined, line, col) ;
+            }
+            return result ;
+        }
+
+        private void define(ActiveContext active, JsonObject local, String term, Map<String, Boolean> defined, long line, long col) {
+            Boolean done = defined.get(term) ;
+            if ( done != null ) {
+                if ( ! done )
+                    throw error("Cyclic IRI mapping: " + term, line, col) ;
+                return ;
+            }
+            defined.put(term, Boolean.FALSE) ;
+            JsonValue value = local.get(term) ;
+            String id = null ;
+            String type = null ;
+            boolean hasLanguage = false ;
+            String language = null ;
+            String container = null ;
+            boolean nullMapping = value.isNull() ;
+            if ( value.isString() )
+                id = value.getAsString().value() ;
+            else if ( value.isObject() ) {
+                JsonObject def = value.getAsObject() ;
+                if ( def.hasKey("@reverse") || def.hasKey("@context") || def.hasKey("@nest") )
+                    throw error("Term definition not supported when streaming: " + term, line, col) ;
+                if ( def.hasKey("@id") ) {
+                    JsonValue v = def.get("@id") ;
+                    if ( v.isNull() )
+                        nullMapping = true ;
+                    else
+                        id = string(v, line, col) ;
+                }
+                if ( def.hasKey("@type") ) {
+                    type = string(def.get("@type"), line, col) ;
+                    if ( ! type.equals("@id") && ! type.equals("@vocab") )
+                        type = expandInDefinition(active, local, term, type, defined, line, col) ;
+                }
+                if ( def.hasKey("@language") ) {
+                    JsonValue v = def.get("@language") ;
+                    hasLanguage = true ;
+                    language = v.isNull() ? null : string(v, line, col) ;
+                }
+                if ( def.hasKey("@container") ) {
+                    JsonValue v = def.get("@container") ;
+                    if ( v.isArray() && v.getAsArray().size() == 1 )
+                        v = v.getAsArray().get(0) ;
+                    container = string(v, line, col) ;
+                    if ( ! container.equals("@list") && ! container.equals("@set") )
+                        throw error("Container not supported when streaming: " + container, line, col) ;
+                }
+            } else if ( ! nullMapping )
+                throw error("Bad term definition: " + term, line, col) ;
+
+            active.aliases.remove(term) ;
+            if ( id != null && id.startsWith("@") ) {
+                // Keyword alias.
+                if ( ! id.equals("@id") && ! id.equals("@type") )
+                    throw error("Keyword alias not supported when streaming: " + term + " : " + id, line, col) ;
+                active.terms.remove(term) ;
+                active.aliases.put(term, id) ;
+                defined.put(term, Boolean.TRUE) ;
+                return ;
+            }
+
+            String iri = null ;
+            if ( nullMapping )
+                iri = null ;
+            else if ( id != null )
+                iri = expandInDefinition(active, local, term, id, defined, line, col) ;
+            else if ( term.indexOf(':') > 0 )
+                iri = expandInDefinition(active, local, term, term, defined, line, col) ;
+            else if ( active.vocab != null )
+                iri = active.vocab + term ;
+            else
+                throw error("No IRI mapping for term: " + term, line, col) ;
+            active.terms.put(term, new TermDef(iri, type, hasLanguage, language, container)) ;
+            defined.put(term, Boolean.TRUE) ;
+        }
+
+        // Expand an IRI in a term definition, first defining any term of the local context it uses.
+        private String expandInDefinition(ActiveContext active, JsonObject local, String term, String value,
+                                          Map<String, Boolean> defined, long line, long col) {
+            if ( ! value.equals(term) && local.hasKey(value) )
+                define(active, local, value, defined, line, col) ;
+            int idx = value.indexOf(':') ;
+            if ( idx > 0 ) {
+                String prefix = value.substring(0, idx) ;
+                if ( ! prefix.equals(term) && local.hasKey(prefix) )
+                    define(active, local, prefix, defined, line, col) ;
+            }
+            return expandIri(active, value, true, false) ;
+        }
+
+        private String string(JsonValue value, long line, long col) {
+            if ( ! value.isString() )
+                throw error("Expected a string: " + value, line, col) ;
+            return value.getAsString().value() ;
+        }
+    }
+
+    /**
+     * Expand a string to an IRI (or blank node label, "_:...") as in JSON-LD IRI expansion.
+     * Returns null if there is no expansion.
+     */
+    private static String expandIri(ActiveContext active, String value, boolean vocab, boolean documentRelative) {
+        if ( value.startsWith("@") )
+            return value ;
+        if ( vocab && active.terms.containsKey(value) )
+            return active.terms.get(value).iri ;
+        int idx = value.indexOf(':') ;
+        if ( idx >= 0 ) {
+            String prefix = value.substring(0, idx) ;
+            String suffix = value.substring(idx+1) ;
+            if ( prefix.equals("_") || suffix.startsWith("//") )
+                return value ;
+            TermDef def = active.terms.get(prefix) ;
+            if ( def != null && def.iri != null )
+                return def.iri + suffix ;
+            // An absolute IRI.
+            return value ;
+        }
+        if ( vocab && active.vocab != null )
+            return active.vocab + value ;
+        if ( documentRelative )
+            // Without a base, relative IRIs are resolved by the parser profile.
+            return resolve(active.base, value) ;
+        return null ;
+    }
+
+    private static String resolve(String base, String iri) {
+        if ( base == null )
+            return iri ;
+        return IRIResolver.resolveString(iri, base) ;
+    }
+
+    private static boolean isListObject(JsonValue value) {
+        return value.isObject() && value.getAsObject().hasKey("@list") ;
+    }
+
+    /** Apply the action to each value, flattening arrays and {@code @set} objects. */
+    private static void forEachValue(JsonValue value, Consumer<JsonValue> action) {
+        if ( value.isArray() ) {
+            for ( JsonValue v : value.getAsArray() )
+                forEachValue(v, action) ;
+            return ;
+        }
+        if ( value.isObject() && value.getAsObject().hasKey("@set") ) {
+            forEachValue(value.getAsObject().get("@set"), action) ;
+            return ;
+        }
+        action.accept(value) ;
+    }
+
+    /** Whether an IRI can be used as a prefix: it ends in an IRI gen-delims character. */
+    private static boolean isPrefixIRI(String iri) {
+        if ( iri.isEmpty() )
+            return false ;
+        char ch = iri.charAt(iri.length()-1) ;
+        return ch == '/' || ch == '#' || ch == ':' || ch == '?' || ch == '[' || ch == ']' || ch == '@' ;
+    }
+
+    // The canonical form for xsd:double used by JSON-LD (e.g. "1.1E0").
+    private static String canonicalDouble(double d) {
+        if ( Double.isNaN(d) )
+            return "NaN" ;
+        if ( Double.isInfinite(d) )
+            return d > 0 ? "INF" : "-INF" ;
+        DecimalFormat fmt = new DecimalFormat("0.0##############E0", DecimalFormatSymbols.getInstance(Locale.ROOT)) ;
+        return fmt.format(d) ;
+    }
+}
@@ -47,6 +47,12 @@ public class ResultSetLang {
                      .addFileExtensions("srt")
                      .build() ;
     
+    public static final Lang SPARQLResultSetColumnar
+        = LangBuilder.create("SPARQL-Results-Columnar", WebContent.contentTypeResultsColumnar)
+                     .addAltNames("SRCOL")
+                     .addFileExtensions("srcol")
+                     .build() ;
+    
     public static final Lang SPARQLResultSetText
         = LangBuilder.create("SPARQL-Results-Text", WebContent.contentTypeTextPlain)
                      .addFileExtensions("txt")
@@ -65,6 +71,7 @@ public class ResultSetLang {
         RDFLanguages.register(SPARQLResultSetCSV) ;
         RDFLanguages.register(SPARQLResultSetTSV) ;
         RDFLanguages.register(SPARQLResultSetThrift) ;
+        RDFLanguages.register(SPARQLResultSetColumnar) ;
         RDFLanguages.register(SPARQLResultSetNone) ;
         ResultSetReaderRegistry.init();
         ResultSetWriterRegistry.init();
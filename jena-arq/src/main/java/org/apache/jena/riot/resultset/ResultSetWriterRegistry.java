@@ -33,13 +33,14 @@ import org.apache.jena.query.ResultSet ;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.Lang ;
 import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.resultset.rw.ResultSetWriterCSV;
+import org.apache.jena.riot.resultset.rw.ResultSetWriterColumnar;
 import org.apache.jena.riot.resultset.rw.ResultSetWriterJSON;
+import org.apache.jena.riot.resultset.rw.ResultSetWriterTSV;
 import org.apache.jena.riot.resultset.rw.ResultSetWriterThrift;
 import org.apache.jena.riot.resultset.rw.ResultSetWriterXML;
 import org.apache.jena.sparql.ARQConstants;
 import org.apache.jena.sparql.core.Prologue ;
-import org.apache.jena.sparql.resultset.CSVOutput;
-import org.apache.jena.sparql.resultset.TSVOutput;
 import org.apache.jena.sparql.resultset.TextOutput;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 import org.apache.jena.sparql.util.Context ;
@@ -76,37 +77,14 @@ public class ResultSetWriterRegistry {
         register(SPARQLResultSetXML,    ResultSetWriterXML.factory) ;
         register(SPARQLResultSetJSON,   ResultSetWriterJSON.factory) ;
         register(SPARQLResultSetThrift, ResultSetWriterThrift.factory) ;
+        register(SPARQLResultSetColumnar, ResultSetWriterColumnar.factory) ;
+        register(SPARQLResultSetCSV,    ResultSetWriterCSV.factory) ;
+        register(SPARQLResultSetTSV,    ResultSetWriterTSV.factory) ;
         // Build-in std factory (below).
-        register(SPARQLResultSetCSV,    factory) ;
-        register(SPARQLResultSetTSV,    factory) ;
         register(SPARQLResultSetText,   factory) ;
         register(SPARQLResultSetNone,   factory) ;
     }
  
-    private static ResultSetWriter writerCSV = new ResultSetWriter() {
-        @Override public void write(OutputStream out, ResultSet resultSet, Context context) {
-            CSVOutput fmt = new CSVOutput() ;
-            fmt.format(out, resultSet) ;
-        }
-        @Override public void write(Writer out, ResultSet resultSet, Context context)   { throw new NotImplemented("Writer") ; }
-        @Override public void write(OutputStream out, boolean result, Context context)  {
-            CSVOutput fmt = new CSVOutput() ;
-            fmt.format(out, result) ;
-        }
-    } ;
-
-    private static ResultSetWriter writerTSV = new ResultSetWriter() {
-        @Override public void write(OutputStream out, ResultSet resultSet, Context context) {
-            TSVOutput fmt = new TSVOutput() ;
-            fmt.format(out, resultSet) ;
-        }
-        @Override public void write(Writer out, ResultSet resultSet, Context context)   {throw new NotImplemented("Writer") ; }
-        @Override public void write(OutputStream out, boolean result, Context context)  {
-            TSVOutput fmt = new TSVOutput() ;
-            fmt.format(out, result) ;
-        }
-    } ;
-
     private static ResultSetWriter writerNone = new ResultSetWriter() {
         @Override public void write(OutputStream out, ResultSet resultSet, Context context) {}
         @Override public void write(Writer out, ResultSet resultSet, Context context)       {}
@@ -146,8 +124,6 @@ public class ResultSetWriterRegistry {
             lang = Objects.requireNonNull(lang, "Language must not be null");
 //            if ( lang.equals(SPARQLResultSetXML) )      return writerXML;
 //            if ( lang.equals(SPARQLResultSetJSON) )     return writerJSON;
-            if ( lang.equals(SPARQLResultSetCSV) )      return writerCSV;
-            if ( lang.equals(SPARQLResultSetTSV) )      return writerTSV;
             if ( lang.equals(SPARQLResultSetText) )     return writerText;
             if ( lang.equals(SPARQLResultSetNone) )     return writerNone;
             throw new RiotException("Lang not registered (ResultSet writer)") ;
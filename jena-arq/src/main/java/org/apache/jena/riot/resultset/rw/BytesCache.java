@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset.rw;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.BiConsumer;
+
+import org.apache.jena.atlas.io.BufferingOutputUTF8;
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
+
+/**
+ * Cache of the UTF-8 output for frequently repeated items (IRIs, datatypes) for the
+ * results writers. The bytes for an item are generated once, by the format-specific
+ * encoder, and copied to the output each time the item is written while it is
+ * still in the (fixed size) cache.
+ */
+final class BytesCache<K> {
+    private static final int CacheSize = 5000;
+
+    private final Cache<K, byte[]> cache;
+    private final BiConsumer<BufferingOutputUTF8, K> encoder;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    private final BufferingOutputUTF8 bytesOut = new BufferingOutputUTF8(bytes, 1024);
+
+    BytesCache(BiConsumer<BufferingOutputUTF8, K> encoder) {
+        this(CacheSize, encoder);
+    }
+
+    BytesCache(int size, BiConsumer<BufferingOutputUTF8, K> encoder) {
+        this.cache = CacheFactory.createSimpleCache(size);
+        this.encoder = encoder;
+    }
+
+    /** Write the output for {@code item}. */
+    void write(BufferingOutputUTF8 out, K item) {
+        byte[] b = cache.getIfPresent(item);
+        if ( b == null ) {
+            encoder.accept(bytesOut, item);
+            bytesOut.flush();
+            b = bytes.toByteArray();
+            bytes.reset();
+            cache.put(item, b);
+        }
+        out.write(b);
+    }
+}
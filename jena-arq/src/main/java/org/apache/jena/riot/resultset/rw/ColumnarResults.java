@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset.rw;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.sparql.resultset.ResultSetException;
+
+/**
+ * Binary, columnar encoding of SPARQL result sets.
+ * <p>
+ * All numbers are big-endian. A "varint" is an unsigned integer, 7 bits per byte,
+ * low bits first, high bit set on all bytes except the last. A "string" is a varint
+ * length followed by that many bytes of UTF-8.
+ * <pre>
+ *   header     = magic ("SRCOL") version(byte) varint(#vars) string(var)*
+ *   rowGroup   = varint(#rows) column*     -- one column per variable, in order.
+ *   end        = varint(0)
+ *
+ *   column     = COL_UNDEF                 -- No values.
+ *              | COL_DICT varint(#terms) term* varint(id+1)*#rows  -- id 0 is undefined.
+ *              | COL_INTEGER present long*  -- xsd:integer, one long for each defined row.
+ *              | COL_DOUBLE present double* -- xsd:double, one double for each defined row.
+ *   present    = 0                         -- All rows defined.
+ *              | 1 bitmap                  -- (#rows+7)/8 bytes, bit set if the row is defined.
+ *
+ *   term       = TERM_IRI string | TERM_BNODE string(label) | TERM_STRING string(lex)
+ *              | TERM_LANG string(lex) string(lang) | TERM_TYPED string(lex) string(datatype)
+ * </pre>
+ * Typed numeric columns are only used when every defined value in the column of
+ * the row group has the canonical lexical form so that the terms are reproduced
+ * exactly. Blank node labels are preserved.
+ */
+final class ColumnarResults {
+    static final byte[] MAGIC       = { 'S', 'R', 'C', 'O', 'L' };
+    static final int    VERSION     = 1;
+
+    static final int    COL_UNDEF   = 0;
+    static final int    COL_DICT    = 1;
+    static final int    COL_INTEGER = 2;
+    static final int    COL_DOUBLE  = 3;
+
+    static final int    TERM_IRI    = 1;
+    static final int    TERM_BNODE  = 2;
+    static final int    TERM_STRING = 3;
+    static final int    TERM_LANG   = 4;
+    static final int    TERM_TYPED  = 5;
+
+    /** Default number of rows in a row group. */
+    static final int    RowGroupSize = 10_000;
+
+    private ColumnarResults() {}
+
+    static void writeVarInt(DataOutputStream out, int x) throws IOException {
+        while ( (x & ~0x7F) != 0 ) {
+            out.writeByte((x & 0x7F) | 0x80);
+            x >>>= 7;
+        }
+        out.writeByte(x);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int x = 0;
+        for ( int shift = 0 ; shift < 32 ; shift += 7 ) {
+            int b = in.readUnsignedByte();
+            x |= (b & 0x7F) << shift;
+            if ( (b & 0x80) == 0 )
+                return x;
+        }
+        throw new ResultSetException("Bad varint in columnar results");
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] b = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length);
+        out.write(b);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int len = readVarInt(in);
+        if ( len < 0 )
+            throw new ResultSetException("Bad string length in columnar results: "+len);
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    static void readHeader(DataInputStream in) throws IOException {
+        byte[] b = new byte[MAGIC.length];
+        try { in.readFully(b); }
+        catch (EOFException ex) { throw new ResultSetException("Not columnar results: too short"); }
+        for ( int i = 0 ; i < MAGIC.length ; i++ ) {
+            if ( b[i] != MAGIC[i] )
+                throw new ResultSetException("Not columnar results: bad header");
+        }
+        int version = in.readUnsignedByte();
+        if ( version != VERSION )
+            throw new ResultSetException("Columnar results: unsupported version "+version);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset.rw;
+
+import static org.apache.jena.riot.resultset.rw.ColumnarResults.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.iterator.IteratorSlotted;
+import org.apache.jena.atlas.lib.NotImplemented;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.resultset.ResultSetReader;
+import org.apache.jena.riot.resultset.ResultSetReaderFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.binding.BindingMap;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.resultset.SPARQLResult;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Read results in the binary, columnar format (see {@link ColumnarResults}).
+ * The {@link ResultSet} is streaming: row groups are decoded as they are needed.
+ */
+public class ResultSetReaderColumnar implements ResultSetReader {
+
+    public static ResultSetReaderFactory factory = lang->{
+        if (!Objects.equals(lang, ResultSetLang.SPARQLResultSetColumnar ) )
+            throw new ResultSetException("ResultSetReader for columnar results asked for a "+lang);
+        return new ResultSetReaderColumnar();
+    };
+
+    private ResultSetReaderColumnar() {}
+
+    @Override
+    public ResultSet read(InputStream in, Context context) {
+        ColumnarBindings bindings = new ColumnarBindings(in);
+        return new ResultSetStream(bindings.getVarNames(), null, bindings);
+    }
+
+    @Override
+    public ResultSet read(Reader in, Context context) {
+        throw new NotImplemented("Reading binary data from a java.io.Reader is not possible");
+    }
+
+    @Override
+    public SPARQLResult readAny(InputStream in, Context context) {
+        return new SPARQLResult(read(in, context));
+    }
+
+    /** Decode one row group at a time. */
+    private static class ColumnarBindings extends IteratorSlotted<Binding> {
+        private static final XSDDatatype XSD_INTEGER = XSDDatatype.XSDinteger;
+        private static final XSDDatatype XSD_DOUBLE  = XSDDatatype.XSDdouble;
+
+        private final DataInputStream in;
+        private final List<String> varNames = new ArrayList<>();
+        private final Var[] vars;
+        // Current row group, by column.
+        private final Node[][] columns;
+        private int rowsInGroup = 0;
+        private int row = 0;
+        private boolean atEnd = false;
+
+        ColumnarBindings(InputStream input) {
+            this.in = new DataInputStream(new BufferedInputStream(input, 128*1024));
+            try {
+                readHeader(in);
+                int numVars = readVarInt(in);
+                vars = new Var[numVars];
+                for ( int i = 0 ; i < numVars ; i++ ) {
+                    String vn = readString(in);
+                    varNames.add(vn);
+                    vars[i] = Var.alloc(vn);
+                }
+            } catch (IOException ex) { throw new RuntimeIOException(ex); }
+            columns = new Node[vars.length][];
+        }
+
+        List<String> getVarNames() {
+            return varNames;
+        }
+
+        @Override
+        protected boolean hasMore() {
+            return !atEnd;
+        }
+
+        @Override
+        protected Binding moveToNext() {
+            if ( row == rowsInGroup ) {
+                readRowGroup();
+                if ( atEnd )
+                    return null;
+            }
+            BindingMap binding = BindingFactory.create();
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                Node value = columns[i][row];
+                if ( value != null )
+                    binding.add(vars[i], value);
+            }
+            row++;
+            return binding;
+        }
+
+        private void readRowGroup() {
+            try {
+                int n = readVarInt(in);
+                if ( n == 0 ) {
+                    atEnd = true;
+                    return;
+                }
+                if ( n < 0 )
+                    throw new ResultSetException("Bad row group size in columnar results: "+n);
+                for ( int i = 0 ; i < vars.length ; i++ )
+                    columns[i] = readColumn(n);
+                rowsInGroup = n;
+                row = 0;
+            } catch (IOException ex) { throw new RuntimeIOException(ex); }
+        }
+
+        private Node[] readColumn(int n) throws IOException {
+            Node[] column = new Node[n];
+            int kind = in.readUnsignedByte();
+            switch (kind) {
+                case COL_UNDEF:
+                    return column;
+                case COL_INTEGER: {
+                    boolean[] present = readPresent(n);
+                    for ( int i = 0 ; i < n ; i++ ) {
+                        if ( present == null || present[i] )
+                            column[i] = NodeFactory.createLiteral(Long.toString(in.readLong()), XSD_INTEGER);
+                    }
+                    return column;
+                }
+                case COL_DOUBLE: {
+                    boolean[] present = readPresent(n);
+                    for ( int i = 0 ; i < n ; i++ ) {
+                        if ( present == null || present[i] )
+                            column[i] = NodeFactory.createLiteral(Double.toString(in.readDouble()), XSD_DOUBLE);
+                    }
+                    return column;
+                }
+                case COL_DICT: {
+                    int size = readVarInt(in);
+                    if ( size < 0 || size > n )
+                        throw new ResultSetException("Bad dictionary size in columnar results: "+size);
+                    Node[] terms = new Node[size];
+                    for ( int i = 0 ; i < size ; i++ )
+                        terms[i] = readTerm();
+                    for ( int i = 0 ; i < n ; i++ ) {
+                        int id = readVarInt(in);
+                        if ( id < 0 || id > size )
+                            throw new ResultSetException("Bad term id in columnar results: "+id);
+                        if ( id != 0 )
+                            column[i] = terms[id-1];
+                    }
+                    return column;
+                }
+                default:
+                    throw new ResultSetException("Unknown column encoding in columnar results: "+kind);
+            }
+        }
+
+        // Null for "all present".
+        private boolean[] readPresent(int n) throws IOException {
+            int flag = in.readUnsignedByte();
+            if ( flag == 0 )
+                return null;
+            byte[] bitmap = new byte[(n+7)/8];
+            in.readFully(bitmap);
+            boolean[] present = new boolean[n];
+            for ( int i = 0 ; i < n ; i++ )
+                present[i] = (bitmap[i>>3] & (1 << (i & 7))) != 0;
+            return present;
+        }
+
+        private Node readTerm() throws IOException {
+            int kind = in.readUnsignedByte();
+            switch (kind) {
+                case TERM_IRI:
+                    return NodeFactory.createURI(readString(in));
+                case TERM_BNODE:
+                    return NodeFactory.createBlankNode(readString(in));
+                case TERM_STRING:
+                    return NodeFactory.createLiteral(readString(in));
+                case TERM_LANG: {
+                    String lex = readString(in);
+                    String lang = readString(in);
+                    return NodeFactory.createLiteral(lex, lang);
+                }
+                case TERM_TYPED: {
+                    String lex = readString(in);
+                    String datatype = readString(in);
+                    return NodeFactory.createLiteral(lex, TypeMapper.getInstance().getSafeTypeByName(datatype));
+                }
+                default:
+                    throw new ResultSetException("Unknown term kind in columnar results: "+kind);
+            }
+        }
+    }
+}
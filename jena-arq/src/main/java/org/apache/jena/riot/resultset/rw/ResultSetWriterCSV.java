@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset.rw;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.BufferingOutputUTF8;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.resultset.ResultSetWriter;
+import org.apache.jena.riot.resultset.ResultSetWriterFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.resultset.CSVOutput;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.NodeToLabelMap;
+
+/**
+ * Write SPARQL results as CSV (RFC 4180). The output is the same as {@link CSVOutput}:
+ * the header line is the variable names (no '?'), then one line per solution
+ * of the lexical forms of literals, IRIs (no &lt;&gt;) and blank node labels.
+ */
+public class ResultSetWriterCSV implements ResultSetWriter {
+
+    public static ResultSetWriterFactory factory = lang->{
+        if (!Objects.equals(lang, ResultSetLang.SPARQLResultSetCSV ) )
+            throw new ResultSetException("ResultSetWriter for CSV asked for a "+lang);
+        return new ResultSetWriterCSV();
+    };
+
+    private static final String NL = "\r\n";
+
+    private ResultSetWriterCSV() {}
+
+    @Override
+    public void write(Writer out, ResultSet resultSet, Context context) {
+        throw new UnsupportedOperationException("Writing CSV results to a java.io.Writer. Use an OutputStream.") ;
+    }
+
+    @Override
+    public void write(OutputStream outStream, boolean result, Context context) {
+        BufferingOutputUTF8 out = new BufferingOutputUTF8(outStream, 64);
+        out.print("_askResult");
+        out.print(NL);
+        out.print(result ? "true" : "false");
+        out.print(NL);
+        out.flush();
+    }
+
+    @Override
+    public void write(OutputStream outStream, ResultSet resultSet, Context context) {
+        BufferingOutputUTF8 out = new BufferingOutputUTF8(outStream);
+        NodeToLabelMap bnodes = new NodeToLabelMap();
+        BytesCache<Node> iris = new BytesCache<>((x, iri) -> csvSafe(x, iri.getURI()));
+
+        List<String> varNames = resultSet.getResultVars();
+        Var[] vars = new Var[varNames.size()];
+        for ( int i = 0 ; i < vars.length ; i++ ) {
+            String v = varNames.get(i);
+            if ( i != 0 )
+                out.print(',');
+            csvSafe(out, v);
+            vars[i] = Var.alloc(v);
+        }
+        out.print(NL);
+
+        while ( resultSet.hasNext() ) {
+            Binding binding = resultSet.nextBinding();
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                if ( i != 0 )
+                    out.print(',');
+                Node n = binding.get(vars[i]);
+                if ( n == null )
+                    continue;
+                if ( n.isURI() )
+                    iris.write(out, n);
+                else if ( n.isLiteral() )
+                    csvSafe(out, n.getLiteralLexicalForm());
+                else if ( n.isBlank() )
+                    csvSafe(out, bnodes.asString(n));
+                else
+                    out.print('?');
+            }
+            out.print(NL);
+        }
+        out.flush();
+    }
+
+    /** Write a field, quoted if necessary. */
+    private static void csvSafe(BufferingOutputUTF8 out, String str) {
+        if ( str.isEmpty() ) {
+            // The quoted empty string.
+            out.print("\"\"");
+            return;
+        }
+        if ( !needsQuoting(str) ) {
+            out.print(str);
+            return;
+        }
+        out.print('"');
+        int len = str.length();
+        int run = 0;
+        for ( int i = 0 ; i < len ; i++ ) {
+            if ( str.charAt(i) == '"' ) {
+                // Include the quote, then start the next run with it to double it.
+                out.print(str, run, i+1);
+                run = i;
+            }
+        }
+        out.print(str, run, len);
+        out.print('"');
+    }
+
+    private static boolean needsQuoting(String str) {
+        int len = str.length();
+        for ( int i = 0 ; i < len ; i++ ) {
+            switch (str.charAt(i)) {
+                case '"': case ',': case '\r': case '\n':
+                    return true;
+            }
+        }
+        return false;
+    }
+}
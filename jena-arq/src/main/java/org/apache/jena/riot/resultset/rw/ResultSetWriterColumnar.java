@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset.rw;
+
+import static org.apache.jena.riot.resultset.rw.ColumnarResults.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.NotImplemented;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.impl.Util;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.resultset.ResultSetWriter;
+import org.apache.jena.riot.resultset.ResultSetWriterFactory;
+import org.apache.jena.sparql.SystemARQ;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+
+/**
+ * Write results in the binary, columnar format (see {@link ColumnarResults}).
+ * Rows are collected into row groups; each row group is written column by column.
+ */
+public class ResultSetWriterColumnar implements ResultSetWriter {
+
+    /** Number of rows in a row group (an integer). */
+    public static final Symbol rowGroupSize = SystemARQ.allocSymbol("columnarRowGroupSize");
+
+    public static ResultSetWriterFactory factory = lang -> {
+        if (!Objects.equals(lang, ResultSetLang.SPARQLResultSetColumnar ) )
+            throw new ResultSetException("ResultSetWriter for columnar results asked for a "+lang);
+        return new ResultSetWriterColumnar();
+    };
+
+    private static final int BufferSize = 128*1024;
+    private static final String XSD_INTEGER = XSDDatatype.XSDinteger.getURI();
+    private static final String XSD_DOUBLE  = XSDDatatype.XSDdouble.getURI();
+
+    private ResultSetWriterColumnar() {}
+
+    @Override
+    public void write(Writer out, ResultSet resultSet, Context context) {
+        throw new NotImplemented("Writing binary data to a java.io.Writer is not possible") ;
+    }
+
+    @Override
+    public void write(OutputStream out, boolean result, Context context)
+    { throw new NotImplemented("No columnar encoding defined for boolean results"); }
+
+    @Override
+    public void write(OutputStream outStream, ResultSet resultSet, Context context) {
+        int groupSize = RowGroupSize;
+        if ( context != null )
+            groupSize = context.getInt(rowGroupSize, RowGroupSize);
+        if ( groupSize <= 0 )
+            throw new ResultSetException("Row group size must be positive: "+groupSize);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outStream, BufferSize));
+        try {
+            List<String> varNames = resultSet.getResultVars();
+            Var[] vars = new Var[varNames.size()];
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            writeVarInt(out, vars.length);
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                writeString(out, varNames.get(i));
+                vars[i] = Var.alloc(varNames.get(i));
+            }
+
+            Binding[] rows = new Binding[groupSize];
+            int n = 0;
+            while ( resultSet.hasNext() ) {
+                rows[n++] = resultSet.nextBinding();
+                if ( n == groupSize ) {
+                    writeRowGroup(out, vars, rows, n);
+                    n = 0;
+                }
+            }
+            if ( n > 0 )
+                writeRowGroup(out, vars, rows, n);
+            writeVarInt(out, 0);
+            out.flush();
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    private static void writeRowGroup(DataOutputStream out, Var[] vars, Binding[] rows, int n) throws IOException {
+        writeVarInt(out, n);
+        Node[] column = new Node[n];
+        for ( Var var : vars ) {
+            boolean isInteger = true;
+            boolean isDouble = true;
+            int defined = 0;
+            for ( int i = 0 ; i < n ; i++ ) {
+                Node value = rows[i].get(var);
+                column[i] = value;
+                if ( value == null )
+                    continue;
+                defined++;
+                if ( isInteger )
+                    isInteger = isCanonicalInteger(value);
+                if ( isDouble )
+                    isDouble = isCanonicalDouble(value);
+            }
+            if ( defined == 0 )
+                out.writeByte(COL_UNDEF);
+            else if ( isInteger ) {
+                out.writeByte(COL_INTEGER);
+                writePresent(out, column, n, defined);
+                for ( int i = 0 ; i < n ; i++ ) {
+                    if ( column[i] != null )
+                        out.writeLong(Long.parseLong(column[i].getLiteralLexicalForm()));
+                }
+            } else if ( isDouble ) {
+                out.writeByte(COL_DOUBLE);
+                writePresent(out, column, n, defined);
+                for ( int i = 0 ; i < n ; i++ ) {
+                    if ( column[i] != null )
+                        out.writeDouble(Double.parseDouble(column[i].getLiteralLexicalForm()));
+                }
+            } else
+                writeDictColumn(out, column, n);
+        }
+    }
+
+    private static void writePresent(DataOutputStream out, Node[] column, int n, int defined) throws IOException {
+        if ( defined == n ) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        byte[] bitmap = new byte[(n+7)/8];
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( column[i] != null )
+                bitmap[i>>3] |= 1 << (i & 7);
+        }
+        out.write(bitmap);
+    }
+
+    private static void writeDictColumn(DataOutputStream out, Node[] column, int n) throws IOException {
+        Map<Node, Integer> dictionary = new HashMap<>();
+        int[] ids = new int[n];
+        Node[] terms = new Node[n];
+        for ( int i = 0 ; i < n ; i++ ) {
+            Node value = column[i];
+            if ( value == null ) {
+                ids[i] = 0;
+                continue;
+            }
+            Integer id = dictionary.get(value);
+            if ( id == null ) {
+                id = dictionary.size();
+                dictionary.put(value, id);
+                terms[id] = value;
+            }
+            ids[i] = id+1;
+        }
+        out.writeByte(COL_DICT);
+        writeVarInt(out, dictionary.size());
+        for ( int i = 0 ; i < dictionary.size() ; i++ )
+            writeTerm(out, terms[i]);
+        for ( int i = 0 ; i < n ; i++ )
+            writeVarInt(out, ids[i]);
+    }
+
+    private static void writeTerm(DataOutputStream out, Node node) throws IOException {
+        if ( node.isURI() ) {
+            out.writeByte(TERM_IRI);
+            writeString(out, node.getURI());
+        } else if ( node.isBlank() ) {
+            out.writeByte(TERM_BNODE);
+            writeString(out, node.getBlankNodeLabel());
+        } else if ( node.isLiteral() ) {
+            if ( Util.isSimpleString(node) ) {
+                out.writeByte(TERM_STRING);
+                writeString(out, node.getLiteralLexicalForm());
+            } else if ( Util.isLangString(node) ) {
+                out.writeByte(TERM_LANG);
+                writeString(out, node.getLiteralLexicalForm());
+                writeString(out, node.getLiteralLanguage());
+            } else {
+                out.writeByte(TERM_TYPED);
+                writeString(out, node.getLiteralLexicalForm());
+                writeString(out, node.getLiteralDatatypeURI());
+            }
+        } else
+            throw new ResultSetException("Can't encode in columnar results: "+node);
+    }
+
+    // The number, written as a long, will be read back as the same term.
+    private static boolean isCanonicalInteger(Node node) {
+        if ( !node.isLiteral() || !XSD_INTEGER.equals(node.getLiteralDatatypeURI()) )
+            return false;
+        String lex = node.getLiteralLexicalForm();
+        int len = lex.length();
+        int start = ( len > 0 && lex.charAt(0) == '-' ) ? 1 : 0;
+        // Not empty, no leading zeros (except "0"), fits in a long.
+        if ( len == start || len-start > 19 )
+            return false;
+        if ( lex.charAt(start) == '0' && len-start > 1 )
+            return false;
+        for ( int i = start ; i < len ; i++ ) {
+            char ch = lex.charAt(i);
+            if ( ch < '0' || ch > '9' )
+                return false;
+        }
+        if ( len-start < 19 )
+            return !lex.equals("-0");
+        try { Long.parseLong(lex); return true; }
+        catch (NumberFormatException ex) { return false; }
+    }
+
+    // The number, written as a double, will be read back as the same term.
+    private static boolean isCanonicalDouble(Node node) {
+        if ( !node.isLiteral() || !XSD_DOUBLE.equals(node.getLiteralDatatypeURI()) )
+            return false;
+        String lex = node.getLiteralLexicalForm();
+        if ( lex.isEmpty() || !Character.isDigit(lex.charAt(lex.length()-1)) )
+            // Excludes Java-only forms such as "NaN", "Infinity" and "1.0d".
+            return false;
+        try { return Double.toString(Double.parseDouble(lex)).equals(lex); }
+        catch (NumberFormatException ex) { return false; }
+    }
+}
@@ -23,27 +23,27 @@ import static org.apache.jena.riot.resultset.rw.JSONResultsKW.*;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
+import org.apache.jena.atlas.io.BufferingOutputUTF8;
 import org.apache.jena.atlas.io.IO;
-import org.apache.jena.atlas.io.IndentedWriter;
 import org.apache.jena.atlas.json.io.JSWriter;
+import org.apache.jena.atlas.lib.Chars;
+import org.apache.jena.atlas.lib.StrUtils;
 import org.apache.jena.atlas.logging.Log;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.ARQ;
-import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.rdf.model.Literal;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.impl.Util;
 import org.apache.jena.riot.out.NodeToLabel;
 import org.apache.jena.riot.resultset.ResultSetLang;
 import org.apache.jena.riot.resultset.ResultSetWriter;
 import org.apache.jena.riot.resultset.ResultSetWriterFactory;
 import org.apache.jena.riot.system.SyntaxLabels;
-import org.apache.jena.sparql.resultset.ResultSetApply;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.resultset.ResultSetException;
-import org.apache.jena.sparql.resultset.ResultSetProcessor;
 import org.apache.jena.sparql.util.Context;
 
 public class ResultSetWriterJSON implements ResultSetWriter {
@@ -77,229 +77,189 @@ public class ResultSetWriterJSON implements ResultSetWriter {
     
     @Override
     public void write(OutputStream out, ResultSet resultSet, Context context) {
-        JSONOutputResultSet jsonOut = new JSONOutputResultSet(out, context);
-        ResultSetApply a = new ResultSetApply(resultSet, jsonOut);
-        a.apply();
+        JSONOutputBindings jsonOut = new JSONOutputBindings(out, context);
+        jsonOut.write(resultSet);
     }
 
-    private static class JSONOutputResultSet implements ResultSetProcessor {
-        private static final boolean multiLineValues   = false;
-        private static final boolean multiLineVarNames = false;
-
-        private final IndentedWriter out;
-        private final NodeToLabel    labels;
-
-        private JSONOutputResultSet(OutputStream outStream, Context context) {
-            this(new IndentedWriter(outStream), context);
-        }
-
-        private JSONOutputResultSet(IndentedWriter indentedOut, Context context) {
-            out = indentedOut;
+    /**
+     * Write the bindings of a result set directly as UTF-8 bytes.
+     * <p>
+     * The layout is fixed so the indentation and the per-variable member names
+     * are prepared once. The output for IRIs and the datatype part of typed
+     * literals is cached.
+     */
+    private static class JSONOutputBindings {
+        private static final byte[] startBinding    = bytes(" ,\n");
+        private static final byte[] startSolution   = bytes("      {\n");
+        private static final byte[] finishSolution  = bytes("\n      }");
+        private static final byte[] finishValue     = bytes(" }");
+        private static final byte[] typeLiteral     = bytes(quote(kType)+": "+quote(kLiteral)+" , ");
+        private static final byte[] typeBNode       = bytes(quote(kType)+": "+quote(kBnode)+" , ");
+        private static final byte[] keyLang         = bytes(quote(kXmlLang)+": ");
+        private static final byte[] keyValue        = bytes(quote(kValue)+": ");
+        private static final byte[] separator       = bytes(" , ");
+
+        private final BufferingOutputUTF8 out;
+        private final NodeToLabel labels;
+        private final BytesCache<Node> iris = new BytesCache<>((x, iri) -> {
+            x.print(quote(kType)); x.print(": "); x.print(quote(kUri)); x.print(" , ");
+            x.print(quote(kValue)); x.print(": "); string(x, iri.getURI());
+        });
+        private final BytesCache<String> datatypes = new BytesCache<>(100, (x, dt) -> {
+            x.print(quote(kType)); x.print(": "); x.print(quote(kLiteral)); x.print(" , ");
+            x.print(quote(kDatatype)); x.print(": "); string(x, dt); x.print(" , ");
+        });
+
+        private JSONOutputBindings(OutputStream outStream, Context context) {
+            out = new BufferingOutputUTF8(outStream);
             boolean outputGraphBNodeLabels = (context != null) && context.isTrue(ARQ.outputGraphBNodeLabels);
             labels = outputGraphBNodeLabels
                 ? SyntaxLabels.createNodeToLabelAsGiven()
                 : SyntaxLabels.createNodeToLabel();
         }
 
-        @Override
-        public void start(ResultSet rs) {
-            println("{");
-            out.incIndent();
-            doHead(rs);
-            println(quoteName(kResults), ": {");
-            out.incIndent();
-            println(quoteName(kBindings), ": [");
-            out.incIndent();
-            firstSolution = true;
-        }
-
-        @Override
-        public void finish(ResultSet rs) {
-            // Close last binding.
-            out.println();
-
-            out.decIndent();    // bindings
-            println("]");
-            out.decIndent();
-            println("}");       // results
-            out.decIndent();
-            println("}");       // top level {}
-            out.flush();
-        }
-
-        private void doHead(ResultSet rs) {
-            println(quoteName(kHead),": {");
-            out.incIndent();
-            doLink(rs);
-            doVars(rs);
-            out.decIndent();
-            println("} ,");
-        }
-
-        private void doLink(ResultSet rs) {
-            // ---- link
-            // out.println("\"link\": []") ;
-        }
-
-        private void doVars(ResultSet rs) {
+        private void write(ResultSet resultSet) {
+            List<String> varNames = resultSet.getResultVars();
+            out.println("{");
+            out.println("  "+quote(kHead)+": {");
             // On one line.
-            print(quoteName(kVars), ": [ ");
-            if ( multiLineVarNames )
-                out.println();
-            out.incIndent();
-            for ( Iterator<String> iter = rs.getResultVars().iterator() ; iter.hasNext() ; ) {
-                String varname = iter.next();
-                print("\"", varname, "\"");
-                if ( multiLineVarNames )
-                    println();
+            out.print("    "+quote(kVars)+": [ ");
+            for ( Iterator<String> iter = varNames.iterator() ; iter.hasNext() ; ) {
+                out.print("\"");
+                out.print(iter.next());
+                out.print("\"");
                 if ( iter.hasNext() )
-                    print(" , ");
+                    out.print(" , ");
+            }
+            out.println(" ]");
+            out.println("  } ,");
+            out.println("  "+quote(kResults)+": {");
+            out.println("    "+quote(kBindings)+": [");
+
+            // Variables, and the start of each binding of the variable.
+            Var[] vars = new Var[varNames.size()];
+            byte[][] keys = new byte[vars.length][];
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                String varName = varNames.get(i);
+                vars[i] = Var.alloc(varName);
+                // Do not use quoteName - varName may not be JSON-safe as a bare name.
+                keys[i] = bytes("        "+JSWriter.outputQuotedString(varName)+": { ");
             }
-            println(" ]");
-            out.decIndent();
-        }
-
-        boolean firstSolution          = true;
-        boolean firstBindingInSolution = true;
 
-        // NB assumes are on end of previous line.
-        @Override
-        public void start(QuerySolution qs) {
-            if ( !firstSolution )
-                println(" ,");
-            firstSolution = false;
-            println("{");
-            out.incIndent();
-            firstBindingInSolution = true;
-        }
+            boolean firstSolution = true;
+            while ( resultSet.hasNext() ) {
+                Binding binding = resultSet.nextBinding();
+                if ( !firstSolution )
+                    out.write(startBinding);
+                firstSolution = false;
+                out.write(startSolution);
+                boolean firstBindingInSolution = true;
+                for ( int i = 0 ; i < vars.length ; i++ ) {
+                    Node value = binding.get(vars[i]);
+                    if ( value == null )
+                        continue;
+                    if ( !firstBindingInSolution )
+                        out.write(startBinding);
+                    firstBindingInSolution = false;
+                    out.write(keys[i]);
+                    value(value);
+                    out.write(finishValue);
+                }
+                if ( firstBindingInSolution )
+                    // Empty solution: the blank line is indented.
+                    out.print("        ");
+                out.write(finishSolution);
+            }
 
-        @Override
-        public void finish(QuerySolution qs) {
-            println(); // Finish last binding
-            out.decIndent();
-            print("}"); // NB No newline
+            // Close last binding.
+            if ( firstSolution )
+                out.print("      ");
+            out.println();
+            out.println("    ]");
+            out.println("  }");
+            out.println("}");
+            out.flush();
         }
 
-        @Override
-        public void binding(String varName, RDFNode value) {
-            if ( value == null )
-                return;
-
-            if ( !firstBindingInSolution )
-                println(" ,");
-            firstBindingInSolution = false;
-
-            // Do not use quoteName - varName may not be JSON-safe as a bare name.
-            print(quote(varName), ": { ");
-            if ( multiLineValues )
-                out.println();
-
-            out.incIndent();
-            // Old, explicit unbound
-            // if ( value == null )
-            //     printUnbound() ;
-            // else
-            if ( value.isLiteral() )
-                printLiteral((Literal)value);
-            else if ( value.isResource() )
-                printResource((Resource)value);
+        private void value(Node value) {
+            if ( value.isURI() )
+                iris.write(out, value);
+            else if ( value.isLiteral() )
+                literal(value);
+            else if ( value.isBlank() ) {
+                String label = labels.get(null, value);
+                // Comes with leading "_:"
+                out.write(typeBNode);
+                out.write(keyValue);
+                string(out, label, 2);
+            }
             else
-                Log.warn(this, "Unknown RDFNode type in result set: " + value.getClass());
-            out.decIndent();
-
-            if ( !multiLineValues )
-                print(" ");
-            print("}"); // NB No newline
+                Log.warn(this, "Unknown node type in result set: " + value);
         }
 
-         private void printUnbound() {
-             print(quoteName(kType), ": ", quote(kUnbound), " , ") ;
-             if ( multiLineValues ) 
-                 println() ;
-             print(quoteName(kValue), ": null") ;
-             if ( multiLineValues )
-                 println() ;
-         }
-
-        private void printLiteral(Literal literal) {
-            String datatype = literal.getDatatypeURI();
-            String lang = literal.getLanguage();
-
+        private void literal(Node literal) {
             if ( Util.isSimpleString(literal) || Util.isLangString(literal) ) {
-                print(quoteName(kType), ": ", quote(kLiteral), " , ");
-                if ( multiLineValues )
-                    println();
-
+                out.write(typeLiteral);
+                String lang = literal.getLiteralLanguage();
                 if ( lang != null && !lang.equals("") ) {
-                    print(quoteName(kXmlLang), ": ", quote(lang), " , ");
-                    if ( multiLineValues )
-                        println();
+                    out.write(keyLang);
+                    string(out, lang);
+                    out.write(separator);
                 }
-            } else {
-                print(quoteName(kType), ": ", quote(kLiteral), " , ");
-                if ( multiLineValues )
-                    println();
-
-                print(quoteName(kDatatype), ": ", quote(datatype), " , ");
-                if ( multiLineValues )
-                    println();
-            }
-
-            print(quoteName(kValue), ": ", quote(literal.getLexicalForm()));
-            if ( multiLineValues )
-                println();
+            } else
+                datatypes.write(out, literal.getLiteralDatatypeURI());
+            out.write(keyValue);
+            string(out, literal.getLiteralLexicalForm());
         }
 
-        private void printResource(Resource resource) {
-            if ( resource.isAnon() ) {
-                String label = labels.get(null, resource.asNode());
-                // Comes with leading "_:"
-                label = label.substring(2);
-
-                print(quoteName(kType), ": ", quote(kBnode), " , ");
-                if ( multiLineValues )
-                    out.println();
-
-                print(quoteName(kValue), ": ", quote(label));
-
-                if ( multiLineValues )
-                    println();
-            } else {
-                print(quoteName(kType), ": ", quote(kUri), " , ");
-                if ( multiLineValues )
-                    println();
-                print(quoteName(kValue), ": ", quote(resource.getURI()));
-                if ( multiLineValues )
-                    println();
-                return;
-            }
-        }
-        
-        private void print(String... strings) {
-            for ( String s : strings )
-                out.print(s);
+        private static void string(BufferingOutputUTF8 out, String string) {
+            string(out, string, 0);
         }
 
-        private void println(String... strings) {
-            print(strings);
-            out.println();
+        /**
+         * Write a JSON string, starting at {@code start}.
+         * Same escapes as {@link JSWriter#outputQuotedString(String)}.
+         */
+        private static void string(BufferingOutputUTF8 out, String string, int start) {
+            out.print('"');
+            int len = string.length();
+            // Start of the current run of characters that do not need escaping.
+            int run = start;
+            for ( int i = start ; i < len ; i++ ) {
+                char ch = string.charAt(i);
+                if ( ch >= ' ' && ch != '"' && ch != '\\' && ch != '/' && ch < '\u007F' )
+                    continue;
+                if ( ch > '\u009F' && ( ch < '\u2000' || ch >= '\u2100' ) )
+                    continue;
+                if ( ch == '/' && ( i == start || string.charAt(i-1) != '<' ) )
+                    continue;
+                out.print(string, run, i);
+                run = i+1;
+                switch (ch) {
+                    case '"':  out.print("\\\""); break;
+                    case '\\': out.print("\\\\"); break;
+                    case '/':  out.print("\\/"); break;
+                    case '\b': out.print("\\b"); break;
+                    case '\f': out.print("\\f"); break;
+                    case '\n': out.print("\\n"); break;
+                    case '\r': out.print("\\r"); break;
+                    case '\t': out.print("\\t"); break;
+                    default:
+                        out.print("\\u");
+                        for ( int j = 12 ; j >= 0 ; j -= 4 )
+                            out.print(Chars.hexDigitsUC[(ch >> j) & 0xF]);
+                }
+            }
+            out.print(string, run, len);
+            out.print('"');
         }
 
         private static String quote(String string) {
-            // Scope for efficiency improvement.
             return JSWriter.outputQuotedString(string);
         }
 
-        // Quote a name (known to be JSON-safe)
-        // Never the RHS of a member entry (for example "false")
-        // Some (the Java JSON code for one) JSON parsers accept an unquoted
-        // string as a name of a name/value pair.
-
-        private static String quoteName(String string) {
-            // All calls to quoteName are builtin keywords which are already safe.
-            // but need the "" added.
-            //return "\""+string+"\"";
-            return quote(string);
+        private static byte[] bytes(String string) {
+            return StrUtils.asUTF8bytes(string);
         }
     }
 }
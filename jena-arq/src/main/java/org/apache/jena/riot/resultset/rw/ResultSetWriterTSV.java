@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset.rw;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.BufferingOutputUTF8;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.riot.out.NodeFormatter;
+import org.apache.jena.riot.out.NodeFormatterTTL;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.resultset.ResultSetWriter;
+import org.apache.jena.riot.resultset.ResultSetWriterFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.resultset.TSVOutput;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Write SPARQL results as TSV. The output is the same as {@link TSVOutput}:
+ * the header line is the variables (with '?'), then one line per solution
+ * of the RDF terms, written Turtle-style.
+ */
+public class ResultSetWriterTSV implements ResultSetWriter {
+
+    public static ResultSetWriterFactory factory = lang->{
+        if (!Objects.equals(lang, ResultSetLang.SPARQLResultSetTSV ) )
+            throw new ResultSetException("ResultSetWriter for TSV asked for a "+lang);
+        return new ResultSetWriterTSV();
+    };
+
+    private static final char NL  = '\n';
+    private static final char SEP = '\t';
+
+    private ResultSetWriterTSV() {}
+
+    @Override
+    public void write(Writer out, ResultSet resultSet, Context context) {
+        throw new UnsupportedOperationException("Writing TSV results to a java.io.Writer. Use an OutputStream.") ;
+    }
+
+    @Override
+    public void write(OutputStream outStream, boolean result, Context context) {
+        BufferingOutputUTF8 out = new BufferingOutputUTF8(outStream, 64);
+        out.print("?_askResult");
+        out.print(NL);
+        out.print(result ? "true" : "false");
+        out.print(NL);
+        out.flush();
+    }
+
+    @Override
+    public void write(OutputStream outStream, ResultSet resultSet, Context context) {
+        BufferingOutputUTF8 out = new BufferingOutputUTF8(outStream);
+        // Turtle-style terms. This will not include a raw tab.
+        NodeFormatter formatter = new NodeFormatterTTL(null, null);
+        // Only IRIs are cached: blank node labels are allocated by the formatter.
+        BytesCache<Node> iris = new BytesCache<>(formatter::format);
+
+        List<String> varNames = resultSet.getResultVars();
+        Var[] vars = new Var[varNames.size()];
+        for ( int i = 0 ; i < vars.length ; i++ ) {
+            vars[i] = Var.alloc(varNames.get(i));
+            if ( i != 0 )
+                out.print(SEP);
+            out.print(vars[i].toString());
+        }
+        out.print(NL);
+
+        while ( resultSet.hasNext() ) {
+            Binding binding = resultSet.nextBinding();
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                if ( i != 0 )
+                    out.print(SEP);
+                Node n = binding.get(vars[i]);
+                if ( n == null )
+                    continue;
+                if ( n.isURI() )
+                    iris.write(out, n);
+                else
+                    formatter.format(out, n);
+            }
+            out.print(NL);
+        }
+        out.flush();
+    }
+}
@@ -20,16 +20,16 @@ package org.apache.jena.riot.resultset.rw;
 
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.List;
 import java.util.Objects;
 
+import org.apache.jena.atlas.io.BufferingOutputUTF8;
 import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.atlas.lib.StrUtils;
 import org.apache.jena.atlas.logging.Log;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.ARQ;
-import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.rdf.model.Literal;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.impl.Util;
 import org.apache.jena.riot.out.NodeToLabel;
 import org.apache.jena.riot.resultset.ResultSetLang;
@@ -37,9 +37,9 @@ import org.apache.jena.riot.resultset.ResultSetWriter;
 import org.apache.jena.riot.resultset.ResultSetWriterFactory;
 import org.apache.jena.riot.system.SyntaxLabels;
 import org.apache.jena.sparql.SystemARQ;
-import org.apache.jena.sparql.resultset.ResultSetApply;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.resultset.ResultSetException;
-import org.apache.jena.sparql.resultset.ResultSetProcessor;
 import org.apache.jena.sparql.util.Context;
 import org.apache.jena.sparql.util.Symbol;
 
@@ -73,13 +73,12 @@ public class ResultSetWriterXML implements ResultSetWriter {
     
     @Override
     public void write(OutputStream outStream, ResultSet resultSet, Context context) {
-        XMLOutputResultSet xOut = new XMLOutputResultSet(outStream, context);
+        XMLOutputBindings xOut = new XMLOutputBindings(outStream, context);
         if ( context != null && context.isDefined(xmlInstruction) )
             xOut.setXmlInst(context.isTrue(xmlInstruction));
         if ( context != null && context.isDefined(xmlStylesheet) )
             xOut.setStylesheetURL((String)(context.get(xmlStylesheet)));
-        ResultSetApply a = new ResultSetApply(resultSet, xOut);
-        a.apply();
+        xOut.write(resultSet);
     }
     
     private class XMLOutputASK implements XMLResults {
@@ -131,247 +130,151 @@ public class ResultSetWriterXML implements ResultSetWriter {
         }
     }
 
-    private static class XMLOutputResultSet implements ResultSetProcessor, XMLResults
+    /**
+     * Write the bindings of a result set directly as UTF-8 bytes.
+     * <p>
+     * The layout is fixed so the indentation and the per-variable binding elements
+     * are prepared once. The output for IRIs and the datatype part of typed
+     * literals is cached.
+     */
+    private static class XMLOutputBindings implements XMLResults
     {
-        private static boolean outputExplicitUnbound = false ;
-        
-        private int index = 0 ;                     // First index is 1 
+        private static final byte[] startSolution   = bytes("    <"+dfSolution+">\n");
+        private static final byte[] finishSolution  = bytes("    </"+dfSolution+">\n");
+        private static final byte[] finishBinding   = bytes("      </"+dfBinding+">\n");
+        private static final byte[] startLiteral    = bytes("        <"+dfLiteral);
+        private static final byte[] finishLiteral   = bytes("</"+dfLiteral+">\n");
+        private static final byte[] startBNode      = bytes("        <"+dfBNode+">");
+        private static final byte[] finishBNode     = bytes("</"+dfBNode+">\n");
+
         private String stylesheetURL = null ;
         private boolean xmlInst = true ;
-
-        private final IndentedWriter  out ;
-        private int bNodeCounter = 0 ;
+        private final BufferingOutputUTF8 out ;
         private final NodeToLabel bNodeMap;
-        
-        private XMLOutputResultSet(OutputStream outStream, Context context) {
-            this(new IndentedWriter(outStream), context);
-        }
-
-        private XMLOutputResultSet(IndentedWriter indentedOut, Context context) {
-            out = indentedOut;
+        private final BytesCache<Node> iris = new BytesCache<>((x, iri) -> {
+            x.print("        <"+dfURI+">");
+            escape(x, iri.getURI(), 0);
+            x.print("</"+dfURI+">\n");
+        });
+        private final BytesCache<String> datatypes = new BytesCache<>(100, (x, dt) -> {
+            x.print(" "+dfAttrDatatype+"=\"");
+            x.print(dt);
+            x.print("\"");
+        });
+
+        private XMLOutputBindings(OutputStream outStream, Context context) {
+            out = new BufferingOutputUTF8(outStream);
             boolean outputGraphBNodeLabels = (context != null) && context.isTrue(ARQ.outputGraphBNodeLabels);
             bNodeMap = outputGraphBNodeLabels
                 ? SyntaxLabels.createNodeToLabelAsGiven()
                 : SyntaxLabels.createNodeToLabel();
         }
 
-        @Override
-        public void start(ResultSet rs) {
+        private void write(ResultSet resultSet) {
+            List<String> varNames = resultSet.getResultVars();
             if ( xmlInst )
                 out.println("<?xml version=\"1.0\"?>");
-
             if ( stylesheetURL != null ) {
                 out.print("<?xml-stylesheet type=\"text/xsl\" href=\"");
                 out.print(stylesheetURL);
                 out.println("\"?>");
             }
-
-            // ---- Root
-            out.print("<");
-            out.print(dfRootTag);
-            out.print(" xmlns=\"");
-            out.print(dfNamespace);
-            out.println("\">");
-
-            // ---- Header
-
-            out.incIndent(INDENT);
-            out.print("<");
-            out.print(dfHead);
-            out.println(">");
-
-            if ( false ) {
-                String link = "UNSET";
-                out.print("<link href=\"");
-                out.print(link);
-                out.println("\"/>");
+            out.println("<"+dfRootTag+" xmlns=\""+dfNamespace+"\">");
+            out.println("  <"+dfHead+">");
+            for ( String n : varNames )
+                out.println("    <"+dfVariable+" "+dfAttrVarName+"=\""+n+"\"/>");
+            out.println("  </"+dfHead+">");
+            out.println("  <"+dfResults+">");
+
+            Var[] vars = new Var[varNames.size()];
+            byte[][] startBindings = new byte[vars.length][];
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                vars[i] = Var.alloc(varNames.get(i));
+                startBindings[i] = bytes("      <"+dfBinding+" name=\""+varNames.get(i)+"\">\n");
             }
 
-            for ( String n : rs.getResultVars() ) {
-                out.incIndent(INDENT);
-                out.print("<");
-                out.print(dfVariable);
-                out.print(" ");
-                out.print(dfAttrVarName);
-                out.print("=\"");
-                out.print(n);
-                out.print("\"");
-                out.println("/>");
-                out.decIndent(INDENT);
+            while ( resultSet.hasNext() ) {
+                Binding binding = resultSet.nextBinding();
+                out.write(startSolution);
+                for ( int i = 0 ; i < vars.length ; i++ ) {
+                    Node value = binding.get(vars[i]);
+                    if ( value == null )
+                        continue;
+                    out.write(startBindings[i]);
+                    value(value);
+                    out.write(finishBinding);
+                }
+                out.write(finishSolution);
             }
-            out.print("</");
-            out.print(dfHead);
-            out.println(">");
-            out.decIndent(INDENT);
-
-            // Start results proper
-            out.incIndent(INDENT);
-            out.print("<");
-            out.print(dfResults);
-            out.println(">");
-            out.incIndent(INDENT);
-        }
 
-        @Override
-        public void finish(ResultSet rs) {
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfResults);
-            out.println(">");
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfRootTag);
-            out.println(">");
+            out.println("  </"+dfResults+">");
+            out.println("</"+dfRootTag+">");
             out.flush();
         }
 
-        @Override
-        public void start(QuerySolution qs) {
-            out.print("<");
-            out.print(dfSolution);
-            out.println(">");
-            index++;
-            out.incIndent(INDENT);
-        }
-
-        @Override
-        public void finish(QuerySolution qs) {
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfSolution);
-            out.println(">");
-        }
-
-        @Override
-        public void binding(String varName, RDFNode node) {
-            if ( node == null && !outputExplicitUnbound )
-                return;
-
-            out.print("<");
-            out.print(dfBinding);
-            out.print(" name=\"");
-            out.print(varName);
-            out.println("\">");
-            out.incIndent(INDENT);
-            printBindingValue(node);
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfBinding);
-            out.println(">");
-        }
-
-        void printBindingValue(RDFNode node) {
-            if ( node == null ) {
-                // Unbound
-                out.print("<");
-                out.print(dfUnbound);
-                out.println("/>");
-                return;
-            }
-
-            if ( node instanceof Literal ) {
-                printLiteral((Literal)node);
-                return;
-            }
-
-            if ( node instanceof Resource ) {
-                printResource((Resource)node);
-                return;
+        private void value(Node value) {
+            if ( value.isURI() )
+                iris.write(out, value);
+            else if ( value.isLiteral() )
+                literal(value);
+            else if ( value.isBlank() ) {
+                String label = bNodeMap.get(null, value);
+                // Comes with leading "_:"
+                out.write(startBNode);
+                escape(out, label, 2);
+                out.write(finishBNode);
             }
-
-            Log.warn(this, "Unknown RDFNode type in result set: " + node.getClass());
+            else
+                Log.warn(this, "Unknown node type in result set: " + value);
         }
 
-        void printLiteral(Literal literal) {
-            out.print("<");
-            out.print(dfLiteral);
-
+        private void literal(Node literal) {
+            out.write(startLiteral);
             if ( Util.isLangString(literal) ) {
-                String lang = literal.getLanguage();
                 out.print(" xml:lang=\"");
-                out.print(literal.getLanguage());
+                out.print(literal.getLiteralLanguage());
                 out.print("\"");
             } else if ( !Util.isSimpleString(literal) ) {
                 // Datatype
                 // (RDF 1.1) not xsd:string nor rdf:langString.
                 // (RDF 1.0) any datatype.
-                String datatype = literal.getDatatypeURI();
-                out.print(" ");
-                out.print(dfAttrDatatype);
-                out.print("=\"");
-                out.print(datatype);
-                out.print("\"");
-            }
-
-            out.print(">");
-            out.print(xml_escape(literal.getLexicalForm()));
-            out.print("</");
-            out.print(dfLiteral);
-            out.println(">");
-        }
-
-        void printResource(Resource r) {
-            if ( r.isAnon() ) {
-                String label = bNodeMap.get(null, r.asNode());
-                // Comes with leading "_:"
-                label = label.substring(2);
-                out.print("<");
-                out.print(dfBNode);
-                out.print(">");
-                out.print(xml_escape(label));
-                out.print("</");
-                out.print(dfBNode);
-                out.println(">");
-            } else {
-                out.print("<");
-                out.print(dfURI);
-                out.print(">");
-                out.print(xml_escape(r.getURI()));
-                out.print("</");
-                out.print(dfURI);
-                out.println(">");
+                datatypes.write(out, literal.getLiteralDatatypeURI());
             }
+            out.print('>');
+            escape(out, literal.getLiteralLexicalForm(), 0);
+            out.write(finishLiteral);
         }
 
-        private static String xml_escape(String string) {
-            final StringBuilder sb = new StringBuilder(string);
-
-            int offset = 0;
-            String replacement;
-            char found;
-            for (int i = 0; i < string.length(); i++) {
-                found = string.charAt(i);
-                
-                switch (found) {
+        /** Write element content, starting at {@code start}. */
+        private static void escape(BufferingOutputUTF8 out, String string, int start) {
+            int len = string.length();
+            // Start of the current run of characters that do not need escaping.
+            int run = start;
+            for ( int i = start ; i < len ; i++ ) {
+                String replacement;
+                switch (string.charAt(i)) {
                     case '&' : replacement = "&amp;"; break;
                     case '<' : replacement = "&lt;"; break;
                     case '>' : replacement = "&gt;"; break;
                     case '\r': replacement = "&#x0D;"; break;
                     case '\n': replacement = "&#x0A;"; break;
-                    default  : replacement = null;
-                }
-                
-                if (replacement != null) {
-                    sb.replace(offset + i, offset + i + 1, replacement);
-                    offset += replacement.length() - 1; // account for added chars
+                    default  : continue;
                 }
+                out.print(string, run, i);
+                out.print(replacement);
+                run = i+1;
             }
-            
-            return sb.toString();
+            out.print(string, run, len);
         }
 
-        /** @return Returns the stylesheetURL. */
-        public String getStylesheetURL()
-        { return stylesheetURL ; }
+        private static byte[] bytes(String string) {
+            return StrUtils.asUTF8bytes(string);
+        }
 
         /** @param stylesheetURL The stylesheetURL to set. */
         public void setStylesheetURL(String stylesheetURL)
         { this.stylesheetURL = stylesheetURL ; }
 
-        /** @return Returns the xmlInst. */
-        public boolean getXmlInst()
-        { return xmlInst ; }
-
         /** @param xmlInst The xmlInst to set. */
         public void setXmlInst(boolean xmlInst)
         { this.xmlInst = xmlInst ; }
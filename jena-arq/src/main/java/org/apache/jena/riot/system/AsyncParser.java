@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Run a parser on a separate thread, sending the output to a {@link StreamRDF} on the
+ * calling thread.
+ * <p>
+ * Parsing overlaps with the work done by the destination, for example, adding data to
+ * a database in a transaction associated with the calling thread. The parser output is
+ * passed across in batches through a bounded queue so the memory used does not depend
+ * on the size of the input.
+ * <p>
+ * An exception in the parser is thrown on the calling thread. An exception from the
+ * destination stops the parser; the exception is thrown after the parser task has
+ * ended.
+ * <p>
+ * By default, parsers run on a shared pool with a fixed maximum number of threads;
+ * when all the threads are in use, a parse waits for a thread.
+ */
+public class AsyncParser {
+    private static final int BatchSize = 10_000;
+    private static final int QueueSize = 10;
+
+    private static final int MaxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+    private static final ExecutorService executor = createExecutor();
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MaxThreads, MaxThreads, 60, TimeUnit.SECONDS,
+                                                         new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "RIOT-parser-"+threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private AsyncParser() {}
+
+    /**
+     * Run {@code parser} on another thread. The parser sends its output to the
+     * {@link StreamRDF} it is given; this is passed to {@code dest} on the calling thread.
+     * Returns when the parser has finished and all the output has been sent to {@code dest}.
+     */
+    public static void parse(Consumer<StreamRDF> parser, StreamRDF dest) {
+        parse(parser, dest, executor);
+    }
+
+    /**
+     * As {@link #parse(Consumer, StreamRDF)}, running the parser on a thread of
+     * {@code executorService}.
+     */
+    public static void parse(Consumer<StreamRDF> parser, StreamRDF dest, ExecutorService executorService) {
+        Pipe pipe = new Pipe();
+        Future<?> task = executorService.submit(() -> pipe.produce(parser));
+        pipe.consume(dest, task);
+    }
+
+    // Items in a batch, other than triples and quads.
+    private static final Object START  = new Object();
+    private static final Object FINISH = new Object();
+
+    private static final class Prefix {
+        final String prefix;
+        final String iri;
+        Prefix(String prefix, String iri) { this.prefix = prefix; this.iri = iri; }
+    }
+
+    private static final class Base {
+        final String base;
+        Base(String base) { this.base = base; }
+    }
+
+    // Placed in the queue by the parser thread when it has finished.
+    private static final List<Object> END = new ArrayList<>(0);
+
+    // Thrown on the parser thread when the consumer has stopped.
+    private static final class StopParser extends RuntimeException {
+        StopParser() { super(null, null, false, false); }
+    }
+
+    private static final class Pipe implements StreamRDF {
+        private final BlockingQueue<List<Object>> queue = new ArrayBlockingQueue<>(QueueSize);
+        private List<Object> batch = new ArrayList<>(BatchSize);
+        private volatile boolean stopped = false;
+        private volatile Throwable error = null;
+        // Set by whichever of the parser task and the consumer (when stopping
+        // before the task has run) gets there first.
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch produced = new CountDownLatch(1);
+
+        // ---- Parser thread.
+
+        void produce(Consumer<StreamRDF> parser) {
+            if ( ! claimed.compareAndSet(false, true) )
+                return;
+            try {
+                parser.accept(this);
+                flush();
+            } catch (StopParser ex) {
+            } catch (Throwable th) {
+                error = th;
+            } finally {
+                // Always signal the end unless the consumer has stopped.
+                try {
+                    while ( ! stopped ) {
+                        if ( queue.offer(END, 100, TimeUnit.MILLISECONDS) )
+                            break;
+                    }
+                } catch (InterruptedException ex) {}
+                produced.countDown();
+            }
+        }
+
+        private void add(Object item) {
+            batch.add(item);
+            if ( batch.size() >= BatchSize )
+                flush();
+        }
+
+        private void flush() {
+            if ( batch.isEmpty() )
+                return;
+            try {
+                while ( ! stopped ) {
+                    if ( queue.offer(batch, 100, TimeUnit.MILLISECONDS) ) {
+                        batch = new ArrayList<>(BatchSize);
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {}
+            throw new StopParser();
+        }
+
+        @Override public void start()                           { add(START); }
+        @Override public void triple(Triple triple)             { add(triple); }
+        @Override public void quad(Quad quad)                   { add(quad); }
+        @Override public void base(String base)                 { add(new Base(base)); }
+        @Override public void prefix(String prefix, String iri) { add(new Prefix(prefix, iri)); }
+        @Override public void finish()                          { add(FINISH); }
+
+        // ---- Calling thread.
+
+        void consume(StreamRDF dest, Future<?> task) {
+            try {
+                for ( ;; ) {
+                    List<Object> items = take();
+                    if ( items == END )
+                        break;
+                    for ( Object item : items )
+                        send(dest, item);
+                }
+            } catch (RuntimeException | Error ex) {
+                stop();
+                task.cancel(true);
+                join();
+                throw ex;
+            }
+            join();
+            Throwable th = error;
+            if ( th == null )
+                return;
+            if ( th instanceof RuntimeException )
+                throw (RuntimeException)th;
+            if ( th instanceof Error )
+                throw (Error)th;
+            throw new RiotException(th);
+        }
+
+        private List<Object> take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RiotException("Interrupted while waiting for the parser");
+            }
+        }
+
+        // Wait for the parser task to end, unless it has not started.
+        private void join() {
+            if ( claimed.compareAndSet(false, true) )
+                return;
+            boolean interrupted = false;
+            for ( ;; ) {
+                try {
+                    produced.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if ( interrupted )
+                Thread.currentThread().interrupt();
+        }
+
+        private static void send(StreamRDF dest, Object item) {
+            if ( item instanceof Triple )
+                dest.triple((Triple)item);
+            else if ( item instanceof Quad )
+                dest.quad((Quad)item);
+            else if ( item instanceof Prefix )
+                dest.prefix(((Prefix)item).prefix, ((Prefix)item).iri);
+            else if ( item instanceof Base )
+                dest.base(((Base)item).base);
+            else if ( item == START )
+                dest.start();
+            else if ( item == FINISH )
+                dest.finish();
+        }
+
+        private void stop() {
+            stopped = true;
+            // Unblock the parser if it is waiting on a full queue.
+            queue.clear();
+        }
+    }
+}
@@ -30,11 +30,14 @@ import org.apache.jena.atlas.lib.CharSpace ;
 import org.apache.jena.graph.Graph ;
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.riot.* ;
+import org.apache.jena.riot.blocks.RDFBlocks ;
 import org.apache.jena.riot.thrift.BinRDF ;
 import org.apache.jena.riot.writer.StreamWriterTriX ;
+import org.apache.jena.riot.writer.WriterStreamRDFJsonLD ;
 import org.apache.jena.riot.writer.WriterStreamRDFBlocks ;
 import org.apache.jena.riot.writer.WriterStreamRDFFlat ;
 import org.apache.jena.riot.writer.WriterStreamRDFPlain ;
+import org.apache.jena.riot.writer.WriterStreamRDFXML ;
 import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.core.Quad ;
 
@@ -83,10 +86,32 @@ public class StreamRDFWriter {
         @Override
         public StreamRDF create(OutputStream output, RDFFormat format) {
             boolean withValues = RDFFormat.RDF_THRIFT_VALUES.equals(format) ; 
-            return BinRDF.streamToOutputStream(output, withValues) ;
+            boolean withRepeat = RDFFormat.RDF_THRIFT_REPEAT.equals(format) ;
+            return BinRDF.streamToOutputStream(output, withValues, withRepeat) ;
         }
     } ;
     
+    private static StreamRDFWriterFactory streamWriterFactoryRDFBlocks = new StreamRDFWriterFactory() {
+        @Override
+        public StreamRDF create(OutputStream output, RDFFormat format) {
+            return RDFBlocks.streamToOutputStream(output) ;
+        }
+    } ;
+
+    private static StreamRDFWriterFactory streamWriterFactoryJsonLD = new StreamRDFWriterFactory() {
+        @Override
+        public StreamRDF create(OutputStream output, RDFFormat format) {
+            return new WriterStreamRDFJsonLD(output) ;
+        }
+    } ;
+
+    private static StreamRDFWriterFactory streamWriterFactoryRDFXML = new StreamRDFWriterFactory() {
+        @Override
+        public StreamRDF create(OutputStream output, RDFFormat format) {
+            return new WriterStreamRDFXML(output) ;
+        }
+    } ;
+
     private static StreamRDFWriterFactory streamWriterFactoryTriX = new StreamRDFWriterFactory() {
         @Override
         public StreamRDF create(OutputStream output, RDFFormat format) {
@@ -131,6 +156,7 @@ public class StreamRDFWriter {
         register(Lang.NTRIPLES,     RDFFormat.NTRIPLES) ;
         register(Lang.NQUADS,       RDFFormat.NQUADS) ;
         register(Lang.RDFTHRIFT,    RDFFormat.RDF_THRIFT) ;
+        register(Lang.RDFBLOCKS,    RDFFormat.RDF_BLOCKS) ;
         register(Lang.TRIX,         RDFFormat.TRIX) ;
         register(Lang.RDFNULL,      RDFFormat.RDFNULL) ;
         
@@ -149,7 +175,11 @@ public class StreamRDFWriter {
 
         register(RDFFormat.RDF_THRIFT,          streamWriterFactoryThrift) ;
         register(RDFFormat.RDF_THRIFT_VALUES,   streamWriterFactoryThrift) ;
+        register(RDFFormat.RDF_THRIFT_REPEAT,   streamWriterFactoryThrift) ;
+        register(RDFFormat.RDF_BLOCKS,          streamWriterFactoryRDFBlocks) ;
         
+        register(RDFFormat.JSONLD_BLOCKS,   streamWriterFactoryJsonLD) ;
+        register(RDFFormat.RDFXML_BLOCKS,   streamWriterFactoryRDFXML) ;
         register(RDFFormat.TRIX,            streamWriterFactoryTriX) ;
         register(RDFFormat.RDFNULL,         streamWriterFactoryNull) ;
     }
@@ -101,6 +101,19 @@ public class BinRDF {
         return new StreamRDF2Thrift(out, withValues) ;
     }
 
+    /** 
+     * Create an {@link StreamRDF} for output.
+     * The {@code OutputStream} is closed when {@link StreamRDF#finish()} is called unless it is {@code System.out}.  
+     * Call {@link StreamRDF#start()}...{@link StreamRDF#finish()}.
+     * @param out OutputStream
+     * @param withValues - whether to encode numeric values as values.
+     * @param withRepeat - whether to write a term that is the same as in the previous row as {@code REPEAT}.
+     * @return StreamRDF A stream to send to. 
+     */
+    public static StreamRDF streamToOutputStream(OutputStream out, boolean withValues, boolean withRepeat) {
+        return new StreamRDF2Thrift(out, withValues, withRepeat) ;
+    }
+
     /** 
      * Create an {@link StreamRDF} for output.
      * The {@code OutputStream} is closed when {@link StreamRDF#finish()} is called unless it is {@code System.out}.  
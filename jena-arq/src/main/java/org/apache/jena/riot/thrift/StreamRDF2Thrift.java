@@ -34,25 +34,35 @@ import org.apache.thrift.protocol.TProtocol ;
 
 /** Encode StreamRDF in Thrift.
  *  Usually used via {@link BinRDF} functions. 
+ *  <p>
+ *  IRIs are written as prefix names when a prefix has been declared. Optionally,
+ *  a term that is the same as the term in the same position of the previous row
+ *  (e.g. the subject of a run of triples with the same subject) is written as
+ *  {@code REPEAT} (see {@link org.apache.jena.riot.RDFFormat#RDF_THRIFT_REPEAT}).
  * 
  * @see Thrift2StreamRDF (for each RDF_StreamRow) for the reverse process.
  */ 
 public class StreamRDF2Thrift implements StreamRDF, AutoCloseable 
 {
-    // No REPEAT support.
     private final OutputStream out ;
     private final TProtocol protocol ;
     private PrefixMap pmap = PrefixMapFactory.create() ;
     private final boolean encodeValues ;
+    private final boolean useRepeat ;
 
 //    public StreamRDF2Thrift(OutputStream out) {
 //        this(out, false) ;
 //    }
     
     public StreamRDF2Thrift(OutputStream out, boolean encodeValues) {
+        this(out, encodeValues, false) ;
+    }
+
+    public StreamRDF2Thrift(OutputStream out, boolean encodeValues, boolean useRepeat) {
         this.out = out ;
         this.protocol = TRDF.protocol(out) ;
         this.encodeValues = encodeValues ;
+        this.useRepeat = useRepeat ;
     }
 
 //    public StreamRDF2Thrift(TProtocol out) {
@@ -60,10 +70,15 @@ public class StreamRDF2Thrift implements StreamRDF, AutoCloseable
 //    }
     
     public StreamRDF2Thrift(TProtocol out, boolean encodeValues) { 
+        this(out, encodeValues, false) ;
+    }
+
+    public StreamRDF2Thrift(TProtocol out, boolean encodeValues, boolean useRepeat) { 
         this.out = null ;
         this.protocol = out ;
         this.pmap = PrefixMapFactory.create() ;
         this.encodeValues = encodeValues ;
+        this.useRepeat = useRepeat ;
     }
 
     @Override
@@ -78,6 +93,12 @@ public class StreamRDF2Thrift implements StreamRDF, AutoCloseable
     private final RDF_Term   tpredicate = new RDF_Term() ;
     private final RDF_Term   tobject    = new RDF_Term() ;
     private final RDF_Term   tgraph     = new RDF_Term() ;
+
+    // Terms of the previous row, by position, for REPEAT.
+    private Node lastSubject    = null ;
+    private Node lastPredicate  = null ;
+    private Node lastObject     = null ;
+    private Node lastGraph      = null ;
     
     @Override
     public void triple(Triple triple) {
@@ -85,9 +106,14 @@ public class StreamRDF2Thrift implements StreamRDF, AutoCloseable
     }
 
     private void doTriple(Node subject, Node predicate, Node object) {
-        ThriftConvert.toThrift(subject, pmap, tsubject, encodeValues) ;
-        ThriftConvert.toThrift(predicate, pmap, tpredicate, encodeValues) ;
-        ThriftConvert.toThrift(object, pmap, tobject, encodeValues) ;
+        toThrift(subject, lastSubject, tsubject) ;
+        toThrift(predicate, lastPredicate, tpredicate) ;
+        toThrift(object, lastObject, tobject) ;
+        lastSubject = subject ;
+        lastPredicate = predicate ;
+        lastObject = object ;
+        // The row after a triple row has no previous graph term.
+        lastGraph = null ;
         ttriple.setS(tsubject) ;
         ttriple.setP(tpredicate) ;
         ttriple.setO(tobject) ;
@@ -109,10 +135,14 @@ public class StreamRDF2Thrift implements StreamRDF, AutoCloseable
             return ;
         }
         
-        ThriftConvert.toThrift(quad.getGraph(), pmap, tgraph, encodeValues) ;
-        ThriftConvert.toThrift(quad.getSubject(), pmap, tsubject, encodeValues) ;
-        ThriftConvert.toThrift(quad.getPredicate(), pmap, tpredicate, encodeValues) ;
-        ThriftConvert.toThrift(quad.getObject(), pmap, tobject, encodeValues) ;
+        toThrift(quad.getGraph(), lastGraph, tgraph) ;
+        toThrift(quad.getSubject(), lastSubject, tsubject) ;
+        toThrift(quad.getPredicate(), lastPredicate, tpredicate) ;
+        toThrift(quad.getObject(), lastObject, tobject) ;
+        lastGraph = quad.getGraph() ;
+        lastSubject = quad.getSubject() ;
+        lastPredicate = quad.getPredicate() ;
+        lastObject = quad.getObject() ;
         
         tquad.setG(tgraph) ;
         tquad.setS(tsubject) ;
@@ -131,6 +161,14 @@ public class StreamRDF2Thrift implements StreamRDF, AutoCloseable
         tobject.clear() ;
     }
 
+    private void toThrift(Node node, Node previous, RDF_Term term) {
+        if ( useRepeat && previous != null && previous.equals(node) ) {
+            term.setRepeat(TRDF.REPEAT) ;
+            return ;
+        }
+        ThriftConvert.toThrift(node, pmap, term, encodeValues) ;
+    }
+
     @Override
     public void base(String base) {
         // Ignore.
@@ -18,12 +18,14 @@
 
 package org.apache.jena.riot.thrift;
 
+import org.apache.jena.graph.Node ;
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.riot.RiotException ;
 import org.apache.jena.riot.system.PrefixMap ;
 import org.apache.jena.riot.system.StreamRDF ;
 import org.apache.jena.riot.thrift.wire.RDF_PrefixDecl ;
 import org.apache.jena.riot.thrift.wire.RDF_Quad ;
+import org.apache.jena.riot.thrift.wire.RDF_Term ;
 import org.apache.jena.riot.thrift.wire.RDF_Triple ;
 import org.apache.jena.sparql.core.Quad ;
 
@@ -36,6 +38,11 @@ public class Thrift2StreamRDF implements VisitorStreamRowTRDF {
 
     private final StreamRDF dest ;
     private final PrefixMap pmap ;
+    // Terms of the previous row, by position, for REPEAT.
+    private Node lastSubject    = null ;
+    private Node lastPredicate  = null ;
+    private Node lastObject     = null ;
+    private Node lastGraph      = null ;
 
     public Thrift2StreamRDF(PrefixMap pmap, StreamRDF stream) {
         this.pmap = pmap ; 
@@ -44,14 +51,30 @@ public class Thrift2StreamRDF implements VisitorStreamRowTRDF {
     
     @Override
     public void visit(RDF_Triple rt) {
-        Triple t = ThriftConvert.convert(rt, pmap) ;
-        dest.triple(t) ;
+        lastSubject = convert(rt.getS(), lastSubject) ;
+        lastPredicate = convert(rt.getP(), lastPredicate) ;
+        lastObject = convert(rt.getO(), lastObject) ;
+        lastGraph = null ;
+        dest.triple(Triple.create(lastSubject, lastPredicate, lastObject)) ;
     }
 
     @Override
     public void visit(RDF_Quad rq) {
-        Quad q = ThriftConvert.convert(rq, pmap) ;
-        dest.quad(q) ;
+        Node g = rq.isSetG() ? convert(rq.getG(), lastGraph) : null ;
+        lastSubject = convert(rq.getS(), lastSubject) ;
+        lastPredicate = convert(rq.getP(), lastPredicate) ;
+        lastObject = convert(rq.getO(), lastObject) ;
+        lastGraph = g ;
+        dest.quad(Quad.create(g, lastSubject, lastPredicate, lastObject)) ;
+    }
+
+    private Node convert(RDF_Term term, Node previous) {
+        if ( term.isSetRepeat() ) {
+            if ( previous == null )
+                throw new RiotThriftException("REPEAT with no previous term") ;
+            return previous ;
+        }
+        return ThriftConvert.convert(term, pmap) ;
     }
     
     @Override
@@ -36,8 +36,10 @@ import org.apache.jena.sparql.util.Context ;
 public class WriterDatasetThrift implements WriterDatasetRIOT
 {
     private final boolean withValues ;
+    private final boolean withRepeat ;
     public WriterDatasetThrift(RDFFormat fmt) {
         this.withValues = RDFFormat.RDF_THRIFT_VALUES.equals(fmt) ;
+        this.withRepeat = RDFFormat.RDF_THRIFT_REPEAT.equals(fmt) ;
     }
     @Override
     public Lang getLang() {
@@ -49,7 +51,7 @@ public class WriterDatasetThrift implements WriterDatasetRIOT
     }
     @Override
     public void write(OutputStream out, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
-        StreamRDF stream = BinRDF.streamToOutputStream(out, withValues) ;
+        StreamRDF stream = BinRDF.streamToOutputStream(out, withValues, withRepeat) ;
         stream.start();
         StreamRDFOps.sendDatasetToStream(dsg, stream, prefixMap) ;
         stream.finish();
@@ -37,8 +37,10 @@ import org.apache.jena.sparql.util.Context ;
 public class WriterGraphThrift implements WriterGraphRIOT
 {
     private final boolean withValues ;
+    private final boolean withRepeat ;
     public WriterGraphThrift(RDFFormat fmt) {
         this.withValues = RDFFormat.RDF_THRIFT_VALUES.equals(fmt) ;
+        this.withRepeat = RDFFormat.RDF_THRIFT_REPEAT.equals(fmt) ;
     }
     @Override
     public Lang getLang() {
@@ -50,7 +52,7 @@ public class WriterGraphThrift implements WriterGraphRIOT
     }
     @Override
     public void write(OutputStream out, Graph graph, PrefixMap prefixMap, String baseURI, Context context) {
-        StreamRDF stream = BinRDF.streamToOutputStream(out, withValues) ;
+        StreamRDF stream = BinRDF.streamToOutputStream(out, withValues, withRepeat) ;
         stream.start() ;
         StreamRDFOps.graphToStream(graph, stream) ;
         stream.finish() ;
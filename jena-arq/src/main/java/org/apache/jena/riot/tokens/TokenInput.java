@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.tokens;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.io.PeekReader;
+import org.apache.jena.atlas.lib.Closeable;
+
+/**
+ * The characters read by {@link TokenizerText}, with line and column numbers.
+ * <p>
+ * The character operations are those of {@link PeekReader}. The "run" operations
+ * let an input that has the characters in a buffer move over runs of plain ASCII
+ * in one step; they do nothing by default and the tokenizer then goes character
+ * by character.
+ */
+abstract class TokenInput implements Closeable {
+
+    /** Input from a {@link PeekReader}. */
+    static TokenInput create(PeekReader reader) {
+        return new TokenInputReader(reader);
+    }
+
+    abstract boolean eof();
+
+    abstract int peekChar();
+
+    abstract int readChar();
+
+    abstract void pushbackChar(int ch);
+
+    abstract long getLineNum();
+
+    abstract long getColNum();
+
+    abstract long getPosition();
+
+    /** Move over characters of a comment, stopping before the end of line or at any character needing more checking. */
+    void skipCommentRun() {}
+
+    /**
+     * Read a run of IRI characters that need no further checking. If the run is the
+     * whole IRI and {@code sb} is empty, read the closing '>' as well and return the
+     * IRI. Otherwise append the run to {@code sb} and return null.
+     */
+    String readIRIRun(StringBuilder sb) {
+        return null;
+    }
+
+    /**
+     * Read a run of characters of a single line string that are not escapes or the
+     * closing quote {@code endCh}. If the run is the whole string and {@code sb} is
+     * empty, read the closing quote as well and return the string. Otherwise append
+     * the run to {@code sb} and return null.
+     */
+    String readStringRun(StringBuilder sb, int endCh) {
+        return null;
+    }
+
+    /** Append a run of characters of a long string that are not escapes, quotes or newlines. */
+    void readLongStringRun(StringBuilder sb, int quoteChar) {}
+
+    /**
+     * Read a run of blank node label or prefixed name characters, other than '.'.
+     * If there is such a run, append {@code chDot} (when it is not 0) and then the
+     * run to {@code sb}, and return true.
+     */
+    boolean readLabelRun(StringBuilder sb, int chDot) {
+        return false;
+    }
+
+    private static final class TokenInputReader extends TokenInput {
+        private final PeekReader reader;
+
+        TokenInputReader(PeekReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        boolean eof() {
+            return reader.eof();
+        }
+
+        @Override
+        int peekChar() {
+            return reader.peekChar();
+        }
+
+        @Override
+        int readChar() {
+            return reader.readChar();
+        }
+
+        @Override
+        void pushbackChar(int ch) {
+            reader.pushbackChar(ch);
+        }
+
+        @Override
+        long getLineNum() {
+            return reader.getLineNum();
+        }
+
+        @Override
+        long getColNum() {
+            return reader.getColNum();
+        }
+
+        @Override
+        long getPosition() {
+            return reader.getPosition();
+        }
+
+        @Override
+        public void close() {
+            IO.close(reader);
+        }
+    }
+}
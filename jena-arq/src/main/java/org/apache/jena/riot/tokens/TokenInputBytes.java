@@ -0,0 +1,374 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.tokens;
+
+import static org.apache.jena.atlas.lib.Chars.*;
+import static org.apache.jena.riot.system.RiotChars.isA2ZN;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.Chars;
+import org.apache.jena.riot.RiotParseException;
+
+/**
+ * Input for {@link TokenizerText} from UTF-8 bytes, working directly on the bytes.
+ * <p>
+ * The input is not decoded to characters in a separate step: runs of plain ASCII
+ * in IRIs, strings, blank node labels and comments are found by scanning the byte
+ * buffer and turned into strings in one go. Escapes and non-ASCII characters go
+ * through the character operations, which decode UTF-8 as they go.
+ * <p>
+ * The character operations follow {@link org.apache.jena.atlas.io.PeekReader}: the
+ * line number, column number and position count characters, and a pushed back
+ * character does not alter them.
+ */
+final class TokenInputBytes extends TokenInput {
+
+    private static final int BUFFER_SIZE   = 128*1024;
+    private static final int PUSHBACK_SIZE = 10;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    // Next byte to read and end of valid bytes in the buffer.
+    private int idx = 0;
+    private int limit = 0;
+    private boolean inputFinished = false;
+    // Set when the high surrogate of a 4 byte sequence has been read: the low
+    // surrogate is next and idx is still at the start of the sequence.
+    private boolean lowSurrogateNext = false;
+
+    private char[] pushbackChars = new char[PUSHBACK_SIZE];
+    private int idxPushback = -1;
+
+    private long posn = 0;
+    private long colNum = INIT_COL;
+    private long lineNum = INIT_LINE;
+
+    private static final int INIT_LINE = 1;
+    private static final int INIT_COL  = 1;
+
+    TokenInputBytes(InputStream input) {
+        this.input = input;
+        // Skip BOM.
+        if ( peekChar() == Chars.BOM )
+            readChar();
+    }
+
+    @Override
+    boolean eof() {
+        return peekChar() == EOF;
+    }
+
+    @Override
+    int peekChar() {
+        if ( idxPushback >= 0 )
+            return pushbackChars[idxPushback];
+        if ( idx >= limit && !fill(1) )
+            return EOF;
+        int b = buffer[idx];
+        if ( b >= 0 )
+            return b;
+        return decode(false);
+    }
+
+    @Override
+    int readChar() {
+        if ( idxPushback >= 0 )
+            return pushbackChars[idxPushback--];
+        if ( idx >= limit && !fill(1) )
+            return EOF;
+        int b = buffer[idx];
+        if ( b >= 0 ) {
+            idx++;
+            posn++;
+            if ( b == NL ) {
+                lineNum++;
+                colNum = INIT_COL;
+            } else
+                colNum++;
+            return b;
+        }
+        int ch = decode(true);
+        posn++;
+        colNum++;
+        return ch;
+    }
+
+    @Override
+    void pushbackChar(int ch) {
+        if ( idxPushback+1 >= pushbackChars.length ) {
+            char[] pushbackChars2 = new char[pushbackChars.length * 2];
+            System.arraycopy(pushbackChars, 0, pushbackChars2, 0, pushbackChars.length);
+            pushbackChars = pushbackChars2;
+        }
+        if ( ch == EOF )
+            IO.exception("Illegal character to push back: " + ch);
+        idxPushback++;
+        pushbackChars[idxPushback] = (char)ch;
+    }
+
+    @Override
+    long getLineNum() {
+        return lineNum;
+    }
+
+    @Override
+    long getColNum() {
+        return colNum;
+    }
+
+    @Override
+    long getPosition() {
+        return posn;
+    }
+
+    @Override
+    public void close() {
+        IO.close(input);
+    }
+
+    // ---- Runs of ASCII.
+
+    @Override
+    void skipCommentRun() {
+        while ( bulkReady() ) {
+            int i = idx;
+            while ( i < limit ) {
+                int b = buffer[i];
+                if ( b < 0 || b == NL || b == CR )
+                    break;
+                i++;
+            }
+            boolean more = ( i == limit );
+            advanceASCII(i-idx);
+            if ( !more )
+                return;
+        }
+    }
+
+    @Override
+    String readIRIRun(StringBuilder sb) {
+        if ( !bulkReady() )
+            return null;
+        int start = idx;
+        int i = start;
+        while ( i < limit ) {
+            int b = buffer[i];
+            if ( b < 0 || !plainIRIByte[b] )
+                break;
+            i++;
+        }
+        if ( i < limit && buffer[i] == CH_GT && sb.length() == 0 ) {
+            // The whole IRI.
+            String iriStr = asciiString(start, i);
+            advanceASCII(i+1-start);
+            return iriStr;
+        }
+        appendASCII(sb, start, i);
+        advanceASCII(i-start);
+        return null;
+    }
+
+    @Override
+    String readStringRun(StringBuilder sb, int endCh) {
+        if ( !bulkReady() )
+            return null;
+        int start = idx;
+        int i = start;
+        while ( i < limit ) {
+            int b = buffer[i];
+            if ( b < 0 || b == endCh || b == CH_RSLASH || b == NL )
+                break;
+            i++;
+        }
+        if ( i < limit && buffer[i] == endCh && sb.length() == 0 ) {
+            // The whole string.
+            String str = asciiString(start, i);
+            advanceASCII(i+1-start);
+            return str;
+        }
+        appendASCII(sb, start, i);
+        advanceASCII(i-start);
+        return null;
+    }
+
+    @Override
+    void readLongStringRun(StringBuilder sb, int quoteChar) {
+        if ( !bulkReady() )
+            return;
+        int start = idx;
+        int i = start;
+        while ( i < limit ) {
+            int b = buffer[i];
+            if ( b < 0 || b == quoteChar || b == CH_RSLASH || b == NL )
+                break;
+            i++;
+        }
+        appendASCII(sb, start, i);
+        advanceASCII(i-start);
+    }
+
+    @Override
+    boolean readLabelRun(StringBuilder sb, int chDot) {
+        if ( !bulkReady() )
+            return false;
+        int i = idx;
+        while ( i < limit ) {
+            int b = buffer[i];
+            if ( b < 0 || !plainLabelByte[b] )
+                break;
+            i++;
+        }
+        if ( i == idx )
+            return false;
+        if ( chDot != 0 )
+            sb.append((char)chDot);
+        appendASCII(sb, idx, i);
+        advanceASCII(i-idx);
+        return true;
+    }
+
+    /** Whether the bulk operations on the buffer can be used. */
+    private boolean bulkReady() {
+        if ( idxPushback >= 0 || lowSurrogateNext )
+            return false;
+        return idx < limit || fill(1);
+    }
+
+    /** Move over ASCII bytes that are not newlines. */
+    private void advanceASCII(int n) {
+        idx += n;
+        posn += n;
+        colNum += n;
+    }
+
+    /** String for the ASCII bytes from start (inclusive) to end (exclusive) */
+    private String asciiString(int start, int end) {
+        return new String(buffer, start, end-start, StandardCharsets.ISO_8859_1);
+    }
+
+    private void appendASCII(StringBuilder sb, int start, int end) {
+        for ( int i = start ; i < end ; i++ )
+            sb.append((char)buffer[i]);
+    }
+
+    /**
+     * Ensure there are at least N bytes available, unless the input has ended.
+     * Returns false if fewer than N bytes are available.
+     */
+    private boolean fill(int N) {
+        if ( limit - idx >= N )
+            return true;
+        if ( inputFinished )
+            return false;
+        // Move the unread bytes to the start.
+        int remaining = limit - idx;
+        if ( remaining > 0 )
+            System.arraycopy(buffer, idx, buffer, 0, remaining);
+        idx = 0;
+        limit = remaining;
+        try {
+            while ( limit < N ) {
+                int x = input.read(buffer, limit, buffer.length - limit);
+                if ( x < 0 ) {
+                    inputFinished = true;
+                    return false;
+                }
+                limit += x;
+            }
+        } catch (IOException ex) {
+            throw new RiotParseException("Bad input stream [" + ex + "]", lineNum, colNum);
+        }
+        return true;
+    }
+
+    /**
+     * Decode the multi-byte UTF-8 sequence at idx. If "advance", move over it, except
+     * for the high surrogate of a 4 byte sequence. Position, line and column are
+     * handled by the caller.
+     */
+    private int decode(boolean advance) {
+        int b0 = buffer[idx] & 0xFF;
+        int len;
+        int cp;
+        if ( b0 >= 0xC2 && b0 <= 0xDF ) {
+            len = 2;
+            cp = b0 & 0x1F;
+        } else if ( b0 >= 0xE0 && b0 <= 0xEF ) {
+            len = 3;
+            cp = b0 & 0x0F;
+        } else if ( b0 >= 0xF0 && b0 <= 0xF4 ) {
+            len = 4;
+            cp = b0 & 0x07;
+        } else
+            throw badEncoding();
+        if ( !fill(len) )
+            throw badEncoding();
+        // fill may have moved the bytes.
+        for ( int i = 1 ; i < len ; i++ ) {
+            int b = buffer[idx+i] & 0xFF;
+            if ( (b & 0xC0) != 0x80 )
+                throw badEncoding();
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        // Overlong forms, surrogates and beyond U+10FFFF are illegal.
+        if ( ( len == 3 && ( cp < 0x800 || Character.isSurrogate((char)cp) ) ) ||
+             ( len == 4 && ( cp < 0x10000 || cp > Character.MAX_CODE_POINT ) ) )
+            throw badEncoding();
+        if ( len < 4 ) {
+            if ( advance )
+                idx += len;
+            return cp;
+        }
+        if ( !lowSurrogateNext ) {
+            if ( advance )
+                lowSurrogateNext = true;
+            return Character.highSurrogate(cp);
+        }
+        if ( advance ) {
+            lowSurrogateNext = false;
+            idx += len;
+        }
+        return Character.lowSurrogate(cp);
+    }
+
+    private RiotParseException badEncoding() {
+        return new RiotParseException("Bad character encoding", lineNum, colNum);
+    }
+
+    // Bytes that can be in an IRI without further checking: printable ASCII, except
+    // the ones that are illegal, '\' and '>'.
+    private static final boolean[] plainIRIByte = new boolean[128];
+    static {
+        for ( int i = 0x21 ; i < 0x7F ; i++ )
+            plainIRIByte[i] = true;
+        for ( char ch : "<>\"{}|^`\\".toCharArray() )
+            plainIRIByte[ch] = false;
+    }
+
+    // ASCII bytes that can be in a blank node label or a prefixed name, other than '.'.
+    private static final boolean[] plainLabelByte = new boolean[128];
+    static {
+        for ( int i = 0 ; i < 128 ; i++ )
+            plainLabelByte[i] = isA2ZN(i) || i == '_' || i == '-';
+    }
+}
@@ -28,6 +28,12 @@ import org.apache.jena.atlas.lib.StrUtils ;
 
 public class TokenizerFactory {
     
+    /**
+     * Whether {@link #makeTokenizerRDF} uses {@link #makeTokenizerBytes} rather than
+     * a UTF-8 decoding reader (the default).
+     */
+    public static boolean UseTokenizerBytes = false ;
+
     /** Discouraged - be careful about character sets */
     @Deprecated
     public static Tokenizer makeTokenizer(Reader reader) {
@@ -50,6 +56,19 @@ public class TokenizerFactory {
         return tokenizer ;
     }
 
+    /** Tokenizer working directly on the bytes of UTF-8 input. BOM will be removed */
+    public static Tokenizer makeTokenizerBytes(InputStream in) {
+        Tokenizer tokenizer = new TokenizerText(new TokenInputBytes(in), false) ;
+        return tokenizer ;
+    }
+
+    /** Tokenizer used by the RDF parsers for UTF-8 input. See {@link #UseTokenizerBytes}. */
+    public static Tokenizer makeTokenizerRDF(InputStream in) {
+        if ( UseTokenizerBytes )
+            return makeTokenizerBytes(in) ;
+        return makeTokenizerUTF8(in) ;
+    }
+
     public static Tokenizer makeTokenizerASCII(InputStream in) {
         PeekReader peekReader = PeekReader.makeASCII(in) ;
         Tokenizer tokenizer = new TokenizerText(peekReader) ;
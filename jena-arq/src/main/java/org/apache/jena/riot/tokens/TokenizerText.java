@@ -49,7 +49,7 @@ public final class TokenizerText implements Tokenizer
 
     private Token token = null; 
     private final StringBuilder stringBuilder = new StringBuilder(200);
-    private final PeekReader reader;
+    private final TokenInput input;
     private final boolean lineMode;        // Whether whitespace includes or excludes NL (in its various forms).  
     private boolean finished = false;
     private TokenChecker checker = null;
@@ -78,7 +78,11 @@ public final class TokenizerText implements Tokenizer
     }
     
     /*package*/ TokenizerText(PeekReader reader, boolean lineMode) {
-        this.reader = reader;
+        this(TokenInput.create(reader), lineMode);
+    }
+
+    /*package*/ TokenizerText(TokenInput input, boolean lineMode) {
+        this.input = input;
         this.lineMode = lineMode;
     }
     
@@ -91,7 +95,7 @@ public final class TokenizerText implements Tokenizer
 
         try {
             skip();
-            if ( reader.eof() ) {
+            if ( input.eof() ) {
                 // close();
                 finished = true;
                 return false;
@@ -106,11 +110,11 @@ public final class TokenizerText implements Tokenizer
         } catch (AtlasException ex) {
             if ( ex.getCause() != null ) {
                 if ( ex.getCause().getClass() == java.nio.charset.MalformedInputException.class )
-                    throw new RiotParseException("Bad character encoding", reader.getLineNum(), reader.getColNum());
-                throw new RiotParseException("Bad input stream [" + ex.getCause() + "]", reader.getLineNum(),
-                                             reader.getColNum());
+                    throw new RiotParseException("Bad character encoding", input.getLineNum(), input.getColNum());
+                throw new RiotParseException("Bad input stream [" + ex.getCause() + "]", input.getLineNum(),
+                                             input.getColNum());
             }
-            throw new RiotParseException("Bad input stream", reader.getLineNum(), reader.getColNum());
+            throw new RiotParseException("Bad input stream", input.getLineNum(), input.getColNum());
         }
     }
     
@@ -158,7 +162,7 @@ public final class TokenizerText implements Tokenizer
     
     @Override
     public void close() {
-        IO.close(reader);
+        IO.close(input);
     }
 
     // ---- Machinary
@@ -166,18 +170,19 @@ public final class TokenizerText implements Tokenizer
     private void skip() {
         int ch = EOF;
         for (;;) {
-            if ( reader.eof() )
+            if ( input.eof() )
                 return;
 
-            ch = reader.peekChar();
+            ch = input.peekChar();
             if ( ch == CH_HASH ) {
-                reader.readChar();
+                input.readChar();
                 // Comment. Skip to NL
+                input.skipCommentRun();
                 for (;;) {
-                    ch = reader.peekChar();
+                    ch = input.peekChar();
                     if ( ch == EOF || isNewlineChar(ch) )
                         break;
-                    reader.readChar();
+                    input.readChar();
                 }
             }
 
@@ -189,18 +194,18 @@ public final class TokenizerText implements Tokenizer
                 if ( !isWhitespace(ch) )
                     break;
             }
-            reader.readChar();
+            input.readChar();
         }
     }
 
     private Token parseToken() {
         token = new Token(getLine(), getColumn());
 
-        int ch = reader.peekChar();
+        int ch = input.peekChar();
 
         // ---- IRI
         if ( ch == CH_LT ) {
-            reader.readChar();
+            input.readChar();
             token.setImage(readIRI());
             token.setType(TokenType.IRI);
             if ( Checking )
@@ -214,13 +219,13 @@ public final class TokenizerText implements Tokenizer
             // We incorporate this into a token for LITERAL_LANG or LITERAL_DT.  
             token.setType(TokenType.STRING);
             
-            reader.readChar();
-            int ch2 = reader.peekChar();
+            input.readChar();
+            int ch2 = input.peekChar();
             if ( ch2 == ch ) {
-                reader.readChar(); // Read potential second quote.
-                int ch3 = reader.peekChar();
+                input.readChar(); // Read potential second quote.
+                int ch3 = input.peekChar();
                 if ( ch3 == ch ) {
-                    reader.readChar();     // Read potential third quote.
+                    input.readChar();     // Read potential third quote.
                     token.setImage(readLongString(ch, false));
                     StringType st = (ch == CH_QUOTE1) ? StringType.LONG_STRING1 : StringType.LONG_STRING2;
                     token.setStringType(st);
@@ -229,8 +234,8 @@ public final class TokenizerText implements Tokenizer
                     // Must be '' or ""
                     // No need to pushback characters as we know the lexical
                     // form is the empty string.
-                    // if ( ch2 != EOF ) reader.pushbackChar(ch2);
-                    // if ( ch1 != EOF ) reader.pushbackChar(ch1); // Must be
+                    // if ( ch2 != EOF ) input.pushbackChar(ch2);
+                    // if ( ch1 != EOF ) input.pushbackChar(ch1); // Must be
                     // '' or ""
                     token.setImage("");
                     StringType st = (ch == CH_QUOTE1) ? StringType.STRING1 : StringType.STRING2;
@@ -248,8 +253,8 @@ public final class TokenizerText implements Tokenizer
             skip();
             
             // Literal. Is it @ or ^^
-            if ( reader.peekChar() == CH_AT ) {
-                reader.readChar();
+            if ( input.peekChar() == CH_AT ) {
+                input.readChar();
                 // White space is not legal here.
                 // The Turtle spec terminal is "LANGTAG" which includes the '@'.
                 Token mainToken = new Token(token);
@@ -259,12 +264,12 @@ public final class TokenizerText implements Tokenizer
                 token = mainToken;
                 if ( Checking )
                     checkLiteralLang(token.getImage(), token.getImage2());
-            } else if ( reader.peekChar() == '^' ) {
+            } else if ( input.peekChar() == '^' ) {
                 expect("^^");
                 // White space is legal after a ^^. 
                 // It's not a good idea, but it is legal.
 //                // Check no whitespace.
-//                int nextCh = reader.peekChar();
+//                int nextCh = input.peekChar();
 //                if ( isWhitespace(nextCh) )
 //                    exception("No whitespace after ^^ in literal with datatype");
                 skip();
@@ -293,10 +298,10 @@ public final class TokenizerText implements Tokenizer
         }
 
         if ( ch == CH_UNDERSCORE ) {
-            reader.readChar();
-            int ch2 = reader.peekChar();
+            input.readChar();
+            int ch2 = input.peekChar();
             if ( ch2 == CH_COLON ) {
-                reader.readChar();
+                input.readChar();
                 // Blank node :label must be at least one char
                 token.setImage(readBlankNodeLabel());
                 token.setType(TokenType.BNODE);
@@ -310,7 +315,7 @@ public final class TokenizerText implements Tokenizer
 
         // A directive (not part of a literal as lang tag)
         if ( ch == CH_AT ) {
-            reader.readChar();
+            input.readChar();
             token.setType(TokenType.DIRECTIVE);
             token.setImage(readWord(false));
             if ( Checking )
@@ -320,7 +325,7 @@ public final class TokenizerText implements Tokenizer
 
         // Variable
         if ( ch == CH_QMARK ) {
-            reader.readChar();
+            input.readChar();
             token.setType(TokenType.VAR);
             // Character set?
             token.setImage(readVarName());
@@ -333,11 +338,11 @@ public final class TokenizerText implements Tokenizer
         { 
             // DOT can start a decimal.  Check for digit.
             case CH_DOT:
-                reader.readChar();
-                ch = reader.peekChar();
+                input.readChar();
+                ch = input.peekChar();
                 if ( range(ch, '0', '9') ) {
                     // Not a DOT after all.
-                    reader.pushbackChar(CH_DOT);
+                    input.pushbackChar(CH_DOT);
                     readNumber();
                     if ( Checking )
                         checkNumber(token.getImage(), token.getImage2());
@@ -346,27 +351,27 @@ public final class TokenizerText implements Tokenizer
                 token.setType(TokenType.DOT);
                 return token;
             
-            case CH_SEMICOLON:  reader.readChar(); token.setType(TokenType.SEMICOLON); /*token.setImage(CH_SEMICOLON);*/ return token;
-            case CH_COMMA:      reader.readChar(); token.setType(TokenType.COMMA);     /*token.setImage(CH_COMMA);*/ return token;
-            case CH_LBRACE:     reader.readChar(); token.setType(TokenType.LBRACE);    /*token.setImage(CH_LBRACE);*/ return token;
-            case CH_RBRACE:     reader.readChar(); token.setType(TokenType.RBRACE);    /*token.setImage(CH_RBRACE);*/ return token;
-            case CH_LPAREN:     reader.readChar(); token.setType(TokenType.LPAREN);    /*token.setImage(CH_LPAREN);*/ return token;
-            case CH_RPAREN:     reader.readChar(); token.setType(TokenType.RPAREN);    /*token.setImage(CH_RPAREN);*/ return token;
-            case CH_LBRACKET:   reader.readChar(); token.setType(TokenType.LBRACKET);  /*token.setImage(CH_LBRACKET);*/ return token;
-            case CH_RBRACKET:   reader.readChar(); token.setType(TokenType.RBRACKET);  /*token.setImage(CH_RBRACKET);*/ return token;
-            case CH_EQUALS:     reader.readChar(); token.setType(TokenType.EQUALS);    /*token.setImage(CH_EQUALS);*/ return token;
-            case CH_SLASH:      reader.readChar(); token.setType(TokenType.SLASH);     /*token.setImage(CH_SLASH);*/ return token;
-            case CH_RSLASH:     reader.readChar(); token.setType(TokenType.RSLASH);    /*token.setImage(CH_RSLASH);*/ return token;
-            case CH_VBAR:       reader.readChar(); token.setType(TokenType.VBAR);      /*token.setImage(CH_VBAR);*/ return token;
-            case CH_AMPHERSAND: reader.readChar(); token.setType(TokenType.AMPHERSAND);/*token.setImage(CH_AMPHERSAND);*/ return token;
+            case CH_SEMICOLON:  input.readChar(); token.setType(TokenType.SEMICOLON); /*token.setImage(CH_SEMICOLON);*/ return token;
+            case CH_COMMA:      input.readChar(); token.setType(TokenType.COMMA);     /*token.setImage(CH_COMMA);*/ return token;
+            case CH_LBRACE:     input.readChar(); token.setType(TokenType.LBRACE);    /*token.setImage(CH_LBRACE);*/ return token;
+            case CH_RBRACE:     input.readChar(); token.setType(TokenType.RBRACE);    /*token.setImage(CH_RBRACE);*/ return token;
+            case CH_LPAREN:     input.readChar(); token.setType(TokenType.LPAREN);    /*token.setImage(CH_LPAREN);*/ return token;
+            case CH_RPAREN:     input.readChar(); token.setType(TokenType.RPAREN);    /*token.setImage(CH_RPAREN);*/ return token;
+            case CH_LBRACKET:   input.readChar(); token.setType(TokenType.LBRACKET);  /*token.setImage(CH_LBRACKET);*/ return token;
+            case CH_RBRACKET:   input.readChar(); token.setType(TokenType.RBRACKET);  /*token.setImage(CH_RBRACKET);*/ return token;
+            case CH_EQUALS:     input.readChar(); token.setType(TokenType.EQUALS);    /*token.setImage(CH_EQUALS);*/ return token;
+            case CH_SLASH:      input.readChar(); token.setType(TokenType.SLASH);     /*token.setImage(CH_SLASH);*/ return token;
+            case CH_RSLASH:     input.readChar(); token.setType(TokenType.RSLASH);    /*token.setImage(CH_RSLASH);*/ return token;
+            case CH_VBAR:       input.readChar(); token.setType(TokenType.VBAR);      /*token.setImage(CH_VBAR);*/ return token;
+            case CH_AMPHERSAND: input.readChar(); token.setType(TokenType.AMPHERSAND);/*token.setImage(CH_AMPHERSAND);*/ return token;
             // Specials (if blank node processing off)
-            //case CH_COLON:      reader.readChar(); token.setType(TokenType.COLON); return token;
+            //case CH_COLON:      input.readChar(); token.setType(TokenType.COLON); return token;
 
             // Done above with blank nodes.
-            //case CH_UNDERSCORE: reader.readChar(); token.setType(TokenType.UNDERSCORE); /*token.setImage(CH_UNDERSCORE);*/ return token;
-            case CH_LT:         reader.readChar(); token.setType(TokenType.LT); /*token.setImage(CH_LT);*/ return token;
-            case CH_GT:         reader.readChar(); token.setType(TokenType.GT); /*token.setImage(CH_GT);*/ return token;
-            case CH_STAR:       reader.readChar(); token.setType(TokenType.STAR); /*token.setImage(CH_STAR);*/ return token;
+            //case CH_UNDERSCORE: input.readChar(); token.setType(TokenType.UNDERSCORE); /*token.setImage(CH_UNDERSCORE);*/ return token;
+            case CH_LT:         input.readChar(); token.setType(TokenType.LT); /*token.setImage(CH_LT);*/ return token;
+            case CH_GT:         input.readChar(); token.setType(TokenType.GT); /*token.setImage(CH_GT);*/ return token;
+            case CH_STAR:       input.readChar(); token.setType(TokenType.STAR); /*token.setImage(CH_STAR);*/ return token;
 
             // XXX Multi character symbols
             // Two character tokens && || GE >= , LE <=
@@ -395,12 +400,12 @@ public final class TokenizerText implements Tokenizer
         int signCh = 0;
 
         if ( ch == CH_PLUS || ch == CH_MINUS ) {
-            reader.readChar();
-            int ch2 = reader.peekChar();
+            input.readChar();
+            int ch2 = input.peekChar();
 
             if ( !range(ch2, '0', '9') ) {
                 // ch was end of symbol.
-                // reader.readChar();
+                // input.readChar();
                 if ( ch == CH_PLUS )
                     token.setType(TokenType.PLUS);
                 else
@@ -411,7 +416,7 @@ public final class TokenizerText implements Tokenizer
             // Already got a + or - ...
             // readNumberNoSign
             // Because next, old code proceses signs.
-            reader.pushbackChar(ch);
+            input.pushbackChar(ch);
             signCh = ch;
             // Drop to next "if"
         }
@@ -429,9 +434,9 @@ public final class TokenizerText implements Tokenizer
             //** stringBuilder.setLength(0);
             // Any number of NL and CR become one "NL" token.
             do {
-                int ch2 = reader.readChar();
+                int ch2 = input.readChar();
                 //** stringBuilder.append((char)ch2);
-            } while (isNewlineChar(reader.peekChar()));
+            } while (isNewlineChar(input.peekChar()));
             token.setType(TokenType.NL);
             //** token.setImage(stringBuilder.toString());
             return token;
@@ -457,7 +462,10 @@ public final class TokenizerText implements Tokenizer
     private String readIRI() {
         stringBuilder.setLength(0);
         for (;;) {
-            int ch = reader.readChar();
+            String iriStr = input.readIRIRun(stringBuilder);
+            if ( iriStr != null )
+                return iriStr;
+            int ch = input.readChar();
             switch(ch) {
                 case EOF:
                     error("Broken IRI (End of file)"); return null;
@@ -502,7 +510,7 @@ public final class TokenizerText implements Tokenizer
     
     // Read a unicode escape : does not allow \\ bypass
     private final int readUnicodeEscape() {
-        int ch = reader.readChar();
+        int ch = input.readChar();
         if ( ch == EOF )
             error("Broken escape sequence");
     
@@ -516,13 +524,13 @@ public final class TokenizerText implements Tokenizer
     }
 
     private void readPrefixedNameOrKeyword(Token token) {
-        long posn = reader.getPosition();
+        long posn = input.getPosition();
         String prefixPart = readPrefixPart(); // Prefix part or keyword
         token.setImage(prefixPart);
         token.setType(TokenType.KEYWORD);
-        int ch = reader.peekChar();
+        int ch = input.peekChar();
         if ( ch == CH_COLON ) {
-            reader.readChar();
+            input.readChar();
             token.setType(TokenType.PREFIXED_NAME);
             String ln = readLocalPart(); // Local part
             token.setImage2(ln);
@@ -532,7 +540,7 @@ public final class TokenizerText implements Tokenizer
 
         // If we made no progress, nothing found, not even a keyword -- it's an
         // error.
-        if ( posn == reader.getPosition() )
+        if ( posn == input.getPosition() )
             error("Failed to find a prefix name or keyword: %c(%d;0x%04X)", ch, ch, ch);
 
         if ( Checking )
@@ -571,39 +579,41 @@ public final class TokenizerText implements Tokenizer
         stringBuilder.setLength(0);
 
         // -- Test first character
-        int ch = reader.peekChar();
+        int ch = input.peekChar();
         if ( ch == EOF )
             return "";
         if ( isLocalPart ) {
             if ( ch == CH_COLON ) {
-                reader.readChar();
+                input.readChar();
                 stringBuilder.append((char)ch);
             }
 
             // processPLX
             else if ( ch == CH_PERCENT || ch == CH_RSLASH ) {
-                reader.readChar();
+                input.readChar();
                 processPLX(ch);
             } else if ( RiotChars.isPNChars_U_N(ch) ) {
                 stringBuilder.append((char)ch);
-                reader.readChar();
+                input.readChar();
             } else
                 return "";
         } else {
             if ( !RiotChars.isPNCharsBase(ch) )
                 return "";
             stringBuilder.append((char)ch);
-            reader.readChar();
+            input.readChar();
         }
         // Done first character
         int chDot = 0;
 
         for (;;) {
-            ch = reader.peekChar();
+            if ( input.readLabelRun(stringBuilder, chDot) )
+                chDot = 0;
+            ch = input.peekChar();
             boolean valid = false;
 
             if ( isLocalPart && (ch == CH_PERCENT || ch == CH_RSLASH) ) {
-                reader.readChar();
+                input.readChar();
                 if ( chDot != 0 )
                     stringBuilder.append((char)chDot);
                 processPLX(ch);
@@ -625,7 +635,7 @@ public final class TokenizerText implements Tokenizer
                 break; // Exit loop
 
             // Valid character.
-            reader.readChar();
+            input.readChar();
             // Was there also a DOT previous loop?
             if ( chDot != 0 ) {
                 stringBuilder.append((char)chDot);
@@ -643,7 +653,7 @@ public final class TokenizerText implements Tokenizer
 
         if ( chDot == CH_DOT )
             // Unread it.
-            reader.pushbackChar(chDot);
+            input.pushbackChar(chDot);
         return stringBuilder.toString();
     }
 
@@ -654,17 +664,17 @@ public final class TokenizerText implements Tokenizer
         {
             stringBuilder.append((char)ch);
 
-            ch = reader.peekChar();
+            ch = input.peekChar();
             if ( ! isHexChar(ch) )
                 error("Not a hex character: '%c'",ch);
             stringBuilder.append((char)ch);
-            reader.readChar();
+            input.readChar();
 
-            ch = reader.peekChar();
+            ch = input.peekChar();
             if ( ! isHexChar(ch) )
                 error("Not a hex character: '%c'",ch);
             stringBuilder.append((char)ch);
-            reader.readChar();
+            input.readChar();
         }
         else if ( ch == CH_RSLASH )
         {
@@ -685,7 +695,10 @@ public final class TokenizerText implements Tokenizer
         // Reads terminating delimiter 
 
         for (;;) {
-            int ch = reader.readChar();
+            String str = input.readStringRun(stringBuilder, endCh);
+            if ( str != null )
+                return str;
+            int ch = input.readChar();
             if ( ch == EOF ) {
                 // if ( endNL ) return stringBuilder.toString();
                 error("Broken token: " + stringBuilder.toString(), y, x);
@@ -707,7 +720,8 @@ public final class TokenizerText implements Tokenizer
     private String readLongString(int quoteChar, boolean endNL) {
         stringBuilder.setLength(0);
         for (;;) {
-            int ch = reader.readChar();
+            input.readLongStringRun(stringBuilder, quoteChar);
+            int ch = input.readChar();
             if ( ch == EOF ) {
                 if ( endNL )
                     return stringBuilder.toString();
@@ -757,23 +771,23 @@ public final class TokenizerText implements Tokenizer
         stringBuilder.setLength(0);
         int idx = 0;
         if ( !leadingDigitAllowed ) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( Character.isDigit(ch) )
                 return "";
         }
 
         // Used for local part of prefix names =>
         if ( !leadingSignAllowed ) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( ch == '-' || ch == '+' )
                 return "";
         }
 
         for (;; idx++) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
 
             if ( isAlphaNumeric(ch) || Chars.charInArray(ch, extraChars) ) {
-                reader.readChar();
+                input.readChar();
                 stringBuilder.append((char)ch);
                 continue;
             } else
@@ -787,7 +801,7 @@ public final class TokenizerText implements Tokenizer
             // Check is ends in "."
             while (idx > 0 && stringBuilder.charAt(idx - 1) == CH_DOT) {
                 // Push back the dot.
-                reader.pushbackChar(CH_DOT);
+                input.pushbackChar(CH_DOT);
                 stringBuilder.setLength(idx - 1);
                 idx--;
             }
@@ -801,7 +815,7 @@ public final class TokenizerText implements Tokenizer
         stringBuilder.setLength(0);
         // First character.
         {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( ch == EOF )
                 error("Blank node label missing (EOF found)");
             if ( isWhitespace(ch) )
@@ -811,7 +825,7 @@ public final class TokenizerText implements Tokenizer
 
             if ( !RiotChars.isPNChars_U_N(ch) )
                 error("Blank node label does not start with alphabetic or _ :" + (char)ch);
-            reader.readChar();
+            input.readChar();
             stringBuilder.append((char)ch);
         }
 
@@ -820,14 +834,16 @@ public final class TokenizerText implements Tokenizer
         int chDot = 0;
 
         for (;;) {
-            int ch = reader.peekChar();
+            if ( input.readLabelRun(stringBuilder, chDot) )
+                chDot = 0;
+            int ch = input.peekChar();
             if ( ch == EOF )
                 break;
 
             // DOT magic.
             if ( !(RiotChars.isPNChars(ch) || ch == CH_DOT) )
                 break;
-            reader.readChar();
+            input.readChar();
 
             if ( chDot != 0 ) {
                 stringBuilder.append((char)chDot);
@@ -843,7 +859,7 @@ public final class TokenizerText implements Tokenizer
 
         if ( chDot == CH_DOT )
             // Unread it.
-            reader.pushbackChar(chDot);
+            input.pushbackChar(chDot);
 
         // if ( ! seen )
         // exception("Blank node label missing");
@@ -880,16 +896,16 @@ public final class TokenizerText implements Tokenizer
         */
         
         int x = 0; // Digits before a dot.
-        int ch = reader.peekChar();
+        int ch = input.peekChar();
         if ( ch == '0' ) {
             x++;
-            reader.readChar();
+            input.readChar();
             stringBuilder.append((char)ch);
-            ch = reader.peekChar();
+            ch = input.peekChar();
             if ( ch == 'x' || ch == 'X' ) {
-                reader.readChar();
+                input.readChar();
                 stringBuilder.append((char)ch);
-                readHex(reader, stringBuilder);
+                readHex(stringBuilder);
                 token.setImage(stringBuilder.toString());
                 token.setType(TokenType.HEX);
                 return;
@@ -900,9 +916,9 @@ public final class TokenizerText implements Tokenizer
 
         x += readDigits(stringBuilder);
 //        if ( x == 0 ) {}
-        ch = reader.peekChar();
+        ch = input.peekChar();
         if ( ch == CH_DOT ) {
-            reader.readChar();
+            input.readChar();
             stringBuilder.append(CH_DOT);
             isDecimal = true; // Includes things that will be doubles.
             readDigits(stringBuilder);
@@ -923,7 +939,7 @@ public final class TokenizerText implements Tokenizer
             int len = stringBuilder.length();
             if ( stringBuilder.charAt(len - 1) == CH_DOT ) {
                 stringBuilder.setLength(len - 1);
-                reader.pushbackChar(CH_DOT);
+                input.pushbackChar(CH_DOT);
                 isDecimal = false;
             }
         }
@@ -937,15 +953,15 @@ public final class TokenizerText implements Tokenizer
             token.setType(TokenType.INTEGER);
     }
 
-    private void readHex(PeekReader reader, StringBuilder sb) {
+    private void readHex(StringBuilder sb) {
         // Just after the 0x, which are in sb
         int x = 0;
         for (;;) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
 
             if ( !isHexChar(ch) )
                 break;
-            reader.readChar();
+            input.readChar();
             sb.append((char)ch);
             x++;
         }
@@ -956,10 +972,10 @@ public final class TokenizerText implements Tokenizer
     private int readDigits(StringBuilder buffer) {
         int count = 0;
         for (;;) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( !range(ch, '0', '9') )
                 break;
-            reader.readChar();
+            input.readChar();
             buffer.append((char)ch);
             count++;
         }
@@ -967,9 +983,9 @@ public final class TokenizerText implements Tokenizer
     }
 
     private void readPossibleSign(StringBuilder sb) {
-        int ch = reader.peekChar();
+        int ch = input.peekChar();
         if ( ch == '-' || ch == '+' ) {
-            reader.readChar();
+            input.readChar();
             sb.append((char)ch);
         }
     }
@@ -979,31 +995,31 @@ public final class TokenizerText implements Tokenizer
     //   If false, have moved over no more characters (due to pushbacks) 
     //   If true, at end of 3 quotes
     private boolean threeQuotes(int ch) {
-        // reader.readChar(); // Read first quote.
-        int ch2 = reader.peekChar();
+        // input.readChar(); // Read first quote.
+        int ch2 = input.peekChar();
         if ( ch2 != ch ) {
-            // reader.pushbackChar(ch2);
+            // input.pushbackChar(ch2);
             return false;
         }
 
-        reader.readChar(); // Read second quote.
-        int ch3 = reader.peekChar();
+        input.readChar(); // Read second quote.
+        int ch3 = input.peekChar();
         if ( ch3 != ch ) {
-            // reader.pushbackChar(ch3);
-            reader.pushbackChar(ch2);
+            // input.pushbackChar(ch3);
+            input.pushbackChar(ch2);
             return false;
         }
 
         // Three quotes.
-        reader.readChar(); // Read third quote.
+        input.readChar(); // Read third quote.
         return true;
     }
 
     private boolean exponent(StringBuilder sb) {
-        int ch = reader.peekChar();
+        int ch = input.peekChar();
         if ( ch != 'e' && ch != 'E' )
             return false;
-        reader.readChar();
+        input.readChar();
         sb.append((char)ch);
         readPossibleSign(sb);
         int x = readDigits(sb);
@@ -1018,9 +1034,9 @@ public final class TokenizerText implements Tokenizer
         if ( stringBuilder.length() == 0 )
             error("Bad language tag");
         for (;;) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( ch == '-' ) {
-                reader.readChar();
+                input.readChar();
                 stringBuilder.append('-');
                 int x = stringBuilder.length();
                 a2zN(stringBuilder);
@@ -1035,9 +1051,9 @@ public final class TokenizerText implements Tokenizer
     // ASCII-only e.g. in lang tags.
     private void a2z(StringBuilder sb2) {
         for (;;) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( isA2Z(ch) ) {
-                reader.readChar();
+                input.readChar();
                 stringBuilder.append((char)ch);
             } else
                 return;
@@ -1046,9 +1062,9 @@ public final class TokenizerText implements Tokenizer
 
     private void a2zN(StringBuilder sb2) {
         for (;;) {
-            int ch = reader.peekChar();
+            int ch = input.peekChar();
             if ( isA2ZN(ch) ) {
-                reader.readChar();
+                input.readChar();
                 stringBuilder.append((char)ch);
             } else
                 return;
@@ -1070,12 +1086,12 @@ public final class TokenizerText implements Tokenizer
 
     @Override
     public long getColumn() {
-        return reader.getColNum();
+        return input.getColNum();
     }
 
     @Override
     public long getLine() {
-        return reader.getLineNum();
+        return input.getLineNum();
     }
 
     // ---- Routines to check tokens
@@ -1138,7 +1154,7 @@ public final class TokenizerText implements Tokenizer
     // ---- Escape sequences
 
     private final int readLiteralEscape() {
-        int c = reader.readChar();
+        int c = input.readChar();
         if ( c == EOF )
             error("Escape sequence not completed");
 
@@ -1164,7 +1180,7 @@ public final class TokenizerText implements Tokenizer
         // | '(' | ')' | '*' | '+' | ',' | ';' | '=' | '/' | '?' | '#' | '@' |
         // '%' )
 
-        int c = reader.readChar();
+        int c = input.readChar();
         if ( c == EOF )
             error("Escape sequence not completed");
 
@@ -1202,7 +1218,7 @@ public final class TokenizerText implements Tokenizer
     }
 
     private final int readHexChar() {
-        int ch = reader.readChar();
+        int ch = input.readChar();
         if ( ch == EOF )
             error("Not a hexadecimal character (end of file)");
 
@@ -1216,31 +1232,31 @@ public final class TokenizerText implements Tokenizer
     private boolean expect(String str) {
         for (int i = 0; i < str.length(); i++) {
             char want = str.charAt(i);
-            if ( reader.eof() ) {
+            if ( input.eof() ) {
                 error("End of input during expected string: " + str);
                 return false;
             }
-            int inChar = reader.peekChar();
+            int inChar = input.peekChar();
             if ( inChar != want ) {
                 // System.err.println("N-triple reader error");
                 error("expected \"" + str + "\"");
                 return false;
             }
-            reader.readChar();
+            input.readChar();
         }
         return true;
     }
 
     private void warning(String message, Object... args) {
         String msg = String.format(message, args);
-        errorHandler.warning(msg, reader.getLineNum(), reader.getColNum());
+        errorHandler.warning(msg, input.getLineNum(), input.getColNum());
         //exception(message, args); 
     }
     
     private void error(String message, Object... args) {
         String msg = String.format(message, args);
-        long line = reader.getLineNum();
-        long col = reader.getColNum();
+        long line = input.getLineNum();
+        long col = input.getColNum();
         errorHandler.error(msg, line, col);
         // We require that errors cause the tokenizer to stop so in case the
         // provided error handler does not, we throw an exception.
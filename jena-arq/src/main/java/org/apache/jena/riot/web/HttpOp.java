@@ -1057,7 +1057,7 @@ public class HttpOp {
      */
     public static void execHttpDelete(String url, HttpResponseHandler handler, HttpClient httpClient, HttpContext httpContext) {
         HttpUriRequest httpDelete = new HttpDelete(url);
-        exec(url, httpDelete, null, handler, null, httpContext);
+        exec(url, httpDelete, null, handler, httpClient, httpContext);
     }
 
     // ---- Perform the operation!
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.writer;
+
+import java.io.OutputStream ;
+import java.io.Writer ;
+
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.system.PrefixMap ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.system.StreamRDFOps ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.util.Context ;
+
+/** JSON-LD writer that streams - one node object for each run of triples
+ *  with the same subject, and without building the JSON-LD document in memory.
+ *  @see WriterStreamRDFJsonLD
+ */
+public class JsonLDWriterBlocks extends WriterDatasetRIOTBase
+{
+    @Override
+    public Lang getLang() {
+        return Lang.JSONLD ;
+    }
+
+    @Override
+    public void write(Writer out, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
+        output(new WriterStreamRDFJsonLD(out), dsg, prefixMap) ;
+    }
+
+    @Override
+    public void write(OutputStream out, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
+        output(new WriterStreamRDFJsonLD(out), dsg, prefixMap) ;
+    }
+
+    private static void output(StreamRDF dest, DatasetGraph dsg, PrefixMap prefixMap) {
+        dest.start() ;
+        StreamRDFOps.sendDatasetToStream(dsg, dest, prefixMap) ;
+        dest.finish() ;
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.writer;
+
+import java.io.OutputStream ;
+import java.io.Writer ;
+import java.util.ArrayList ;
+import java.util.LinkedHashMap ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.Objects ;
+
+import org.apache.jena.atlas.io.IndentedWriter ;
+import org.apache.jena.atlas.json.io.JSWriter ;
+import org.apache.jena.atlas.lib.Pair ;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.out.NodeFmtLib ;
+import org.apache.jena.riot.system.PrefixMap ;
+import org.apache.jena.riot.system.PrefixMapFactory ;
+import org.apache.jena.riot.system.RiotLib ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.vocabulary.RDF ;
+
+/**
+ * Streaming JSON-LD output.
+ * <p>
+ * The output is a JSON-LD document with a {@code @context} of the prefixes and a
+ * top level {@code @graph} of node objects, one for each run of triples with the
+ * same subject. Named graphs are {@code {"@id": ..., "@graph": [...]}} entries
+ * in the top level {@code @graph}, one for each run of quads with the same graph.
+ * Only the triples for the current subject are held in memory.
+ * <p>
+ * The {@code @context} is written when the first triple or quad is seen, so only
+ * prefixes before the data are used. Prefixes are only used if the IRI ends in an
+ * IRI gen-delims character (e.g. {@code /} or {@code #}), as required for JSON-LD compact IRIs.
+ * <p>
+ * The output is best when the input is clustered by subject, as it is from
+ * {@link org.apache.jena.graph.Graph#find}. A subject that appears in several runs of
+ * triples has several node objects, which JSON-LD readers merge.
+ */
+public class WriterStreamRDFJsonLD implements StreamRDF
+{
+    private final IndentedWriter out ;
+    private final PrefixMap pMap = PrefixMapFactory.create() ;
+
+    // Set when the document header ("@context" and the start of "@graph") has been written.
+    private boolean started = false ;
+    private boolean firstEntry = true ;
+    private boolean firstInGraph = true ;
+    // Current named graph, null for the default graph.
+    private Node currentGraph = null ;
+    private Node currentSubject = null ;
+    private final List<Node> types = new ArrayList<>() ;
+    private final Map<Node, List<Node>> properties = new LinkedHashMap<>() ;
+
+    public WriterStreamRDFJsonLD(OutputStream output) {
+        this(new IndentedWriter(output)) ;
+    }
+
+    public WriterStreamRDFJsonLD(Writer output) {
+        this(RiotLib.create(output)) ;
+    }
+
+    public WriterStreamRDFJsonLD(IndentedWriter output) {
+        this.out = output ;
+        out.setUnitIndent(2) ;
+    }
+
+    @Override
+    public void start() {
+        started = false ;
+        firstEntry = true ;
+        currentGraph = null ;
+        currentSubject = null ;
+        types.clear() ;
+        properties.clear() ;
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        add(null, triple.getSubject(), triple.getPredicate(), triple.getObject()) ;
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        Node g = ( quad.getGraph() == null || quad.isDefaultGraph() ) ? null : quad.getGraph() ;
+        add(g, quad.getSubject(), quad.getPredicate(), quad.getObject()) ;
+    }
+
+    @Override
+    public void base(String base) {
+        // IRIs are written in full or as compact IRIs.
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        // Prefixes after the "@context" has been written are not used.
+        if ( started )
+            return ;
+        if ( prefix.isEmpty() || prefix.equals("_") || prefix.indexOf(':') >= 0 || ! isPrefixIRI(iri) )
+            return ;
+        pMap.add(prefix, iri) ;
+    }
+
+    @Override
+    public void finish() {
+        startDocument() ;
+        flushSubject() ;
+        if ( currentGraph != null )
+            finishGraph() ;
+        out.decIndent() ;
+        out.println() ;
+        out.println("]") ;
+        out.decIndent() ;
+        out.println("}") ;
+        out.flush() ;
+    }
+
+    private void add(Node g, Node s, Node p, Node o) {
+        startDocument() ;
+        if ( ! Objects.equals(g, currentGraph) ) {
+            flushSubject() ;
+            if ( currentGraph != null )
+                finishGraph() ;
+            if ( g != null )
+                startGraph(g) ;
+            currentGraph = g ;
+        } else if ( ! Objects.equals(s, currentSubject) )
+            flushSubject() ;
+        currentSubject = s ;
+        if ( RDF.Nodes.type.equals(p) && ( o.isURI() || o.isBlank() ) )
+            types.add(o) ;
+        else
+            properties.computeIfAbsent(p, k -> new ArrayList<>()).add(o) ;
+    }
+
+    private void startDocument() {
+        if ( started )
+            return ;
+        started = true ;
+        out.println("{") ;
+        out.incIndent() ;
+        out.print("\"@context\": {") ;
+        out.incIndent() ;
+        boolean first = true ;
+        for ( Map.Entry<String, String> e : pMap.getMappingCopyStr().entrySet() ) {
+            if ( ! first )
+                out.print(",") ;
+            first = false ;
+            out.println() ;
+            quoted(e.getKey()) ;
+            out.print(": ") ;
+            quoted(e.getValue()) ;
+        }
+        out.decIndent() ;
+        if ( ! first )
+            out.println() ;
+        out.println("},") ;
+        out.print("\"@graph\": [") ;
+        out.incIndent() ;
+    }
+
+    // Start an entry in the top level "@graph" or in the "@graph" of a named graph.
+    private void startEntry() {
+        boolean first = ( currentGraph == null ) ? firstEntry : firstInGraph ;
+        if ( ! first )
+            out.print(",") ;
+        out.println() ;
+        if ( currentGraph == null )
+            firstEntry = false ;
+        else
+            firstInGraph = false ;
+    }
+
+    private void startGraph(Node g) {
+        // An entry in the top level "@graph".
+        if ( ! firstEntry )
+            out.print(",") ;
+        out.println() ;
+        firstEntry = false ;
+        out.println("{") ;
+        out.incIndent() ;
+        out.print("\"@id\": ") ;
+        quoted(id(g)) ;
+        out.println(",") ;
+        out.print("\"@graph\": [") ;
+        out.incIndent() ;
+        firstInGraph = true ;
+    }
+
+    private void finishGraph() {
+        out.decIndent() ;
+        out.println() ;
+        out.println("]") ;
+        out.decIndent() ;
+        out.print("}") ;
+    }
+
+    private void flushSubject() {
+        if ( currentSubject == null )
+            return ;
+        startEntry() ;
+        out.println("{") ;
+        out.incIndent() ;
+        out.print("\"@id\": ") ;
+        quoted(id(currentSubject)) ;
+        if ( ! types.isEmpty() ) {
+            out.println(",") ;
+            out.print("\"@type\": ") ;
+            if ( types.size() == 1 )
+                quoted(id(types.get(0))) ;
+            else {
+                out.print("[ ") ;
+                for ( int i = 0 ; i < types.size() ; i++ ) {
+                    if ( i > 0 )
+                        out.print(", ") ;
+                    quoted(id(types.get(i))) ;
+                }
+                out.print(" ]") ;
+            }
+        }
+        for ( Map.Entry<Node, List<Node>> e : properties.entrySet() ) {
+            out.println(",") ;
+            quoted(id(e.getKey())) ;
+            out.print(": ") ;
+            List<Node> objects = e.getValue() ;
+            if ( objects.size() == 1 )
+                value(objects.get(0)) ;
+            else {
+                out.print("[ ") ;
+                for ( int i = 0 ; i < objects.size() ; i++ ) {
+                    if ( i > 0 )
+                        out.print(", ") ;
+                    value(objects.get(i)) ;
+                }
+                out.print(" ]") ;
+            }
+        }
+        out.decIndent() ;
+        out.println() ;
+        out.print("}") ;
+        currentSubject = null ;
+        types.clear() ;
+        properties.clear() ;
+    }
+
+    private void value(Node node) {
+        if ( ! node.isLiteral() ) {
+            out.print("{ \"@id\": ") ;
+            quoted(id(node)) ;
+            out.print(" }") ;
+            return ;
+        }
+        String lex = node.getLiteralLexicalForm() ;
+        String lang = node.getLiteralLanguage() ;
+        String datatype = node.getLiteralDatatypeURI() ;
+        if ( lang != null && ! lang.isEmpty() ) {
+            out.print("{ \"@value\": ") ;
+            quoted(lex) ;
+            out.print(", \"@language\": ") ;
+            quoted(lang) ;
+            out.print(" }") ;
+            return ;
+        }
+        if ( datatype == null || datatype.equals(XSDDatatype.XSDstring.getURI()) ) {
+            quoted(lex) ;
+            return ;
+        }
+        out.print("{ \"@value\": ") ;
+        quoted(lex) ;
+        out.print(", \"@type\": ") ;
+        quoted(compact(datatype)) ;
+        out.print(" }") ;
+    }
+
+    // IRI or blank node, as a string for "@id", "@type" or a key.
+    private String id(Node node) {
+        if ( node.isURI() )
+            return compact(node.getURI()) ;
+        if ( node.isBlank() )
+            return "_:" + NodeFmtLib.encodeBNodeLabel(node.getBlankNodeLabel()) ;
+        throw new RiotException("Not an IRI or blank node: " + node) ;
+    }
+
+    private String compact(String iri) {
+        Pair<String, String> pname = pMap.abbrev(iri) ;
+        // "prefix://..." would be read as an absolute IRI.
+        if ( pname == null || pname.getRight().startsWith("//") )
+            return iri ;
+        return pname.getLeft() + ":" + pname.getRight() ;
+    }
+
+    private void quoted(String string) {
+        JSWriter.outputQuotedString(out, string) ;
+    }
+
+    /** Whether an IRI can be used as a prefix: it ends in an IRI gen-delims character. */
+    private static boolean isPrefixIRI(String iri) {
+        if ( iri.isEmpty() )
+            return false ;
+        char ch = iri.charAt(iri.length()-1) ;
+        return ch == '/' || ch == '#' || ch == ':' || ch == '?' || ch == '[' || ch == ']' || ch == '@' ;
+    }
+}
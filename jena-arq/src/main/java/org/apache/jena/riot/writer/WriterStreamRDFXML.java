@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.writer;
+
+import java.io.OutputStream ;
+import java.io.Writer ;
+import java.util.HashMap ;
+import java.util.LinkedHashMap ;
+import java.util.Map ;
+
+import org.apache.jena.atlas.io.IndentedWriter ;
+import org.apache.jena.ext.xerces.util.XMLChar ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.rdf.model.impl.Util ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.out.NodeFmtLib ;
+import org.apache.jena.riot.system.RiotLib ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.vocabulary.RDF ;
+
+/** Write RDF/XML by streaming.
+ * <p>
+ * Each run of adjacent triples with the same subject is written as one
+ * {@code rdf:Description}, so the output is compact when the triples arrive
+ * grouped by subject (e.g. from an SPO index) and memory use does not depend on
+ * the size of the data.
+ * <p>
+ * Namespaces are declared on the {@code rdf:RDF} element so only prefixes
+ * received before the first triple are used. A predicate with a namespace that
+ * is not declared gets a local namespace declaration on its property element.
+ * IRIs are written as given; the base is not used.
+ * <p>
+ * RDF/XML has no named graphs: only quads in the default graph are written.
+ */
+public class WriterStreamRDFXML implements StreamRDF
+{
+    private static final String rdfNS = RDF.getURI() ;
+    private static final String xsdString = "http://www.w3.org/2001/XMLSchema#string" ;
+
+    private final IndentedWriter out ;
+    // Namespace IRI to prefix, in declaration order.
+    private final Map<String, String> namespaces = new LinkedHashMap<>() ;
+    private final Map<String, String> prefixes = new HashMap<>() ;
+    // Prefix used for local namespace declarations, chosen not to clash with a declared one.
+    private String localPrefix = null ;
+    private boolean headerDone = false ;
+    private Node currentSubject = null ;
+    private int depth = 0 ;     // Start/finish count
+
+    public WriterStreamRDFXML(OutputStream output) {
+        this(new IndentedWriter(output)) ;
+    }
+
+    public WriterStreamRDFXML(Writer output) {
+        this(RiotLib.create(output)) ;
+    }
+
+    public WriterStreamRDFXML(IndentedWriter output) {
+        this.out = output ;
+        out.setUnitIndent(2) ;
+        namespaces.put(rdfNS, "rdf") ;
+        prefixes.put("rdf", rdfNS) ;
+    }
+
+    @Override
+    public void start() {
+        depth++ ;
+    }
+
+    @Override
+    public void finish() {
+        depth-- ;
+        if ( depth != 0 )
+            return ;
+        header() ;
+        endSubject() ;
+        out.decIndent() ;
+        out.println("</rdf:RDF>") ;
+        out.flush() ;
+    }
+
+    @Override
+    public void base(String base) {}  // Ignore.
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        if ( headerDone )
+            // Too late.
+            return ;
+        if ( prefixes.containsKey(prefix) || namespaces.containsKey(iri) )
+            return ;
+        // The empty prefix is the default namespace: only used for property elements.
+        if ( ! prefix.isEmpty() && ! XMLChar.isValidNCName(prefix) )
+            return ;
+        if ( prefix.toLowerCase().startsWith("xml") )
+            return ;
+        if ( iri.isEmpty() )
+            return ;
+        namespaces.put(iri, prefix) ;
+        prefixes.put(prefix, iri) ;
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        header() ;
+        Node s = triple.getSubject() ;
+        if ( ! s.equals(currentSubject) ) {
+            endSubject() ;
+            startSubject(s) ;
+        }
+        property(triple.getPredicate(), triple.getObject()) ;
+    }
+
+    @Override
+    public void quad(Quad quad) {
+        if ( quad.isTriple() || quad.isDefaultGraph() )
+            triple(quad.asTriple()) ;
+    }
+
+    private void header() {
+        if ( headerDone )
+            return ;
+        headerDone = true ;
+        out.print("<rdf:RDF") ;
+        out.incIndent(4) ;
+        for ( Map.Entry<String, String> e : namespaces.entrySet() ) {
+            out.println() ;
+            String prefix = e.getValue() ;
+            out.print(prefix.isEmpty() ? "xmlns" : "xmlns:"+prefix) ;
+            out.print("=") ;
+            attributeValue(e.getKey()) ;
+        }
+        out.println(">") ;
+        out.decIndent(2) ;
+        int i = 0 ;
+        while ( prefixes.containsKey("j."+i) )
+            i++ ;
+        localPrefix = "j."+i ;
+    }
+
+    private void startSubject(Node s) {
+        currentSubject = s ;
+        out.print("<rdf:Description ") ;
+        if ( s.isURI() ) {
+            out.print("rdf:about=") ;
+            attributeValue(s.getURI()) ;
+        } else if ( s.isBlank() ) {
+            out.print("rdf:nodeID=") ;
+            attributeValue(bNodeLabel(s)) ;
+        } else
+            throw new RiotException("Can not write as an RDF/XML subject: "+s) ;
+        out.println(">") ;
+        out.incIndent() ;
+    }
+
+    private void endSubject() {
+        if ( currentSubject == null )
+            return ;
+        out.decIndent() ;
+        out.println("</rdf:Description>") ;
+        currentSubject = null ;
+    }
+
+    private void property(Node p, Node o) {
+        if ( ! p.isURI() )
+            throw new RiotException("Can not write as an RDF/XML property: "+p) ;
+        String uri = p.getURI() ;
+        int split = Util.splitNamespaceXML(uri) ;
+        if ( split == 0 || split == uri.length() )
+            throw new RiotException("Can not write as an RDF/XML property element: "+uri) ;
+        String ns = uri.substring(0, split) ;
+        String local = uri.substring(split) ;
+        String prefix = namespaces.get(ns) ;
+        String tag ;
+        out.print("<") ;
+        if ( prefix == null ) {
+            tag = localPrefix+":"+local ;
+            out.print(tag) ;
+            out.print(" xmlns:"+localPrefix+"=") ;
+            attributeValue(ns) ;
+        } else {
+            tag = prefix.isEmpty() ? local : prefix+":"+local ;
+            out.print(tag) ;
+        }
+
+        if ( o.isURI() ) {
+            out.print(" rdf:resource=") ;
+            attributeValue(o.getURI()) ;
+            out.println("/>") ;
+            return ;
+        }
+        if ( o.isBlank() ) {
+            out.print(" rdf:nodeID=") ;
+            attributeValue(bNodeLabel(o)) ;
+            out.println("/>") ;
+            return ;
+        }
+        if ( ! o.isLiteral() )
+            throw new RiotException("Can not write as an RDF/XML object: "+o) ;
+
+        String lex = o.getLiteralLexicalForm() ;
+        String lang = o.getLiteralLanguage() ;
+        String dt = o.getLiteralDatatypeURI() ;
+        boolean xmlLiteral = false ;
+        if ( lang != null && ! lang.isEmpty() ) {
+            out.print(" xml:lang=") ;
+            attributeValue(lang) ;
+        } else if ( o.getLiteralIsXML() ) {
+            out.print(" rdf:parseType=\"Literal\"") ;
+            xmlLiteral = true ;
+        } else if ( dt != null && ! xsdString.equals(dt) ) {
+            out.print(" rdf:datatype=") ;
+            attributeValue(dt) ;
+        }
+        out.print(">") ;
+        // Element content is written exactly: no indentation after newlines.
+        int x = out.getAbsoluteIndent() ;
+        out.setAbsoluteIndent(0) ;
+        out.print(xmlLiteral ? lex : Util.substituteEntitiesInElementContent(lex)) ;
+        out.setAbsoluteIndent(x) ;
+        out.print("</") ;
+        out.print(tag) ;
+        out.println(">") ;
+    }
+
+    private void attributeValue(String value) {
+        out.print("\"") ;
+        out.print(Util.substituteStandardEntities(value)) ;
+        out.print("\"") ;
+    }
+
+    // rdf:nodeID must be an XML NCName.
+    private static String bNodeLabel(Node bnode) {
+        return NodeFmtLib.encodeBNodeLabel(bnode.getBlankNodeLabel()) ;
+    }
+}
@@ -240,6 +240,9 @@ public class ARQConstants
 //    /** Context key for the algebra execution engine of the query execution */
 //    public static final Symbol sysCurrentOpExec   = Symbol.create(systemVarNS+"opExec") ;
 
+    /** Context key for the memory budget of the query execution (see {@link org.apache.jena.query.ARQ#queryMemoryBudget}) */
+    public static final Symbol sysQueryMemoryBudget     = Symbol.create(systemVarNS+"memoryBudget") ;
+
     /** Context key for the current time of query execution */
     public static final Symbol sysCurrentTime           = Symbol.create(systemVarNS+"now") ;
     
@@ -19,7 +19,9 @@
 package org.apache.jena.sparql.core ;
 
 import java.util.Iterator ;
+import java.util.stream.Stream ;
 
+import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.lib.Closeable ;
 import org.apache.jena.graph.Graph ;
 import org.apache.jena.graph.Node ;
@@ -123,6 +125,20 @@ public interface DatasetGraph extends Transactional, Closeable
      */
     public Iterator<Quad> findNG(Node g, Node s, Node p , Node o) ;
 
+    /** Find matching quads in the dataset (including default graph), as a {@link Stream} - may include wildcards, Node.ANY or null.
+     * The default implementation is sequential, based on {@link #find(Node, Node, Node, Node)}.
+     * Implementations may provide a stream that splits for parallel processing.
+     * @see Graph#stream(Node,Node,Node)
+     */
+    public default Stream<Quad> stream(Node g, Node s, Node p, Node o) {
+        return Iter.asStream(find(g, s, p, o)) ;
+    }
+
+    /** Stream all quads in the dataset graph */
+    public default Stream<Quad> stream() {
+        return stream(Node.ANY, Node.ANY, Node.ANY, Node.ANY) ;
+    }
+
     /** Test whether the dataset (including default graph) contains a quad - may include wildcards, Node.ANY or null */
     public boolean contains(Node g, Node s, Node p , Node o) ;
 
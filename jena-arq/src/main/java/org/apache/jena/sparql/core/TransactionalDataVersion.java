@@ -0,0 +1,33 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core;
+
+/**
+ * A {@link Transactional} where a transaction sees the data as it was at a numbered
+ * commit point. Two read transactions on the same object with the same data version
+ * see the same data, even when they are on different threads.
+ */
+public interface TransactionalDataVersion
+{
+    /**
+     * The data version seen by the transaction of the calling thread.
+     * @throws org.apache.jena.sparql.JenaTransactionException if the thread is not in a transaction.
+     */
+    public long dataVersion() ;
+}
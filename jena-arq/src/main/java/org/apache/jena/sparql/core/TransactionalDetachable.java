@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core;
+
+/**
+ * A {@link Transactional} where a transaction can be moved from one thread to
+ * another: detached from the thread that started it and attached to a different
+ * thread, which then continues the transaction.
+ */
+public interface TransactionalDetachable
+{
+    /**
+     * Detach the transaction of the calling thread. The thread is then not in a
+     * transaction. Return the state to pass to {@link #attach}.
+     */
+    public Object detach() ;
+
+    /**
+     * Attach a transaction, detached by {@link #detach}, to the calling thread,
+     * which must not be in a transaction.
+     */
+    public void attach(Object txnState) ;
+}
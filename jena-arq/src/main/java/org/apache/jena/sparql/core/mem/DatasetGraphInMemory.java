@@ -32,6 +32,7 @@ import java.util.concurrent.atomic.AtomicLong ;
 import java.util.concurrent.locks.ReentrantLock ;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.apache.jena.atlas.lib.InternalErrorException ;
 import org.apache.jena.graph.*;
@@ -47,7 +48,7 @@ import org.slf4j.Logger;
  * A {@link DatasetGraph} backed by an {@link QuadTable}. By default, this is a
  * {@link HexTable} designed for high-speed in-memory operation.
  */
-public class DatasetGraphInMemory extends DatasetGraphTriplesQuads implements Transactional {
+public class DatasetGraphInMemory extends DatasetGraphTriplesQuads implements Transactional, TransactionalDataVersion {
 
     private static final Logger log = getLogger(DatasetGraphInMemory.class);
 
@@ -83,6 +84,13 @@ public class DatasetGraphInMemory extends DatasetGraphTriplesQuads implements Tr
         isInTransaction.set(b);
     }
 
+    @Override
+    public long dataVersion() {
+        if (!isInTransaction())
+            throw new JenaTransactionException("Not in a transaction");
+        return version.get();
+    }
+
     private final ThreadLocal<TxnType> transactionType = withInitial(() -> null);
     // Current state.
     private final ThreadLocal<ReadWrite> transactionMode = withInitial(() -> null);
@@ -325,6 +333,28 @@ public class DatasetGraphInMemory extends DatasetGraphTriplesQuads implements Tr
         return triples2quadsDftGraph(defaultGraph().find(s, p, o).iterator());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The stream is over the version of the dataset current when it is created, so it
+     * can be processed in parallel, and it splits by index entries.
+     */
+    @Override
+    public Stream<Quad> stream(final Node g, final Node s, final Node p, final Node o) {
+        return isInTransaction() ? streamFinder(g, s, p, o) : calculateRead(this, () -> streamFinder(g, s, p, o));
+    }
+
+    private Stream<Quad> streamFinder(final Node g, final Node s, final Node p, final Node o) {
+        if (Quad.isDefaultGraph(g))
+            return defaultGraph().find(s, p, o).map(t -> new Quad(Quad.defaultGraphIRI, t));
+        if (isUnionGraph(g))
+            // Not relying on adjacency of duplicates so that the stream can be split.
+            return quadsIndex().find(ANY, s, p, o).map(Quad::asTriple).distinct().map(t -> new Quad(Quad.unionGraph, t));
+        if (!isWildcard(g))
+            return quadsIndex().find(g, s, p, o);
+        return Stream.concat(streamFinder(Quad.defaultGraphIRI, s, p, o), quadsIndex().find(ANY, s, p, o));
+    }
+
     @Override
     public void setDefaultGraph(final Graph g) {
         mutate(graph -> {
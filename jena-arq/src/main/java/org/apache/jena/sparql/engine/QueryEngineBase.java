@@ -18,16 +18,27 @@
 
 package org.apache.jena.sparql.engine;
 
+import java.lang.ref.WeakReference ;
+import java.util.ArrayList ;
+import java.util.List ;
+import java.util.Objects ;
+
+import org.apache.jena.atlas.lib.Cache ;
+import org.apache.jena.atlas.lib.CacheFactory ;
 import org.apache.jena.atlas.lib.Closeable ;
+import org.apache.jena.atlas.lib.Pair ;
 import org.apache.jena.atlas.logging.Log ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.Query ;
 import org.apache.jena.query.QueryExecException;
 import org.apache.jena.riot.system.IRIResolver;
 import org.apache.jena.sparql.ARQConstants ;
 import org.apache.jena.sparql.algebra.Algebra ;
 import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.algebra.optimize.OptimizerStd ;
 import org.apache.jena.sparql.core.DatasetDescription;
 import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphOne ;
 import org.apache.jena.sparql.core.DynamicDatasets;
 import org.apache.jena.sparql.core.Substitute ;
 import org.apache.jena.sparql.engine.binding.Binding ;
@@ -35,12 +46,33 @@ import org.apache.jena.sparql.engine.binding.BindingRoot ;
 import org.apache.jena.sparql.mgt.Explain ;
 import org.apache.jena.sparql.mgt.QueryEngineInfo ;
 import org.apache.jena.sparql.util.Context ;
+import org.apache.jena.sparql.util.Symbol ;
 import org.apache.jena.sparql.util.DatasetUtils;
 
 /** Main part of a QueryEngine - something that takes responsibility for a complete query execution */ 
 public abstract class QueryEngineBase implements OpEval, Closeable
 {
     public final static QueryEngineInfo queryEngineInfo = new QueryEngineInfo() ;
+
+    // Optimized algebra, by engine class, query, dataset and optimizer settings.
+    // See ARQ.queryPlanCache.
+    private static final int PlanCacheSize = 1000 ;
+    private static final Cache<PlanKey, Pair<Op, Op>> planCache = CacheFactory.createCache(PlanCacheSize) ;
+
+    /** Context settings that change what the optimizer does. Part of the plan cache key. */
+    private static final Symbol[] planSettings = {
+        ARQ.optimization, ARQConstants.sysOptimizerFactory, OptimizerStd.filterPlacementOldName,
+        ARQ.optPathFlatten, ARQ.optFilterPlacement, ARQ.optFilterPlacementBGP, ARQ.optFilterPlacementConservative,
+        ARQ.optTopNSorting, ARQ.optDistinctToReduced, ARQ.optOrderByDistinctApplication,
+        ARQ.optFilterEquality, ARQ.optFilterInequality, ARQ.optFilterImplicitJoin, ARQ.optImplicitLeftJoin,
+        ARQ.optExprConstantFolding, ARQ.optFilterConjunction, ARQ.optFilterExpandOneOf, ARQ.optFilterDisjunction,
+        ARQ.optPromoteTableEmpty, ARQ.optIndexJoinStrategy, ARQ.optInlineAssignments, ARQ.optInlineAssignmentsAggressive,
+        ARQ.optMergeBGPs, ARQ.optMergeExtends, ARQ.optReorderBGP,
+        ARQ.propertyFunctions, ARQ.enablePropertyFunctions, ARQConstants.registryPropertyFunctions
+    } ;
+
+    /** Clear the cache of optimized algebra expressions. */
+    public static void clearPlanCache() { planCache.clear() ; }
     // See also ExecutionContext.getDataset()
     protected final DatasetGraph originalDataset ;
     protected DatasetGraph dataset = null ;
@@ -55,8 +87,7 @@ public abstract class QueryEngineBase implements OpEval, Closeable
         this(dsg, input, cxt) ;
         this.query = query ;
         query.setResultVars() ;
-        // Unoptimized so far.
-        setOp(createOp(query)) ;
+        // The algebra is compiled when first needed: not at all if the plan cache has the optimized form.
         dataset = prepareDataset(dsg, query);
     }
 
@@ -117,15 +148,21 @@ public abstract class QueryEngineBase implements OpEval, Closeable
     protected Plan createPlan()
     {
         // Decide the algebra to actually execute.
-        Op op = queryOp ;
-        if ( ! startBinding.isEmpty() ) {
-            op = Substitute.substitute(op, startBinding) ;
-            context.put(ARQConstants.sysCurrentAlgebra, op) ;
-            // Don't reset the startBinding because it also is
-            // needed in the output.
+        Op op ;
+        if ( usePlanCache() )
+            op = modifyOpCached() ;
+        else {
+            op = getOp() ;
+            if ( ! startBinding.isEmpty() ) {
+                op = Substitute.substitute(op, startBinding) ;
+                context.put(ARQConstants.sysCurrentAlgebra, op) ;
+                // Don't reset the startBinding because it also is
+                // needed in the output.
+            }
+            op = modifyOp(op) ;
         }
-        op = modifyOp(op) ;
 
+        QueryMemoryBudget.setup(context) ;
         QueryIterator queryIterator = null ;
         if ( dataset != null )
             // Null means setting up but not executing a query.
@@ -139,6 +176,72 @@ public abstract class QueryEngineBase implements OpEval, Closeable
     
     protected Op modifyOp(Op op)
     { return op ; }
+
+    private boolean usePlanCache() {
+        // The optimized algebra only depends on the query when there is no
+        // initial binding and the dataset is not rewritten for FROM/FROM NAMED.
+        return query != null && startBinding.isEmpty() && ! isDynamicDataset() 
+            && context.isTrue(ARQ.queryPlanCache) ;
+    }
+
+    private Op modifyOpCached() {
+        PlanKey key = new PlanKey(getClass(), query, originalDataset, context) ;
+        // The optimized algebra, and the algebra recorded by setOp during modifyOp.
+        Pair<Op, Op> cached = planCache.getIfPresent(key) ;
+        if ( cached != null ) {
+            queryEngineInfo.incPlanCacheHits() ;
+            setOp(cached.getRight()) ;
+            return cached.getLeft() ;
+        }
+        queryEngineInfo.incPlanCacheMisses() ;
+        Op op = modifyOp(getOp()) ;
+        planCache.put(key, Pair.create(op, getOp())) ;
+        return op ;
+    }
+
+    /**
+     * Key for the plan cache. The dataset is compared by identity (the optimizer may
+     * use its statistics); the optimizer settings by value. A single graph dataset,
+     * created afresh for each execution over a model, is identified by its graph.
+     * <p>
+     * The dataset is held weakly so the cache does not keep datasets reachable.
+     * An entry for a dataset that has gone is never matched and is evicted in time.
+     */
+    private static final class PlanKey {
+        private final Class<?> engineClass ;
+        private final Query query ;
+        private final WeakReference<Object> dataset ;
+        private final List<Object> settings ;
+        private final int hashCode ;
+
+        PlanKey(Class<?> engineClass, Query query, DatasetGraph dsg, Context context) {
+            Object dataset = ( dsg instanceof DatasetGraphOne ) ? dsg.getDefaultGraph() : dsg ;
+            this.engineClass = engineClass ;
+            this.query = query ;
+            this.dataset = new WeakReference<>(dataset) ;
+            this.settings = new ArrayList<>(planSettings.length) ;
+            for ( Symbol symbol : planSettings )
+                settings.add(context.get(symbol)) ;
+            this.hashCode = Objects.hash(engineClass, query, System.identityHashCode(dataset), settings) ;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode ;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj )
+                return true ;
+            if ( !(obj instanceof PlanKey) )
+                return false ;
+            PlanKey other = (PlanKey)obj ;
+            Object dataset = this.dataset.get() ;
+            return engineClass == other.engineClass && dataset != null && dataset == other.dataset.get()
+                && query.equals(other.query) && settings.equals(other.settings) ;
+        }
+    }
     
     protected Op createOp(Query query)
     {
@@ -185,7 +288,12 @@ public abstract class QueryEngineBase implements OpEval, Closeable
     QueryIterator eval(Op op, DatasetGraph dsg, Binding binding, Context context) ;
 
     /** Algebra expression (including any optimization) */
-    public Op getOp() { return queryOp ; }
+    public Op getOp() {
+        if ( queryOp == null && query != null )
+            // Unoptimized so far.
+            setOp(createOp(query)) ;
+        return queryOp ;
+    }
     
     protected Binding getStartBinding() { return startBinding ; }
     
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import java.util.ArrayList ;
+import java.util.Collections ;
+import java.util.List ;
+import java.util.concurrent.CancellationException ;
+import java.util.concurrent.CompletableFuture ;
+import java.util.concurrent.CompletionException ;
+import java.util.concurrent.Executor ;
+import java.util.concurrent.LinkedBlockingQueue ;
+import java.util.concurrent.ThreadPoolExecutor ;
+import java.util.concurrent.TimeUnit ;
+import java.util.function.Consumer ;
+
+import org.apache.jena.query.Dataset ;
+import org.apache.jena.query.QueryExecution ;
+import org.apache.jena.query.ResultSet ;
+import org.apache.jena.query.TxnType ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphWrapper ;
+import org.apache.jena.sparql.core.TransactionalDetachable ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+
+/**
+ * Asynchronous execution of a SELECT query, delivering results in batches.
+ * <p>
+ * Work is only done when a batch is requested: the caller controls the rate at
+ * which results are produced (backpressure) and, except as described below for
+ * transactions, no thread is held between batches.
+ * Batches are computed one at a time, in request order, on the {@link Executor}.
+ * <p>
+ * If the dataset supports transactions, the query runs in a read transaction
+ * started by the first batch and ended when the results have all been delivered,
+ * on error or on {@link #close}. Between batches, the transaction is detached from
+ * the thread if the dataset allows it (see {@link TransactionalDetachable}), so the
+ * next batch can run on any thread of the executor. Otherwise, the transaction
+ * is bound to one thread and all the batches run on a thread of this execution,
+ * not the executor, which is kept until the execution finishes.
+ */
+public class QueryExecutionAsync implements AutoCloseable
+{
+    private final QueryExecution qExec ;
+    // Batches run on this executor.
+    private final Executor executor ;
+    // The query runs in a read transaction on this dataset; null for none.
+    private final DatasetGraph txnDataset ;
+    // Whether the executor belongs to this execution.
+    private final boolean ownExecutor ;
+    // Transaction state, only used by batch computations, one at a time.
+    private boolean inTxn = false ;
+    // The detached transaction, between batches.
+    private Object txnState = null ;
+    // Execution starts on the first batch.
+    private ResultSet resultSet = null ;
+    private volatile boolean finished = false ;
+    private boolean closed = false ;
+    // Last batch requested; the next batch is chained after it.
+    private CompletableFuture<List<Binding>> last = CompletableFuture.completedFuture(null) ;
+
+    public static QueryExecutionAsync create(QueryExecution qExec, Executor executor) {
+        return new QueryExecutionAsync(qExec, executor) ;
+    }
+
+    private QueryExecutionAsync(QueryExecution qExec, Executor executor) {
+        this.qExec = qExec ;
+        Dataset ds = qExec.getDataset() ;
+        DatasetGraph dsg = ( ds == null ) ? null : ds.asDatasetGraph() ;
+        if ( dsg == null || ! dsg.supportsTransactions() ) {
+            this.txnDataset = null ;
+            this.executor = executor ;
+            this.ownExecutor = false ;
+            return ;
+        }
+        DatasetGraph base = detachable(dsg) ;
+        if ( base != null ) {
+            this.txnDataset = base ;
+            this.executor = executor ;
+            this.ownExecutor = false ;
+        } else {
+            this.txnDataset = dsg ;
+            // The thread is kept while the transaction is active (see finish()).
+            this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "QueryExecutionAsync") ;
+                thread.setDaemon(true) ;
+                return thread ;
+            }) ;
+            this.ownExecutor = true ;
+        }
+    }
+
+    // The dataset, or a dataset it wraps, that can detach transactions; null if none.
+    private static DatasetGraph detachable(DatasetGraph dsg) {
+        while ( ! ( dsg instanceof TransactionalDetachable ) && dsg instanceof DatasetGraphWrapper )
+            dsg = ((DatasetGraphWrapper)dsg).getWrapped() ;
+        return ( dsg instanceof TransactionalDetachable ) ? dsg : null ;
+    }
+
+    /**
+     * Request the next batch of up to {@code maxSize} results. An empty list means
+     * there are no more results. If the query execution fails, the returned future
+     * completes exceptionally and the execution is closed.
+     */
+    public CompletableFuture<List<Binding>> nextBatch(int maxSize) {
+        if ( maxSize <= 0 )
+            throw new IllegalArgumentException("Batch size must be positive: "+maxSize) ;
+        synchronized(this) {
+            if ( closed )
+                return CompletableFuture.completedFuture(Collections.emptyList()) ;
+            // Run after any outstanding batch, whether it succeeded or not.
+            CompletableFuture<List<Binding>> f = last.handle((x, ex) -> null).thenApplyAsync(x -> fetch(maxSize), executor) ;
+            last = f ;
+            return f ;
+        }
+    }
+
+    /**
+     * Pass every result, in batches, to the {@code action}. The next batch is not
+     * computed until the {@code action} for the previous batch has returned. The
+     * future completes when all results have been processed.
+     */
+    public CompletableFuture<Void> forEachBatch(int batchSize, Consumer<List<Binding>> action) {
+        CompletableFuture<Void> result = new CompletableFuture<>() ;
+        forEachBatch(batchSize, action, result) ;
+        return result ;
+    }
+
+    // Loop while batches are already available; otherwise resume from the
+    // completion of the next batch. There is only one future for the caller.
+    private void forEachBatch(int batchSize, Consumer<List<Binding>> action, CompletableFuture<Void> result) {
+        for ( ;; ) {
+            CompletableFuture<List<Binding>> f = nextBatch(batchSize) ;
+            if ( ! f.isDone() ) {
+                f.whenComplete((batch, ex) -> {
+                    if ( processBatch(batch, ex, action, result) )
+                        forEachBatch(batchSize, action, result) ;
+                }) ;
+                return ;
+            }
+            List<Binding> batch = null ;
+            Throwable ex = null ;
+            try { batch = f.join() ; }
+            catch (CompletionException | CancellationException e) { ex = e ; }
+            if ( ! processBatch(batch, ex, action, result) )
+                return ;
+        }
+    }
+
+    /** Handle one batch. Return true if there may be more batches. */
+    private boolean processBatch(List<Binding> batch, Throwable ex, Consumer<List<Binding>> action, CompletableFuture<Void> result) {
+        if ( ex != null ) {
+            result.completeExceptionally(ex) ;
+            return false ;
+        }
+        if ( batch.isEmpty() ) {
+            result.complete(null) ;
+            return false ;
+        }
+        try {
+            action.accept(batch) ;
+        } catch (RuntimeException e) {
+            close() ;
+            result.completeExceptionally(e) ;
+            return false ;
+        }
+        return true ;
+    }
+
+    /** The result variables. Only available after the first batch has been requested and completed. */
+    public List<String> getResultVars() {
+        ResultSet rs = resultSet ;
+        return rs == null ? null : rs.getResultVars() ;
+    }
+
+    /** Have all the results been delivered? */
+    public boolean isFinished() {
+        return finished ;
+    }
+
+    /** Stop the query execution. Outstanding and later batches end early. */
+    public void abort() {
+        qExec.abort() ;
+    }
+
+    /**
+     * Stop the query execution. Later batches are empty. Any transaction is ended
+     * on a batch thread after any outstanding batch.
+     */
+    @Override
+    public void close() {
+        finished = true ;
+        if ( txnDataset == null ) {
+            qExec.close() ;
+            return ;
+        }
+        synchronized(this) {
+            if ( closed )
+                return ;
+            closed = true ;
+            last = last.handle((x, ex) -> null).thenApplyAsync(x -> { finish() ; return null ; }, executor) ;
+        }
+    }
+
+    // Only called by one batch computation at a time.
+    private List<Binding> fetch(int maxSize) {
+        if ( finished )
+            return Collections.emptyList() ;
+        try {
+            enterTxn() ;
+            if ( resultSet == null )
+                resultSet = qExec.execSelect() ;
+            List<Binding> batch = new ArrayList<>(Math.min(maxSize, 1000)) ;
+            while ( batch.size() < maxSize && resultSet.hasNext() )
+                batch.add(resultSet.nextBinding()) ;
+            if ( ! resultSet.hasNext() )
+                finish() ;
+            else
+                leaveTxn() ;
+            return batch ;
+        } catch (RuntimeException ex) {
+            finish() ;
+            throw ex ;
+        }
+    }
+
+    // Start the transaction, or attach it to this thread.
+    private void enterTxn() {
+        if ( txnDataset == null )
+            return ;
+        if ( txnState != null ) {
+            Object state = txnState ;
+            txnState = null ;
+            ((TransactionalDetachable)txnDataset).attach(state) ;
+        } else if ( ! inTxn ) {
+            txnDataset.begin(TxnType.READ) ;
+            inTxn = true ;
+        }
+    }
+
+    // Detach the transaction from this thread so the next batch can run on any thread.
+    private void leaveTxn() {
+        if ( inTxn && ! ownExecutor )
+            txnState = ((TransactionalDetachable)txnDataset).detach() ;
+    }
+
+    // Close the query execution and end the transaction.
+    private void finish() {
+        finished = true ;
+        try { qExec.close() ; }
+        finally {
+            try {
+                if ( inTxn ) {
+                    enterTxn() ;
+                    inTxn = false ;
+                    txnDataset.end() ;
+                }
+            } finally {
+                // No transaction now: the thread can end when idle.
+                if ( ownExecutor )
+                    ((ThreadPoolExecutor)executor).allowCoreThreadTimeOut(true) ;
+            }
+        }
+    }
+}
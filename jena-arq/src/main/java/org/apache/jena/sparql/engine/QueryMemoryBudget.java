@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import java.util.concurrent.atomic.AtomicLong ;
+
+import org.apache.jena.atlas.data.ThresholdPolicy ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.query.QueryBudgetExceededException ;
+import org.apache.jena.sparql.ARQConstants ;
+import org.apache.jena.sparql.ARQException ;
+import org.apache.jena.sparql.util.Context ;
+
+/**
+ * The number of bindings that the operations of one query execution may hold in
+ * memory, shared by all the operations (see {@link ARQ#queryMemoryBudget}).
+ * <p>
+ * Each operation takes its share through an {@link Allocation} and gives it back when
+ * it is closed. Operations of one query execution may run on different threads (see
+ * {@link ARQ#parallelUnion}).
+ */
+public class QueryMemoryBudget
+{
+    // When the budget is used up, a spilling operation still keeps this many
+    // bindings in memory before writing to disk, to avoid very small spill files.
+    private static final long MinSpill = 1000 ;
+
+    private final long limit ;
+    private final AtomicLong used = new AtomicLong(0) ;
+
+    public QueryMemoryBudget(long limit) {
+        if ( limit < 0 )
+            throw new IllegalArgumentException("Negative memory budget: "+limit) ;
+        this.limit = limit ;
+    }
+
+    /**
+     * Set up the memory budget for a query execution, if {@link ARQ#queryMemoryBudget}
+     * is set in the context and the budget has not already been set up.
+     */
+    public static void setup(Context context) {
+        if ( context == null || context.isDefined(ARQConstants.sysQueryMemoryBudget) )
+            return ;
+        long limit = context.getLong(ARQ.queryMemoryBudget, -1) ;
+        if ( limit < 0 )
+            return ;
+        context.set(ARQConstants.sysQueryMemoryBudget, new QueryMemoryBudget(limit)) ;
+    }
+
+    /** The memory budget of a query execution, or null if there is no limit. */
+    public static QueryMemoryBudget get(Context context) {
+        if ( context == null )
+            return null ;
+        Object x = context.get(ARQConstants.sysQueryMemoryBudget) ;
+        if ( x == null )
+            return null ;
+        if ( ! ( x instanceof QueryMemoryBudget ) )
+            throw new ARQException("Not a QueryMemoryBudget: "+x) ;
+        return (QueryMemoryBudget)x ;
+    }
+
+    /** An allocation for an operation. If there is no memory budget, the allocation has no limit. */
+    public static Allocation allocation(ExecutionContext execCxt) {
+        QueryMemoryBudget budget = ( execCxt == null ) ? null : get(execCxt.getContext()) ;
+        return new Allocation(budget) ;
+    }
+
+    public long getLimit() {
+        return limit ;
+    }
+
+    /** The number of bindings currently accounted for. */
+    public long getUsed() {
+        return used.get() ;
+    }
+
+    /** Whether the budget is all used. */
+    public boolean isExhausted() {
+        return used.get() >= limit ;
+    }
+
+    private boolean tryAcquire(long n) {
+        for ( ;; ) {
+            long x = used.get() ;
+            if ( x + n > limit )
+                return false ;
+            if ( used.compareAndSet(x, x + n) )
+                return true ;
+        }
+    }
+
+    private void release(long n) {
+        used.addAndGet(-n) ;
+    }
+
+    /**
+     * Wrap a {@link ThresholdPolicy} so that the threshold is also exceeded when the
+     * budget is used up. The bindings counted by the policy are given back to the
+     * budget when the policy is reset.
+     */
+    public <E> ThresholdPolicy<E> thresholdPolicy(ThresholdPolicy<E> policy) {
+        return new ThresholdPolicyBudget<>(policy, new Allocation(this)) ;
+    }
+
+    /** The part of a budget held by one operation. Not thread-safe. */
+    public static class Allocation
+    {
+        private final QueryMemoryBudget budget ;
+        private long held = 0 ;
+
+        private Allocation(QueryMemoryBudget budget) {
+            this.budget = budget ;
+        }
+
+        /** Take {@code n} bindings from the budget; return false, and take nothing, if that is more than is left. */
+        public boolean tryAcquire(long n) {
+            if ( budget != null && ! budget.tryAcquire(n) )
+                return false ;
+            held += n ;
+            return true ;
+        }
+
+        /** Take {@code n} bindings from the budget; throw {@link QueryBudgetExceededException} if that is more than is left. */
+        public void acquire(long n) {
+            if ( ! tryAcquire(n) )
+                throw new QueryBudgetExceededException("Query memory budget exceeded: limit = "+budget.getLimit()+" bindings") ;
+        }
+
+        /** Give back everything held by this allocation. */
+        public void release() {
+            if ( budget != null && held > 0 )
+                budget.release(held) ;
+            held = 0 ;
+        }
+
+        /** The number of bindings held. */
+        public long getHeld() {
+            return held ;
+        }
+
+        private boolean isBudgetExhausted() {
+            return budget != null && budget.isExhausted() ;
+        }
+    }
+
+    private static class ThresholdPolicyBudget<E> implements ThresholdPolicy<E>
+    {
+        private final ThresholdPolicy<E> policy ;
+        private final Allocation allocation ;
+        // Items counted but not within the budget.
+        private long over = 0 ;
+
+        ThresholdPolicyBudget(ThresholdPolicy<E> policy, Allocation allocation) {
+            this.policy = policy ;
+            this.allocation = allocation ;
+        }
+
+        @Override
+        public void increment(E item) {
+            policy.increment(item) ;
+            if ( ! allocation.tryAcquire(1) )
+                over++ ;
+        }
+
+        @Override
+        public boolean isThresholdExceeded() {
+            if ( policy.isThresholdExceeded() )
+                return true ;
+            if ( over == 0 && ! allocation.isBudgetExhausted() )
+                return false ;
+            return allocation.getHeld() + over >= MinSpill ;
+        }
+
+        @Override
+        public void reset() {
+            policy.reset() ;
+            allocation.release() ;
+            over = 0 ;
+        }
+    }
+}
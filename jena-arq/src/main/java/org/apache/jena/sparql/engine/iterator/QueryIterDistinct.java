@@ -28,6 +28,7 @@ import org.apache.jena.riot.system.SerializationFactoryFinder ;
 import org.apache.jena.sparql.ARQException ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.QueryMemoryBudget ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingComparator ;
 import org.apache.jena.sparql.engine.binding.BindingProjectNamed ;
@@ -46,6 +47,8 @@ public class QueryIterDistinct extends QueryIter1
     /*package*/ DistinctDataBag<Binding> db = null ;
     private Iterator<Binding> iterator = null ;
     private Set<Binding> seen = new HashSet<>() ;
+    // The bindings in "seen" are counted against the query memory budget.
+    private final QueryMemoryBudget.Allocation allocation ;
     private Binding slot = null ;
     private final  List<SortCondition> preserveOrder;
 
@@ -57,6 +60,7 @@ public class QueryIterDistinct extends QueryIter1
             if ( memThreshold < 0 )
                 throw new ARQException("Bad spillToDiskThreshold: "+memThreshold) ;
         }
+        allocation = QueryMemoryBudget.allocation(execCxt) ;
     }
     
     @Override
@@ -72,13 +76,16 @@ public class QueryIterDistinct extends QueryIter1
             Binding b = getInputNextUnseen() ;
             if ( b == null )
                 return false ;
-            seen.add(b) ;
-            slot = b ;
-            return true ;
-        }
-        
-        // Hit the threshold.
-        loadDataBag() ;
+            if ( allocation.tryAcquire(1) ) {
+                seen.add(b) ;
+                slot = b ;
+                return true ;
+            }
+            // Query memory budget used up.
+            loadDataBag(b) ;
+        } else
+            // Hit the threshold.
+            loadDataBag(null) ;
         // Switch to iterating from the data bag.  
         iterator = db.iterator() ;
         // Leave slot null.
@@ -92,11 +99,15 @@ public class QueryIterDistinct extends QueryIter1
      * account of the ORDER. The normal (non-spill case) already preserves the input
      * order, passing through the first occurence. It is only if a spill happens that
      * we need to ensure the spill buckets respect sort order.
-     */  
-    private void loadDataBag() {
+     *
+     * {@code first}, if not null, is an unseen binding already taken from the input.
+     */
+    private void loadDataBag(Binding first) {
         ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(super.getExecContext().getContext()) ;
         Comparator<Binding> comparator = new BindingComparator(preserveOrder, super.getExecContext()) ;
         this.db = BagFactory.newDistinctBag(policy, SerializationFactoryFinder.bindingSerializationFactory(), comparator) ;
+        if ( first != null )
+            db.add(first) ;
         for(;;) {
             Binding b = getInputNextUnseen() ;
             if ( b == null )
@@ -148,6 +159,8 @@ public class QueryIterDistinct extends QueryIter1
             db.close() ;
         }
         db = null ;
+        seen.clear() ;
+        allocation.release() ;
     }
 
     // We don't need to do anything. We're a QueryIter1
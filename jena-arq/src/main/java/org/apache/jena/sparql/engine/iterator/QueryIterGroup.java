@@ -33,6 +33,7 @@ import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.core.VarExprList ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.QueryMemoryBudget ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.engine.binding.BindingMap ;
@@ -43,16 +44,27 @@ import org.apache.jena.sparql.expr.aggregate.Accumulator ;
 public class QueryIterGroup extends QueryIterPlainWrapper
 {
 	private final QueryIterator embeddedIterator;
+	// Groups are counted against the query memory budget.
+	private final QueryMemoryBudget.Allocation allocation;
 
 	public QueryIterGroup(QueryIterator qIter, 
                           VarExprList groupVars,
                           List<ExprAggregator> aggregators,
                           ExecutionContext execCxt) {
+        this(qIter, groupVars, aggregators, QueryMemoryBudget.allocation(execCxt), execCxt);
+    }
+
+    private QueryIterGroup(QueryIterator qIter, 
+                           VarExprList groupVars,
+                           List<ExprAggregator> aggregators,
+                           QueryMemoryBudget.Allocation allocation,
+                           ExecutionContext execCxt) {
 	    // Delayed initalization 
 	    // Does the group calculation when first used (typically hasNext) 
-        super(calc(qIter, groupVars, aggregators, execCxt),
+        super(calc(qIter, groupVars, aggregators, allocation, execCxt),
               execCxt);
         this.embeddedIterator = qIter;
+        this.allocation = allocation;
     }
 
     @Override
@@ -65,6 +77,7 @@ public class QueryIterGroup extends QueryIterPlainWrapper
     protected void closeIterator() {
         this.embeddedIterator.close();
         super.closeIterator();
+        allocation.release();
     }
 	
 	private static Pair<Var, Accumulator> placeholder = Pair.create((Var)null, (Accumulator)null) ; 
@@ -72,6 +85,7 @@ public class QueryIterGroup extends QueryIterPlainWrapper
     private static Iterator<Binding> calc(final QueryIterator iter, 
                                           final VarExprList groupVarExpr,
                                           final List<ExprAggregator> aggregators,
+                                          final QueryMemoryBudget.Allocation allocation,
                                           final ExecutionContext execCxt) {
         return new IteratorDelayedInitialization<Binding>() {
             @Override
@@ -114,12 +128,16 @@ public class QueryIterGroup extends QueryIterPlainWrapper
 
                     if ( !hasAggregators ) {
                         // Put in a dummy to remember the input.
-                        accumulators.put(key, placeholder);
+                        if ( !accumulators.containsKey(key) ) {
+                            allocation.acquire(1);
+                            accumulators.put(key, placeholder);
+                        }
                         continue;
                     }
 
                     // Create if does not exist.
                     if ( !accumulators.containsKey(key) ) {
+                        allocation.acquire(1);
                         for ( ExprAggregator agg : aggregators ) {
                             Accumulator x = agg.getAggregator().createAccumulator();
                             Var v = agg.getVar();
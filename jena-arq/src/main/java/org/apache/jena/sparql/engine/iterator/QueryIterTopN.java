@@ -22,9 +22,11 @@ import static java.util.Arrays.asList;
 
 import java.util.Arrays ;
 import java.util.Comparator ;
+import java.util.HashSet ;
 import java.util.Iterator ;
 import java.util.List ;
 import java.util.PriorityQueue ;
+import java.util.Set ;
 
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.iterator.IteratorDelayedInitialization ;
@@ -46,6 +48,8 @@ public class QueryIterTopN extends QueryIterPlainWrapper
      */
 	private final QueryIterator embeddedIterator;      // Keep a record of the underlying source for .cancel.
     private PriorityQueue<Binding> heap ;
+    // When distinct, the bindings currently in the heap, for fast duplicate detection.
+    private Set<Binding> heapMembers ;
     private long limit ;
     private final boolean distinct ;
 	
@@ -75,6 +79,7 @@ public class QueryIterTopN extends QueryIterPlainWrapper
 
         // Keep heap with maximum accessible.
         this.heap = new PriorityQueue<>((int)numItems, comparator.reversed()) ;
+        this.heapMembers = distinct ? new HashSet<>() : null ;
         this.setIterator(sortTopN(qIter, comparator)) ;
     }
 
@@ -108,6 +113,7 @@ public class QueryIterTopN extends QueryIterPlainWrapper
 	                qIter.close() ;
 	                Binding[] y = heap.toArray(new Binding[]{}) ;
 	                heap = null ;
+	                heapMembers = null ;
 	                Arrays.sort(y, comparator) ;
 	                return asList(y).iterator() ;
 	            }
@@ -121,11 +127,17 @@ public class QueryIterTopN extends QueryIterPlainWrapper
     }
 
     private void add(Binding binding) {
-        if ( distinct && heap.contains(binding) )
+        // PriorityQueue.contains is a linear scan; use the set of heap members instead.
+        if ( distinct && heapMembers.contains(binding) )
             return ;
-        if ( heap.size() >= limit )
-            heap.poll() ;  // Remove front element.
+        if ( heap.size() >= limit ) {
+            Binding b = heap.poll() ;  // Remove front element.
+            if ( distinct )
+                heapMembers.remove(b) ;
+        }
         heap.add(binding) ;
+        if ( distinct )
+            heapMembers.add(binding) ;
     }
 
 }
@@ -22,10 +22,12 @@ import java.util.Iterator ;
 import java.util.List ;
 
 import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.query.QueryBudgetExceededException ;
 import org.apache.jena.sparql.algebra.Algebra ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.QueryMemoryBudget ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.iterator.QueryIter2 ;
 import org.apache.jena.sparql.engine.iterator.QueryIterPeek ;
@@ -78,10 +80,17 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
         
         this.joinKey = joinKey ;
         this.iterStream = streamIter ;
-        this.hashTable = new HashProbeTable(joinKey) ;
+        this.hashTable = new HashProbeTable(joinKey, QueryMemoryBudget.allocation(execCxt)) ;
         this.iterCurrent = null ;
-        buildHashTable(probeIter) ;
-        
+        try {
+            buildHashTable(probeIter) ;
+        } catch (QueryBudgetExceededException ex) {
+            // Not returned to the caller, so not closed.
+            hashTable.clear() ;
+            probeIter.close() ;
+            streamIter.close() ;
+            throw ex ;
+        }
     }
         
     private void buildHashTable(QueryIterator iter1) {
@@ -26,6 +26,7 @@ import java.util.List;
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.ext.com.google.common.collect.ArrayListMultimap;
 import org.apache.jena.ext.com.google.common.collect.Multimap;
+import org.apache.jena.sparql.engine.QueryMemoryBudget;
 import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.engine.join.JoinKey ;
 
@@ -41,13 +42,17 @@ class HashProbeTable {
     private final List<Binding>             noKeyBucket = new ArrayList<>();
     private final Multimap<Object, Binding> buckets;
     private final JoinKey                   joinKey;
+    // Rows are counted against the query memory budget.
+    private final QueryMemoryBudget.Allocation allocation;
 
-    HashProbeTable(JoinKey joinKey) {
+    HashProbeTable(JoinKey joinKey, QueryMemoryBudget.Allocation allocation) {
         this.joinKey = joinKey;
+        this.allocation = allocation;
         buckets = ArrayListMultimap.create();
     }
 
     public void put(Binding row) {
+        allocation.acquire(1);
         s_count++;
         Object longHash = JoinLib.hash(joinKey, row);
         if ( longHash == JoinLib.noKeyHash ) {
@@ -113,5 +118,7 @@ class HashProbeTable {
     
     public void clear() {
         buckets.clear();
+        noKeyBucket.clear();
+        allocation.release();
     }
 }
@@ -22,6 +22,7 @@ import java.util.List ;
 
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.algebra.Op ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
@@ -51,6 +52,10 @@ public class QueryIterUnion extends QueryIterRepeatApply
     @Override
     protected QueryIterator nextStage(Binding binding)
     {
+        if ( subOps.size() > 1 && getExecContext().getContext().isTrue(ARQ.parallelUnion) 
+             && QueryIterUnionParallel.canRunParallel(getExecContext()) )
+            return new QueryIterUnionParallel(binding, subOps, getExecContext()) ;
+
         QueryIterConcat unionQIter = new QueryIterConcat(getExecContext()) ;
         for (Op subOp : subOps)
         {
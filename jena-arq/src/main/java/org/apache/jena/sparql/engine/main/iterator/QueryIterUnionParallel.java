@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.main.iterator;
+
+import java.util.ArrayDeque ;
+import java.util.Deque ;
+import java.util.List ;
+import java.util.NoSuchElementException ;
+import java.util.concurrent.* ;
+import java.util.concurrent.atomic.AtomicBoolean ;
+import java.util.concurrent.atomic.AtomicInteger ;
+
+import org.apache.jena.atlas.io.IndentedWriter ;
+import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.query.QueryCancelledException ;
+import org.apache.jena.query.TxnType ;
+import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphWrapper ;
+import org.apache.jena.sparql.core.TransactionalDataVersion ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.iterator.QueryIter ;
+import org.apache.jena.sparql.engine.iterator.QueryIterSingleton ;
+import org.apache.jena.sparql.engine.main.QC ;
+import org.apache.jena.sparql.serializer.SerializationContext ;
+
+/**
+ * Evaluate the branches of a union concurrently, one worker thread per branch, for
+ * one input binding. Results are merged through a bounded queue so branches can
+ * not run arbitrarily far ahead of the consumer. The order of results is not
+ * defined.
+ * <p>
+ * Worker threads come from a shared pool with a fixed maximum size. A branch that
+ * no worker has started is evaluated by the consumer, on the calling thread, when
+ * there are no results from the other branches waiting.
+ * <p>
+ * Transactions are associated with the thread that started them. If the calling
+ * thread is in a read transaction, each worker begins its own read transaction and
+ * only runs the branch if that transaction sees the same data as the caller's,
+ * which requires a dataset that implements {@link TransactionalDataVersion}.
+ * Otherwise the branch is left for the consumer (see {@link #canRunParallel}).
+ */
+public class QueryIterUnionParallel extends QueryIter
+{
+    private static final int QueueSize = 1000 ;
+    // Placed in the queue by a branch when it has finished.
+    private static final Binding EndMarker = BindingFactory.create() ;
+
+    private static final int MaxThreads = Math.max(2, Runtime.getRuntime().availableProcessors()) ;
+    private static final AtomicInteger threadCounter = new AtomicInteger(0) ;
+    // Branches are not queued waiting for a thread: a queued branch could wait on
+    // branches of another union that are blocked waiting for their consumer.
+    // A branch that is rejected is run by the consumer instead.
+    private static final ExecutorService executor =
+        new ThreadPoolExecutor(0, MaxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "ARQ-union-"+threadCounter.incrementAndGet()) ;
+            thread.setDaemon(true) ;
+            return thread ;
+        }) ;
+    // Set on worker threads. Unions within a branch are executed sequentially.
+    private static final ThreadLocal<Boolean> isWorker = ThreadLocal.withInitial(() -> Boolean.FALSE) ;
+
+    /**
+     * Whether the branches of a union can be executed on other threads: the
+     * calling thread is not already a union worker and the dataset is either not
+     * in a transaction or in a read transaction that other threads can share
+     * (see {@link TransactionalDataVersion}).
+     */
+    public static boolean canRunParallel(ExecutionContext execCxt) {
+        if ( isWorker.get() )
+            return false ;
+        DatasetGraph dsg = execCxt.getDataset() ;
+        if ( dsg == null || ! dsg.supportsTransactions() || ! dsg.isInTransaction() )
+            return true ;
+        return dsg.transactionType() == TxnType.READ && versioned(dsg) != null ;
+    }
+
+    // The dataset, or a dataset it wraps, that has numbered data versions.
+    private static TransactionalDataVersion versioned(DatasetGraph dsg) {
+        while ( ! ( dsg instanceof TransactionalDataVersion ) && dsg instanceof DatasetGraphWrapper )
+            dsg = ((DatasetGraphWrapper)dsg).getWrapped() ;
+        return ( dsg instanceof TransactionalDataVersion ) ? (TransactionalDataVersion)dsg : null ;
+    }
+
+    // A branch is run by whichever of its worker or the consumer starts it first.
+    private static class Branch {
+        final Op op ;
+        final AtomicBoolean started = new AtomicBoolean(false) ;
+        Branch(Op op) { this.op = op ; }
+    }
+
+    private final List<Op> subOps ;
+    private final BlockingQueue<Binding> queue = new ArrayBlockingQueue<>(QueueSize) ;
+    private final List<QueryIterator> branches = new CopyOnWriteArrayList<>() ;
+    private volatile boolean stopped = false ;
+    private volatile Throwable error = null ;
+    // Branches not started by the consumer whose worker has not signalled the end.
+    private int remaining = 0 ;
+    // Branches that a worker may not have started yet.
+    private final Deque<Branch> unstarted = new ArrayDeque<>() ;
+    // Branches for the consumer to run.
+    private final Deque<Op> localOps = new ArrayDeque<>() ;
+    private QueryIterator localIter = null ;
+    private final Binding binding ;
+    private Binding slot = null ;
+    // The caller's read transaction, if there is one.
+    private final TransactionalDataVersion txnDataset ;
+    private final long txnDataVersion ;
+
+    public QueryIterUnionParallel(Binding binding, List<Op> subOps, ExecutionContext execCxt) {
+        super(execCxt) ;
+        this.subOps = subOps ;
+        this.binding = binding ;
+        DatasetGraph dsg = execCxt.getDataset() ;
+        // Otherwise the consumer runs all the branches.
+        boolean useWorkers = canRunParallel(execCxt) ;
+        if ( useWorkers && dsg != null && dsg.supportsTransactions() && dsg.isInTransaction() ) {
+            txnDataset = versioned(dsg) ;
+            txnDataVersion = txnDataset.dataVersion() ;
+        } else {
+            txnDataset = null ;
+            txnDataVersion = -1 ;
+        }
+        for ( Op subOp : subOps ) {
+            Branch branch = new Branch(QC.substitute(subOp, binding)) ;
+            remaining++ ;
+            unstarted.add(branch) ;
+            if ( ! useWorkers )
+                continue ;
+            try {
+                executor.execute(() -> runBranch(branch)) ;
+            } catch (RejectedExecutionException ex) {
+                // Left for the consumer.
+            }
+        }
+    }
+
+    private void runBranch(Branch branch) {
+        if ( stopped )
+            return ;
+        DatasetGraph dsg = getExecContext().getDataset() ;
+        boolean inTxn = false ;
+        boolean claimed = false ;
+        isWorker.set(Boolean.TRUE) ;
+        try {
+            if ( txnDataset != null ) {
+                dsg.begin(TxnType.READ) ;
+                inTxn = true ;
+                // A write transaction has committed since the caller's
+                // transaction started. The consumer runs the branch.
+                if ( versioned(dsg) != txnDataset || txnDataset.dataVersion() != txnDataVersion )
+                    return ;
+            }
+            if ( ! branch.started.compareAndSet(false, true) )
+                return ;
+            claimed = true ;
+            // Iterator tracking is not thread safe: each branch has its own.
+            ExecutionContext execCxt = getExecContext() ;
+            ExecutionContext cxt = new ExecutionContext(execCxt.getContext(), execCxt.getActiveGraph(),
+                                                        dsg, execCxt.getExecutor()) ;
+            QueryIterator parent = QueryIterSingleton.create(binding, cxt) ;
+            QueryIterator qIter = QC.execute(branch.op, parent, cxt) ;
+            branches.add(qIter) ;
+            try {
+                while ( !stopped && qIter.hasNext() ) {
+                    if ( ! put(qIter.nextBinding()) )
+                        break ;
+                }
+            } finally { qIter.close() ; }
+        } catch (Throwable th) {
+            // Before the branch is claimed, the consumer runs it.
+            if ( claimed && error == null )
+                error = th ;
+        } finally {
+            if ( inTxn )
+                dsg.end() ;
+            isWorker.remove() ;
+            // Signal the end of the branch unless the consumer has stopped
+            // and will not read the queue again.
+            if ( claimed )
+                put(EndMarker) ;
+        }
+    }
+
+    // Return false if the consumer has stopped.
+    private boolean put(Binding binding) {
+        try {
+            while ( ! stopped ) {
+                if ( queue.offer(binding, 100, TimeUnit.MILLISECONDS) )
+                    return true ;
+            }
+        } catch (InterruptedException ex) {}
+        return false ;
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        if ( slot != null )
+            return true ;
+        for ( ;; ) {
+            // Results from worker threads first, then the consumer's own branches.
+            Binding b = queue.poll() ;
+            if ( b == null ) {
+                if ( nextLocal() ) {
+                    slot = localIter.nextBinding() ;
+                    return true ;
+                }
+                if ( remaining == 0 )
+                    break ;
+                b = take() ;
+                if ( b == null )
+                    continue ;
+            }
+            if ( b == EndMarker ) {
+                remaining-- ;
+                checkError() ;
+                continue ;
+            }
+            slot = b ;
+            return true ;
+        }
+        checkError() ;
+        return false ;
+    }
+
+    // Wait for a result or the end of a branch, returning null if there is none
+    // yet. Branches do not signal their end after the iterator has been stopped
+    // (e.g. cancelled).
+    private Binding take() {
+        try {
+            Binding b = queue.poll(100, TimeUnit.MILLISECONDS) ;
+            if ( b == null && stopped )
+                throw new QueryCancelledException() ;
+            return b ;
+        } catch (InterruptedException ex) { throw new QueryCancelledException() ; }
+    }
+
+    // Whether a branch run by the consumer has a result ready.
+    private boolean nextLocal() {
+        for ( ;; ) {
+            if ( localIter != null ) {
+                if ( localIter.hasNext() )
+                    return true ;
+                localIter.close() ;
+                localIter = null ;
+            }
+            if ( localOps.isEmpty() && ! startBranch() )
+                return false ;
+            QueryIterator parent = QueryIterSingleton.create(binding, getExecContext()) ;
+            localIter = QC.execute(localOps.poll(), parent, getExecContext()) ;
+        }
+    }
+
+    // Take a branch that no worker has started, including one whose worker could
+    // not use the caller's transaction or is still waiting to begin its own.
+    private boolean startBranch() {
+        while ( ! unstarted.isEmpty() ) {
+            Branch branch = unstarted.poll() ;
+            if ( branch.started.compareAndSet(false, true) ) {
+                remaining-- ;
+                localOps.add(branch.op) ;
+                return true ;
+            }
+        }
+        return false ;
+    }
+
+    private void checkError() {
+        Throwable th = error ;
+        if ( th == null )
+            return ;
+        stop() ;
+        if ( th instanceof RuntimeException )
+            throw (RuntimeException)th ;
+        if ( th instanceof Error )
+            throw (Error)th ;
+        throw new QueryCancelledException() ;
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        if ( ! hasNextBinding() )
+            throw new NoSuchElementException(Lib.className(this)+".next()/finished") ;
+        Binding b = slot ;
+        slot = null ;
+        return b ;
+    }
+
+    // Branches waiting on a full queue see the flag within the offer timeout.
+    private void stop() {
+        stopped = true ;
+        if ( localIter != null ) {
+            localIter.close() ;
+            localIter = null ;
+        }
+        localOps.clear() ;
+        unstarted.clear() ;
+    }
+
+    @Override
+    protected void closeIterator() {
+        stop() ;
+    }
+
+    @Override
+    protected void requestCancel() {
+        for ( QueryIterator qIter : branches )
+            qIter.cancel() ;
+        QueryIterator qIter = localIter ;
+        if ( qIter != null )
+            qIter.cancel() ;
+        stopped = true ;
+    }
+
+    @Override
+    public void output(IndentedWriter out, SerializationContext sCxt) {
+        out.println(Lib.className(this)) ;
+        out.incIndent() ;
+        for ( Op op : subOps )
+            op.output(out, sCxt) ;
+        out.decIndent() ;
+        out.ensureStartOfLine() ;
+    }
+}
@@ -18,6 +18,11 @@
 
 package org.apache.jena.sparql.engine.optimizer.reorder;
 
+import java.util.List ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.sparql.core.BasicPattern ;
 import org.apache.jena.sparql.engine.optimizer.StatsMatcher ;
 
 public final class ReorderWeighted extends ReorderTransformationSubstitution
@@ -34,4 +39,26 @@ public final class ReorderWeighted extends ReorderTransformationSubstitution
     {
         return stats.match(pTriple) ;
     }
+
+    /**
+     * Estimate the number of solutions of a basic graph pattern, executed in the order
+     * chosen by {@link #reorder}: the product of the weights of the triple patterns, each
+     * weighed with the variables of the triple patterns before it as bound.
+     * Returns -1 if there is no weight for one of the triple patterns.
+     */
+    public double estimate(BasicPattern pattern)
+    {
+        BasicPattern bgp = reorder(pattern) ;
+        List<Triple> triples = bgp.getList() ;
+        List<PatternTriple> components = Iter.toList(Iter.map(triples.iterator(), PatternTriple::new)) ;
+        double estimate = 1 ;
+        for ( int i = 0 ; i < triples.size() ; i++ ) {
+            double w = weight(components.get(i)) ;
+            if ( w < 0 )
+                return -1 ;
+            estimate = estimate * w ;
+            update(triples.get(i), components) ;
+        }
+        return estimate ;
+    }
 }
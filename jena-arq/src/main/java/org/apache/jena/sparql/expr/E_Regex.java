@@ -21,6 +21,9 @@ package org.apache.jena.sparql.expr;
 import java.util.List ;
 
 import org.apache.commons.lang3.StringUtils ;
+import org.apache.jena.atlas.lib.Cache ;
+import org.apache.jena.atlas.lib.CacheFactory ;
+import org.apache.jena.atlas.lib.Pair ;
 import org.apache.jena.atlas.logging.Log ;
 import org.apache.jena.graph.Node ;
 import org.apache.jena.query.ARQ ;
@@ -57,6 +60,11 @@ public class E_Regex extends ExprFunctionN
     
     private static final String name = Tags.tagRegex ;
     private RegexEngine regexEngine = null ;
+
+    // Compiled patterns for REGEX where the pattern (or flags) are not constant
+    // e.g. regex(?x, ?pattern). Keyed by (pattern, flags). 
+    private static final int CacheSize = 1000 ;
+    private static final Cache<Pair<String, String>, RegexEngine> regexCache = CacheFactory.createCache(CacheSize) ;
     
     public E_Regex(Expr expr, Expr pattern, Expr flags)
     {
@@ -99,7 +107,7 @@ public class E_Regex extends ExprFunctionN
         if ( regex == null  ) {
             // Execution time regex compile (not a constant pattern).
             try {
-                regex = makeRegexEngine(vPattern, vFlags) ;
+                regex = makeRegexEngineCached(vPattern, vFlags) ;
             } catch (ExprEvalException ex) {
                 // Avoid multiple logging of the same message (at least if adjacent) 
                 String m = ex.getMessage();
@@ -126,6 +134,28 @@ public class E_Regex extends ExprFunctionN
         return makeRegexEngine(vPattern.getString(), s) ;
     }
     
+    /**
+     * As {@link #makeRegexEngine(NodeValue, NodeValue)} but reusing a previously
+     * compiled {@link RegexEngine} for the same pattern and flags. 
+     */
+    public static RegexEngine makeRegexEngineCached(NodeValue vPattern, NodeValue vFlags)
+    {
+        if ( ! vPattern.isString() )
+            throw new ExprException("REGEX: Pattern is not a string: "+vPattern) ;
+        if ( vFlags != null && ! vFlags.isString() )
+            throw new ExprException("REGEX: Pattern flags are not a string: "+vFlags) ;
+        String s = (vFlags==null)?null:vFlags.getString() ;
+        Pair<String, String> key = Pair.create(vPattern.getString(), s) ;
+        RegexEngine regex = regexCache.getIfPresent(key) ;
+        if ( regex == null ) {
+            // Compile outside the cache so that errors propagate and are not cached.
+            checkFlags(s);
+            regex = makeRegexEngine(vPattern.getString(), s) ;
+            regexCache.put(key, regex) ;
+        }
+        return regex ;
+    }
+
     private static void checkFlags(String flags) {
         if ( flags == null )
             return;
@@ -22,6 +22,10 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
+import org.apache.jena.atlas.lib.Pair;
+
 public class RegexJava implements RegexEngine
 {
     private Pattern regexPattern;
@@ -36,6 +40,25 @@ public class RegexJava implements RegexEngine
         return m.find();
     }
 
+    // Patterns compiled at execution time (i.e. not constants in the query).
+    private static final int CacheSize = 1000;
+    private static final Cache<Pair<String, String>, Pattern> patternCache = CacheFactory.createCache(CacheSize);
+
+    /**
+     * As {@link #makePattern(String, String, String)} but reusing a previously
+     * compiled {@link Pattern} for the same pattern string and flags.
+     */
+    public static Pattern makePatternCached(String label, String patternStr, String flags) {
+        Pair<String, String> key = Pair.create(patternStr, flags);
+        Pattern pattern = patternCache.getIfPresent(key);
+        if ( pattern == null ) {
+            // Compile outside the cache so that errors propagate and are not cached.
+            pattern = makePattern(label, patternStr, flags);
+            patternCache.put(key, pattern);
+        }
+        return pattern;
+    }
+
     public static Pattern makePattern(String label, String patternStr, String flags) {
         try {
             int mask = 0;
@@ -489,7 +489,7 @@ public class XSDFuncOp
         String flagsStr = null;
         if ( nvFlags != null )
             flagsStr = checkAndGetStringLiteral("replace", nvFlags).getLiteralLexicalForm();
-        return strReplace(nvStr, RegexJava.makePattern("replace", pat, flagsStr), nvReplacement);
+        return strReplace(nvStr, RegexJava.makePatternCached("replace", pat, flagsStr), nvReplacement);
     }    
 
     public static NodeValue strReplace(NodeValue nvStr, Pattern pattern, NodeValue nvReplacement) {
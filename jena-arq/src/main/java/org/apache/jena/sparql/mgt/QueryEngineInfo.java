@@ -34,6 +34,16 @@ public class QueryEngineInfo implements QueryEngineInfoMBean
     @Override
     public long getQueryCount()                 { return count.get() ; }
     public void incQueryCount()                 { count.incrementAndGet() ; }
+
+    private AtomicLong planCacheHits = new AtomicLong(0) ;
+    @Override
+    public long getPlanCacheHits()              { return planCacheHits.get() ; }
+    public void incPlanCacheHits()              { planCacheHits.incrementAndGet() ; }
+
+    private AtomicLong planCacheMisses = new AtomicLong(0) ;
+    @Override
+    public long getPlanCacheMisses()            { return planCacheMisses.get() ; }
+    public void incPlanCacheMisses()            { planCacheMisses.incrementAndGet() ; }
     
     Query query = null ;
     @Override
@@ -23,6 +23,12 @@ public interface QueryEngineInfoMBean
 {
     /** Number of queries executed */
     long getQueryCount() ; 
+
+    /** Number of queries where the optimized algebra was found in the plan cache */
+    long getPlanCacheHits() ;
+
+    /** Number of queries where the optimized algebra was added to the plan cache */
+    long getPlanCacheMisses() ;
     
     /** Last query seen, as a string */
     String getLastQueryString() ;
@@ -54,6 +54,7 @@ public class ResultsFormat extends Symbol
     static public ResultsFormat FMT_RS_XML       = new ResultsFormat(contentTypeResultsXML) ;
     static public ResultsFormat FMT_RS_JSON      = new ResultsFormat(contentTypeResultsJSON) ;
     static public ResultsFormat FMT_RS_THRIFT    = new ResultsFormat(contentTypeResultsThrift) ;
+    static public ResultsFormat FMT_RS_COLUMNAR  = new ResultsFormat(contentTypeResultsColumnar) ;
     static public ResultsFormat FMT_RS_CSV       = new ResultsFormat(contentTypeTextCSV) ;
     static public ResultsFormat FMT_RS_TSV       = new ResultsFormat(contentTypeTextTSV) ;
     static public ResultsFormat FMT_RS_SSE       = new ResultsFormat(contentTypeSSE) ;
@@ -83,6 +84,7 @@ public class ResultsFormat extends Symbol
         names.put("json",        FMT_RS_JSON) ;
         names.put("srj",         FMT_RS_JSON) ;
         names.put("srt",         FMT_RS_THRIFT) ;
+        names.put("srcol",       FMT_RS_COLUMNAR) ;
         
         names.put("sse",         FMT_RS_SSE) ;
         names.put("csv",         FMT_RS_CSV) ;
@@ -162,6 +164,10 @@ public class ResultsFormat extends Symbol
         if ( url.endsWith(".srt") )
             return FMT_RS_THRIFT;
 
+        // -- Columnar
+        if ( url.endsWith(".srcol") )
+            return FMT_RS_COLUMNAR;
+
         // -- SSE : http://jena.apache.org/documentation/notes/sse.html
         if ( url.endsWith(".sse") )
             return FMT_RS_SSE;
@@ -205,6 +211,7 @@ public class ResultsFormat extends Symbol
         mapResultsFormatToLang.put(ResultsFormat.FMT_RS_XML,    ResultSetLang.SPARQLResultSetXML) ;
         mapResultsFormatToLang.put(ResultsFormat.FMT_RS_JSON,   ResultSetLang.SPARQLResultSetJSON) ;
         mapResultsFormatToLang.put(ResultsFormat.FMT_RS_THRIFT, ResultSetLang.SPARQLResultSetThrift) ;
+        mapResultsFormatToLang.put(ResultsFormat.FMT_RS_COLUMNAR, ResultSetLang.SPARQLResultSetColumnar) ;
         mapResultsFormatToLang.put(ResultsFormat.FMT_TEXT,      ResultSetLang.SPARQLResultSetText);
     }
 
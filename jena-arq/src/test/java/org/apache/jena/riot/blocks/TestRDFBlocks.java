@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.blocks;
+
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.IOException ;
+import java.io.OutputStream ;
+import java.nio.ByteBuffer ;
+import java.nio.file.Files ;
+import java.nio.file.Path ;
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.Iterator ;
+import java.util.List ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.system.StreamRDFLib ;
+import org.apache.jena.riot.system.StreamRDFOps ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphFactory ;
+import org.apache.jena.sparql.core.Quad ;
+import org.apache.jena.sparql.graph.GraphFactory ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.apache.jena.sparql.util.IsoMatcher ;
+import org.junit.Test ;
+
+public class TestRDFBlocks extends BaseTest {
+
+    static String gs = StrUtils.strjoinNL(
+        "(graph",
+        "  (_:a :p 123) ",
+        "  (_:a :p 'foo'@en) ",
+        "  (_:b :p '456') ",
+        "  (_:b :p '456.5'^^<http://example/dt>) ",
+        "  (_:b :p '') ",
+        "  (<http://example/s> :q 'café'@fr-CA) ",
+         ")") ;
+
+    static Graph graph = SSE.parseGraph(gs) ;
+
+    static String dgs = StrUtils.strjoinNL(
+        "(dataset",
+        "  (graph (:s1 :p _:a) (:s2 :p _:a))" ,
+        "  (graph :g  (:s1 :p _:a))" ,
+        "  (graph _:a (:s2 :p _:a))" ,
+        ")" ) ;
+
+    static DatasetGraph datasetGraph = SSE.parseDatasetGraph(dgs) ;
+
+    @Test public void graph_01() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        StreamRDF stream = RDFBlocks.streamToOutputStream(out) ;
+        stream.start() ;
+        StreamRDFOps.sendGraphToStream(graph, stream) ;
+        stream.finish() ;
+
+        Graph g2 = GraphFactory.createGraphMem() ;
+        RDFBlocks.inputStreamToStream(new ByteArrayInputStream(out.toByteArray()), StreamRDFLib.graph(g2)) ;
+        assertTrue(IsoMatcher.isomorphic(graph, g2)) ;
+        // Stronger - same terms, including blank nodes.
+        graph.find().forEachRemaining(t -> assertTrue(g2.contains(t))) ;
+        assertEquals(graph.size(), g2.size()) ;
+    }
+
+    @Test public void graph_02() {
+        Graph g1 = GraphFactory.createGraphMem() ;
+        g1.getPrefixMapping().setNsPrefix("ex", "http://example/") ;
+        g1.add(SSE.parseTriple("(<http://example/s> <http://example/p> <http://example/o>)")) ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, g1, Lang.RDFBLOCKS) ;
+
+        Graph g2 = GraphFactory.createGraphMem() ;
+        RDFDataMgr.read(g2, new ByteArrayInputStream(out.toByteArray()), Lang.RDFBLOCKS) ;
+        assertTrue(g1.isIsomorphicWith(g2)) ;
+        assertEquals("http://example/", g2.getPrefixMapping().getNsPrefixURI("ex")) ;
+    }
+
+    @Test public void dataset_01() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, datasetGraph, Lang.RDFBLOCKS) ;
+
+        DatasetGraph dsg2 = DatasetGraphFactory.create() ;
+        RDFDataMgr.read(dsg2, new ByteArrayInputStream(out.toByteArray()), Lang.RDFBLOCKS) ;
+        assertTrue(IsoMatcher.isomorphic(datasetGraph, dsg2)) ;
+        // Same blank node as graph name and object.
+        Node bnode = Iter.first(datasetGraph.listGraphNodes(), Node::isBlank) ;
+        assertTrue(dsg2.containsGraph(bnode)) ;
+        assertTrue(dsg2.contains(bnode, Node.ANY, Node.ANY, bnode)) ;
+    }
+
+    @Test public void blocks_01() throws IOException {
+        // Several blocks, with and without prefixes, one with only prefixes.
+        List<Quad> quads = quads(1000) ;
+        Path path = Files.createTempFile("blocks", ".rbk") ;
+        try {
+            try ( OutputStream out = Files.newOutputStream(path) ) {
+                StreamRDF stream = RDFBlocks.streamToOutputStream(out, 100) ;
+                stream.start() ;
+                stream.prefix("ex", "http://example/") ;
+                quads.forEach(stream::quad) ;
+                stream.prefix("ex2", "http://example/2/") ;
+                stream.finish() ;
+            }
+            try ( RDFBlocksFile file = RDFBlocks.openFile(path.toString()) ) {
+                assertEquals(1000, file.size()) ;
+                assertEquals(11, file.getNumBlocks()) ;
+                assertEquals(100, file.getBlock(3).size()) ;
+                assertEquals(0, file.getBlock(10).size()) ;
+                // Random access, in any order.
+                for ( long n : Arrays.asList(999L, 0L, 500L, 99L, 100L, 101L) )
+                    assertEquals(quads.get((int)n), file.get(n)) ;
+                List<Quad> x = new ArrayList<>() ;
+                file.iterator().forEachRemaining(x::add) ;
+                assertEquals(quads, x) ;
+                Iterator<Quad> iter = file.iterator(950) ;
+                assertEquals(50, Iter.count(iter)) ;
+                assertFalse(file.iterator(1000).hasNext()) ;
+
+                DatasetGraph dsg = DatasetGraphFactory.create() ;
+                file.sendTo(StreamRDFLib.dataset(dsg)) ;
+                assertEquals(1000, Iter.count(dsg.find())) ;
+                assertEquals("http://example/2/", dsg.getDefaultGraph().getPrefixMapping().getNsPrefixURI("ex2")) ;
+            }
+        } finally {
+            Files.delete(path) ;
+        }
+    }
+
+    @Test public void blocks_02() throws IOException {
+        Path path = Files.createTempFile("blocks", ".rbk") ;
+        try {
+            try ( OutputStream out = Files.newOutputStream(path) ) {
+                StreamRDF stream = RDFBlocks.streamToOutputStream(out) ;
+                stream.start() ;
+                stream.finish() ;
+            }
+            try ( RDFBlocksFile file = RDFBlocks.openFile(path.toString()) ) {
+                assertEquals(0, file.size()) ;
+                assertEquals(0, file.getNumBlocks()) ;
+                assertFalse(file.iterator().hasNext()) ;
+            }
+        } finally {
+            Files.delete(path) ;
+        }
+    }
+
+    @Test(expected=RiotException.class)
+    public void blocks_truncated() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, datasetGraph, Lang.RDFBLOCKS) ;
+        byte[] bytes = Arrays.copyOf(out.toByteArray(), 30) ;
+        RDFBlocks.inputStreamToStream(new ByteArrayInputStream(bytes), StreamRDFLib.sinkNull()) ;
+    }
+
+    @Test(expected=RiotException.class)
+    public void blocks_bad_datatype() {
+        // Two literals, each with the other as its datatype.
+        ByteBuffer bb = ByteBuffer.allocate(64) ;
+        bb.putInt(2).putInt(0).putInt(1) ;
+        bb.putInt(0).putInt(6).putInt(12) ;
+        bb.putInt(RDFBlocks.NO_GRAPH).putInt(0).putInt(0).putInt(0) ;
+        bb.put(RDFBlocks.KIND_DATATYPE).putInt(1).put((byte)'a') ;
+        bb.put(RDFBlocks.KIND_DATATYPE).putInt(0).put((byte)'b') ;
+        bb.flip() ;
+        new RDFBlock(bb).getTriple(0) ;
+    }
+
+    // Triples (in the default graph) and quads.
+    private static List<Quad> quads(int N) {
+        List<Quad> quads = new ArrayList<>() ;
+        Node p = NodeFactory.createURI("http://example/p") ;
+        for ( int i = 0 ; i < N ; i++ ) {
+            Node g = ( i % 3 == 0 ) ? Quad.defaultGraphIRI : NodeFactory.createURI("http://example/g"+(i%5)) ;
+            Node s = NodeFactory.createURI("http://example/s"+(i%17)) ;
+            Node o = NodeFactory.createLiteral("value "+i) ;
+            quads.add(Quad.create(g, s, p, o)) ;
+        }
+        return quads ;
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.runners.Suite ;
 @RunWith(Suite.class)
 @Suite.SuiteClasses( {
     TestResultSetIO.class
+    , TestResultSetColumnar.class
 })
 
 public class TS_ResultSetRIOT { }
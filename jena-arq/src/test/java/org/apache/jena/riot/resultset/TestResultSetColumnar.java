@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.resultset;
+
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.List ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.NotImplemented ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.query.ResultSet ;
+import org.apache.jena.query.ResultSetFactory ;
+import org.apache.jena.query.ResultSetRewindable ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.ResultSetMgr ;
+import org.apache.jena.riot.resultset.rw.ResultSetWriterColumnar ;
+import org.apache.jena.riot.resultset.rw.ResultsWriter ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ResultSetStream ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.binding.BindingMap ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.sparql.resultset.ResultSetException ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.apache.jena.sparql.sse.builders.BuilderResultSet ;
+import org.apache.jena.sparql.util.Context ;
+import org.junit.Test ;
+
+public class TestResultSetColumnar extends BaseTest {
+    private static final Lang lang = ResultSetLang.SPARQLResultSetColumnar ;
+
+    @Test public void columnar_01() {
+        // Numeric columns, including non-canonical forms and unbound values.
+        test(StrUtils.strjoinNL
+             ("(resultset (?i ?d ?x)"
+             ,"   (row (?i 1) (?d 1.5e0) (?x 1))"
+             ,"   (row (?i -20) (?d \"-0.0\"^^<http://www.w3.org/2001/XMLSchema#double>) (?x 01))"
+             ,"   (row (?i 9223372036854775807) (?d \"1.0E10\"^^<http://www.w3.org/2001/XMLSchema#double>) )"
+             ,"   (row (?x \"x\"))"
+             ,"   (row (?i 0) (?x 99999999999999999999))"
+             ,")")) ;
+    }
+
+    @Test public void columnar_02() {
+        // All kinds of term.
+        test(StrUtils.strjoinNL
+             ("(resultset (?x ?y)"
+             ,"   (row (?x <http://example/a>) (?y _:b0))"
+             ,"   (row (?x \"abc\") (?y \"abc\"@en))"
+             ,"   (row (?x \"\") (?y \"2018-01-01\"^^<http://www.w3.org/2001/XMLSchema#date>))"
+             ,"   (row (?x _:b0) (?y \"\\u00E9\\uD83D\\uDE00\\n\"))"
+             ,"   (row (?x <http://example/a>) (?y <http://example/a>))"
+             ,"   (row )"
+             ,")")) ;
+    }
+
+    @Test public void columnar_03() {
+        // No variables.
+        test("(resultset () (row) (row))") ;
+    }
+
+    @Test public void columnar_04() {
+        // No rows.
+        test("(resultset (?x ?y))") ;
+    }
+
+    @Test public void columnar_05() {
+        // Several row groups, with columns changing encoding between groups.
+        Var x = Var.alloc("x") ;
+        Var y = Var.alloc("y") ;
+        List<Binding> rows = new ArrayList<>() ;
+        for ( int i = 0 ; i < 250 ; i++ ) {
+            BindingMap b = BindingFactory.create() ;
+            Node n = ( i < 100 )
+                ? NodeFactory.createLiteral(Integer.toString(i), XSDDatatype.XSDinteger)
+                : NodeFactory.createURI("http://example/"+(i%7)) ;
+            b.add(x, n) ;
+            if ( i % 3 == 0 )
+                b.add(y, NodeFactory.createLiteral(Double.toString(i/4.0), XSDDatatype.XSDdouble)) ;
+            rows.add(b) ;
+        }
+        ResultSetRewindable rs = ResultSetFactory.makeRewindable(new ResultSetStream(Arrays.asList("x", "y"), null, rows.iterator())) ;
+        Context cxt = new Context() ;
+        cxt.set(ResultSetWriterColumnar.rowGroupSize, 64) ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        ResultsWriter.create().lang(lang).context(cxt).write(out, rs) ;
+        rs.reset() ;
+        ResultSet rs2 = ResultSetMgr.read(new ByteArrayInputStream(out.toByteArray()), lang) ;
+        assertTrue(ResultSetCompare.equalsExact(rs, rs2)) ;
+    }
+
+    @Test(expected=NotImplemented.class)
+    public void columnar_boolean() {
+        ResultSetMgr.write(new ByteArrayOutputStream(), true, lang) ;
+    }
+
+    @Test(expected=ResultSetException.class)
+    public void columnar_bad() {
+        ResultSetMgr.read(new ByteArrayInputStream(StrUtils.asUTF8bytes("{ \"head\": {} }")), lang) ;
+    }
+
+    private static void test(String rsStr) {
+        ResultSetRewindable rs = ResultSetFactory.makeRewindable(BuilderResultSet.build(SSE.parse(rsStr))) ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        ResultSetMgr.write(out, rs, lang) ;
+        rs.reset() ;
+        ResultSet rs2 = ResultSetMgr.read(new ByteArrayInputStream(out.toByteArray()), lang) ;
+        assertEquals(rs.getResultVars(), rs2.getResultVars()) ;
+        // Exact: the same terms, including lexical forms, and the same blank node labels.
+        assertTrue(ResultSetCompare.equalsExact(rs, rs2)) ;
+    }
+}
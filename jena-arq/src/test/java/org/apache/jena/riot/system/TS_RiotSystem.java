@@ -30,6 +30,7 @@ import org.junit.runners.Suite.SuiteClasses ;
 @SuiteClasses({ 
     TestChecker.class
     , TestStreamRDF.class
+    , TestAsyncParser.class
     , TestFactoryRDF.class
     , TestFactoryRDFCaching.class
 
@@ -46,6 +47,7 @@ import org.junit.runners.Suite.SuiteClasses ;
     , TestLangRegistration.class
     , TestFormatRegistration.class
     , TestJsonLDReadWrite.class         // Some simple testing of the jsonld-java engine.
+    , TestJsonLDStreaming.class
     , TestSerializable.class
     
     // May be subject to performance vagaries, with the improvements made
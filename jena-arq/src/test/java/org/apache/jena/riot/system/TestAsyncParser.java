@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.atomic.AtomicBoolean ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.Lang ;
+import org.apache.jena.riot.RDFParser ;
+import org.apache.jena.riot.RiotException ;
+import org.apache.jena.riot.lang.StreamRDFCounting ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphFactory ;
+import org.apache.jena.sparql.graph.GraphFactory ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.junit.Test ;
+
+public class TestAsyncParser extends BaseTest {
+    private static String turtle = "PREFIX : <http://example/> :s :p 1, 2, 3 . :s :q 'abc' ." ;
+
+    private static void parse(String string, Lang lang, StreamRDF dest) {
+        AsyncParser.parse(s -> RDFParser.fromString(string).lang(lang).parse(s), dest) ;
+    }
+
+    @Test public void async_parse_01() {
+        Graph graph = GraphFactory.createDefaultGraph() ;
+        parse(turtle, Lang.TTL, StreamRDFLib.graph(graph)) ;
+        Graph expected = GraphFactory.createDefaultGraph() ;
+        RDFParser.fromString(turtle).lang(Lang.TTL).parse(expected) ;
+        assertTrue(graph.isIsomorphicWith(expected)) ;
+        assertEquals("http://example/", graph.getPrefixMapping().getNsPrefixURI("")) ;
+    }
+
+    @Test public void async_parse_02() {
+        String trig = "<http://example/g> { <http://example/s> <http://example/p> 'o' } <http://example/s> <http://example/p> 'o' ." ;
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem() ;
+        parse(trig, Lang.TRIG, StreamRDFLib.dataset(dsg)) ;
+        assertEquals(1, dsg.getDefaultGraph().size()) ;
+        assertEquals(1, dsg.getGraph(SSE.parseNode("<http://example/g>")).size()) ;
+    }
+
+    // More data than the parser can get ahead by.
+    @Test public void async_parse_03() {
+        StringBuilder sb = new StringBuilder() ;
+        int N = 250_000 ;
+        for ( int i = 0 ; i < N ; i++ )
+            sb.append("<http://example/s").append(i).append("> <http://example/p> \"").append(i).append("\" .\n") ;
+        StreamRDFCounting dest = StreamRDFLib.count() ;
+        parse(sb.toString(), Lang.NT, dest) ;
+        assertEquals(N, dest.countTriples()) ;
+    }
+
+    @Test(expected=RiotException.class)
+    public void async_parse_error_01() {
+        parse("<http://example/s> <http://example/p> .", Lang.NT, StreamRDFLib.sinkNull()) ;
+    }
+
+    private static class StopException extends RuntimeException {}
+
+    @Test public void async_parse_error_02() {
+        StringBuilder sb = new StringBuilder() ;
+        for ( int i = 0 ; i < 250_000 ; i++ )
+            sb.append("<http://example/s> <http://example/p> \"").append(i).append("\" .\n") ;
+        StreamRDF dest = new StreamRDFBase() {
+            int count = 0 ;
+            @Override public void triple(Triple triple) {
+                if ( ++count == 10 )
+                    throw new StopException() ;
+            }
+        } ;
+        try {
+            parse(sb.toString(), Lang.NT, dest) ;
+            fail("Expected exception from the destination") ;
+        } catch (StopException ex) {}
+    }
+
+    @Test public void async_parse_error_03() {
+        // The parser task has ended when the exception from the destination is thrown.
+        StringBuilder sb = new StringBuilder() ;
+        for ( int i = 0 ; i < 250_000 ; i++ )
+            sb.append("<http://example/s> <http://example/p> \"").append(i).append("\" .\n") ;
+        AtomicBoolean parserEnded = new AtomicBoolean(false) ;
+        StreamRDF dest = new StreamRDFBase() {
+            @Override public void triple(Triple triple) { throw new StopException() ; }
+        } ;
+        try {
+            AsyncParser.parse(s -> {
+                try { RDFParser.fromString(sb.toString()).lang(Lang.NT).parse(s) ; }
+                finally { parserEnded.set(true) ; }
+            }, dest) ;
+            fail("Expected exception from the destination") ;
+        } catch (StopException ex) {}
+        assertTrue(parserEnded.get()) ;
+    }
+
+    @Test public void async_parse_executor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor() ;
+        try {
+            StreamRDFCounting dest = StreamRDFLib.count() ;
+            AsyncParser.parse(s -> RDFParser.fromString(turtle).lang(Lang.TTL).parse(s), dest, executor) ;
+            assertEquals(4, dest.countTriples()) ;
+        } finally {
+            executor.shutdownNow() ;
+        }
+    }
+}
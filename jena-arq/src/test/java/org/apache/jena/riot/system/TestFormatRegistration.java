@@ -55,6 +55,7 @@ public class TestFormatRegistration extends BaseTest
         add("TRIX",     x, RDFFormat.TRIX,       true, true) ;
         add("TRDF",     x, RDFFormat.RDF_THRIFT, true, true) ;
         add("TRDF",     x, RDFFormat.RDF_THRIFT_VALUES, true, true) ;
+        add("RDFBLOCKS", x, RDFFormat.RDF_BLOCKS, true, true) ;
         return x ;
     }
     
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.InputStream ;
+import java.io.StringReader ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.graph.Triple ;
+import org.apache.jena.riot.* ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.core.DatasetGraphFactory ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.apache.jena.sparql.util.Context ;
+import org.apache.jena.sparql.util.IsoMatcher ;
+import org.junit.Test ;
+
+/** Streaming JSON-LD: {@link RIOT#JSONLD_STREAMING} reading and {@link RDFFormat#JSONLD_BLOCKS} writing. */
+public class TestJsonLDStreaming extends BaseTest
+{
+    private static String DIR = "testing/RIOT/jsonld/" ;
+
+    @Test public void stream_read_01() {
+        DatasetGraph dsg1 = read(RDFDataMgr.open(DIR+"dataset1.jsonld")) ;
+        DatasetGraph dsg2 = RDFDataMgr.loadDatasetGraph(DIR+"dataset1.trig") ;
+        assertTrue(IsoMatcher.isomorphic(dsg1, dsg2)) ;
+    }
+
+    // graph1.jsonld has "@context" after "@graph".
+    @Test(expected=RiotException.class)
+    public void stream_read_02() {
+        read(RDFDataMgr.open(DIR+"graph1.jsonld")) ;
+    }
+
+    @Test public void stream_read_03() {
+        String x = StrUtils.strjoinNL
+            ("{ '@context': { 'ex': 'http://example/', 'n': { '@id': 'ex:n' }, 'list': { '@id': 'ex:list', '@container': '@list' } },"
+            ,"  '@graph': [ { '@id': 'ex:s', '@type': 'ex:T', 'n': [ 1, 1.0, 1.5, true ], 'list': [ 'a', 'b' ] } ]"
+            ,"}") ;
+        DatasetGraph dsg = read(x) ;
+        DatasetGraph expected = SSE.parseDatasetGraph(StrUtils.strjoinNL
+            ("(dataset (graph"
+            ,"  (<http://example/s> rdf:type <http://example/T>)"
+            ,"  (<http://example/s> <http://example/n> 1)"
+            ,"  (<http://example/s> <http://example/n> '1.5E0'^^xsd:double)"
+            ,"  (<http://example/s> <http://example/n> true)"
+            ,"  (<http://example/s> <http://example/list> _:b0)"
+            ,"  (_:b0 rdf:first 'a') (_:b0 rdf:rest _:b1)"
+            ,"  (_:b1 rdf:first 'b') (_:b1 rdf:rest rdf:nil)"
+            ,"))")) ;
+        assertTrue(IsoMatcher.isomorphic(expected, dsg)) ;
+    }
+
+    @Test(expected=RiotException.class)
+    public void stream_read_04() {
+        read("{ '@context': 'http://example/context', '@graph': [] }") ;
+    }
+
+    @Test public void stream_read_alias_id() {
+        String x = StrUtils.strjoinNL
+            ("{ '@context': { 'ex': 'http://example/', 'id': '@id', 'n': { '@id': 'ex:n' } },"
+            ,"  '@graph': [ { 'id': 'ex:s', 'n': 1 } ]"
+            ,"}") ;
+        DatasetGraph dsg = read(x) ;
+        DatasetGraph expected = SSE.parseDatasetGraph("(dataset (graph (<http://example/s> <http://example/n> 1)))") ;
+        assertTrue(IsoMatcher.isomorphic(expected, dsg)) ;
+    }
+
+    @Test public void stream_read_alias_type() {
+        String x = StrUtils.strjoinNL
+            ("{ '@context': { 'ex': 'http://example/', 'type': { '@id': '@type', '@container': '@set' } },"
+            ,"  '@graph': [ { '@id': 'ex:s', 'type': [ 'ex:T1', 'ex:T2' ],"
+            ,"                'ex:v': { '@value': '1', 'type': 'ex:dt' } } ]"
+            ,"}") ;
+        DatasetGraph dsg = read(x) ;
+        DatasetGraph expected = SSE.parseDatasetGraph(StrUtils.strjoinNL
+            ("(dataset (graph"
+            ,"  (<http://example/s> rdf:type <http://example/T1>)"
+            ,"  (<http://example/s> rdf:type <http://example/T2>)"
+            ,"  (<http://example/s> <http://example/v> '1'^^<http://example/dt>)"
+            ,"))")) ;
+        assertTrue(IsoMatcher.isomorphic(expected, dsg)) ;
+    }
+
+    @Test(expected=RiotException.class)
+    public void stream_read_alias_other() {
+        read("{ '@context': { 'graph': '@graph' }, 'graph': [] }") ;
+    }
+
+    @Test public void stream_roundtrip_01() { roundTrip(DIR+"graph1.ttl") ; }
+
+    @Test public void stream_roundtrip_02() { roundTrip(DIR+"dataset1.trig") ; }
+
+    @Test public void stream_writer_registration() {
+        // Only used when asked for: the default streaming format is unchanged.
+        assertTrue(StreamRDFWriter.registered(RDFFormat.JSONLD_BLOCKS)) ;
+        assertFalse(StreamRDFWriter.registered(Lang.JSONLD)) ;
+    }
+
+    @Test public void stream_writer_01() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        StreamRDF stream = StreamRDFWriter.getWriterStream(out, RDFFormat.JSONLD_BLOCKS) ;
+        assertNotNull(stream) ;
+        Node s = NodeFactory.createURI("http://example/s") ;
+        Node p = NodeFactory.createURI("http://example/p") ;
+        stream.start() ;
+        stream.prefix("ex", "http://example/") ;
+        stream.triple(Triple.create(s, p, NodeFactory.createLiteral("abc"))) ;
+        // Too late: ignored.
+        stream.prefix("ex2", "http://example/2/") ;
+        stream.finish() ;
+        DatasetGraph dsg = read(new ByteArrayInputStream(out.toByteArray())) ;
+        assertEquals(1, dsg.getDefaultGraph().size()) ;
+        assertEquals("http://example/", dsg.getDefaultGraph().getPrefixMapping().getNsPrefixURI("ex")) ;
+        assertNull(dsg.getDefaultGraph().getPrefixMapping().getNsPrefixURI("ex2")) ;
+    }
+
+    private static void roundTrip(String filename) {
+        DatasetGraph dsg1 = RDFDataMgr.loadDatasetGraph(filename) ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, dsg1, RDFFormat.JSONLD_BLOCKS) ;
+        DatasetGraph dsg2 = read(new ByteArrayInputStream(out.toByteArray())) ;
+        assertTrue(IsoMatcher.isomorphic(dsg1, dsg2)) ;
+    }
+
+    private static DatasetGraph read(String string) {
+        DatasetGraph dsg = DatasetGraphFactory.create() ;
+        RDFParser.create().source(new StringReader(string.replace('\'', '"'))).lang(Lang.JSONLD)
+            .context(streaming()).parse(dsg) ;
+        return dsg ;
+    }
+
+    private static DatasetGraph read(InputStream in) {
+        DatasetGraph dsg = DatasetGraphFactory.create() ;
+        RDFParser.create().source(in).lang(Lang.JSONLD).context(streaming()).parse(dsg) ;
+        return dsg ;
+    }
+
+    private static Context streaming() {
+        Context cxt = new Context() ;
+        cxt.set(RIOT.JSONLD_STREAMING, true) ;
+        return cxt ;
+    }
+}
@@ -49,6 +49,7 @@ public class TestLangRegistration extends BaseTest
         add("TRIG",     x, Lang.TRIG,       false, true) ;
         add("TRIX",     x, Lang.TRIX,       true, true) ;
         add("TRDF",     x, Lang.RDFTHRIFT,  true, true) ;
+        add("RDFBLOCKS", x, Lang.RDFBLOCKS, true, true) ;
         return x ;
     }
     
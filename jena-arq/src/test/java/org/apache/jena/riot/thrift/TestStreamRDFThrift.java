@@ -155,6 +155,82 @@ public class TestStreamRDFThrift extends BaseTest {
         termAsObject(dsg1, obj) ;
     }
     
+    static String dsRepeat = StrUtils.strjoinNL(
+        "(dataset",
+        "  (graph (:s :p 1) (:s :p 2) (:s :q 2) (_:b :q 2) (:s :p 1))" ,
+        "  (graph :g  (:s :p 1) (:s :p 2))" ,
+        "  (graph :g2 (:s :p 2) (_:b :p 2))" ,
+        "  (graph (:s :p 3))" ,
+        "  (graph :g2 (:s :p 3))" ,
+        ")" ) ;
+
+    @Test public void repeat_01() {
+        // Runs of the same subject, predicate and graph.
+        DatasetGraph dsg1 = SSE.parseDatasetGraph(dsRepeat) ;
+        byte[] bytes = writeRows(dsg1, true) ;
+        // Some terms are sent as REPEAT.
+        assertTrue(countRepeats(bytes) > 0) ;
+        DatasetGraph dsg2 = DatasetGraphFactory.create() ;
+        BinRDF.inputStreamToStream(new ByteArrayInputStream(bytes), StreamRDFLib.dataset(dsg2)) ;
+        assertTrue(IsoMatcher.isomorphic(dsg1, dsg2)) ;
+        dsg1.find().forEachRemaining(q -> assertTrue(dsg2.contains(q))) ;
+    }
+
+    @Test public void repeat_02() {
+        // Not by default.
+        DatasetGraph dsg1 = SSE.parseDatasetGraph(dsRepeat) ;
+        byte[] bytes = writeRows(dsg1, false) ;
+        assertEquals(0, countRepeats(bytes)) ;
+    }
+
+    @Test public void repeat_03() {
+        // A quad, a triple, then a quad in the same named graph: the graph is not a repeat.
+        DatasetGraph dsg1 = DatasetGraphFactory.create() ;
+        Node g = SSE.parseNode(":g") ;
+        Node s = SSE.parseNode(":s") ;
+        Node p = SSE.parseNode(":p") ;
+        Quad q1 = Quad.create(g, s, p, SSE.parseNode("1")) ;
+        Quad q2 = Quad.create(Quad.defaultGraphIRI, s, p, SSE.parseNode("2")) ;
+        Quad q3 = Quad.create(g, s, p, SSE.parseNode("3")) ;
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        StreamRDF stream = BinRDF.streamToOutputStream(out, false, true) ;
+        stream.start() ;
+        stream.quad(q1) ;
+        stream.quad(q2) ;
+        stream.quad(q3) ;
+        stream.finish() ;
+        int[] count = { 0 } ;
+        BinRDF.apply(TRDF.protocol(new ByteArrayInputStream(out.toByteArray())), row -> {
+            if ( row.isSetQuad() && row.getQuad().getG().isSetRepeat() ) count[0]++ ;
+        }) ;
+        assertEquals(0, count[0]) ;
+        BinRDF.inputStreamToStream(new ByteArrayInputStream(out.toByteArray()), StreamRDFLib.dataset(dsg1)) ;
+        assertTrue(dsg1.contains(q1)) ;
+        assertTrue(dsg1.contains(q2)) ;
+        assertTrue(dsg1.contains(q3)) ;
+    }
+
+    private static byte[] writeRows(DatasetGraph dsg, boolean withRepeat) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        StreamRDF stream = BinRDF.streamToOutputStream(out, false, withRepeat) ;
+        stream.start() ;
+        StreamRDFOps.sendQuadsToStream(dsg.find(), stream) ;
+        stream.finish() ;
+        return out.toByteArray() ;
+    }
+
+    private static int countRepeats(byte[] bytes) {
+        int[] count = { 0 } ;
+        BinRDF.apply(TRDF.protocol(new ByteArrayInputStream(bytes)), row -> {
+            if ( row.isSetTriple() ) {
+                if ( row.getTriple().getS().isSetRepeat() ) count[0]++ ;
+            } else if ( row.isSetQuad() ) {
+                if ( row.getQuad().getS().isSetRepeat() ) count[0]++ ;
+            }
+        }) ;
+        return count[0] ;
+    }
+
     static void sameTerms(Graph g1, Graph g2) {
         assertEquals(g1.size() , g2.size() ) ;
         // ** Java8
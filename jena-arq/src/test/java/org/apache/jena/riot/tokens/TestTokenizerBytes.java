@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.tokens ;
+
+import java.io.ByteArrayInputStream ;
+import java.util.ArrayList ;
+import java.util.List ;
+
+import org.apache.jena.atlas.io.PeekReader ;
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.apache.jena.riot.RiotParseException ;
+import org.junit.Test ;
+
+/** Tokenizing UTF-8 bytes directly gives the same tokens, with the same line and column numbers, as going through a PeekReader */
+public class TestTokenizerBytes extends BaseTest {
+
+    private static List<String> tokens(Tokenizer tokenizer) {
+        List<String> x = new ArrayList<>() ;
+        try {
+            while ( tokenizer.hasNext() ) {
+                Token t = tokenizer.next() ;
+                x.add("["+t.getLine()+","+t.getColumn()+"] "+t+" "+t.getImage()+" "+t.getImage2()) ;
+            }
+        } catch (RiotParseException ex) {
+            x.add("["+ex.getLine()+","+ex.getCol()+"] "+ex.getMessage()) ;
+        }
+        return x ;
+    }
+
+    private static void same(String input) {
+        same(StrUtils.asUTF8bytes(input)) ;
+    }
+
+    private static void same(byte[] bytes) {
+        Tokenizer tokText = new TokenizerText(PeekReader.makeUTF8(new ByteArrayInputStream(bytes))) ;
+        Tokenizer tokBytes = TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)) ;
+        assertEquals(tokens(tokText), tokens(tokBytes)) ;
+    }
+
+    @Test public void tokenizer_bytes_01()  { same("<http://example/a> <b> <> .") ; }
+    @Test public void tokenizer_bytes_02()  { same("<http://example/\\u00E9> <a\\U0001F600b>") ; }
+    @Test public void tokenizer_bytes_03()  { same("<http://example/\u00E9t\u00E9/\uD83D\uDE00>") ; }
+    @Test public void tokenizer_bytes_04()  { same("\"abc\" 'def' \"\" '' \"a\\tb\\\"c\" \"\u00E9\"") ; }
+    @Test public void tokenizer_bytes_05()  { same("\"\"\"a\n\"b\"\"c\u00E9\\n\"\"\" '''x''y'''") ; }
+    @Test public void tokenizer_bytes_06()  { same("\"abc\"@en-GB \"abc\"^^<http://dt> \"abc\" ^^ ex:dt") ; }
+    @Test public void tokenizer_bytes_07()  { same("_:b0 _:b.1. _:b\u00E9x _:a-b_c") ; }
+    @Test public void tokenizer_bytes_08()  { same("ex:a ex:a.b. ex:a\\-b ex:%20x :x \u00E9:\u00E9 a true") ; }
+    @Test public void tokenizer_bytes_09()  { same("12 -1 +1.5 .5 1. 1e5 0xAF - + ( ) [ ] { } , ; = / | & * ?x $y @prefix") ; }
+    @Test public void tokenizer_bytes_10()  { same("# comment\n<a> # comment \u00E9 \uD83D\uDE00\r\n<b>#\n#") ; }
+    @Test public void tokenizer_bytes_11()  { same("<a>\r\n\t<b>\f\n\n   <c>") ; }
+    // Tokens after a supplementary character (a surrogate pair in Java) on the same line.
+    @Test public void tokenizer_bytes_12()  { same("\"\uD83D\uDE00\" <a> <\uD83D\uDE00> 'x\uD83D\uDE00y' <b>") ; }
+    @Test public void tokenizer_bytes_13()  { same("_:\uD83D\uDE00x ex:\uD83D\uDE00 ex:a\uD83D\uDE00b . <c>") ; }
+
+    // Errors
+    @Test public void tokenizer_bytes_err_01()  { same("<a\nb>") ; }
+    @Test public void tokenizer_bytes_err_02()  { same("\"abc\ndef\"") ; }
+    @Test public void tokenizer_bytes_err_03()  { same("<a> \"abc") ; }
+    @Test public void tokenizer_bytes_err_04()  { same("<a b>") ; }
+    @Test public void tokenizer_bytes_err_05()  { same("\"\\q\"") ; }
+
+    @Test public void tokenizer_bytes_bom() {
+        byte[] bytes = StrUtils.asUTF8bytes("\uFEFF<a>") ;
+        Tokenizer tokenizer = TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)) ;
+        Token t = tokenizer.next() ;
+        assertEquals(TokenType.IRI, t.getType()) ;
+        assertEquals("a", t.getImage()) ;
+        assertFalse(tokenizer.hasNext()) ;
+    }
+
+    @Test(expected=RiotParseException.class)
+    public void tokenizer_bytes_bad_encoding_01() {
+        byte[] bytes = { '"', (byte)0xFF, '"' } ;
+        TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)).next() ;
+    }
+
+    @Test(expected=RiotParseException.class)
+    public void tokenizer_bytes_bad_encoding_02() {
+        // Truncated 4 byte sequence.
+        byte[] bytes = { '<', (byte)0xF0, (byte)0x9F } ;
+        TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)).next() ;
+    }
+
+    @Test(expected=RiotParseException.class)
+    public void tokenizer_bytes_bad_encoding_03() {
+        // Bad continuation byte after a good token on the same line.
+        byte[] bytes = { '<', 'a', '>', ' ', '<', (byte)0xC3, '(', '>' } ;
+        Tokenizer tokenizer = TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)) ;
+        assertEquals("a", tokenizer.next().getImage()) ;
+        tokenizer.next() ;
+    }
+
+    @Test(expected=RiotParseException.class)
+    public void tokenizer_bytes_bad_encoding_04() {
+        // A continuation byte with no lead byte, in a prefixed name.
+        byte[] bytes = { 'e', 'x', ':', 'a', (byte)0x80, 'b' } ;
+        TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)).next() ;
+    }
+
+    @Test(expected=RiotParseException.class)
+    public void tokenizer_bytes_bad_encoding_05() {
+        // Bad UTF-8 in a comment.
+        byte[] bytes = { '#', ' ', (byte)0xE2, (byte)0x28, (byte)0xA1, '\n', '<', 'a', '>' } ;
+        TokenizerFactory.makeTokenizerBytes(new ByteArrayInputStream(bytes)).next() ;
+    }
+
+    // Tokens across the boundary of the input buffer.
+    @Test public void tokenizer_bytes_large() {
+        StringBuilder sb = new StringBuilder() ;
+        for ( int i = 0 ; sb.length() < 300_000 ; i++ ) {
+            sb.append("<http://example/s").append(i).append("> _:b").append(i).append(" \"lit \u00E9").append(i)
+              .append("\"@en . # \uD83D\uDE00\n") ;
+        }
+        same(sb.toString()) ;
+    }
+}
@@ -51,6 +51,7 @@ public class TestRiotWriterDataset extends AbstractWriterTest
             , { RDFFormat.NQUADS_ASCII}
             , { RDFFormat.RDF_THRIFT }
             , { RDFFormat.RDF_THRIFT_VALUES }
+            , { RDFFormat.RDF_BLOCKS }
             , { RDFFormat.TRIX }
         }) ; 
     }
@@ -49,6 +49,7 @@ public class TestRiotWriterGraph extends AbstractWriterTest
             , { RDFFormat.RDFXML }
             , { RDFFormat.RDFXML_PRETTY }
             , { RDFFormat.RDFXML_PLAIN }
+            , { RDFFormat.RDFXML_BLOCKS }
             , { RDFFormat.JSONLD }
             , { RDFFormat.JSONLD_PRETTY }
             , { RDFFormat.JSONLD_FLAT }
@@ -65,6 +66,7 @@ public class TestRiotWriterGraph extends AbstractWriterTest
             
             , { RDFFormat.RDF_THRIFT }
             , { RDFFormat.RDF_THRIFT_VALUES }
+            , { RDFFormat.RDF_BLOCKS }
             , { RDFFormat.TRIX }
         }) ; 
     }
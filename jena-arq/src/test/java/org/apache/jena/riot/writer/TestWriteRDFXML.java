@@ -18,14 +18,20 @@
 
 package org.apache.jena.riot.writer;
 
+import java.io.ByteArrayOutputStream ;
 import java.io.StringReader ;
 import java.io.StringWriter ;
 
+import org.apache.jena.atlas.lib.StrUtils ;
 import org.apache.jena.rdf.model.Model ;
 import org.apache.jena.rdf.model.ModelFactory ;
 import org.apache.jena.rdf.model.RDFWriter ;
 import org.apache.jena.riot.Lang ;
 import org.apache.jena.riot.RDFDataMgr ;
+import org.apache.jena.riot.RDFFormat ;
+import org.apache.jena.riot.system.StreamRDF ;
+import org.apache.jena.riot.system.StreamRDFOps ;
+import org.apache.jena.riot.system.StreamRDFWriter ;
 import org.junit.Assert ;
 import org.junit.Test ;
 
@@ -55,5 +61,51 @@ public class TestWriteRDFXML {
         // Did it have an effect?
         Assert.assertNotEquals(x0, x2) ;
     }
-    
+
+    @Test public void streaming_01() {
+        String data = StrUtils.strjoinNL
+            ("PREFIX : <http://example/>"
+            ,":s :p :o ; :q 'abc' ; :q 'x'@en ; :q 123 ."
+            ,":s1 <http://other/ns#p> _:b ."
+            ,"_:b :q 'line1\\nline2 <&>' ."
+            ) ;
+        Model m = ModelFactory.createDefaultModel() ;
+        RDFDataMgr.read(m, new StringReader(data), null, Lang.TTL) ;
+        String x = streaming(m) ;
+        // One rdf:Description for each subject.
+        Assert.assertEquals(3, x.split("<rdf:Description ", -1).length-1) ;
+        Model m2 = ModelFactory.createDefaultModel() ;
+        RDFDataMgr.read(m2, new StringReader(x), null, Lang.RDFXML) ;
+        Assert.assertTrue(m.isIsomorphicWith(m2)) ;
+        Assert.assertEquals("http://example/", m2.getNsPrefixURI("")) ;
+    }
+
+    @Test public void streaming_registration() {
+        // Only used when asked for: the default streaming format is unchanged.
+        Assert.assertTrue(StreamRDFWriter.registered(RDFFormat.RDFXML_BLOCKS)) ;
+        Assert.assertFalse(StreamRDFWriter.registered(Lang.RDFXML)) ;
+    }
+
+    @Test public void streaming_02() {
+        // Not split by subject: written in order.
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        StreamRDF stream = StreamRDFWriter.getWriterStream(out, RDFFormat.RDFXML_BLOCKS) ;
+        stream.start() ;
+        StreamRDFOps.sendGraphToStream(model.getGraph(), stream) ;
+        // After the first triple: ignored.
+        stream.prefix("ex", "http://example/") ;
+        StreamRDFOps.sendGraphToStream(model.getGraph(), stream) ;
+        stream.finish() ;
+        String x = StrUtils.fromUTF8bytes(out.toByteArray()) ;
+        Assert.assertFalse(x.contains("xmlns:ex")) ;
+        Model m2 = ModelFactory.createDefaultModel() ;
+        RDFDataMgr.read(m2, new StringReader(x), null, Lang.RDFXML) ;
+        Assert.assertTrue(model.isIsomorphicWith(m2)) ;
+    }
+
+    private static String streaming(Model m) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() ;
+        RDFDataMgr.write(out, m, RDFFormat.RDFXML_BLOCKS) ;
+        return StrUtils.fromUTF8bytes(out.toByteArray()) ;
+    }
 }
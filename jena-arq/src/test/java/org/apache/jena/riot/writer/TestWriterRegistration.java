@@ -62,6 +62,7 @@ public class TestWriterRegistration extends BaseTest
     @Test public void registration_34() { testregistration(RDFFormat.RDFXML_PLAIN) ; }
     @Test public void registration_35() { testregistration(RDFFormat.RDFJSON) ; }
     @Test public void registration_36() { testregistration(RDFFormat.RDFNULL) ; }
+    @Test public void registration_37() { testregistration(RDFFormat.RDFXML_BLOCKS) ; }
 
     private void testregistration(Lang lang)
     {
@@ -18,7 +18,9 @@
 
 package org.apache.jena.sparql.api;
 
+import java.lang.ref.WeakReference;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Set ;
 
 import org.apache.jena.atlas.iterator.Iter ;
@@ -26,6 +28,7 @@ import org.apache.jena.atlas.json.JsonArray;
 import org.apache.jena.atlas.json.JsonObject;
 import org.apache.jena.atlas.junit.BaseTest;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.query.ARQ;
 import org.apache.jena.graph.Graph ;
 import org.apache.jena.graph.Node ;
 import org.apache.jena.graph.Triple;
@@ -51,10 +54,16 @@ import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.sparql.algebra.Op;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.engine.QueryEngineBase;
+import org.apache.jena.sparql.engine.QueryExecutionBase;
+import org.apache.jena.sparql.engine.binding.BindingRoot;
+import org.apache.jena.sparql.engine.main.QueryEngineMain;
 import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.Context;
 import org.apache.jena.sparql.util.IsoMatcher;
 import org.apache.jena.sparql.util.ModelUtils;
 import org.apache.jena.vocabulary.OWL;
@@ -604,6 +613,113 @@ public class TestAPI extends BaseTest
         }
     }
 
+    @Test public void testQueryPlanCache() {
+        QueryEngineBase.clearPlanCache();
+        String queryString = "SELECT * { ?s ?p 'x1' FILTER(?p != <http://example/ns#p2>) }";
+        long hits = QueryEngineBase.queryEngineInfo.getPlanCacheHits();
+        long misses = QueryEngineBase.queryEngineInfo.getPlanCacheMisses();
+        for ( int i = 0 ; i < 3 ; i++ ) {
+            // Parse each time - the cache is by query, not by object.
+            QueryExecution qExec = makeQExec(queryString);
+            qExec.getContext().set(ARQ.queryPlanCache, true);
+            assertEquals(1, queryAndCount(qExec));
+        }
+        assertEquals(misses+1, QueryEngineBase.queryEngineInfo.getPlanCacheMisses());
+        assertEquals(hits+2, QueryEngineBase.queryEngineInfo.getPlanCacheHits());
+        QueryEngineBase.clearPlanCache();
+    }
+
+    @Test public void testQueryPlanCacheInitialBinding() {
+        QueryEngineBase.clearPlanCache();
+        long hits = QueryEngineBase.queryEngineInfo.getPlanCacheHits();
+        long misses = QueryEngineBase.queryEngineInfo.getPlanCacheMisses();
+        // Not cached - initial bindings change the algebra executed.
+        QuerySolutionMap init = new QuerySolutionMap();
+        init.add("z", m.createLiteral("zzz"));
+        try(QueryExecution qExec = makeQExec("SELECT * { ?s ?p 'x1' }")) {
+            qExec.setInitialBinding(init);
+            qExec.getContext().set(ARQ.queryPlanCache, true);
+            assertEquals(1, queryAndCount(qExec));
+        }
+        assertEquals(misses, QueryEngineBase.queryEngineInfo.getPlanCacheMisses());
+        assertEquals(hits, QueryEngineBase.queryEngineInfo.getPlanCacheHits());
+    }
+
+    @Test public void testQueryPlanCacheSettings() {
+        QueryEngineBase.clearPlanCache();
+        String queryString = "SELECT * { ?s ?p 'x1' FILTER(?p != <http://example/ns#p2>) }";
+        long hits = QueryEngineBase.queryEngineInfo.getPlanCacheHits();
+        long misses = QueryEngineBase.queryEngineInfo.getPlanCacheMisses();
+        Model m2 = ModelFactory.createDefaultModel().add(m);
+        // Miss, then different optimizer setting, then different dataset.
+        for ( int i = 0 ; i < 3 ; i++ ) {
+            Query q = QueryFactory.create(queryString);
+            QueryExecution qExec = QueryExecutionFactory.create(q, i == 2 ? m2 : m);
+            qExec.getContext().set(ARQ.queryPlanCache, true);
+            if ( i == 1 )
+                qExec.getContext().set(ARQ.optFilterInequality, false);
+            assertEquals(1, queryAndCount(qExec));
+        }
+        assertEquals(misses+3, QueryEngineBase.queryEngineInfo.getPlanCacheMisses());
+        assertEquals(hits, QueryEngineBase.queryEngineInfo.getPlanCacheHits());
+        QueryEngineBase.clearPlanCache();
+    }
+
+    @Test public void testQueryPlanCachePlanOp() {
+        QueryEngineBase.clearPlanCache();
+        String queryString = "SELECT * { ?s ?p 'x1' FILTER(?p != <http://example/ns#p2>) }";
+        // The plan reports the same algebra on a cache miss and on a cache hit.
+        Op[] ops = new Op[2];
+        for ( int i = 0 ; i < 2 ; i++ ) {
+            try(QueryExecution qExec = makeQExec(queryString)) {
+                qExec.getContext().set(ARQ.queryPlanCache, true);
+                ops[i] = ((QueryExecutionBase)qExec).getPlan().getOp();
+            }
+        }
+        assertEquals(ops[0], ops[1]);
+        QueryEngineBase.clearPlanCache();
+    }
+
+    @Test public void testQueryPlanCacheNoCompile() {
+        QueryEngineBase.clearPlanCache();
+        // A cache hit does not compile the query to algebra.
+        AtomicInteger compiles = new AtomicInteger(0);
+        DatasetGraph dsg = DatasetGraphFactory.create(m.getGraph());
+        for ( int i = 0 ; i < 3 ; i++ ) {
+            Query q = QueryFactory.create("SELECT * { ?s ?p 'x1' }");
+            Context cxt = Context.setupContextForDataset(ARQ.getContext(), dsg);
+            cxt.set(ARQ.queryPlanCache, true);
+            QueryEngineMain engine = new QueryEngineMain(q, dsg, BindingRoot.create(), cxt) {
+                @Override
+                protected Op createOp(Query query) {
+                    compiles.incrementAndGet();
+                    return super.createOp(query);
+                }
+            };
+            assertNotNull(engine.getPlan().getOp());
+        }
+        assertEquals(1, compiles.get());
+        QueryEngineBase.clearPlanCache();
+    }
+
+    @Test public void testQueryPlanCacheDatasetNotHeld() {
+        QueryEngineBase.clearPlanCache();
+        // The cache does not keep the dataset reachable.
+        DatasetGraph dsg = DatasetGraphFactory.create(m.getGraph());
+        try(QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p 'x1' }", DatasetFactory.wrap(dsg))) {
+            qExec.getContext().set(ARQ.queryPlanCache, true);
+            assertEquals(1, queryAndCount(qExec));
+        }
+        WeakReference<DatasetGraph> ref = new WeakReference<>(dsg);
+        dsg = null;
+        for ( int i = 0 ; i < 20 && ref.get() != null ; i++ ) {
+            System.gc();
+            try { Thread.sleep(10); } catch (InterruptedException ex) {}
+        }
+        assertNull(ref.get());
+        QueryEngineBase.clearPlanCache();
+    }
+
     private QueryExecution makeQExec(String queryString) {
         Query q = QueryFactory.create(queryString);
         QueryExecution qExec = QueryExecutionFactory.create(q, m);
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.api;
+
+import java.util.ArrayList ;
+import java.util.List ;
+import java.util.concurrent.CompletableFuture ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.TimeUnit ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.query.Dataset ;
+import org.apache.jena.query.DatasetFactory ;
+import org.apache.jena.query.QueryExecution ;
+import org.apache.jena.query.QueryExecutionFactory ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.rdf.model.Property ;
+import org.apache.jena.rdf.model.Resource ;
+import org.apache.jena.sparql.engine.QueryExecutionAsync ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.graph.GraphFactory ;
+import org.apache.jena.system.Txn ;
+import org.junit.AfterClass ;
+import org.junit.Test ;
+
+public class TestQueryExecutionAsync extends BaseTest {
+
+    private static final String ns = "http://example/ns#" ;
+
+    static Model m = GraphFactory.makeJenaDefaultModel() ;
+    static Property p = m.createProperty(ns+"p") ;
+    static  {
+        for ( int i = 0 ; i < 25 ; i++ ) {
+            Resource r = m.createResource(ns+"s"+i) ;
+            m.addLiteral(r, p, i) ;
+        }
+    }
+
+    static ExecutorService executor = Executors.newFixedThreadPool(2) ;
+
+    @AfterClass public static void afterClass() throws InterruptedException {
+        executor.shutdown() ;
+        executor.awaitTermination(5, TimeUnit.SECONDS) ;
+    }
+
+    @Test public void async_batches_1() throws Exception {
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", m) ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+            List<Binding> batch1 = qExecAsync.nextBatch(10).get() ;
+            assertEquals(10, batch1.size()) ;
+            assertEquals(3, qExecAsync.getResultVars().size()) ;
+            List<Binding> batch2 = qExecAsync.nextBatch(10).get() ;
+            assertEquals(10, batch2.size()) ;
+            assertFalse(qExecAsync.isFinished()) ;
+            List<Binding> batch3 = qExecAsync.nextBatch(10).get() ;
+            assertEquals(5, batch3.size()) ;
+            assertTrue(qExecAsync.isFinished()) ;
+            List<Binding> batch4 = qExecAsync.nextBatch(10).get() ;
+            assertTrue(batch4.isEmpty()) ;
+        }
+    }
+
+    @Test public void async_batches_2() throws Exception {
+        // Requests made before earlier batches have completed.
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", m) ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+            int total = 0 ;
+            List<CompletableFuture<List<Binding>>> futures = new ArrayList<>() ;
+            for ( int i = 0 ; i < 5 ; i++ )
+                futures.add(qExecAsync.nextBatch(7)) ;
+            for ( CompletableFuture<List<Binding>> f : futures )
+                total += f.get().size() ;
+            assertEquals(25, total) ;
+        }
+    }
+
+    @Test public void async_forEach() throws Exception {
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", m) ;
+        List<Binding> results = new ArrayList<>() ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+            qExecAsync.forEachBatch(4, results::addAll).get() ;
+        }
+        assertEquals(25, results.size()) ;
+    }
+
+    @Test public void async_forEach_direct() throws Exception {
+        // Batches are computed on the calling thread. One result per batch must
+        // not build up a chain of stages or a deep stack.
+        Model m2 = GraphFactory.makeJenaDefaultModel() ;
+        for ( int i = 0 ; i < 20000 ; i++ )
+            m2.addLiteral(m2.createResource(ns+"s"+i), p, i) ;
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", m2) ;
+        List<Binding> results = new ArrayList<>() ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, Runnable::run) ) {
+            qExecAsync.forEachBatch(1, results::addAll).get() ;
+        }
+        assertEquals(20000, results.size()) ;
+    }
+
+    @Test public void async_txn() throws Exception {
+        // The query runs in its own read transaction: a write that commits
+        // between batches is not seen.
+        Dataset ds = DatasetFactory.createTxnMem() ;
+        Txn.executeWrite(ds, ()->ds.getDefaultModel().add(m)) ;
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", ds) ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+            int total = qExecAsync.nextBatch(10).get().size() ;
+            Txn.executeWrite(ds, ()->ds.getDefaultModel().addLiteral(m.createResource(ns+"x"), p, 99)) ;
+            List<Binding> batch ;
+            while ( ! ( batch = qExecAsync.nextBatch(10).get() ).isEmpty() )
+                total += batch.size() ;
+            assertEquals(25, total) ;
+        }
+        Txn.executeRead(ds, ()->assertEquals(26, ds.getDefaultModel().size())) ;
+    }
+
+    @Test public void async_txn_close() throws Exception {
+        // Closed before all the results have been read.
+        Dataset ds = DatasetFactory.createTxnMem() ;
+        Txn.executeWrite(ds, ()->ds.getDefaultModel().add(m)) ;
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", ds) ;
+        QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ;
+        assertEquals(10, qExecAsync.nextBatch(10).get().size()) ;
+        qExecAsync.close() ;
+        assertTrue(qExecAsync.nextBatch(10).get().isEmpty()) ;
+        assertTrue(qExecAsync.isFinished()) ;
+    }
+
+    @Test(expected=ExecutionException.class)
+    public void async_forEach_error() throws Exception {
+        QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", m) ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+            qExecAsync.forEachBatch(4, batch -> { throw new IllegalStateException() ; }).get() ;
+        }
+    }
+
+    @Test(expected=ExecutionException.class)
+    public void async_error() throws Exception {
+        // Not a SELECT query.
+        QueryExecution qExec = QueryExecutionFactory.create("ASK { ?s ?p ?o }", m) ;
+        try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+            qExecAsync.nextBatch(10).get() ;
+        }
+    }
+}
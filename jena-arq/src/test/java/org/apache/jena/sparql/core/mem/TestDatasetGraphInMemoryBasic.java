@@ -34,7 +34,10 @@ import static org.junit.Assert.assertFalse ;
 import static org.junit.Assert.assertNotNull ;
 import static org.junit.Assert.assertTrue ;
 
+import java.util.HashSet ;
 import java.util.Iterator ;
+import java.util.Set ;
+import java.util.stream.Collectors ;
 
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.graph.Node ;
@@ -121,6 +124,28 @@ public class TestDatasetGraphInMemoryBasic extends AbstractDatasetGraphTests {
         assertFalse("Too many named graphs!", graphNodes.hasNext());
     }
 
+    @Test
+    public void parallelStreamMatchesFind() {
+        final DatasetGraph dsg = emptyDataset();
+        for ( int i = 0 ; i < 500 ; i++ ) {
+            dsg.add(createURI("http://example/g" + (i % 5)), createURI("http://example/s" + (i % 7)),
+                    createURI("http://example/p"), createURI("http://example/o" + i));
+            dsg.getDefaultGraph().add(Triple.create(createURI("http://example/s"), createURI("http://example/p"),
+                                                    createURI("http://example/o" + i)));
+        }
+        final Node g1 = createURI("http://example/g1");
+        final Node s1 = createURI("http://example/s1");
+        final Node[][] patterns = { {ANY, ANY, ANY, ANY}, {g1, ANY, ANY, ANY}, {ANY, s1, ANY, ANY},
+                                    {Quad.defaultGraphIRI, ANY, ANY, ANY}, {unionGraph, ANY, ANY, ANY} };
+        for ( Node[] x : patterns ) {
+            Set<Quad> expected = new HashSet<>();
+            dsg.find(x[0], x[1], x[2], x[3]).forEachRemaining(expected::add);
+            Set<Quad> actual = dsg.stream(x[0], x[1], x[2], x[3]).parallel().collect(Collectors.toSet());
+            assertEquals(expected, actual);
+        }
+        assertEquals(1000, dsg.stream().parallel().count());
+    }
+
 	@Override
 	protected DatasetGraph emptyDataset() {
 		return DatasetGraphFactory.createTxnMem();
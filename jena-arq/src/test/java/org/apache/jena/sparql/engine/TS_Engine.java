@@ -34,6 +34,8 @@ import org.junit.runners.Suite ;
       , TestQueryEngineMultiThreaded.class
       , TestJsonIterator.class
       , TestJsonEval.class
+      , TestParallelUnion.class
+      , TestQueryMemoryBudget.class
 })
 
 public class TS_Engine {}
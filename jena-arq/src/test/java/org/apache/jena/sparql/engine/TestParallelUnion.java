@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.jena.query.* ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.rdf.model.ModelFactory ;
+import org.apache.jena.rdf.model.Property ;
+import org.apache.jena.rdf.model.Resource ;
+import org.apache.jena.sparql.core.DatasetGraph ;
+import org.apache.jena.sparql.engine.main.iterator.QueryIterUnionParallel ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.system.Txn ;
+import org.junit.Test;
+
+/**
+ * Tests for concurrent evaluation of UNION branches.
+ */
+public class TestParallelUnion {
+    private static final String ns = "http://example/ns#" ;
+    private static final String PREFIX = "PREFIX : <"+ns+">\n" ;
+
+    private static Model model = ModelFactory.createDefaultModel() ;
+    static {
+        Property p = model.createProperty(ns+"p") ;
+        Property q = model.createProperty(ns+"q") ;
+        for ( int i = 0 ; i < 2000 ; i++ ) {
+            Resource r = model.createResource(ns+"s"+i) ;
+            model.addLiteral(r, p, i) ;
+            if ( i % 2 == 0 )
+                model.addLiteral(r, q, i) ;
+        }
+    }
+
+    @Test public void parallel_union_1() {
+        test("SELECT * { { ?s :p ?o } UNION { ?s :q ?o } }", 3000) ;
+    }
+
+    @Test public void parallel_union_2() {
+        test("SELECT * { { ?s :p ?o } UNION { ?s :q ?o } UNION { ?s :p ?o FILTER(?o < 10) } }", 3010) ;
+    }
+
+    @Test public void parallel_union_3() {
+        // Nested union, and union after a pattern (executed per binding).
+        test("SELECT * { ?s :q ?x { ?s :p ?o } UNION { { ?s :q ?o } UNION { BIND(?x AS ?o) } } }", 3000) ;
+    }
+
+    @Test public void parallel_union_many() {
+        // More branches than worker threads: some run on the calling thread.
+        StringBuilder sb = new StringBuilder("SELECT * { { ?s :p ?o }") ;
+        int N = 2*Runtime.getRuntime().availableProcessors()+4 ;
+        for ( int i = 1 ; i < N ; i++ )
+            sb.append(" UNION { ?s :p ?o }") ;
+        sb.append(" }") ;
+        test(sb.toString(), N*2000) ;
+    }
+
+    @Test public void parallel_union_join() {
+        // Two unions open at the same time.
+        test("SELECT * { { { ?s :p ?o } UNION { ?s :q ?o } } { { ?s :p ?z } UNION { ?s :q ?z } } }", 5000) ;
+    }
+
+    @Test public void parallel_union_limit() {
+        // Close before all the results are read.
+        String qs = PREFIX+"SELECT * { { ?s :p ?o } UNION { ?s :q ?o } } LIMIT 5" ;
+        try ( QueryExecution qExec = QueryExecutionFactory.create(qs, model) ) {
+            qExec.getContext().set(ARQ.parallelUnion, true) ;
+            assertEquals(5, ResultSetFormatter.consume(qExec.execSelect())) ;
+        }
+    }
+
+    @Test public void parallel_union_txn_read() {
+        // In a read transaction - workers use their own transactions on the same data.
+        Dataset ds = DatasetFactory.createTxnMem() ;
+        Txn.executeWrite(ds, ()->ds.getDefaultModel().add(model)) ;
+        String qs = PREFIX+"SELECT * { { ?s :p ?o } UNION { ?s :q ?o } }" ;
+        Txn.executeRead(ds, ()->{
+            assertTrue(QueryIterUnionParallel.canRunParallel(execCxt(ds))) ;
+            try ( QueryExecution qExec = QueryExecutionFactory.create(qs, ds) ) {
+                qExec.getContext().set(ARQ.parallelUnion, true) ;
+                assertEquals(3000, ResultSetFormatter.consume(qExec.execSelect())) ;
+            }
+        }) ;
+    }
+
+    @Test public void parallel_union_txn_read_changed() {
+        // A write commits after the read transaction starts: workers would see
+        // different data so the branches run on the calling thread.
+        Dataset ds = DatasetFactory.createTxnMem() ;
+        Txn.executeWrite(ds, ()->ds.getDefaultModel().add(model)) ;
+        String qs = PREFIX+"SELECT * { { ?s :p ?o } UNION { ?s :q ?o } }" ;
+        Txn.executeRead(ds, ()->{
+            Thread thread = new Thread(()->Txn.executeWrite(ds, ()->{
+                Model m = ds.getDefaultModel() ;
+                m.addLiteral(m.createResource(ns+"x"), m.createProperty(ns+"p"), 1) ;
+            })) ;
+            thread.start() ;
+            try { thread.join() ; } catch (InterruptedException ex) { fail() ; }
+            try ( QueryExecution qExec = QueryExecutionFactory.create(qs, ds) ) {
+                qExec.getContext().set(ARQ.parallelUnion, true) ;
+                assertEquals(3000, ResultSetFormatter.consume(qExec.execSelect())) ;
+            }
+        }) ;
+        Txn.executeRead(ds, ()->{
+            try ( QueryExecution qExec = QueryExecutionFactory.create(qs, ds) ) {
+                qExec.getContext().set(ARQ.parallelUnion, true) ;
+                assertEquals(3001, ResultSetFormatter.consume(qExec.execSelect())) ;
+            }
+        }) ;
+    }
+
+    @Test public void parallel_union_txn_write() {
+        // In a write transaction - executed sequentially.
+        Dataset ds = DatasetFactory.createTxnMem() ;
+        String qs = PREFIX+"SELECT * { { ?s :p ?o } UNION { ?s :q ?o } }" ;
+        Txn.executeWrite(ds, ()->{
+            ds.getDefaultModel().add(model) ;
+            assertFalse(QueryIterUnionParallel.canRunParallel(execCxt(ds))) ;
+            try ( QueryExecution qExec = QueryExecutionFactory.create(qs, ds) ) {
+                qExec.getContext().set(ARQ.parallelUnion, true) ;
+                assertEquals(3000, ResultSetFormatter.consume(qExec.execSelect())) ;
+            }
+        }) ;
+    }
+
+    private static ExecutionContext execCxt(Dataset ds) {
+        DatasetGraph dsg = ds.asDatasetGraph() ;
+        return new ExecutionContext(ARQ.getContext(), dsg.getDefaultGraph(), dsg, null) ;
+    }
+
+    private static void test(String queryString, int expectedCount) {
+        String qs = PREFIX+queryString ;
+        ResultSetRewindable rs1 ;
+        try ( QueryExecution qExec = QueryExecutionFactory.create(qs, model) ) {
+            rs1 = ResultSetFactory.copyResults(qExec.execSelect()) ;
+        }
+        ResultSetRewindable rs2 ;
+        try ( QueryExecution qExec = QueryExecutionFactory.create(qs, model) ) {
+            qExec.getContext().set(ARQ.parallelUnion, true) ;
+            rs2 = ResultSetFactory.copyResults(qExec.execSelect()) ;
+        }
+        assertEquals(expectedCount, rs1.size()) ;
+        assertEquals(expectedCount, rs2.size()) ;
+        assertTrue(ResultSetCompare.equalsByTerm(rs1, rs2)) ;
+    }
+}
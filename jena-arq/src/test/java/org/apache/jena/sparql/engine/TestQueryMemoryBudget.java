@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList ;
+import java.util.List ;
+
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.query.* ;
+import org.apache.jena.rdf.model.Model ;
+import org.apache.jena.rdf.model.ModelFactory ;
+import org.apache.jena.rdf.model.Property ;
+import org.apache.jena.rdf.model.Resource ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper ;
+import org.apache.jena.sparql.engine.join.Join ;
+import org.apache.jena.sparql.resultset.ResultSetCompare ;
+import org.apache.jena.sparql.util.Context ;
+import org.junit.Test;
+
+/**
+ * Tests for the memory budget of a query execution.
+ */
+public class TestQueryMemoryBudget {
+    private static final String ns = "http://example/ns#" ;
+    private static final String PREFIX = "PREFIX : <"+ns+">\n" ;
+
+    private static Model model = ModelFactory.createDefaultModel() ;
+    static {
+        Property p = model.createProperty(ns+"p") ;
+        for ( int i = 0 ; i < 3000 ; i++ ) {
+            Resource r = model.createResource(ns+"s"+i) ;
+            model.addLiteral(r, p, i % 1500) ;
+        }
+    }
+
+    @Test public void budget_allocation_1() {
+        ExecutionContext execCxt = execCxt(10) ;
+        QueryMemoryBudget budget = QueryMemoryBudget.get(execCxt.getContext()) ;
+        QueryMemoryBudget.Allocation a1 = QueryMemoryBudget.allocation(execCxt) ;
+        QueryMemoryBudget.Allocation a2 = QueryMemoryBudget.allocation(execCxt) ;
+        assertTrue(a1.tryAcquire(6)) ;
+        assertFalse(a2.tryAcquire(5)) ;
+        assertTrue(a2.tryAcquire(4)) ;
+        assertTrue(budget.isExhausted()) ;
+        a1.release() ;
+        assertEquals(4, budget.getUsed()) ;
+        assertEquals(0, a1.getHeld()) ;
+        a2.release() ;
+        assertEquals(0, budget.getUsed()) ;
+    }
+
+    @Test public void budget_allocation_2() {
+        // No budget.
+        QueryMemoryBudget.Allocation a = QueryMemoryBudget.allocation(null) ;
+        a.acquire(Long.MAX_VALUE/2) ;
+        assertTrue(a.tryAcquire(1)) ;
+        a.release() ;
+    }
+
+    @Test(expected=QueryBudgetExceededException.class)
+    public void budget_allocation_3() {
+        ExecutionContext execCxt = execCxt(10) ;
+        QueryMemoryBudget.allocation(execCxt).acquire(11) ;
+    }
+
+    @Test public void budget_sort() {
+        // Spills to disk.
+        test("SELECT * { ?s :p ?o } ORDER BY ?o ?s", 100, 3000) ;
+    }
+
+    @Test public void budget_distinct() {
+        // Spills to disk.
+        test("SELECT DISTINCT ?o { ?s :p ?o } ORDER BY ?o", 100, 1500) ;
+    }
+
+    @Test public void budget_group_1() {
+        test("SELECT ?o (count(*) AS ?c) { ?s :p ?o } GROUP BY ?o ORDER BY ?o", 5000, 1500) ;
+    }
+
+    @Test(expected=QueryBudgetExceededException.class)
+    public void budget_group_2() {
+        test("SELECT ?o (count(*) AS ?c) { ?s :p ?o } GROUP BY ?o", 1000, 1500) ;
+    }
+
+    @Test public void budget_hash_join_1() {
+        ExecutionContext execCxt = execCxt(1000) ;
+        QueryIterator qIter = Join.hashJoin(rows(500), rows(500), execCxt) ;
+        assertEquals(500, count(qIter)) ;
+        assertEquals(0, QueryMemoryBudget.get(execCxt.getContext()).getUsed()) ;
+    }
+
+    @Test public void budget_hash_join_2() {
+        ExecutionContext execCxt = execCxt(1000) ;
+        try {
+            Join.hashJoin(rows(1001), rows(10), execCxt) ;
+            fail("Expected QueryBudgetExceededException") ;
+        } catch (QueryBudgetExceededException ex) {}
+        assertEquals(0, QueryMemoryBudget.get(execCxt.getContext()).getUsed()) ;
+    }
+
+    private static void test(String queryString, long budget, int expectedCount) {
+        String qs = PREFIX+queryString ;
+        ResultSetRewindable rs1 ;
+        try ( QueryExecution qExec = QueryExecutionFactory.create(qs, model) ) {
+            rs1 = ResultSetFactory.copyResults(qExec.execSelect()) ;
+        }
+        ResultSetRewindable rs2 ;
+        QueryMemoryBudget memoryBudget ;
+        try ( QueryExecution qExec = QueryExecutionFactory.create(qs, model) ) {
+            qExec.getContext().set(ARQ.queryMemoryBudget, budget) ;
+            rs2 = ResultSetFactory.copyResults(qExec.execSelect()) ;
+            memoryBudget = QueryMemoryBudget.get(qExec.getContext()) ;
+        }
+        assertNotNull(memoryBudget) ;
+        assertEquals(0, memoryBudget.getUsed()) ;
+        assertEquals(expectedCount, rs1.size()) ;
+        assertEquals(expectedCount, rs2.size()) ;
+        assertTrue(ResultSetCompare.equalsByTermAndOrder(rs1, rs2)) ;
+    }
+
+    private static ExecutionContext execCxt(long budget) {
+        Context cxt = new Context() ;
+        cxt.set(ARQ.queryMemoryBudget, budget) ;
+        QueryMemoryBudget.setup(cxt) ;
+        return new ExecutionContext(cxt, null, null, null) ;
+    }
+
+    private static QueryIterator rows(int N) {
+        Var x = Var.alloc("x") ;
+        List<Binding> rows = new ArrayList<>() ;
+        for ( int i = 0 ; i < N ; i++ )
+            rows.add(BindingFactory.binding(x, NodeFactory.createLiteral(Integer.toString(i)))) ;
+        return new QueryIterPlainWrapper(rows.iterator()) ;
+    }
+
+    private static int count(QueryIterator qIter) {
+        int n = 0 ;
+        for ( ; qIter.hasNext() ; qIter.next() )
+            n++ ;
+        qIter.close() ;
+        return n ;
+    }
+}
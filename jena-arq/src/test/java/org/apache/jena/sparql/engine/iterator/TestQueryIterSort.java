@@ -301,6 +301,30 @@ public class TestQueryIterSort {
     }
 
 
+    @Test
+    public void testTopNDistinct() {
+        // Every binding twice, in a different order.
+        List<Binding> input = new ArrayList<>(unsorted);
+        for ( int i = unsorted.size()-1 ; i >= 0 ; i-- )
+            input.add(unsorted.get(i));
+        List<Binding> expected = new ArrayList<>(unsorted);
+        expected.sort(comparator);
+
+        long numItems = 10;
+        Context context = new Context() ;
+        ExecutionContext ec = new ExecutionContext(context, (Graph) null, (DatasetGraph) null, (OpExecutorFactory) null);
+        QueryIterator qIter = new QueryIterPlainWrapper(input.iterator(), ec);
+        QueryIterTopN tn = new QueryIterTopN(qIter, comparator, numItems, true, ec);
+        List<Binding> results = new ArrayList<>();
+        while (tn.hasNext())
+            results.add(tn.next());
+        tn.close();
+        assertEquals(numItems, results.size());
+        for ( int i = 0 ; i < numItems ; i++ )
+            assertEquals(0, comparator.compare(expected.get(i), results.get(i)));
+        assertEquals(numItems, results.stream().distinct().count());
+    }
+
     private Binding randomBinding(Var[] vars)
     {
         BindingMap binding = BindingFactory.create();
@@ -23,6 +23,8 @@ import java.util.Collection;
 
 import org.apache.jena.atlas.junit.BaseTest ;
 import org.apache.jena.query.ARQ ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.util.Symbol;
 import org.junit.AfterClass;
@@ -76,6 +78,32 @@ public class TestRegex extends BaseTest
             fail(fmtTest(value, pattern, flags)+" ==> "+b+" expected "+expected) ;
     }
 
+    // Pattern from a variable - compiled at execution time.
+    @Test public void testRegexVar01() { regexVarTest( "ABC",  "ABC",  null,   true) ; }
+    @Test public void testRegexVar02() { regexVarTest( "ABC",  "abc",  "i",    true) ; }
+    @Test public void testRegexVar03() { regexVarTest( "ABC",  "abc",  null,   false) ; }
+    @Test public void testRegexVar04() {
+        // Same pattern, different flags.
+        regexVarTest( "ABC",  "abc",  null,   false) ;
+        regexVarTest( "ABC",  "abc",  "i",    true) ;
+        regexVarTest( "ABC",  "abc",  null,   false) ;
+    }
+
+    public void regexVarTest(String value, String pattern, String flags, boolean expected) {
+        Var vPattern = Var.alloc("pattern") ;
+        Binding binding = BindingFactory.binding(vPattern, NodeValue.makeString(pattern).asNode()) ;
+        Expr s = NodeValue.makeString(value) ;
+        Expr f = ( flags == null ) ? null : NodeValue.makeString(flags) ;
+        E_Regex r = new E_Regex(s, new ExprVar(vPattern), f) ;
+        // Twice - second time may use a previously compiled pattern.
+        for ( int i = 0 ; i < 2 ; i++ ) {
+            NodeValue nv = r.eval(binding, null) ;
+            boolean b = nv.getBoolean() ;
+            if ( b != expected )
+                fail(fmtTest(value, pattern, flags)+" ==> "+b+" expected "+expected) ;
+        }
+    }
+
     private String fmtTest(String value, String pattern, String flags) {
         String tmp = "regex(\""+value+"\", \""+pattern+"\"" ;
         if ( flags != null )
@@ -96,4 +124,8 @@ public class TestRegex extends BaseTest
     @Test(expected=ExprEvalException.class)
     public void testRegexErr3() { regexTest("ABC", "abc", "u", false) ; }
 
+    // Bad regex, not a constant : errors are not remembered as compiled patterns.
+    @Test(expected=ExprEvalException.class)
+    public void testRegexErr4() { regexVarTest("ABC", "(", null, false) ; }
+
 }
@@ -215,8 +215,24 @@ public class TestReorder extends BaseTest
         BasicPattern bgp2 = transform.reorder(bgp) ;
         assertEquals(bgp2, bgp) ;
     }
-    
-    
+
+    @Test public void stats_estimate_01()
+    {
+        StatsMatcher m = matcher("((VAR :p VAR) 100) ((TERM :q VAR) 3)") ;
+        ReorderWeighted transform = new ReorderWeighted(m) ;
+        BasicPattern bgp = bgp("(bgp (?x :q ?w) (?x :p ?v))") ;
+        assertEquals(300, transform.estimate(bgp), 0.01) ;
+    }
+
+    @Test public void stats_estimate_02()
+    {
+        // No weight for :r
+        StatsMatcher m = matcher("((VAR :p VAR) 100)") ;
+        ReorderWeighted transform = new ReorderWeighted(m) ;
+        BasicPattern bgp = bgp("(bgp (?x :p ?v) (?x :r ?w))") ;
+        assertEquals(-1, transform.estimate(bgp), 0.01) ;
+    }
+
     @Test public void stats_dft_01()
     {
         ReorderTransformation transform = ReorderLib.fixed() ;
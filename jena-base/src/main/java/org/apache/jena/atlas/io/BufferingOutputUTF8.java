@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.atlas.io;
+
+import java.io.IOException ;
+import java.io.OutputStream ;
+
+/**
+ * An {@link AWriter} that encodes characters as UTF-8 directly into a byte buffer
+ * and writes the buffer to the {@link OutputStream} in large chunks.
+ * <p>
+ * Pre-encoded bytes, such as fixed markup or cached terms, can be added with
+ * {@link #write(byte[])}. There is no per-call synchronization and no intermediate
+ * {@code char} buffer.
+ * <p>
+ * Unpaired surrogates are written as '?'.
+ * This class is not thread safe.
+ */
+public final class BufferingOutputUTF8 extends AWriterBase
+{
+    private static final int SIZE = 64 * 1024 ;
+
+    private final OutputStream out ;
+    private final byte[] buffer ;
+    private int idx = 0 ;
+    // High surrogate from print(char), waiting for the low surrogate.
+    private char pendingHigh = 0 ;
+
+    /** Create a buffering UTF-8 output with the default buffer size (64K bytes). */
+    public BufferingOutputUTF8(OutputStream out) {
+        this(out, SIZE) ;
+    }
+
+    /** Create a buffering UTF-8 output. The buffer must be at least 4 bytes. */
+    public BufferingOutputUTF8(OutputStream out, int size) {
+        if ( size < 4 )
+            throw new IllegalArgumentException("Buffer size too small: "+size) ;
+        this.out = out ;
+        this.buffer = new byte[size] ;
+    }
+
+    /** Write bytes, which must be UTF-8. */
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length) ;
+    }
+
+    /** Write bytes, which must be UTF-8. */
+    public void write(byte[] bytes, int off, int len) {
+        unpaired() ;
+        if ( len > buffer.length - idx ) {
+            flushBuffer() ;
+            if ( len > buffer.length ) {
+                // Large - write directly.
+                try { out.write(bytes, off, len) ; }
+                catch (IOException ex) { IO.exception(ex) ; }
+                return ;
+            }
+        }
+        System.arraycopy(bytes, off, buffer, idx, len) ;
+        idx += len ;
+    }
+
+    @Override
+    public void print(char ch) {
+        if ( pendingHigh != 0 && Character.isLowSurrogate(ch) ) {
+            if ( buffer.length - idx < 4 )
+                flushBuffer() ;
+            encode(Character.toCodePoint(pendingHigh, ch)) ;
+            pendingHigh = 0 ;
+            return ;
+        }
+        unpaired() ;
+        if ( buffer.length - idx < 3 )
+            flushBuffer() ;
+        if ( ch < 0x80 ) {
+            buffer[idx++] = (byte)ch ;
+            return ;
+        }
+        if ( Character.isHighSurrogate(ch) ) {
+            pendingHigh = ch ;
+            return ;
+        }
+        if ( Character.isSurrogate(ch) ) {
+            // No pair.
+            buffer[idx++] = '?' ;
+            return ;
+        }
+        encode(ch) ;
+    }
+
+    // A high surrogate from print(char) not followed by a low surrogate.
+    private void unpaired() {
+        if ( pendingHigh == 0 )
+            return ;
+        pendingHigh = 0 ;
+        if ( idx == buffer.length )
+            flushBuffer() ;
+        buffer[idx++] = '?' ;
+    }
+
+    @Override
+    public void print(char[] cbuf) {
+        for ( char ch : cbuf )
+            print(ch) ;
+    }
+
+    @Override
+    public void print(String string) {
+        print(string, 0, string.length()) ;
+    }
+
+    /** Write the characters {@code string[start, end)}. */
+    public void print(String string, int start, int end) {
+        if ( pendingHigh != 0 && start < end ) {
+            print(string.charAt(start)) ;
+            start++ ;
+        }
+        byte[] buffer = this.buffer ;
+        int idx = this.idx ;
+        for ( int i = start ; i < end ; i++ ) {
+            if ( buffer.length - idx < 4 ) {
+                this.idx = idx ;
+                flushBuffer() ;
+                idx = 0 ;
+            }
+            char ch = string.charAt(i) ;
+            if ( ch < 0x80 ) {
+                buffer[idx++] = (byte)ch ;
+                continue ;
+            }
+            this.idx = idx ;
+            if ( Character.isHighSurrogate(ch) && i+1 < end && Character.isLowSurrogate(string.charAt(i+1)) ) {
+                encode(Character.toCodePoint(ch, string.charAt(i+1))) ;
+                i++ ;
+            } else if ( Character.isSurrogate(ch) )
+                buffer[this.idx++] = '?' ;
+            else
+                encode(ch) ;
+            idx = this.idx ;
+        }
+        this.idx = idx ;
+    }
+
+    // Code point not in ASCII; space for 4 bytes is available.
+    private void encode(int cp) {
+        if ( cp < 0x800 ) {
+            buffer[idx++] = (byte)(0xC0 | (cp >> 6)) ;
+            buffer[idx++] = (byte)(0x80 | (cp & 0x3F)) ;
+        } else if ( cp < 0x10000 ) {
+            buffer[idx++] = (byte)(0xE0 | (cp >> 12)) ;
+            buffer[idx++] = (byte)(0x80 | ((cp >> 6) & 0x3F)) ;
+            buffer[idx++] = (byte)(0x80 | (cp & 0x3F)) ;
+        } else {
+            buffer[idx++] = (byte)(0xF0 | (cp >> 18)) ;
+            buffer[idx++] = (byte)(0x80 | ((cp >> 12) & 0x3F)) ;
+            buffer[idx++] = (byte)(0x80 | ((cp >> 6) & 0x3F)) ;
+            buffer[idx++] = (byte)(0x80 | (cp & 0x3F)) ;
+        }
+    }
+
+    @Override
+    public void printf(String fmt, Object... args) {
+        print(String.format(fmt, args)) ;
+    }
+
+    @Override
+    public void println(String string) {
+        print(string) ;
+        println() ;
+    }
+
+    @Override
+    public void println() {
+        print('\n') ;
+    }
+
+    private void flushBuffer() {
+        if ( idx == 0 )
+            return ;
+        try { out.write(buffer, 0, idx) ; }
+        catch (IOException ex) { IO.exception(ex) ; }
+        idx = 0 ;
+    }
+
+    /** Write any buffered bytes and flush the {@code OutputStream}. */
+    @Override
+    public void flush() {
+        unpaired() ;
+        flushBuffer() ;
+        IO.flush(out) ;
+    }
+
+    @Override
+    public void close() {
+        unpaired() ;
+        flushBuffer() ;
+        IO.close(out) ;
+    }
+}
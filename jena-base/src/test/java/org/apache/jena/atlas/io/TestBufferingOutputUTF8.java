@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.atlas.io ;
+
+import java.io.ByteArrayOutputStream ;
+import java.nio.charset.StandardCharsets ;
+
+import org.apache.jena.atlas.junit.BaseTest ;
+import org.apache.jena.atlas.lib.StrUtils ;
+import org.junit.Test ;
+
+public class TestBufferingOutputUTF8 extends BaseTest {
+    ByteArrayOutputStream bytes = null ;
+    BufferingOutputUTF8   w     = null ;
+
+    public void create(int size) {
+        bytes = new ByteArrayOutputStream() ;
+        w = new BufferingOutputUTF8(bytes, size) ;
+    }
+
+    public String string() {
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8) ;
+    }
+
+    @Test
+    public void write_01() {
+        create(10) ;
+        w.print("x") ;
+        assertEquals("", string()) ;
+        w.flush() ;
+        assertEquals("x", string()) ;
+    }
+
+    @Test
+    public void write_02() {
+        create(10) ;
+        w.print("abcdefghijklmnopqrstuvwxyz") ;
+        w.print('X') ;
+        w.println("YZ") ;
+        w.flush() ;
+        assertEquals("abcdefghijklmnopqrstuvwxyzXYZ\n", string()) ;
+    }
+
+    @Test
+    public void write_03() {
+        // Bytes mixed with characters, including larger than the buffer.
+        create(10) ;
+        w.print("a") ;
+        w.write(StrUtils.asUTF8bytes("bc")) ;
+        w.write(StrUtils.asUTF8bytes("0123456789012345")) ;
+        w.print("d") ;
+        w.flush() ;
+        assertEquals("abc0123456789012345d", string()) ;
+    }
+
+    @Test
+    public void write_04() {
+        testUTF8(10, "\u00E9\u2603\uD83D\uDE00 abc \u0800\u07FF\uFFFD") ;
+    }
+
+    @Test
+    public void write_05() {
+        // Multi-byte characters across buffer boundaries.
+        StringBuilder sb = new StringBuilder() ;
+        for ( int i = 0 ; i < 100 ; i++ )
+            sb.append("x\u00E9\u2603\uD83D\uDE00") ;
+        for ( int size = 4 ; size < 12 ; size++ )
+            testUTF8(size, sb.toString()) ;
+    }
+
+    @Test
+    public void write_06() {
+        // Surrogate pair written one char at a time.
+        create(4) ;
+        w.print('a') ;
+        w.print('\uD83D') ;
+        w.print('\uDE00') ;
+        w.print('\uD83D') ;
+        w.print("\uDE00b") ;
+        w.flush() ;
+        assertEquals("a\uD83D\uDE00\uD83D\uDE00b", string()) ;
+    }
+
+    @Test
+    public void write_07() {
+        // Unpaired surrogates.
+        create(10) ;
+        w.print("a\uD83Db\uDE00c") ;
+        w.print('\uD83D') ;
+        w.print('d') ;
+        w.print('\uD83D') ;
+        w.flush() ;
+        assertEquals("a?b?c?d?", string()) ;
+    }
+
+    private void testUTF8(int size, String string) {
+        create(size) ;
+        w.print(string) ;
+        w.flush() ;
+        assertArrayEquals(string.getBytes(StandardCharsets.UTF_8), bytes.toByteArray()) ;
+        create(size) ;
+        for ( char ch : string.toCharArray() )
+            w.print(ch) ;
+        w.flush() ;
+        assertArrayEquals(string.getBytes(StandardCharsets.UTF_8), bytes.toByteArray()) ;
+    }
+}
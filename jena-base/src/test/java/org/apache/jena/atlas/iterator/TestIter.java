@@ -383,6 +383,20 @@ public class TestIter
         assertEquals("CC", data2.get(3));
     }
 
+    @Test
+    public void limit_01() {
+        List<String> data = Arrays.asList("1", "A", "B", "CC");
+        List<String> data2 = Iter.toList(Iter.limit(data.iterator(), 2));
+        assertEquals(Arrays.asList("1", "A"), data2);
+    }
+
+    @Test
+    public void limit_02() {
+        List<String> data = Arrays.asList("1", "A", "B", "CC");
+        List<String> data2 = Iter.toList(Iter.limit(data.iterator(), 10));
+        assertEquals(data, data2);
+    }
+
     @Test
     public void take_04() {
         List<String> data = Arrays.asList("a", "b", "b", "c", "c", "d");
@@ -20,6 +20,7 @@ package org.apache.jena.graph;
 
 import org.apache.jena.graph.impl.GraphBase ;
 import org.apache.jena.mem.GraphMem ;
+import org.apache.jena.mem2.GraphMem2 ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
 import org.apache.jena.util.iterator.NullIterator ;
 
@@ -42,6 +43,13 @@ public class Factory
     public static Graph createGraphMem()
         { return new GraphMem(); }
 
+    /**
+        Answer a memory-based Graph using open addressing hash tables,
+        with the same matching as {@link #createGraphMem()}.
+    */
+    public static Graph createGraphMem2()
+        { return new GraphMem2(); }
+
     public static Graph createGraphMemWithTransactionHandler( final TransactionHandler th )
         {
         Graph g = new GraphMem() 
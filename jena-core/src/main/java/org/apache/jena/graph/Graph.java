@@ -18,6 +18,9 @@
 
 package org.apache.jena.graph;
 
+import java.util.stream.Stream ;
+
+import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.graph.impl.GraphBase ;
 import org.apache.jena.shared.AddDeniedException ;
 import org.apache.jena.shared.DeleteDeniedException ;
@@ -112,6 +115,25 @@ public interface Graph
      */
     default ExtendedIterator<Triple> find() { return find(Node.ANY, Node.ANY, Node.ANY); }
 
+    /** Returns a {@link Stream} of Triples matching a pattern.
+     * <p>
+     * The default implementation is sequential, based on {@link #find(Node, Node, Node)}.
+     * Implementations may provide a stream that splits for parallel processing.
+     *
+     * @return a stream of triples in this graph matching the pattern
+     */
+    default Stream<Triple> stream(Node s, Node p, Node o) {
+        ExtendedIterator<Triple> iter = find(s, p, o);
+        return Iter.asStream(iter).onClose(iter::close);
+    }
+
+    /** Returns a {@link Stream} of all triples in the graph.
+     * Equivalent to {@code stream(Node.ANY, Node.ANY, Node.ANY)}
+     *
+     * @return a stream of all triples in this graph
+     */
+    default Stream<Triple> stream() { return stream(Node.ANY, Node.ANY, Node.ANY); }
+
     /**
 	 * Compare this graph with another using the method
 	 * described in 
@@ -19,6 +19,8 @@
 package org.apache.jena.mem;
 
 import java.util.ConcurrentModificationException ;
+import java.util.Spliterator ;
+import java.util.Spliterators ;
 
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -93,6 +95,10 @@ public class ArrayBunch implements TripleBunch
             }
         }
 
+    @Override
+    public Spliterator<Triple> spliterator()
+        { return Spliterators.spliterator( elements, 0, size, Spliterator.DISTINCT | Spliterator.NONNULL ); }
+
     @Override
     public ExtendedIterator<Triple> iterator()
         {
@@ -18,6 +18,8 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
+import java.util.Spliterators ;
 import java.util.function.Function ;
 
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -68,4 +70,11 @@ public interface BunchMap
         Answer an iterator over all the keys in this map.
     */
     public ExtendedIterator<Object> keyIterator();
+
+    /**
+        Answer a Spliterator over all the bunches in this map. The map must not
+        be changed while the spliterator is in use.
+    */
+    public default Spliterator<TripleBunch> bunchSpliterator()
+        { return Spliterators.spliterator( keyIterator().mapWith( this::get ), size(), Spliterator.NONNULL ); }
     }
@@ -18,6 +18,8 @@
 
 package org.apache.jena.mem;
 
+import java.util.stream.Stream ;
+
 import org.apache.jena.graph.* ;
 import org.apache.jena.graph.impl.TripleStore ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -139,6 +141,17 @@ public class GraphMem extends GraphMemBase
     @Override public ExtendedIterator<Triple> graphBaseFind( Triple m ) 
     { return store.find( m ); }
 
+    /**
+         Answer a Stream over all the triples in this graph that match the
+         pattern. The stream splits for parallel use; the graph must not be
+         changed while the stream is in use.
+     */
+    @Override public Stream<Triple> stream( Node s, Node p, Node o )
+    {
+        checkOpen();
+        return ((GraphTripleStoreBase) store).stream( Triple.createMatch( s, p, o ) );
+    }
+
     /**
          Answer true iff this graph contains <code>t</code>. If <code>t</code>
          happens to be concrete, then we hand responsibility over to the store.
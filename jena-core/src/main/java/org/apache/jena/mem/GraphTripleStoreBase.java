@@ -19,6 +19,7 @@
 package org.apache.jena.mem;
 
 import java.util.Iterator;
+import java.util.stream.Stream;
 
 import org.apache.jena.graph.Graph ;
 import org.apache.jena.graph.Node ;
@@ -166,4 +167,26 @@ public abstract class GraphTripleStoreBase implements TripleStore
          else
              return new StoreTripleIterator( parent, subjects.iterateAll(), subjects, predicates, objects );
          }
+
+    /**
+         Answer a Stream of all the triples from this store that match the
+         pattern <code>m = (S, P, O)</code>, choosing the index as for
+         {@link #find(Triple)}. The stream splits for parallel use; the store
+         must not be changed while the stream is in use.
+     */
+    public Stream<Triple> stream( Triple t )
+         {
+         Node pm = t.getPredicate();
+         Node om = t.getObject();
+         Node sm = t.getSubject();
+
+         if (sm.isConcrete())
+             return subjects.stream( sm, pm, om );
+         else if (om.isConcrete())
+             return objects.stream( om, sm, pm );
+         else if (pm.isConcrete())
+             return predicates.stream( pm, om, sm );
+         else
+             return subjects.streamAll();
+         }
     }
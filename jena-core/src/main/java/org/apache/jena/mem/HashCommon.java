@@ -19,6 +19,7 @@
 package org.apache.jena.mem;
 
 import java.util.*;
+import java.util.function.Consumer ;
 
 import org.apache.jena.shared.BrokenException ;
 import org.apache.jena.shared.JenaException ;
@@ -387,4 +388,68 @@ public abstract class HashCommon<Key>
             showkeys();
             }
         }
+
+    /**
+        Answer a splittable Spliterator over the keys. The table must not be
+        changed while the spliterator is in use.
+    */
+    public Spliterator<Key> keySpliterator()
+        { return new SparseArraySpliterator<>( keys, 0, capacity ); }
+
+    /**
+        A Spliterator over the non-null elements of a range of an array
+        (<code>keys</code>, or an array of associated values). Splits the range
+        in half. Changes to the table during use cause a
+        <code>ConcurrentModificationException</code>.
+    */
+    protected final class SparseArraySpliterator<X> implements Spliterator<X>
+        {
+        private final X [] elements;
+        private final int initialChanges = changes;
+        private int index;
+        private final int end;
+
+        protected SparseArraySpliterator( X [] elements, int start, int end )
+            {
+            this.elements = elements;
+            this.index = start;
+            this.end = end;
+            }
+
+        @Override public boolean tryAdvance( Consumer<? super X> action )
+            {
+            if (changes != initialChanges) throw new ConcurrentModificationException();
+            while (index < end)
+                {
+                X x = elements[index++];
+                if (x != null) { action.accept( x ); return true; }
+                }
+            return false;
+            }
+
+        @Override public void forEachRemaining( Consumer<? super X> action )
+            {
+            for ( ; index < end ; index++ )
+                {
+                X x = elements[index];
+                if (x != null) action.accept( x );
+                }
+            if (changes != initialChanges) throw new ConcurrentModificationException();
+            }
+
+        @Override public Spliterator<X> trySplit()
+            {
+            int mid = (index + end) >>> 1;
+            if (mid <= index) return null;
+            Spliterator<X> split = new SparseArraySpliterator<>( elements, index, mid );
+            index = mid;
+            return split;
+            }
+
+        @Override public long estimateSize()
+            { return Math.min( end - index, size ); }
+
+        @Override public int characteristics()
+            { return DISTINCT | NONNULL; }
+        }
     }
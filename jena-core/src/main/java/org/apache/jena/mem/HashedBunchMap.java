@@ -18,6 +18,7 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
 import java.util.function.Function ;
 
 import org.apache.jena.shared.BrokenException ;
@@ -114,6 +115,10 @@ public class HashedBunchMap extends HashCommon<Object> implements BunchMap
             }
         }
 
+    @Override
+    public Spliterator<TripleBunch> bunchSpliterator()
+        { return new SparseArraySpliterator<>( values, 0, capacity ); }
+
     /**
         Called by HashCommon when a key is removed: remove
         associated element of the <code>values</code> array.
@@ -19,6 +19,7 @@
 package org.apache.jena.mem;
 
 import java.util.Iterator ;
+import java.util.Spliterator ;
 
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -100,6 +101,10 @@ public class HashedTripleBunch extends HashCommon<Triple> implements TripleBunch
     @Override
     public ExtendedIterator<Triple> iterator()
         { return iterator( NotifyEmpty.ignore ); }
+
+    @Override
+    public Spliterator<Triple> spliterator()
+        { return keySpliterator(); }
     
     @Override
     public ExtendedIterator<Triple> iterator( final NotifyEmpty container )
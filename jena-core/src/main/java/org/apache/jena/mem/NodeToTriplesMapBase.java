@@ -19,6 +19,9 @@
 package org.apache.jena.mem;
 
 import java.util.*;
+import java.util.function.Predicate ;
+import java.util.stream.Stream ;
+import java.util.stream.StreamSupport ;
 
 import org.apache.jena.graph.* ;
 import org.apache.jena.graph.Triple.Field ;
@@ -141,4 +144,30 @@ public abstract class NodeToTriplesMapBase
                 { current.remove(); }
             };
         }
+
+    /**
+        Answer a Stream over all the triples in this NTM which match
+        <code>pattern</code>. The index field of this NTM is guaranteed
+        concrete in the pattern. The stream splits for parallel use; the
+        NTM must not be changed while the stream is in use.
+    */
+    public Stream<Triple> stream( Node index, Node n2, Node n3 )
+        {
+        TripleBunch s = bunchMap.get( index.getIndexingValue() );
+        if (s == null) return Stream.empty();
+        Stream<Triple> stream = StreamSupport.stream( s.spliterator(), false );
+        if (!n2.isConcrete() && !n3.isConcrete()) return stream;
+        final Predicate<Triple> filter = f2.filterOn( n2 ).and( f3.filterOn( n3 ) );
+        return stream.filter( filter );
+        }
+
+    /**
+        Answer a Stream over all the triples in this NTM, splitting by index
+        entry for parallel use.
+    */
+    public Stream<Triple> streamAll()
+        {
+        return StreamSupport.stream( bunchMap.bunchSpliterator(), false )
+            .flatMap( bunch -> StreamSupport.stream( bunch.spliterator(), false ) );
+        }
     }
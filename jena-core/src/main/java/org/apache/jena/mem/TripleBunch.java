@@ -18,6 +18,9 @@
 
 package org.apache.jena.mem;
 
+import java.util.Spliterator ;
+import java.util.Spliterators ;
+
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
 
@@ -73,4 +76,11 @@ public interface TripleBunch
     */
     public abstract ExtendedIterator<Triple> iterator( HashCommon.NotifyEmpty container );
     
+
+    /**
+        Answer a Spliterator over all the triples in this bunch. The bunch must
+        not be changed while the spliterator is in use.
+    */
+    public default Spliterator<Triple> spliterator()
+        { return Spliterators.spliterator( iterator(), size(), Spliterator.DISTINCT | Spliterator.NONNULL ); }
     }
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Common code for {@link FastHashSet} and {@link FastHashMap}.
+ * <p>
+ * Entries are held densely in arrays: the keys, their hash codes (calculated once,
+ * when the key is added) and, for maps, the values. The hash table is an open
+ * addressing table of {@code int} positions in the dense arrays, with linear probing.
+ * There are no per-entry objects.
+ * <p>
+ * Removing an entry moves the last entry into its place. Iterators run from the end
+ * of the dense arrays to the start, so removing the current element of an iteration
+ * only ever moves an element that has already been visited.
+ * <p>
+ * Not thread safe.
+ */
+abstract class FastHashBase<K> {
+    private static final int MinCapacity = 4;
+
+    // Dense arrays of entries, indexes 0 to size-1.
+    protected K[] keys;
+    protected int[] hashes;
+    protected int size = 0;
+    // Open addressing table: 0 is an empty slot, otherwise the entry index + 1.
+    // Length is a power of two and at least twice the number of entries.
+    private int[] positions;
+
+    protected FastHashBase(int initialCapacity) {
+        int capacity = Math.max(MinCapacity, initialCapacity);
+        keys = newKeysArray(capacity);
+        hashes = new int[capacity];
+        positions = new int[tableSizeFor(capacity)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X> X[] newKeysArray(int size) {
+        return (X[])new Object[size];
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(MinCapacity, capacity)-1) << 2;
+        if ( n <= 0 )
+            throw new IllegalStateException("Hash table too large");
+        return n;
+    }
+
+    // Spread the bits of the hash code: linear probing is sensitive to
+    // clusters of hash codes in the low bits.
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Called when the arrays of entries grow. */
+    protected void growEntries(int newCapacity) {}
+
+    /** Called when the entry at {@code from} is moved to {@code to}. */
+    protected void moveEntry(int from, int to) {}
+
+    /** Called when the entry at {@code index} is removed. */
+    protected void clearEntry(int index) {}
+
+    public final int size() {
+        return size;
+    }
+
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(positions, 0);
+        size = 0;
+    }
+
+    /** Answer the key at {@code index} in the dense arrays. */
+    public final K getKeyAt(int index) {
+        return keys[index];
+    }
+
+    /** Answer the slot in the table of the key, or the bitwise complement of the empty slot where it would go. */
+    private int findSlot(Object key, int hashCode) {
+        int mask = positions.length-1;
+        int slot = spread(hashCode) & mask;
+        while(true) {
+            int pos = positions[slot];
+            if ( pos == 0 )
+                return ~slot;
+            int idx = pos-1;
+            if ( hashes[idx] == hashCode && key.equals(keys[idx]) )
+                return slot;
+            slot = (slot+1) & mask;
+        }
+    }
+
+    /** Answer the index of the key in the dense arrays, or -1. */
+    public final int indexOf(Object key) {
+        return indexOf(key, key.hashCode());
+    }
+
+    /** As {@link #indexOf(Object)}, with the hash code of the key already calculated. */
+    public final int indexOf(Object key, int hashCode) {
+        int slot = findSlot(key, hashCode);
+        return slot < 0 ? -1 : positions[slot]-1;
+    }
+
+    /**
+     * Add the key if not present. Answer the index of the new entry, or the bitwise
+     * complement of the index of the existing entry for the key.
+     */
+    protected final int addKey(K key, int hashCode) {
+        int slot = findSlot(key, hashCode);
+        if ( slot >= 0 )
+            return ~(positions[slot]-1);
+        if ( size == keys.length )
+            growEntries();
+        int idx = size++;
+        keys[idx] = key;
+        hashes[idx] = hashCode;
+        positions[~slot] = idx+1;
+        if ( 2*size > positions.length )
+            growTable();
+        return idx;
+    }
+
+    /** Remove the key. Answer true if it was present. */
+    protected final boolean removeKey(Object key, int hashCode) {
+        int slot = findSlot(key, hashCode);
+        if ( slot < 0 )
+            return false;
+        int idx = positions[slot]-1;
+        deleteSlot(slot);
+        int last = --size;
+        if ( idx != last ) {
+            // Fill the gap in the dense arrays with the last entry.
+            keys[idx] = keys[last];
+            hashes[idx] = hashes[last];
+            moveEntry(last, idx);
+            positions[slotOfIndex(last)] = idx+1;
+        }
+        keys[last] = null;
+        clearEntry(last);
+        return true;
+    }
+
+    private int slotOfIndex(int idx) {
+        int mask = positions.length-1;
+        int slot = spread(hashes[idx]) & mask;
+        while ( positions[slot] != idx+1 )
+            slot = (slot+1) & mask;
+        return slot;
+    }
+
+    // Linear probing deletion: move later entries of the probe sequence back
+    // into the hole so lookups do not stop early. No tombstones.
+    private void deleteSlot(int hole) {
+        int mask = positions.length-1;
+        int slot = hole;
+        while(true) {
+            slot = (slot+1) & mask;
+            int pos = positions[slot];
+            if ( pos == 0 )
+                break;
+            int home = spread(hashes[pos-1]) & mask;
+            // Move if the hole is between the entry's home slot and where it is now.
+            if ( ((slot-home) & mask) >= ((slot-hole) & mask) ) {
+                positions[hole] = pos;
+                hole = slot;
+            }
+        }
+        positions[hole] = 0;
+    }
+
+    private void growEntries() {
+        int newCapacity = keys.length + (keys.length >> 1);
+        keys = Arrays.copyOf(keys, newCapacity);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        growEntries(newCapacity);
+    }
+
+    // Rebuild the table, twice the size. Uses the stored hash codes.
+    private void growTable() {
+        int[] newPositions = new int[positions.length << 1];
+        if ( newPositions.length == 0 )
+            throw new IllegalStateException("Hash table too large");
+        int mask = newPositions.length-1;
+        for ( int i = 0 ; i < size ; i++ ) {
+            int slot = spread(hashes[i]) & mask;
+            while ( newPositions[slot] != 0 )
+                slot = (slot+1) & mask;
+            newPositions[slot] = i+1;
+        }
+        positions = newPositions;
+    }
+
+    /** Iterator over the keys. Does not support {@code remove}. */
+    public Iterator<K> keyIterator() {
+        return new ArrayIterator<>(keys, size, this);
+    }
+
+    /** Splittable {@link Spliterator} over the keys. */
+    public Spliterator<K> keySpliterator() {
+        return new ArraySpliterator<>(keys, 0, size, this, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Iterate over the entries from the last to the first. Elements may be removed
+     * from the collection during iteration (not via the iterator); other changes
+     * cause a {@link ConcurrentModificationException}.
+     */
+    static class ArrayIterator<X> implements Iterator<X> {
+        private final X[] entries;
+        private final FastHashBase<?> collection;
+        private int index;
+        private int expectedSize;
+
+        ArrayIterator(X[] entries, int size, FastHashBase<?> collection) {
+            this.entries = entries;
+            this.collection = collection;
+            this.index = size;
+            this.expectedSize = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return Math.min(index, collection.size) > 0;
+        }
+
+        @Override
+        public X next() {
+            int sz = collection.size;
+            if ( sz != expectedSize ) {
+                if ( sz > expectedSize )
+                    throw new ConcurrentModificationException();
+                // A removal moves the last entry down into the gap. If the last
+                // entry had not been visited, it is now below the current index.
+                expectedSize = sz;
+                index = Math.min(index, sz);
+            }
+            if ( index <= 0 )
+                throw new NoSuchElementException();
+            return entries[--index];
+        }
+    }
+
+    static class ArraySpliterator<X> implements Spliterator<X> {
+        private final X[] entries;
+        private final FastHashBase<?> collection;
+        private final int expectedSize;
+        private final int characteristics;
+        private int from;
+        private final int to;
+
+        ArraySpliterator(X[] entries, int from, int to, FastHashBase<?> collection, int characteristics) {
+            this.entries = entries;
+            this.collection = collection;
+            this.characteristics = characteristics | NONNULL | SIZED | SUBSIZED;
+            this.expectedSize = collection.size;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super X> action) {
+            checkUnchanged();
+            if ( from >= to )
+                return false;
+            action.accept(entries[from++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super X> action) {
+            checkUnchanged();
+            for ( ; from < to ; from++ )
+                action.accept(entries[from]);
+            checkUnchanged();
+        }
+
+        private void checkUnchanged() {
+            if ( collection.size != expectedSize )
+                throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public Spliterator<X> trySplit() {
+            int mid = (from+to) >>> 1;
+            if ( mid <= from )
+                return null;
+            Spliterator<X> split = new ArraySpliterator<>(entries, from, mid, collection, characteristics);
+            from = mid;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to-from;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Function;
+
+/**
+ * A map using an open addressing hash table, with the hash codes of the keys
+ * stored so they are calculated once. Keys and values are not null.
+ *
+ * @see FastHashBase
+ */
+public class FastHashMap<K, V> extends FastHashBase<K> {
+    private V[] values;
+
+    public FastHashMap() {
+        this(8);
+    }
+
+    @SuppressWarnings("unchecked")
+    public FastHashMap(int initialCapacity) {
+        super(initialCapacity);
+        values = (V[])new Object[keys.length];
+    }
+
+    @Override
+    protected void growEntries(int newCapacity) {
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    @Override
+    protected void moveEntry(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void clearEntry(int index) {
+        values[index] = null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        super.clear();
+    }
+
+    /** Answer the value for the key, or null. */
+    public V get(Object key) {
+        int idx = indexOf(key);
+        return idx < 0 ? null : values[idx];
+    }
+
+    /** Answer the value at {@code index} in the dense arrays. */
+    public V getValueAt(int index) {
+        return values[index];
+    }
+
+    /** Set the value for a key. */
+    public void put(K key, V value) {
+        int idx = addKey(key, key.hashCode());
+        values[idx < 0 ? ~idx : idx] = value;
+    }
+
+    /** Answer the value for the key, first setting it to {@code mappingFunction(key)} if there is no value. */
+    public V computeIfAbsent(K key, Function<K, V> mappingFunction) {
+        int idx = addKey(key, key.hashCode());
+        if ( idx < 0 )
+            return values[~idx];
+        V value = mappingFunction.apply(key);
+        values[idx] = value;
+        return value;
+    }
+
+    /** Remove the entry for a key. Answer true if the map changed. */
+    public boolean remove(Object key) {
+        return removeKey(key, key.hashCode());
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /** Iterator over the values. Does not support {@code remove}. */
+    public Iterator<V> valueIterator() {
+        return new ArrayIterator<>(values, size, this);
+    }
+
+    /** Splittable {@link Spliterator} over the values. */
+    public Spliterator<V> valueSpliterator() {
+        return new ArraySpliterator<>(values, 0, size, this, 0);
+    }
+}
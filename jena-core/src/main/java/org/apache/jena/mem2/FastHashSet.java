@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A set using an open addressing hash table, with the hash codes of the elements
+ * stored so they are calculated once.
+ *
+ * @see FastHashBase
+ */
+public class FastHashSet<K> extends FastHashBase<K> implements Iterable<K> {
+
+    public FastHashSet() {
+        this(8);
+    }
+
+    public FastHashSet(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /** Add an element. Answer true if the set changed. */
+    public boolean add(K key) {
+        return add(key, key.hashCode());
+    }
+
+    /** Add an element, with its hash code already calculated. Answer true if the set changed. */
+    public boolean add(K key, int hashCode) {
+        return addKey(key, hashCode) >= 0;
+    }
+
+    /** Remove an element. Answer true if the set changed. */
+    public boolean remove(Object key) {
+        return removeKey(key, key.hashCode());
+    }
+
+    /** Remove an element, with its hash code already calculated. Answer true if the set changed. */
+    public boolean remove(Object key, int hashCode) {
+        return removeKey(key, hashCode);
+    }
+
+    public boolean contains(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    public boolean contains(Object key, int hashCode) {
+        return indexOf(key, hashCode) >= 0;
+    }
+
+    /** Test whether any element satisfies the predicate. */
+    public boolean anyMatch(Predicate<K> predicate) {
+        for ( int i = size-1 ; i >= 0 ; i-- ) {
+            if ( predicate.test(keys[i]) )
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keyIterator();
+    }
+
+    @Override
+    public Spliterator<K> spliterator() {
+        return keySpliterator();
+    }
+
+    public Stream<K> stream() {
+        return StreamSupport.stream(keySpliterator(), false);
+    }
+}
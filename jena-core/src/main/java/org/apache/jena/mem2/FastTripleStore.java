@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.TripleStore;
+import org.apache.jena.mem.ObjectIterator;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.NullIterator;
+import org.apache.jena.util.iterator.WrappedIterator;
+
+/**
+ * A {@link TripleStore} with subject, predicate and object indexes, each a
+ * {@link FastHashMap} from node to a {@link FastHashSet} of triples.
+ * <p>
+ * As for {@link org.apache.jena.mem.GraphMem}, the object index is keyed by
+ * {@link Node#getIndexingValue()} so that literals are matched by value.
+ * <p>
+ * Patterns with one concrete node iterate directly over the triples for that node.
+ * Patterns with two or three concrete nodes iterate over the smallest of the
+ * candidate sets of triples. A concrete triple with a non-literal object is a
+ * hash lookup.
+ * <p>
+ * Iterators support {@code remove}. Other changes to the store while an iterator
+ * is in use cause a {@link ConcurrentModificationException}.
+ */
+public class FastTripleStore implements TripleStore {
+    private final Graph parent;
+    private final FastHashMap<Node, FastHashSet<Triple>> subjects = new FastHashMap<>();
+    private final FastHashMap<Node, FastHashSet<Triple>> predicates = new FastHashMap<>();
+    private final FastHashMap<Object, FastHashSet<Triple>> objects = new FastHashMap<>();
+    private int size = 0;
+    private int modCount = 0;
+
+    public FastTripleStore(Graph parent) {
+        this.parent = parent;
+    }
+
+    private static FastHashSet<Triple> newBunch(Object key) {
+        return new FastHashSet<>(4);
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    @Override
+    public void add(Triple t) {
+        int hash = t.hashCode();
+        if ( ! subjects.computeIfAbsent(t.getSubject(), FastTripleStore::newBunch).add(t, hash) )
+            return;
+        predicates.computeIfAbsent(t.getPredicate(), FastTripleStore::newBunch).add(t, hash);
+        objects.computeIfAbsent(t.getObject().getIndexingValue(), FastTripleStore::newBunch).add(t, hash);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void delete(Triple t) {
+        int hash = t.hashCode();
+        if ( ! remove(subjects, t.getSubject(), t, hash) )
+            return;
+        remove(predicates, t.getPredicate(), t, hash);
+        remove(objects, t.getObject().getIndexingValue(), t, hash);
+        size--;
+        modCount++;
+    }
+
+    private static <K> boolean remove(FastHashMap<K, FastHashSet<Triple>> map, K key, Triple t, int hash) {
+        FastHashSet<Triple> bunch = map.get(key);
+        if ( bunch == null || ! bunch.remove(t, hash) )
+            return false;
+        if ( bunch.isEmpty() )
+            map.remove(key);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        subjects.clear();
+        predicates.clear();
+        objects.clear();
+        size = 0;
+        modCount++;
+    }
+
+    /** Answer true iff this store contains the concrete triple {@code t}, with literal objects matched by value. */
+    @Override
+    public boolean contains(Triple t) {
+        FastHashSet<Triple> sb = subjects.get(t.getSubject());
+        if ( sb == null )
+            return false;
+        if ( sb.contains(t) )
+            return true;
+        if ( ! t.getObject().isLiteral() )
+            return false;
+        // Same value literal.
+        FastHashSet<Triple> ob = objects.get(t.getObject().getIndexingValue());
+        if ( ob == null )
+            return false;
+        Node s = t.getSubject();
+        Node p = t.getPredicate();
+        if ( ob.size() < sb.size() )
+            return ob.anyMatch(x -> s.equals(x.getSubject()) && p.equals(x.getPredicate()));
+        Node o = t.getObject();
+        return sb.anyMatch(x -> p.equals(x.getPredicate()) && o.sameValueAs(x.getObject()));
+    }
+
+    @Override
+    public ExtendedIterator<Node> listSubjects() {
+        return WrappedIterator.createNoRemove(subjects.keyIterator());
+    }
+
+    @Override
+    public ExtendedIterator<Node> listPredicates() {
+        return WrappedIterator.createNoRemove(predicates.keyIterator());
+    }
+
+    @Override
+    public ExtendedIterator<Node> listObjects() {
+        return new ObjectIterator(objects.keyIterator()) {
+            @Override
+            protected Iterator<Triple> iteratorFor(Object y) {
+                return objects.get(y).iterator();
+            }
+        };
+    }
+
+    @Override
+    public ExtendedIterator<Triple> find(Triple pattern) {
+        Node sm = pattern.getSubject();
+        Node pm = pattern.getPredicate();
+        Node om = pattern.getObject();
+        boolean s = sm.isConcrete();
+        boolean p = pm.isConcrete();
+        boolean o = om.isConcrete();
+        if ( !s && !p && !o )
+            return new AllTriplesIterator();
+        if ( s && p && o && ! om.isLiteral() ) {
+            FastHashSet<Triple> sb = subjects.get(sm);
+            int idx = ( sb == null ) ? -1 : sb.indexOf(pattern);
+            if ( idx < 0 )
+                return NullIterator.instance();
+            return new BunchIterator(sb, idx+1, idx, null);
+        }
+        FastHashSet<Triple> sb = s ? subjects.get(sm) : null;
+        FastHashSet<Triple> pb = p ? predicates.get(pm) : null;
+        FastHashSet<Triple> ob = o ? objects.get(om.getIndexingValue()) : null;
+        if ( (s && sb == null) || (p && pb == null) || (o && ob == null) )
+            return NullIterator.instance();
+        FastHashSet<Triple> bunch = smallest(sb, pb, ob);
+        return new BunchIterator(bunch, bunch.size(), 0, filter(bunch, sm, pm, om, sb, pb, ob));
+    }
+
+    /**
+     * Answer a {@link Stream} of the triples matching the pattern. The stream splits
+     * (for parallel use) by index entries. The store must not be changed while the
+     * stream is in use.
+     */
+    public Stream<Triple> stream(Node sm, Node pm, Node om) {
+        boolean s = sm != null && sm.isConcrete();
+        boolean p = pm != null && pm.isConcrete();
+        boolean o = om != null && om.isConcrete();
+        if ( !s && !p && !o )
+            return StreamSupport.stream(subjects.valueSpliterator(), false).flatMap(FastHashSet::stream);
+        FastHashSet<Triple> sb = s ? subjects.get(sm) : null;
+        FastHashSet<Triple> pb = p ? predicates.get(pm) : null;
+        FastHashSet<Triple> ob = o ? objects.get(om.getIndexingValue()) : null;
+        if ( (s && sb == null) || (p && pb == null) || (o && ob == null) )
+            return Stream.empty();
+        FastHashSet<Triple> bunch = smallest(sb, pb, ob);
+        Predicate<Triple> filter = filter(bunch, sm, pm, om, sb, pb, ob);
+        return filter == null ? bunch.stream() : bunch.stream().filter(filter);
+    }
+
+    private static FastHashSet<Triple> smallest(FastHashSet<Triple> sb, FastHashSet<Triple> pb, FastHashSet<Triple> ob) {
+        FastHashSet<Triple> bunch = sb;
+        if ( pb != null && ( bunch == null || pb.size() < bunch.size() ) )
+            bunch = pb;
+        if ( ob != null && ( bunch == null || ob.size() < bunch.size() ) )
+            bunch = ob;
+        return bunch;
+    }
+
+    /** The test for the concrete nodes of the pattern not given by the choice of bunch, or null. */
+    private static Predicate<Triple> filter(FastHashSet<Triple> bunch, Node sm, Node pm, Node om,
+                                            FastHashSet<Triple> sb, FastHashSet<Triple> pb, FastHashSet<Triple> ob) {
+        Predicate<Triple> filter = null;
+        if ( sb != null && sb != bunch )
+            filter = t -> sm.equals(t.getSubject());
+        if ( pb != null && pb != bunch )
+            filter = and(filter, t -> pm.equals(t.getPredicate()));
+        if ( ob != null && ob != bunch )
+            filter = and(filter, t -> om.sameValueAs(t.getObject()));
+        return filter;
+    }
+
+    private static Predicate<Triple> and(Predicate<Triple> filter1, Predicate<Triple> filter2) {
+        return filter1 == null ? filter2 : filter1.and(filter2);
+    }
+
+    /**
+     * Base class for iterators over the store. Iteration is from the end of the dense
+     * arrays of the hash sets to the start so removing the current triple does not
+     * affect the remaining iteration.
+     */
+    private abstract class StoreIterator extends NiceIterator<Triple> {
+        private int expectedModCount = modCount;
+        private Triple slot = null;
+        private Triple current = null;
+
+        /** Answer the next triple, or null. */
+        protected abstract Triple moveToNext();
+
+        @Override
+        public boolean hasNext() {
+            if ( slot != null )
+                return true;
+            if ( modCount != expectedModCount )
+                throw new ConcurrentModificationException();
+            slot = moveToNext();
+            return slot != null;
+        }
+
+        @Override
+        public Triple next() {
+            if ( ! hasNext() )
+                noElements("FastTripleStore");
+            current = slot;
+            slot = null;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if ( current == null )
+                throw new IllegalStateException();
+            if ( modCount != expectedModCount )
+                throw new ConcurrentModificationException();
+            delete(current);
+            expectedModCount = modCount;
+            parent.getEventManager().notifyDeleteTriple(parent, current);
+            current = null;
+        }
+    }
+
+    /** Iterate over the triples of a bunch, from index {@code start-1} down to {@code end}. */
+    private class BunchIterator extends StoreIterator {
+        private final FastHashSet<Triple> bunch;
+        private final int end;
+        private final Predicate<Triple> filter;
+        private int index;
+
+        BunchIterator(FastHashSet<Triple> bunch, int start, int end, Predicate<Triple> filter) {
+            this.bunch = bunch;
+            this.index = start;
+            this.end = end;
+            this.filter = filter;
+        }
+
+        @Override
+        protected Triple moveToNext() {
+            // Removing a triple moves the last entry, which has already been visited, down.
+            index = Math.min(index, bunch.size());
+            while ( index > end ) {
+                Triple t = bunch.getKeyAt(--index);
+                if ( filter == null || filter.test(t) )
+                    return t;
+            }
+            return null;
+        }
+    }
+
+    /** Iterate over all triples, by subject. */
+    private class AllTriplesIterator extends StoreIterator {
+        private int subjectIndex = subjects.size();
+        private FastHashSet<Triple> bunch = null;
+        private int index = 0;
+
+        @Override
+        protected Triple moveToNext() {
+            while(true) {
+                if ( bunch != null ) {
+                    index = Math.min(index, bunch.size());
+                    if ( index > 0 )
+                        return bunch.getKeyAt(--index);
+                }
+                subjectIndex = Math.min(subjectIndex, subjects.size());
+                if ( subjectIndex == 0 )
+                    return null;
+                bunch = subjects.getValueAt(--subjectIndex);
+                index = bunch.size();
+            }
+        }
+    }
+}
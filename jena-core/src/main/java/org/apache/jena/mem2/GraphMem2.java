@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2;
+
+import java.util.stream.Stream;
+
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.TripleStore;
+import org.apache.jena.mem.GraphMemBase;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * An in-memory graph with the same matching as {@link org.apache.jena.mem.GraphMem}
+ * (literal objects are matched by value) stored in open addressing hash tables
+ * ({@link FastTripleStore}).
+ * <p>
+ * Not thread safe.
+ *
+ * @see org.apache.jena.graph.Factory#createGraphMem2()
+ */
+public class GraphMem2 extends GraphMemBase {
+
+    public GraphMem2() {
+        super();
+    }
+
+    @Override
+    protected TripleStore createTripleStore() {
+        return new FastTripleStore(this);
+    }
+
+    private FastTripleStore store() {
+        return (FastTripleStore)store;
+    }
+
+    @Override
+    protected void destroy() {
+        store.close();
+    }
+
+    @Override
+    public void performAdd(Triple t) {
+        store.add(t);
+    }
+
+    @Override
+    public void performDelete(Triple t) {
+        store.delete(t);
+    }
+
+    @Override
+    protected int graphBaseSize() {
+        return store.size();
+    }
+
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(Triple m) {
+        return store.find(m);
+    }
+
+    @Override
+    protected boolean graphBaseContains(Triple t) {
+        return t.isConcrete() ? store.contains(t) : super.graphBaseContains(t);
+    }
+
+    /**
+     * A {@link Stream} of the triples matching the pattern. The stream supports
+     * parallel execution; the graph must not be changed while the stream is in use.
+     */
+    @Override
+    public Stream<Triple> stream(Node s, Node p, Node o) {
+        checkOpen();
+        return store().stream(s, p, o);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        getEventManager().notifyEvent(this, GraphEvents.removeAll);
+    }
+}
@@ -18,6 +18,10 @@
 
 package org.apache.jena.mem.test;
 
+import java.util.HashSet ;
+import java.util.Set ;
+import java.util.stream.Collectors ;
+
 import junit.framework.TestSuite;
 import org.apache.jena.graph.* ;
 import org.apache.jena.graph.test.* ;
@@ -54,6 +58,36 @@ public class TestGraphMem extends AbstractTestGraph
         assertFalse( g.contains( triple( "y R b" ) ) );
         }    
     
+    public void testStreamMatchesFind()
+        {
+        Graph g = getGraphWith( "x P y; x P z; x Q y; a P y; a Q 'b'" );
+        String [] patterns = { "?? ?? ??", "x ?? ??", "?? P ??", "?? ?? y", "x P ??", "x ?? y", "?? P y", "x P y", "a Q 'b'", "b ?? ??" };
+        for (String pattern: patterns)
+            {
+            Triple m = triple( pattern );
+            Set<Triple> expected = g.find( m ).toSet();
+            Set<Triple> actual = g.stream( m.getSubject(), m.getPredicate(), m.getObject() ).collect( Collectors.toSet() );
+            assertEquals( pattern, expected, actual );
+            }
+        }
+
+    public void testParallelStream()
+        {
+        // Enough triples for the bunches to be hashed rather than arrays.
+        Graph g = getGraph();
+        Set<Triple> expected = new HashSet<>();
+        for (int i = 0; i < 1000; i += 1)
+            {
+            Triple t = triple( "s" + (i % 10) + " P" + (i % 3) + " o" + i );
+            g.add( t );
+            expected.add( t );
+            }
+        assertEquals( expected, g.stream().parallel().collect( Collectors.toSet() ) );
+        assertEquals( 100, g.stream( node( "s1" ), null, null ).parallel().count() );
+        assertEquals( 334, g.stream( null, node( "P0" ), null ).parallel().count() );
+        assertEquals( 34, g.stream( node( "s0" ), node( "P0" ), null ).parallel().count() );
+        }
+
     protected final class GraphMemWithoutFind extends GraphMem
         {
         @Override public ExtendedIterator<Triple> graphBaseFind( Triple t )
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.test;
+
+import java.util.ArrayList ;
+import java.util.HashSet ;
+import java.util.Iterator ;
+import java.util.List ;
+import java.util.Random ;
+import java.util.Set ;
+
+import junit.framework.TestCase ;
+import org.apache.jena.mem2.FastHashMap ;
+import org.apache.jena.mem2.FastHashSet ;
+
+public class TestFastHashSet extends TestCase
+    {
+    public TestFastHashSet( String name )
+        { super( name ); }
+
+    public void testEmpty()
+        {
+        FastHashSet<String> set = new FastHashSet<>();
+        assertTrue( set.isEmpty() );
+        assertFalse( set.contains( "x" ) );
+        assertFalse( set.remove( "x" ) );
+        assertFalse( set.iterator().hasNext() );
+        }
+
+    public void testAddRemove()
+        {
+        FastHashSet<String> set = new FastHashSet<>();
+        assertTrue( set.add( "x" ) );
+        assertFalse( set.add( "x" ) );
+        assertTrue( set.add( "y" ) );
+        assertEquals( 2, set.size() );
+        assertTrue( set.remove( "x" ) );
+        assertFalse( set.contains( "x" ) );
+        assertTrue( set.contains( "y" ) );
+        assertEquals( 1, set.size() );
+        }
+
+    // Keys with colliding hash codes exercise probing and deletion.
+    private static final class Key
+        {
+        final int id;
+        Key( int id ) { this.id = id; }
+        @Override public int hashCode() { return id % 7; }
+        @Override public boolean equals( Object other ) { return other instanceof Key && ((Key) other).id == id; }
+        }
+
+    public void testRandomOperations()
+        {
+        Random random = new Random( 1234 );
+        FastHashSet<Key> set = new FastHashSet<>();
+        Set<Integer> check = new HashSet<>();
+        for ( int i = 0; i < 20000; i++ )
+            {
+            int x = random.nextInt( 500 );
+            if ( random.nextBoolean() )
+                assertEquals( check.add( x ), set.add( new Key( x ) ) );
+            else
+                assertEquals( check.remove( x ), set.remove( new Key( x ) ) );
+            assertEquals( check.size(), set.size() );
+            }
+        for ( int x = 0; x < 500; x++ )
+            assertEquals( check.contains( x ), set.contains( new Key( x ) ) );
+        }
+
+    public void testRemoveDuringIteration()
+        {
+        FastHashSet<Integer> set = new FastHashSet<>();
+        for ( int i = 0; i < 100; i++ ) set.add( i );
+        List<Integer> seen = new ArrayList<>();
+        Iterator<Integer> iter = set.iterator();
+        while ( iter.hasNext() )
+            {
+            Integer x = iter.next();
+            seen.add( x );
+            if ( x % 2 == 0 ) set.remove( x );
+            }
+        assertEquals( 100, seen.size() );
+        assertEquals( 100, new HashSet<>( seen ).size() );
+        assertEquals( 50, set.size() );
+        }
+
+    public void testSpliterator()
+        {
+        FastHashSet<Integer> set = new FastHashSet<>();
+        for ( int i = 0; i < 1000; i++ ) set.add( i );
+        assertEquals( 1000, set.stream().parallel().distinct().count() );
+        assertEquals( 499500, set.stream().parallel().mapToInt( Integer::intValue ).sum() );
+        }
+
+    public void testMap()
+        {
+        FastHashMap<String, Integer> map = new FastHashMap<>();
+        assertNull( map.get( "a" ) );
+        map.put( "a", 1 );
+        map.put( "b", 2 );
+        map.put( "a", 3 );
+        assertEquals( 2, map.size() );
+        assertEquals( Integer.valueOf( 3 ), map.get( "a" ) );
+        assertEquals( Integer.valueOf( 2 ), map.computeIfAbsent( "b", k -> 99 ) );
+        assertEquals( Integer.valueOf( 99 ), map.computeIfAbsent( "c", k -> 99 ) );
+        assertTrue( map.remove( "a" ) );
+        assertNull( map.get( "a" ) );
+        assertEquals( Integer.valueOf( 2 ), map.get( "b" ) );
+        assertEquals( Integer.valueOf( 99 ), map.get( "c" ) );
+        }
+    }
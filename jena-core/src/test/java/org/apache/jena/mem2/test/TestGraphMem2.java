@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.test;
+
+import java.util.HashSet ;
+import java.util.List ;
+import java.util.Set ;
+import java.util.stream.Collectors ;
+
+import junit.framework.TestSuite ;
+import org.apache.jena.graph.* ;
+import org.apache.jena.graph.test.AbstractTestGraph ;
+import org.apache.jena.mem2.GraphMem2 ;
+import org.apache.jena.shared.JenaException ;
+import org.apache.jena.util.iterator.ExtendedIterator ;
+
+public class TestGraphMem2 extends AbstractTestGraph
+    {
+    public TestGraphMem2( String name )
+        { super( name ); }
+
+    public static TestSuite suite()
+        { return new TestSuite( TestGraphMem2.class ); }
+
+    @Override public Graph getGraph()
+        { return Factory.createGraphMem2(); }
+
+    public void testSizeAfterRemove()
+        {
+        Graph g = getGraphWith( "x p y" );
+        ExtendedIterator<Triple> it = g.find( triple( "x ?? ??" ) );
+        it.removeNext();
+        assertEquals( 0, g.size() );
+        }
+
+    public void testRemoveAllByIterator()
+        {
+        Graph g = getGraphWith( "a P b; a Q c; b P c; c R a; a P 'x'" );
+        ExtendedIterator<Triple> it = g.find( Triple.ANY );
+        while ( it.hasNext() ) { it.next(); it.remove(); }
+        assertEquals( 0, g.size() );
+        assertFalse( g.find( node( "a" ), Node.ANY, Node.ANY ).hasNext() );
+        assertFalse( g.find( Node.ANY, node( "P" ), Node.ANY ).hasNext() );
+        }
+
+    public void testRemoveSomeByIterator()
+        {
+        Graph g = getGraphWith( "a P b; a P c; a P d; a Q b; a Q c" );
+        ExtendedIterator<Triple> it = g.find( node( "a" ), Node.ANY, Node.ANY );
+        int count = 0;
+        while ( it.hasNext() )
+            {
+            Triple t = it.next();
+            count++;
+            if ( t.getPredicate().equals( node( "P" ) ) ) it.remove();
+            }
+        assertEquals( 5, count );
+        assertEquals( 2, g.size() );
+        assertIsomorphic( getGraphWith( "a Q b; a Q c" ), g );
+        }
+
+    public void testConcurrentModification()
+        {
+        Graph g = getGraphWith( "a P b; a P c" );
+        ExtendedIterator<Triple> it = g.find( node( "a" ), Node.ANY, Node.ANY );
+        it.next();
+        g.add( triple( "a P d" ) );
+        try { it.hasNext(); fail( "Expected ConcurrentModificationException" ); }
+        catch ( java.util.ConcurrentModificationException ex ) { pass(); }
+        }
+
+    public void testFindTwoConcrete()
+        {
+        Graph g = getGraphWith( "a P b; a P c; a Q b; d P b; d Q c" );
+        assertEquals( 2, g.find( node( "a" ), node( "P" ), Node.ANY ).toList().size() );
+        assertEquals( 2, g.find( Node.ANY, node( "P" ), node( "b" ) ).toList().size() );
+        assertEquals( 1, g.find( node( "d" ), Node.ANY, node( "c" ) ).toList().size() );
+        assertFalse( g.find( node( "d" ), node( "R" ), Node.ANY ).hasNext() );
+        }
+
+    public void testFindLiteralByValue()
+        {
+        Graph g = getGraphWith( "a P '1'xsd:integer; a P '2'xsd:integer" );
+        Node lit = NodeFactory.createLiteral( "01", org.apache.jena.datatypes.xsd.XSDDatatype.XSDinteger );
+        assertTrue( g.contains( node( "a" ), node( "P" ), lit ) );
+        assertEquals( 1, g.find( node( "a" ), node( "P" ), lit ).toList().size() );
+        assertEquals( 1, g.find( Node.ANY, Node.ANY, lit ).toList().size() );
+        }
+
+    public void testContainsConcreteDoesntUseFind()
+        {
+        Graph g = new GraphMem2WithoutFind();
+        graphAdd( g, "x P y; a Q b" );
+        assertTrue( g.contains( triple( "x P y" ) ) );
+        assertTrue( g.contains( triple( "a Q b" ) ) );
+        assertFalse( g.contains( triple( "a P y" ) ) );
+        assertFalse( g.contains( triple( "y R b" ) ) );
+        }
+
+    protected final class GraphMem2WithoutFind extends GraphMem2
+        {
+        @Override public ExtendedIterator<Triple> graphBaseFind( Triple t )
+            { throw new JenaException( "find is Not Allowed" ); }
+        }
+
+    public void testStream()
+        {
+        GraphMem2 g = (GraphMem2) getGraphWith( "a P b; a P c; a Q b; d P b; d Q c" );
+        assertEquals( 5, g.stream().count() );
+        assertEquals( 3, g.stream( node( "a" ), Node.ANY, Node.ANY ).count() );
+        assertEquals( 2, g.stream( node( "a" ), node( "P" ), null ).count() );
+        assertEquals( 1, g.stream( node( "d" ), node( "Q" ), node( "c" ) ).count() );
+        assertEquals( 0, g.stream( node( "z" ), Node.ANY, Node.ANY ).count() );
+        }
+
+    public void testStreamParallel()
+        {
+        GraphMem2 g = new GraphMem2();
+        for ( int i = 0; i < 1000; i++ )
+            g.add( Triple.create( node( "s" + (i % 10) ), node( "p" + (i % 7) ), node( "o" + i ) ) );
+        Set<Triple> expected = new HashSet<>( g.find( Triple.ANY ).toList() );
+        List<Triple> all = g.stream().parallel().collect( Collectors.toList() );
+        assertEquals( 1000, all.size() );
+        assertEquals( expected, new HashSet<>( all ) );
+        assertEquals( 100, g.stream( node( "s3" ), Node.ANY, Node.ANY ).parallel().count() );
+        }
+    }
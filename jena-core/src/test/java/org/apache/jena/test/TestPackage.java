@@ -44,6 +44,7 @@ public class TestPackage extends TestCase {
         addTest(ts,  "Graph", org.apache.jena.graph.test.TestPackage.suite());
         addTest(ts,  "Mem", org.apache.jena.mem.test.TestMemPackage.suite() );
         addTest(ts,  "Mem2", org.apache.jena.mem.test.TestGraphMemPackage.suite() );
+        addTest(ts,  "GraphMem2", org.apache.jena.mem2.test.TestMem2Package.suite() );
         addTest(ts,  "Model", org.apache.jena.rdf.model.test.TestPackage.suite());
         addTest(ts,  "N3", org.apache.jena.n3.N3TestSuite.suite());
         addTest(ts,  "Turtle", org.apache.jena.n3.turtle.TurtleTestSuite.suite()) ;
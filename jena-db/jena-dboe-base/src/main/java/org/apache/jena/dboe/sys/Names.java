@@ -75,6 +75,10 @@ public class Names
     public static final String optNone                  = "none.opt";
     public static final String optDefault               = optFixed;
 
+    /** Change log */
+    public static final String optChangeLog             = "changes.opt";
+    public static final String changeLogBaseName        = "changes";
+
     public static final String extMeta                  = "info";
     public static final String directoryMetafile        = "this";          // Root name of the directory for a metafile.
 
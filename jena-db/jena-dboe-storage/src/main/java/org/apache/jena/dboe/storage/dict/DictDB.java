@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.dict;
+
+import org.apache.jena.dboe.storage.DatabaseRDF;
+import org.apache.jena.dboe.storage.simple.StoragePrefixesMem;
+import org.apache.jena.dboe.storage.system.DatasetGraphStorage;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.TransactionalLock;
+
+/**
+ * In-memory {@link DatabaseRDF} using dictionary encoding of RDF terms and
+ * indexes of {@code int} tuples (see {@link StorageDictMem}).
+ * <p>
+ * Transactions are MRSW (multiple readers or a single writer) and do not support abort.
+ */
+public class DictDB {
+    public static DatasetGraph create() {
+        return new DatasetGraphDictDB();
+    }
+
+    public static class DatasetGraphDictDB extends DatasetGraphStorage {
+        public DatasetGraphDictDB() {
+            super(new StorageDictMem(), new StoragePrefixesMem(), TransactionalLock.createMRSW());
+        }
+    }
+}
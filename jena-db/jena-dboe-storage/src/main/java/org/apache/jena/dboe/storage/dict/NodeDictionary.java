@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.dict;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+
+/**
+ * In-memory dictionary of RDF terms. Each distinct {@link Node} is given an
+ * {@code int} id, allocated in sequence from 0. Ids are never reused; a node stays in
+ * the dictionary when no longer used in the data.
+ * <p>
+ * Not thread-safe for concurrent updates. Concurrent readers are safe when there is no writer.
+ */
+public class NodeDictionary {
+    /** Returned by {@link #getId} when the node is not in the dictionary. */
+    public static final int NOT_FOUND = -2;
+
+    private static final int InitialSize = 1024;
+
+    private final Map<Node, Integer> node2id = new HashMap<>();
+    private Node[] id2node = new Node[InitialSize];
+    private int size = 0;
+
+    public NodeDictionary() {}
+
+    /** Get the id for a node, allocating a new id if the node has not been seen before. */
+    public int getAllocateId(Node node) {
+        Integer x = node2id.get(node);
+        if ( x != null )
+            return x;
+        if ( size == Integer.MAX_VALUE )
+            throw new IllegalStateException("NodeDictionary full");
+        int id = size;
+        if ( id == id2node.length ) {
+            int newLength = (int)Math.min(Integer.MAX_VALUE, id2node.length + (long)(id2node.length >> 1));
+            id2node = Arrays.copyOf(id2node, newLength);
+        }
+        id2node[id] = node;
+        node2id.put(node, id);
+        size++;
+        return id;
+    }
+
+    /** Get the id for a node, or {@link #NOT_FOUND}. */
+    public int getId(Node node) {
+        Integer x = node2id.get(node);
+        return x == null ? NOT_FOUND : x;
+    }
+
+    /** Get the node for an id. */
+    public Node getNode(int id) {
+        if ( id < 0 || id >= size )
+            throw new IllegalArgumentException("No such id: "+id);
+        return id2node[id];
+    }
+
+    /** Number of nodes in the dictionary. */
+    public int size() {
+        return size;
+    }
+}
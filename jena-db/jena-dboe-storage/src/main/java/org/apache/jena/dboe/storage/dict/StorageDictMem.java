@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.dict;
+
+import java.util.Iterator;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.iterator.IteratorSlotted;
+import org.apache.jena.dboe.storage.StorageRDF;
+import org.apache.jena.dboe.storage.system.StorageLib;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * In-memory {@link StorageRDF} with dictionary encoding of RDF terms.
+ * <p>
+ * Each {@link Node} is stored once, in a {@link NodeDictionary}, and the indexes
+ * ({@link TupleIndexInt}) hold tuples of {@code int} ids. The triple indexes are SPO, POS
+ * and OSP; the quad indexes are GSPO, GPOS, GOSP, SPOG, POSG and OSPG so any find
+ * pattern is a prefix range scan of some index.
+ * <p>
+ * Not thread-safe: use with a transactional wrapper providing MRSW locking
+ * (see {@link DictDB}).
+ */
+public class StorageDictMem implements StorageRDF {
+
+    private final NodeDictionary dictionary = new NodeDictionary();
+
+    private final TupleIndexInt[] tripleIndexes = {
+        index("SPO", "SPO"), index("SPO", "POS"), index("SPO", "OSP")
+    };
+
+    private final TupleIndexInt[] quadIndexes = {
+        index("GSPO", "GSPO"), index("GSPO", "GPOS"), index("GSPO", "GOSP"),
+        index("GSPO", "SPOG"), index("GSPO", "POSG"), index("GSPO", "OSPG")
+    };
+
+    // Quad indexes with G last: the same S/P/O in different graphs are adjacent.
+    private final TupleIndexInt[] quadIndexesGraphLast = { quadIndexes[3], quadIndexes[4], quadIndexes[5] };
+
+    private static TupleIndexInt index(String primary, String order) {
+        int[] colMap = new int[order.length()];
+        for ( int i = 0 ; i < order.length() ; i++ )
+            colMap[i] = primary.indexOf(order.charAt(i));
+        return new TupleIndexInt(order, colMap);
+    }
+
+    public StorageDictMem() {}
+
+    /** The dictionary of RDF terms. */
+    public NodeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /** Number of triples in the default graph. */
+    public long countTriples() {
+        return tripleIndexes[0].size();
+    }
+
+    /** Number of quads in named graphs. */
+    public long countQuads() {
+        return quadIndexes[0].size();
+    }
+
+    @Override
+    public void add(Node s, Node p, Node o) {
+        add(tripleIndexes, alloc(s), alloc(p), alloc(o));
+    }
+
+    @Override
+    public void add(Node g, Node s, Node p, Node o) {
+        add(quadIndexes, alloc(g), alloc(s), alloc(p), alloc(o));
+    }
+
+    @Override
+    public void delete(Node s, Node p, Node o) {
+        int[] tuple = lookup(s, p, o);
+        if ( tuple != null )
+            delete(tripleIndexes, tuple);
+    }
+
+    @Override
+    public void delete(Node g, Node s, Node p, Node o) {
+        int[] tuple = lookup(g, s, p, o);
+        if ( tuple != null )
+            delete(quadIndexes, tuple);
+    }
+
+    private static void add(TupleIndexInt[] indexes, int... tuple) {
+        // The first index determines whether the tuple is new.
+        if ( ! indexes[0].add(tuple) )
+            return;
+        for ( int i = 1 ; i < indexes.length ; i++ )
+            indexes[i].add(tuple);
+    }
+
+    private static void delete(TupleIndexInt[] indexes, int[] tuple) {
+        if ( ! indexes[0].delete(tuple) )
+            return;
+        for ( int i = 1 ; i < indexes.length ; i++ )
+            indexes[i].delete(tuple);
+    }
+
+    @Override
+    public void removeAll(Node s, Node p, Node o) {
+        StorageLib.removeTriples(this, s, p, o);
+    }
+
+    @Override
+    public void removeAll(Node g, Node s, Node p, Node o) {
+        StorageLib.removeQuads(this, g, s, p, o);
+    }
+
+    @Override
+    public Iterator<Triple> find(Node s, Node p, Node o) {
+        int[] pattern = lookup(s, p, o);
+        if ( pattern == null )
+            return Iter.nullIterator();
+        Iterator<int[]> iter = choose(tripleIndexes, pattern).find(pattern);
+        return Iter.map(iter, this::toTriple);
+    }
+
+    @Override
+    public Iterator<Quad> find(Node g, Node s, Node p, Node o) {
+        int[] pattern = lookup(g, s, p, o);
+        if ( pattern == null )
+            return Iter.nullIterator();
+        Iterator<int[]> iter = choose(quadIndexes, pattern).find(pattern);
+        return Iter.map(iter, this::toQuad);
+    }
+
+    @Override
+    public Iterator<Triple> findUnionGraph(Node s, Node p, Node o) {
+        int[] pattern = lookup(Node.ANY, s, p, o);
+        if ( pattern == null )
+            return Iter.nullIterator();
+        // With G last in the index, duplicates are adjacent.
+        Iterator<int[]> iter = choose(quadIndexesGraphLast, pattern).find(pattern);
+        return Iter.map(new DistinctAdjacentSPO(iter), this::toTriple);
+    }
+
+    @Override
+    public boolean contains(Node s, Node p, Node o) {
+        int[] pattern = lookup(s, p, o);
+        if ( pattern == null )
+            return false;
+        if ( isConcrete(pattern) )
+            return tripleIndexes[0].contains(pattern);
+        return choose(tripleIndexes, pattern).find(pattern).hasNext();
+    }
+
+    @Override
+    public boolean contains(Node g, Node s, Node p, Node o) {
+        int[] pattern = lookup(g, s, p, o);
+        if ( pattern == null )
+            return false;
+        if ( isConcrete(pattern) )
+            return quadIndexes[0].contains(pattern);
+        return choose(quadIndexes, pattern).find(pattern).hasNext();
+    }
+
+    /** Choose the index with the longest prefix of fixed terms. */
+    private static TupleIndexInt choose(TupleIndexInt[] indexes, int[] pattern) {
+        TupleIndexInt best = indexes[0];
+        int bestLen = best.prefixLength(pattern);
+        for ( int i = 1 ; i < indexes.length && bestLen < pattern.length ; i++ ) {
+            int len = indexes[i].prefixLength(pattern);
+            if ( len > bestLen ) {
+                best = indexes[i];
+                bestLen = len;
+            }
+        }
+        return best;
+    }
+
+    private int alloc(Node node) {
+        return dictionary.getAllocateId(node);
+    }
+
+    /**
+     * Convert nodes to ids, with {@link TupleIndexInt#ANY} for wildcards.
+     * Return null if any node is not in the dictionary (so nothing can match).
+     */
+    private int[] lookup(Node... nodes) {
+        int[] tuple = new int[nodes.length];
+        for ( int i = 0 ; i < nodes.length ; i++ ) {
+            Node n = nodes[i];
+            if ( n == null || n == Node.ANY ) {
+                tuple[i] = TupleIndexInt.ANY;
+                continue;
+            }
+            int id = dictionary.getId(n);
+            if ( id == NodeDictionary.NOT_FOUND )
+                return null;
+            tuple[i] = id;
+        }
+        return tuple;
+    }
+
+    private static boolean isConcrete(int[] tuple) {
+        for ( int x : tuple ) {
+            if ( x == TupleIndexInt.ANY )
+                return false;
+        }
+        return true;
+    }
+
+    private Triple toTriple(int[] tuple) {
+        // Triples, or quads for the union graph.
+        int i = tuple.length-3;
+        return Triple.create(dictionary.getNode(tuple[i]), dictionary.getNode(tuple[i+1]), dictionary.getNode(tuple[i+2]));
+    }
+
+    private Quad toQuad(int[] tuple) {
+        return Quad.create(dictionary.getNode(tuple[0]), dictionary.getNode(tuple[1]),
+                           dictionary.getNode(tuple[2]), dictionary.getNode(tuple[3]));
+    }
+
+    /** Skip quads with the same S, P and O as the previous quad. */
+    private static class DistinctAdjacentSPO extends IteratorSlotted<int[]> {
+        private final Iterator<int[]> iter;
+        private int[] previous = null;
+
+        DistinctAdjacentSPO(Iterator<int[]> iter) {
+            this.iter = iter;
+        }
+
+        @Override
+        protected int[] moveToNext() {
+            while ( iter.hasNext() ) {
+                int[] tuple = iter.next();
+                if ( previous != null && previous[1] == tuple[1] && previous[2] == tuple[2] && previous[3] == tuple[3] )
+                    continue;
+                previous = tuple;
+                return tuple;
+            }
+            return null;
+        }
+
+        @Override
+        protected boolean hasMore() {
+            return true;
+        }
+    }
+}
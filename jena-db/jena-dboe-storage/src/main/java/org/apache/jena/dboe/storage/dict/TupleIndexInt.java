@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.dict;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A sorted, in-memory index of fixed length tuples of {@code int}.
+ * <p>
+ * The index has a column order, given as a mapping from index column to tuple slot,
+ * for example, a POS index for triples (S=0, P=1, O=2) is {@code [1,2,0]}. Tuples are
+ * passed in and returned in natural (tuple slot) order.
+ * <p>
+ * Tuples are stored, in index order, in leaves of primitive {@code int} arrays; the leaves
+ * are kept in a sorted list. There are no per-tuple objects.
+ * <p>
+ * Not thread-safe for concurrent updates. Concurrent readers are safe when there is
+ * no writer. Iterators fail with {@link ConcurrentModificationException} if the index
+ * is updated while they are in use.
+ */
+public class TupleIndexInt {
+    /** Wildcard in a pattern. */
+    public static final int ANY = -1;
+
+    // Maximum number of tuples in a leaf.
+    private static final int LeafSize = 512;
+
+    private static final class Leaf {
+        final int[] data;
+        int count = 0;
+        Leaf(int N) { data = new int[LeafSize*N]; }
+    }
+
+    private final String name;
+    private final int N;
+    private final int[] colMap;
+    private final List<Leaf> leaves = new ArrayList<>();
+    private long size = 0;
+    private int modCount = 0;
+
+    /**
+     * Create an index for tuples of length {@code colMap.length}.
+     * Column {@code i} of the index is tuple slot {@code colMap[i]}.
+     */
+    public TupleIndexInt(String name, int... colMap) {
+        this.name = name;
+        this.N = colMap.length;
+        this.colMap = colMap.clone();
+    }
+
+    public String getName() { return name; }
+
+    public int getTupleLength() { return N; }
+
+    /** Number of tuples in the index. */
+    public long size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * The number of leading columns of the index that are fixed (not {@link #ANY})
+     * in the pattern (natural order).
+     */
+    public int prefixLength(int[] pattern) {
+        int i = 0;
+        for ( ; i < N ; i++ ) {
+            if ( pattern[colMap[i]] == ANY )
+                break;
+        }
+        return i;
+    }
+
+    /** Add a tuple; return true if the index changed. */
+    public boolean add(int[] tuple) {
+        int[] key = toIndexOrder(tuple);
+        if ( leaves.isEmpty() )
+            leaves.add(new Leaf(N));
+        int leafIdx = findLeaf(key, N);
+        Leaf leaf = leaves.get(leafIdx);
+        int pos = search(leaf, key, N);
+        if ( pos >= 0 )
+            return false;
+        pos = -(pos+1);
+        modCount++;
+        size++;
+        if ( leaf.count < LeafSize ) {
+            insert(leaf, pos, key);
+            return true;
+        }
+        // Full leaf.
+        if ( pos == leaf.count && leafIdx == leaves.size()-1 ) {
+            // Appending at the end of the index (e.g. loading sorted data) - start a new leaf
+            // and leave the full one full.
+            Leaf leaf2 = new Leaf(N);
+            insert(leaf2, 0, key);
+            leaves.add(leaf2);
+            return true;
+        }
+        // Split.
+        Leaf leaf2 = new Leaf(N);
+        int half = LeafSize/2;
+        System.arraycopy(leaf.data, half*N, leaf2.data, 0, (LeafSize-half)*N);
+        leaf2.count = LeafSize-half;
+        leaf.count = half;
+        leaves.add(leafIdx+1, leaf2);
+        if ( pos <= half )
+            insert(leaf, pos, key);
+        else
+            insert(leaf2, pos-half, key);
+        return true;
+    }
+
+    /** Delete a tuple; return true if the index changed. */
+    public boolean delete(int[] tuple) {
+        if ( leaves.isEmpty() )
+            return false;
+        int[] key = toIndexOrder(tuple);
+        int leafIdx = findLeaf(key, N);
+        Leaf leaf = leaves.get(leafIdx);
+        int pos = search(leaf, key, N);
+        if ( pos < 0 )
+            return false;
+        modCount++;
+        size--;
+        int after = leaf.count-pos-1;
+        if ( after > 0 )
+            System.arraycopy(leaf.data, (pos+1)*N, leaf.data, pos*N, after*N);
+        leaf.count--;
+        if ( leaf.count == 0 && leaves.size() > 1 )
+            leaves.remove(leafIdx);
+        return true;
+    }
+
+    /** Test whether the tuple (natural order, no {@link #ANY}) is in the index. */
+    public boolean contains(int[] tuple) {
+        if ( leaves.isEmpty() )
+            return false;
+        int[] key = toIndexOrder(tuple);
+        Leaf leaf = leaves.get(findLeaf(key, N));
+        return search(leaf, key, N) >= 0;
+    }
+
+    /**
+     * Find all tuples matching the pattern (natural order, with {@link #ANY} for
+     * wildcards). Tuples are returned in natural order, sorted by the index order.
+     * The returned arrays are new for each tuple.
+     */
+    public Iterator<int[]> find(int[] pattern) {
+        int[] key = toIndexOrder(pattern);
+        int prefixLen = prefixLength(pattern);
+        return new Scan(key, prefixLen);
+    }
+
+    private int[] toIndexOrder(int[] tuple) {
+        if ( tuple.length != N )
+            throw new IllegalArgumentException("Length "+tuple.length+" : expected "+N);
+        int[] key = new int[N];
+        for ( int i = 0 ; i < N ; i++ )
+            key[i] = tuple[colMap[i]];
+        return key;
+    }
+
+    // Compare the first len columns of the tuple at idx in the leaf with the key.
+    private int compare(Leaf leaf, int idx, int[] key, int len) {
+        int base = idx*N;
+        for ( int i = 0 ; i < len ; i++ ) {
+            int x = Integer.compare(leaf.data[base+i], key[i]);
+            if ( x != 0 )
+                return x;
+        }
+        return 0;
+    }
+
+    /**
+     * The leaf where the first tuple greater than or equal to key, on the first len
+     * columns, is, or would be inserted: the last leaf whose first tuple is less than
+     * the key or, for a full key, equal to it.
+     */
+    private int findLeaf(int[] key, int len) {
+        int lo = 0;
+        int hi = leaves.size()-1;
+        int result = 0;
+        while ( lo <= hi ) {
+            int mid = (lo+hi) >>> 1;
+            Leaf leaf = leaves.get(mid);
+            int x = ( leaf.count == 0 ) ? -1 : compare(leaf, 0, key, len);
+            if ( x < 0 || ( x == 0 && len == N ) ) {
+                result = mid;
+                lo = mid+1;
+            } else
+                hi = mid-1;
+        }
+        return result;
+    }
+
+    /**
+     * Binary search the leaf for the key on the first len columns.
+     * As {@link java.util.Arrays#binarySearch}, returns the index if found, else
+     * {@code -(insertion point)-1}. For a prefix, the position found is the first match.
+     */
+    private int search(Leaf leaf, int[] key, int len) {
+        int lo = 0;
+        int hi = leaf.count-1;
+        int found = -1;
+        while ( lo <= hi ) {
+            int mid = (lo+hi) >>> 1;
+            int x = compare(leaf, mid, key, len);
+            if ( x < 0 )
+                lo = mid+1;
+            else {
+                if ( x == 0 )
+                    found = mid;
+                hi = mid-1;
+            }
+        }
+        return found >= 0 ? found : -(lo+1);
+    }
+
+    private void insert(Leaf leaf, int pos, int[] key) {
+        int after = leaf.count-pos;
+        if ( after > 0 )
+            System.arraycopy(leaf.data, pos*N, leaf.data, (pos+1)*N, after*N);
+        System.arraycopy(key, 0, leaf.data, pos*N, N);
+        leaf.count++;
+    }
+
+    /** Scan from the first tuple matching the prefix until the prefix no longer matches. */
+    private class Scan implements Iterator<int[]> {
+        private final int[] key;
+        private final int prefixLen;
+        private final int expectedModCount = modCount;
+        private int leafIdx;
+        private int pos;
+        private int[] slot = null;
+        private boolean finished = false;
+
+        Scan(int[] key, int prefixLen) {
+            this.key = key;
+            this.prefixLen = prefixLen;
+            if ( leaves.isEmpty() ) {
+                finished = true;
+                return;
+            }
+            leafIdx = findLeaf(key, prefixLen);
+            int x = search(leaves.get(leafIdx), key, prefixLen);
+            pos = ( x >= 0 ) ? x : -(x+1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ( slot != null )
+                return true;
+            if ( finished )
+                return false;
+            if ( modCount != expectedModCount )
+                throw new ConcurrentModificationException(name);
+            while ( leafIdx < leaves.size() ) {
+                Leaf leaf = leaves.get(leafIdx);
+                if ( pos >= leaf.count ) {
+                    leafIdx++;
+                    pos = 0;
+                    continue;
+                }
+                int idx = pos++;
+                if ( compare(leaf, idx, key, prefixLen) != 0 )
+                    // Past the prefix.
+                    break;
+                if ( matchRest(leaf, idx) ) {
+                    slot = toNaturalOrder(leaf, idx);
+                    return true;
+                }
+            }
+            finished = true;
+            return false;
+        }
+
+        // Check columns after the prefix.
+        private boolean matchRest(Leaf leaf, int idx) {
+            int base = idx*N;
+            for ( int i = prefixLen ; i < N ; i++ ) {
+                if ( key[i] != ANY && key[i] != leaf.data[base+i] )
+                    return false;
+            }
+            return true;
+        }
+
+        private int[] toNaturalOrder(Leaf leaf, int idx) {
+            int base = idx*N;
+            int[] tuple = new int[N];
+            for ( int i = 0 ; i < N ; i++ )
+                tuple[colMap[i]] = leaf.data[base+i];
+            return tuple;
+        }
+
+        @Override
+        public int[] next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException(name);
+            int[] x = slot;
+            slot = null;
+            return x;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
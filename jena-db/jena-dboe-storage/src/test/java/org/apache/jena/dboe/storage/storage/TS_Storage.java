@@ -26,6 +26,10 @@ import org.junit.runners.Suite;
     TestStorageSimple.class
     , TestDatasetGraphStorageTests.class
     , TestDatasetGraphStorageFindTests.class
+    , TestTupleIndexInt.class
+    , TestStorageDictMem.class
+    , TestDatasetGraphDictDBTests.class
+    , TestDatasetGraphDictDBFindTests.class
 })
 
 public class TS_Storage { }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.dboe.storage.dict.DictDB;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.AbstractDatasetGraphTests;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.junit.Test;
+
+public class TestDatasetGraphDictDBTests extends AbstractDatasetGraphTests {
+    @Override
+    protected DatasetGraph emptyDataset() {
+        return DictDB.create();
+    }
+
+    @Test public void dictdb_removeGraph_01() {
+        DatasetGraph dsg = emptyDataset();
+        Node g1 = SSE.parseNode(":g1");
+        Node g2 = SSE.parseNode(":g2");
+        Quad q1 = SSE.parseQuad("(:g1 :s :p :o)");
+        Quad q2 = SSE.parseQuad("(:g2 :s :p :o)");
+        dsg.add(q1);
+        dsg.add(q2);
+        dsg.removeGraph(g1);
+        assertFalse(dsg.contains(q1));
+        assertTrue(dsg.contains(q2));
+        assertFalse(dsg.containsGraph(g1));
+        assertEquals(1, Iter.count(dsg.find()));
+        dsg.removeGraph(g2);
+        assertTrue(dsg.isEmpty());
+    }
+}
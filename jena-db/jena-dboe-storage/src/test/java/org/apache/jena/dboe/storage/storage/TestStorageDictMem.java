@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.dboe.storage.StorageRDF;
+import org.apache.jena.dboe.storage.dict.StorageDictMem;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.junit.Test;
+
+public class TestStorageDictMem extends BaseTestStorageRDF {
+
+    @Override
+    protected StorageRDF create() {
+        return new StorageDictMem();
+    }
+
+    private static Node p = SSE.parseNode(":p");
+    private static Node q = SSE.parseNode(":q");
+    private static Node g1 = SSE.parseNode(":g1");
+    private static Node g2 = SSE.parseNode(":g2");
+
+    @Test public void dict_removeAll_triples_01() {
+        StorageRDF storage = create();
+        storage.add(t1);
+        storage.add(t2);
+        Triple t3 = SSE.parseTriple("(:s :q :o1)");
+        storage.add(t3);
+        storage.removeAll(null, p, null);
+        assertFalse(storage.contains(t1));
+        assertFalse(storage.contains(t2));
+        assertTrue(storage.contains(t3));
+        assertEquals(1, Iter.count(storage.find(null, null, null)));
+    }
+
+    @Test public void dict_removeAll_triples_02() {
+        // More than one slice of deletes.
+        StorageRDF storage = create();
+        for ( int i = 0 ; i < 2500 ; i++ )
+            storage.add(NodeFactory.createURI("http://example/s"+i), p, NodeFactory.createLiteral("o"));
+        storage.add(t1);
+        storage.removeAll(null, null, NodeFactory.createLiteral("o"));
+        assertEquals(1, Iter.count(storage.find(null, null, null)));
+        assertTrue(storage.contains(t1));
+    }
+
+    @Test public void dict_removeAll_quads_01() {
+        StorageRDF storage = create();
+        storage.add(q11);
+        storage.add(q12);
+        storage.add(q21);
+        storage.add(q22);
+        storage.add(t1);
+        storage.removeAll(g1, null, null, null);
+        assertFalse(storage.contains(q11));
+        assertFalse(storage.contains(q12));
+        assertEquals(2, Iter.count(storage.find(null, null, null, null)));
+        // Triples are not affected.
+        assertTrue(storage.contains(t1));
+        storage.removeAll(null, null, null, SSE.parseNode(":o1"));
+        assertFalse(storage.contains(q21));
+        assertTrue(storage.contains(q22));
+    }
+
+    @Test public void dict_removeAll_quads_02() {
+        // More than one slice of deletes.
+        StorageRDF storage = create();
+        Node s = SSE.parseNode(":s");
+        for ( int i = 0 ; i < 2500 ; i++ ) {
+            Node o = NodeFactory.createLiteral("o"+i);
+            storage.add(g1, s, p, o);
+            storage.add(g2, s, q, o);
+        }
+        storage.removeAll(null, null, p, null);
+        assertEquals(0, Iter.count(storage.find(null, null, p, null)));
+        assertEquals(2500, Iter.count(storage.find(g2, null, null, null)));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.storage.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.apache.jena.dboe.storage.dict.TupleIndexInt;
+import org.junit.Test;
+
+public class TestTupleIndexInt {
+
+    private static final int ANY = TupleIndexInt.ANY;
+
+    @Test public void tupleIndex_01() {
+        TupleIndexInt index = new TupleIndexInt("SPO", 0, 1, 2);
+        assertTrue(index.isEmpty());
+        assertFalse(index.find(new int[] {ANY, ANY, ANY}).hasNext());
+        assertTrue(index.add(new int[] {1, 2, 3}));
+        assertFalse(index.add(new int[] {1, 2, 3}));
+        assertEquals(1, index.size());
+        assertTrue(index.contains(new int[] {1, 2, 3}));
+        assertFalse(index.contains(new int[] {1, 2, 4}));
+        assertTrue(index.delete(new int[] {1, 2, 3}));
+        assertFalse(index.delete(new int[] {1, 2, 3}));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test public void tupleIndex_02() {
+        // Column order: tuples in and out are in natural order.
+        TupleIndexInt index = new TupleIndexInt("POS", 1, 2, 0);
+        index.add(new int[] {1, 2, 3});
+        index.add(new int[] {4, 2, 1});
+        List<int[]> x = toList(index.find(new int[] {ANY, 2, ANY}));
+        assertEquals(2, x.size());
+        // Sorted by O.
+        assertTrue(Arrays.equals(new int[] {4, 2, 1}, x.get(0)));
+        assertTrue(Arrays.equals(new int[] {1, 2, 3}, x.get(1)));
+    }
+
+    @Test public void tupleIndex_random_triples() {
+        randomTest(new TupleIndexInt("SPO", 0, 1, 2), 3, 20000, 30);
+        randomTest(new TupleIndexInt("OSP", 2, 0, 1), 3, 20000, 30);
+    }
+
+    @Test public void tupleIndex_random_quads() {
+        randomTest(new TupleIndexInt("GSPO", 0, 1, 2, 3), 4, 20000, 10);
+        randomTest(new TupleIndexInt("POSG", 2, 3, 1, 0), 4, 20000, 10);
+    }
+
+    @Test public void tupleIndex_sorted_load() {
+        TupleIndexInt index = new TupleIndexInt("SPO", 0, 1, 2);
+        for ( int i = 0 ; i < 5000 ; i++ )
+            index.add(new int[] {i, i%7, i%11});
+        assertEquals(5000, index.size());
+        assertEquals(5000, toList(index.find(new int[] {ANY, ANY, ANY})).size());
+        assertEquals(1, toList(index.find(new int[] {4321, ANY, ANY})).size());
+    }
+
+    // Compare the index with a set of tuples under random adds, deletes and finds.
+    private static void randomTest(TupleIndexInt index, int N, int numOps, int range) {
+        Random random = new Random(1234);
+        Set<List<Integer>> expected = new HashSet<>();
+        for ( int i = 0 ; i < numOps ; i++ ) {
+            int[] tuple = new int[N];
+            for ( int j = 0 ; j < N ; j++ )
+                tuple[j] = random.nextInt(range);
+            if ( random.nextInt(4) == 0 )
+                assertEquals(expected.remove(asList(tuple)), index.delete(tuple));
+            else
+                assertEquals(expected.add(asList(tuple)), index.add(tuple));
+        }
+        assertEquals(expected.size(), index.size());
+        for ( int i = 0 ; i < 200 ; i++ ) {
+            int[] pattern = new int[N];
+            for ( int j = 0 ; j < N ; j++ )
+                pattern[j] = random.nextBoolean() ? ANY : random.nextInt(range);
+            Set<List<Integer>> results = new HashSet<>();
+            index.find(pattern).forEachRemaining(t -> results.add(asList(t)));
+            Set<List<Integer>> matches = new HashSet<>();
+            for ( List<Integer> t : expected ) {
+                if ( matches(t, pattern) )
+                    matches.add(t);
+            }
+            assertEquals(matches, results);
+        }
+    }
+
+    private static boolean matches(List<Integer> tuple, int[] pattern) {
+        for ( int j = 0 ; j < pattern.length ; j++ ) {
+            if ( pattern[j] != ANY && pattern[j] != tuple.get(j) )
+                return false;
+        }
+        return true;
+    }
+
+    private static List<Integer> asList(int[] tuple) {
+        List<Integer> x = new ArrayList<>(tuple.length);
+        for ( int i : tuple )
+            x.add(i);
+        return x;
+    }
+
+    private static List<int[]> toList(Iterator<int[]> iter) {
+        List<int[]> x = new ArrayList<>();
+        iter.forEachRemaining(x::add);
+        return x;
+    }
+}
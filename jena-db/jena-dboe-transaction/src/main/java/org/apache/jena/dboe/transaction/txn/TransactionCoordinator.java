@@ -27,7 +27,9 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
@@ -111,8 +113,12 @@ public class TransactionCoordinator {
      */
     private final AtomicLong dataVersion = new AtomicLong(0);
 
-    // Coordinator wide lock object.
-    private Object coordinatorLock = new Object();
+    // Coordinator wide lock.
+    // A Lock, not a monitor, because the commit does file I/O while holding it
+    // and a thread blocked in a synchronized block can not be unmounted
+    // from its carrier thread by executors that multiplex tasks onto threads.
+    private final Lock coordinatorLock = new ReentrantLock();
+    private volatile boolean isShutdown = false;
 
     @FunctionalInterface
     public interface ShutdownHook { void shutdown(); }
@@ -322,13 +328,13 @@ public class TransactionCoordinator {
     }
     
     public void shutdown(boolean silent) {
-        if ( coordinatorLock == null )
+        if ( isShutdown )
             return;
         if ( ! silent && countActive() > 0 )
             FmtLog.warn(SysErr, "Transactions active: W=%d, R=%d", countActiveWriter(), countActiveReaders());
         components.forEach((id, c) -> c.shutdown());
         shutdownHooks.forEach((h)-> h.shutdown());
-        coordinatorLock = null;
+        isShutdown = true;
         journal.close();
     }
 
@@ -346,7 +352,7 @@ public class TransactionCoordinator {
     }
 
     private void checkNotShutdown() {
-        if ( coordinatorLock == null )
+        if ( isShutdown )
             throw new TransactionException("TransactionCoordinator has been shutdown");
     }
 
@@ -555,7 +561,8 @@ public class TransactionCoordinator {
     }
 
     private Transaction begin$(TxnType txnType) {
-        synchronized(coordinatorLock) {
+        coordinatorLock.lock();
+        try {
             // Inside the lock - check again.
             checkActive();
             // Thread safe part of 'begin'
@@ -582,6 +589,8 @@ public class TransactionCoordinator {
                 throw ex;
             }
             return transaction;
+        } finally {
+            coordinatorLock.unlock();
         }
     }
 
@@ -630,7 +639,8 @@ public class TransactionCoordinator {
             if ( ! promotionWaitForWriters() )
                 return false;
             // Now single writer.
-            synchronized(coordinatorLock) {
+            coordinatorLock.lock();
+            try {
                 try {
                     transaction.promoteComponents();
                     // Because we want to see the new state of the data.
@@ -641,13 +651,15 @@ public class TransactionCoordinator {
                     return false;
                 }
                 promoteActiveTransaction(transaction);
+            } finally {
+                coordinatorLock.unlock();
             }
             return true;
         }
 
         // == Read with no committed allowed
         // Check epoch is current - no "read committed".
-        // Check now outside synchronized (will need to check again to confirm) for speed
+        // Check now outside the lock (will need to check again to confirm) for speed
         // and to allow for "no wait for writes".
 
         if ( ! checkNoInterveningCommits(transaction) )
@@ -658,8 +670,9 @@ public class TransactionCoordinator {
             // Failed to become a writer.
             return false;
 
-        // Now a proto-writer. We need to confirm when inside the synchronized.
-        synchronized(coordinatorLock) {
+        // Now a proto-writer. We need to confirm when inside the lock.
+        coordinatorLock.lock();
+        try {
             // Not read committed.
             // Need to check the data version once we are the writer and all previous
             // writers have committed or aborted.
@@ -681,6 +694,8 @@ public class TransactionCoordinator {
                 return false;
             }
             promoteActiveTransaction(transaction);
+        } finally {
+            coordinatorLock.unlock();
         }
         return true;
     }
@@ -754,7 +769,8 @@ public class TransactionCoordinator {
     }
 
     private void executeCommitWriter(Transaction transaction, Runnable commit, Runnable finish, Runnable sysabort) {
-        synchronized(coordinatorLock) {
+        coordinatorLock.lock();
+        try {
             try {
                 // Simulate a Thread.interrupt during I/O.
 //                if ( true )
@@ -809,6 +825,8 @@ public class TransactionCoordinator {
             finish.run();
             // Bump global serialization point
             advanceDataVersion();
+        } finally {
+            coordinatorLock.unlock();
         }
     }
 
@@ -870,7 +888,8 @@ public class TransactionCoordinator {
     private AtomicLong activeWritersCount = new AtomicLong(0);
 
     private void startActiveTransaction(Transaction transaction) {
-        synchronized(coordinatorLock) {
+        coordinatorLock.lock();
+        try {
             // Use lock to ensure all the counters move together.
             // Thread safe - we have not let the Transaction object out yet.
             countBegin.incrementAndGet();
@@ -880,6 +899,8 @@ public class TransactionCoordinator {
             }
             activeTransactionCount.incrementAndGet();
             activeTransactions.add(transaction);
+        } finally {
+            coordinatorLock.unlock();
         }
     }
 
@@ -890,7 +911,8 @@ public class TransactionCoordinator {
     }
 
     private void finishActiveTransaction(Transaction transaction) {
-        synchronized(coordinatorLock) {
+        coordinatorLock.lock();
+        try {
             // Idempotent.
             boolean x = activeTransactions.remove(transaction);
             if ( ! x )
@@ -901,6 +923,8 @@ public class TransactionCoordinator {
                 case READ:  activeReadersCount.decrementAndGet(); break ;
                 case WRITE: activeWritersCount.decrementAndGet(); break ;
             }
+        } finally {
+            coordinatorLock.unlock();
         }
         exclusivitylock.readLock().unlock();
     }
@@ -20,10 +20,17 @@ package org.apache.jena.tdb2.solver;
 
 
 import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.Query ;
+import org.apache.jena.query.QueryBudgetExceededException ;
 import org.apache.jena.sparql.algebra.Algebra ;
 import org.apache.jena.sparql.algebra.Op ;
 import org.apache.jena.sparql.algebra.OpLib;
+import org.apache.jena.sparql.algebra.OpVisitorBase ;
+import org.apache.jena.sparql.algebra.OpWalker ;
+import org.apache.jena.sparql.algebra.op.OpBGP ;
+import org.apache.jena.sparql.algebra.op.OpQuadPattern ;
+import org.apache.jena.sparql.core.BasicPattern ;
 import org.apache.jena.sparql.core.DatasetDescription ;
 import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.core.DynamicDatasets ;
@@ -34,6 +41,8 @@ import org.apache.jena.sparql.engine.QueryEngineRegistry ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.main.QueryEngineMain ;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation ;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderWeighted ;
 import org.apache.jena.sparql.mgt.Explain ;
 import org.apache.jena.sparql.util.Context ;
 import org.apache.jena.tdb2.TDB2;
@@ -105,10 +114,54 @@ public class QueryEngineTDB extends QueryEngineMain
             op = OpLib.unionDefaultGraphQuads(op) ;
             Explain.explain("REWRITE(Union default graph)", op, context);
         }
+        checkCost(op, context);
         QueryIterator results = super.eval(op, dsg, input, context);
         return results;
     }
 
+    /**
+     * Reject the query if the estimated number of solutions of its basic graph patterns,
+     * from the statistics of the database, is over {@link ARQ#queryCostLimit}.
+     */
+    private void checkCost(Op op, Context context) {
+        long limit = context.getLong(ARQ.queryCostLimit, -1);
+        if ( limit < 0 )
+            return;
+        if ( ! ( originalDataset instanceof DatasetGraphTDB ) )
+            return;
+        ReorderTransformation reorder = ((DatasetGraphTDB)originalDataset).getReorderTransform();
+        if ( ! ( reorder instanceof ReorderWeighted ) )
+            // No statistics.
+            return;
+        double cost = estimateCost(op, (ReorderWeighted)reorder);
+        if ( cost > limit )
+            throw new QueryBudgetExceededException(String.format("Query estimated cost %.0f exceeds the limit %d", cost, limit));
+    }
+
+    /** Sum of the estimates for the basic graph patterns of an algebra expression, or -1 if unknown. */
+    private static double estimateCost(Op op, ReorderWeighted reorder) {
+        double[] cost = { 0 };
+        OpWalker.walk(op, new OpVisitorBase() {
+            @Override
+            public void visit(OpBGP opBGP) {
+                add(opBGP.getPattern());
+            }
+
+            @Override
+            public void visit(OpQuadPattern quadPattern) {
+                add(quadPattern.getBasicPattern());
+            }
+
+            private void add(BasicPattern pattern) {
+                if ( cost[0] < 0 )
+                    return;
+                double x = reorder.estimate(pattern);
+                cost[0] = ( x < 0 ) ? -1 : cost[0] + x;
+            }
+        });
+        return cost[0];
+    }
+
     // ---- Factory
     protected static QueryEngineFactory factory = new QueryEngineFactoryTDB();
 
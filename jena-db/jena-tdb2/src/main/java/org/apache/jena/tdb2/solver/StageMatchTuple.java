@@ -18,6 +18,7 @@
 
 package org.apache.jena.tdb2.solver;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
@@ -36,6 +37,11 @@ import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
 
 public class StageMatchTuple extends RepeatApplyIterator<BindingNodeId>
 {
+    // Maximum number of graphs to access one by one, rather than scan and filter, for a graph
+    // variable (see findInGraphs). The lower limit is for when the subject or object is bound.
+    private static final int ProbeLimit      = 1000;
+    private static final int ProbeLimitBound = 10;
+
     private final NodeTupleTable nodeTupleTable;
     private final Tuple<Node> patternTuple;
 
@@ -93,11 +99,15 @@ public class StageMatchTuple extends RepeatApplyIterator<BindingNodeId>
             // Short cut - known unknown NodeId
             return Iter.nullIterator();
 
-        Iterator<Tuple<NodeId>> iterMatches = nodeTupleTable.find(TupleFactory.create(ids));
-
-        // ** Allow a triple or quad filter here.
-        if ( filter != null )
-            iterMatches = Iter.filter(iterMatches, filter);
+        Iterator<Tuple<NodeId>> iterMatches;
+        if ( filter instanceof TupleFilterGraphs )
+            iterMatches = findInGraphs(ids, (TupleFilterGraphs)filter);
+        else {
+            iterMatches = nodeTupleTable.find(TupleFactory.create(ids));
+            // ** Allow a triple or quad filter here.
+            if ( filter != null )
+                iterMatches = Iter.filter(iterMatches, filter);
+        }
 
         // If we want to reduce to RDF semantics over quads,
         // we need to reduce the quads to unique triples.
@@ -144,6 +154,45 @@ public class StageMatchTuple extends RepeatApplyIterator<BindingNodeId>
         return Iter.iter(iterMatches).map(binder).removeNulls();
     }
 
+    /**
+     * Find, restricted to a set of graphs. A fixed graph, or the default graph, is
+     * checked once, not for each tuple found. For a graph variable, when there are few
+     * graphs, the index is accessed once for each graph, otherwise the index is scanned
+     * and the tuples filtered.
+     */
+    private Iterator<Tuple<NodeId>> findInGraphs(NodeId[] ids, TupleFilterGraphs graphFilter)
+    {
+        if ( ids.length == 3 )
+        {
+            if ( ! graphFilter.matchDefaultGraph() )
+                return Iter.nullIterator();
+            return nodeTupleTable.find(TupleFactory.create(ids));
+        }
+
+        Collection<NodeId> graphs = graphFilter.getGraphs();
+        NodeId g = ids[0];
+        if ( ! NodeId.isAny(g) )
+        {
+            if ( ! graphs.contains(g) )
+                return Iter.nullIterator();
+            return nodeTupleTable.find(TupleFactory.create(ids));
+        }
+
+        // Accessing the index for each graph costs a lookup per graph. Scanning is
+        // cheaper for many graphs and when a bound subject or object makes the scan short.
+        // For the union graph, the results of different graphs would need to be made
+        // distinct, so only access graph by graph for one graph.
+        int limit = ( NodeId.isAny(ids[1]) && NodeId.isAny(ids[3]) ) ? ProbeLimit : ProbeLimitBound;
+        if ( graphs.size() > limit || ( anyGraphs && graphs.size() > 1 ) )
+            return Iter.filter(nodeTupleTable.find(TupleFactory.create(ids)), graphFilter);
+
+        return Iter.flatMap(graphs.iterator(), gid -> {
+            NodeId[] x = ids.clone();
+            x[0] = gid;
+            return nodeTupleTable.find(TupleFactory.create(x));
+        });
+    }
+
     private static Iterator<Tuple<NodeId>> print(Iterator<Tuple<NodeId>> iter)
     {
         if ( ! iter.hasNext() )
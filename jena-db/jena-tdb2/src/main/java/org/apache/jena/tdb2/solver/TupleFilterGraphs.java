@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.tdb2.store.NodeId;
+
+/**
+ * A tuple filter (see {@link QC2#setFilter}) that accepts the quads of a set of named
+ * graphs and, optionally, the triples of the default graph, and nothing else.
+ * <p>
+ * TDB2 uses the set of graphs to restrict the index access, instead of testing every
+ * tuple found.
+ */
+public interface TupleFilterGraphs extends Predicate<Tuple<NodeId>> {
+    /** The {@link NodeId NodeIds} of the named graphs accepted. */
+    public Collection<NodeId> getGraphs();
+
+    /** Whether triples of the default graph are accepted. */
+    public boolean matchDefaultGraph();
+}
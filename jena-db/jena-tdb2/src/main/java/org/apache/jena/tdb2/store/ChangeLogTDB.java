@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.atlas.io.AWriter;
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.dboe.storage.StoragePrefixes;
+import org.apache.jena.dboe.sys.Names;
+import org.apache.jena.dboe.trans.data.TransBinaryDataFile;
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionListener;
+import org.apache.jena.dboe.transaction.txn.TransactionalSystem;
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.out.NodeFormatter;
+import org.apache.jena.riot.out.NodeFormatterNT;
+import org.apache.jena.sparql.core.DatasetChanges;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.QuadAction;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDBException;
+
+/**
+ * The change log of a TDB2 database: a durable, ordered record of the changes made
+ * by each committed write transaction.
+ * <p>
+ * The log is an append-only {@link TransBinaryDataFile} in the database directory
+ * and it is one of the transaction components of the database. Changes of an
+ * aborted transaction are not in the log, and recovery after a crash restores the
+ * log to the same transaction as the indexes.
+ * <p>
+ * Each transaction is recorded in the style of RDF Patch, one change per line:
+ * <pre>
+ *   TX .
+ *   A &lt;http://example/s&gt; &lt;http://example/p&gt; "abc" .
+ *   D &lt;http://example/s&gt; &lt;http://example/p&gt; &lt;_:b0&gt; &lt;http://example/g&gt; .
+ *   PA "ex" &lt;http://example/&gt; .
+ *   PD "ex" &lt;http://example/g&gt; .
+ *   TC .
+ * </pre>
+ * {@code A} and {@code D} are quad (or default graph triple) adds and deletes,
+ * {@code PA} and {@code PD} are prefix adds and deletes. Blank nodes are written
+ * {@code <_:label>} with their label in the database. A reader resumes from the byte
+ * offset of the end of the last transaction it has seen.
+ * <p>
+ * The change log is enabled by the file {@value Names#optChangeLog} in the storage
+ * directory of a database (e.g. {@code DB/Data-0001/}). Changes made by the bulk
+ * loaders, which write to the indexes directly, are not recorded.
+ */
+public class ChangeLogTDB implements DatasetChanges, TransactionListener {
+
+    private static final int FlushSize = 64*1024;
+    private static final int BlockSize = 64*1024;
+    private static final byte[] commitLine = "TC .\n".getBytes(StandardCharsets.UTF_8);
+
+    // As N-Triples, except for blank nodes.
+    private static final NodeFormatter formatter = new NodeFormatterNT() {
+        @Override
+        public void formatBNode(AWriter w, String label) {
+            w.print("<_:");
+            w.print(label);
+            w.print(">");
+        }
+    };
+
+    private final TransBinaryDataFile logFile;
+    private final TransactionalSystem txnSystem;
+
+    // Changes of the writer not yet written to the log file.
+    // There is only ever one writer.
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FlushSize);
+    private final AWriter out = IO.wrapUTF8(buffer);
+    private boolean inTransaction = false;
+    private volatile boolean recording = true;
+
+    // Length of the log after the last commit, for readers waiting for changes.
+    private final Object lock = new Object();
+    private long committedLength = 0;
+    private long preparedLength = -1;
+
+    public ChangeLogTDB(TransactionalSystem txnSystem, TransBinaryDataFile logFile) {
+        this.txnSystem = txnSystem;
+        this.logFile = logFile;
+    }
+
+    /** Called when the database transaction system has started (recovery has been done). */
+    /*package*/ void started() {
+        Txn.executeRead(txnSystem, ()->{
+            synchronized(lock) {
+                committedLength = logFile.length();
+            }
+        });
+    }
+
+    /**
+     * Turn recording on and off. Used when making a copy of a database which already
+     * has the log of the changes.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    // ---- Recording
+
+    @Override
+    public void start() {}
+
+    @Override
+    public void change(QuadAction qaction, Node g, Node s, Node p, Node o) {
+        if ( ! recording )
+            return;
+        switch (qaction) {
+            case ADD:       record("A", s, p, o, g); break;
+            case DELETE:    record("D", s, p, o, g); break;
+            default: break;
+        }
+    }
+
+    @Override
+    public void finish() {}
+
+    @Override
+    public void reset() {}
+
+    /** Record a prefix being set. The graph name is as stored by {@link StoragePrefixes}. */
+    public void prefixAdd(Node graphNode, String prefix, String iriStr) {
+        if ( ! recording )
+            return;
+        startRecord("PA");
+        writeString(prefix);
+        out.print(' ');
+        formatter.formatURI(out, iriStr);
+        writeGraph(graphNode);
+        endRecord();
+    }
+
+    /** Record a prefix being removed. The graph name is as stored by {@link StoragePrefixes}. */
+    public void prefixDelete(Node graphNode, String prefix) {
+        if ( ! recording )
+            return;
+        startRecord("PD");
+        writeString(prefix);
+        writeGraph(graphNode);
+        endRecord();
+    }
+
+    private void record(String code, Node s, Node p, Node o, Node g) {
+        startRecord(code);
+        formatter.format(out, s);
+        out.print(' ');
+        formatter.format(out, p);
+        out.print(' ');
+        formatter.format(out, o);
+        writeGraph(g);
+        endRecord();
+    }
+
+    private void writeString(String string) {
+        formatter.formatLitString(out, string);
+    }
+
+    private void writeGraph(Node g) {
+        if ( g == null || g == StoragePrefixes.nodeDefaultGraph || Quad.isDefaultGraph(g) )
+            return;
+        out.print(' ');
+        formatter.format(out, g);
+    }
+
+    private void startRecord(String code) {
+        if ( ! inTransaction ) {
+            inTransaction = true;
+            out.print("TX .\n");
+        }
+        out.print(code);
+        out.print(' ');
+    }
+
+    private void endRecord() {
+        out.print(" .\n");
+        out.flush();
+        if ( buffer.size() >= FlushSize )
+            flushBuffer();
+    }
+
+    /** Write the buffer to the log, returning the log length afterwards. */
+    private long flushBuffer() {
+        out.flush();
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        long posn = logFile.write(bytes, 0, bytes.length);
+        return posn + bytes.length;
+    }
+
+    // ---- Transaction lifecycle
+
+    @Override
+    public void notifyPrepareStart(Transaction transaction) {
+        // Before the components, including the log file, prepare to commit.
+        if ( ! inTransaction )
+            return;
+        out.print("TC .\n");
+        long length = flushBuffer();
+        inTransaction = false;
+        synchronized(lock) {
+            preparedLength = length;
+        }
+    }
+
+    @Override
+    public void notifyCommitFinish(Transaction transaction) {
+        synchronized(lock) {
+            if ( preparedLength < 0 )
+                return;
+            committedLength = preparedLength;
+            preparedLength = -1;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void notifyAbortStart(Transaction transaction) {
+        if ( ! transaction.isWriteTxn() )
+            return;
+        // The log file is truncated by its own abort.
+        out.flush();
+        buffer.reset();
+        inTransaction = false;
+        synchronized(lock) {
+            preparedLength = -1;
+        }
+    }
+
+    // ---- Reading
+
+    /**
+     * Wait until the log is longer than {@code offset}, or the timeout is reached.
+     * Return true if there are changes after {@code offset}.
+     */
+    public boolean awaitChanges(long offset, long timeoutMillis) {
+        long finish = System.currentTimeMillis() + timeoutMillis;
+        synchronized(lock) {
+            while ( committedLength <= offset ) {
+                long remaining = finish - System.currentTimeMillis();
+                if ( remaining <= 0 )
+                    return false;
+                try { lock.wait(remaining); }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Write the log, from {@code start} to the end, to an {@code OutputStream}.
+     * If more than {@code limit} bytes would be written, stop at the end of the first
+     * transaction after {@code limit} bytes.
+     * <p>
+     * This must be called inside a transaction on the database; the end of the log is
+     * the end of the last transaction committed when that transaction started.
+     * {@code start} must be 0 or the end of a transaction.
+     *
+     * @return The offset after the last transaction written.
+     */
+    public long read(long start, long limit, OutputStream output) throws IOException {
+        long length = logFile.length();
+        if ( start < 0 || start > length )
+            throw new TDBException("Offset out of range: "+start+" (log length "+length+")");
+        if ( ! isTransactionBoundary(start) )
+            throw new TDBException("Offset is not the end of a transaction: "+start);
+        byte[] block = new byte[BlockSize];
+        long posn = start;
+        // Bytes of the commit line matched from the start of the current line, or -1.
+        int match = 0;
+        while ( posn < length ) {
+            int len = (int)Math.min(block.length, length-posn);
+            len = logFile.read(posn, block, 0, len);
+            int end = len;
+            for ( int i = 0 ; i < len ; i++ ) {
+                byte b = block[i];
+                if ( match >= 0 && b == commitLine[match] ) {
+                    match++;
+                    if ( match == commitLine.length ) {
+                        match = 0;
+                        if ( posn+i+1-start >= limit ) {
+                            end = i+1;
+                            break;
+                        }
+                    }
+                } else
+                    match = ( b == '\n' ) ? 0 : -1;
+            }
+            output.write(block, 0, end);
+            posn += end;
+            if ( end < len )
+                break;
+        }
+        output.flush();
+        return posn;
+    }
+
+    private boolean isTransactionBoundary(long offset) {
+        if ( offset == 0 )
+            return true;
+        int n = commitLine.length+1;
+        if ( offset < n )
+            return false;
+        byte[] bytes = new byte[n];
+        logFile.read(offset-n, bytes, 0, n);
+        if ( bytes[0] != '\n' )
+            return false;
+        for ( int i = 0 ; i < commitLine.length ; i++ ) {
+            if ( bytes[i+1] != commitLine[i] )
+                return false;
+        }
+        return true;
+    }
+}
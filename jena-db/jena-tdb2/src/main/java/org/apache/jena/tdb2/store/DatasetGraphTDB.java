@@ -25,10 +25,15 @@ import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.dboe.base.file.Location;
 import org.apache.jena.dboe.storage.StoragePrefixes;
 import org.apache.jena.dboe.storage.system.DatasetGraphStorage;
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionCoordinatorState;
+import org.apache.jena.dboe.transaction.txn.TransactionException;
 import org.apache.jena.dboe.transaction.txn.TransactionalSystem;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.TransactionalDataVersion;
+import org.apache.jena.sparql.core.TransactionalDetachable;
 import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation;
 import org.apache.jena.tdb2.TDBException;
 import org.apache.jena.tdb2.lib.NodeLib;
@@ -36,23 +41,31 @@ import org.apache.jena.tdb2.params.StoreParams;
 import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
 
 final
-public class DatasetGraphTDB extends DatasetGraphStorage
+public class DatasetGraphTDB extends DatasetGraphStorage implements TransactionalDataVersion, TransactionalDetachable
 {
     private final StorageTDB storageTDB;
     private final Location location;
     private final TransactionalSystem txnSystem;
     private final StoreParams storeParams;
     private final ReorderTransformation reorderTransformation;
+    private final ChangeLogTDB changeLog;
     private boolean isClosed = false;
 
     public DatasetGraphTDB(Location location, StoreParams params, ReorderTransformation reorderTransformation,
                            StorageTDB storage, StoragePrefixes prefixes, TransactionalSystem txnSystem) {
+        this(location, params, reorderTransformation, storage, prefixes, txnSystem, null);
+    }
+
+    public DatasetGraphTDB(Location location, StoreParams params, ReorderTransformation reorderTransformation,
+                           StorageTDB storage, StoragePrefixes prefixes, TransactionalSystem txnSystem,
+                           ChangeLogTDB changeLog) {
         super(storage, prefixes, txnSystem);
         this.storageTDB = storage;
         this.location = location;
         this.storeParams = params;
         this.txnSystem = txnSystem;
         this.reorderTransformation = reorderTransformation;
+        this.changeLog = changeLog;
     }
 
     private void checkNotClosed() {
@@ -83,6 +96,24 @@ public class DatasetGraphTDB extends DatasetGraphStorage
         return txnSystem;
     }
 
+    @Override
+    public long dataVersion() {
+        Transaction txn = txnSystem.getThreadTransaction();
+        if ( txn == null )
+            throw new TransactionException("Not in a transaction");
+        return txn.getDataVersion();
+    }
+
+    @Override
+    public Object detach() {
+        return txnSystem.detach();
+    }
+
+    @Override
+    public void attach(Object txnState) {
+        txnSystem.attach((TransactionCoordinatorState)txnState);
+    }
+
     public StoreParams getStoreParams() {
         return storeParams;
     }
@@ -91,6 +122,11 @@ public class DatasetGraphTDB extends DatasetGraphStorage
         return reorderTransformation;
     }
 
+    /** The change log of the database, or null if the database does not have one. */
+    public ChangeLogTDB getChangeLog() {
+        return changeLog;
+    }
+
     @Override
     public void close() {
         isClosed = true;
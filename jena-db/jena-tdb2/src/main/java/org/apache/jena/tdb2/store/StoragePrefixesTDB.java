@@ -39,12 +39,18 @@ public class StoragePrefixesTDB implements StoragePrefixes {
     static final RecordFactory factory = new RecordFactory(3*NodeId.SIZE, 0);
     private TransactionalSystem txnSystem;
     private NodeTupleTable prefixTable;
+    private ChangeLogTDB changeLog = null;
 
     public StoragePrefixesTDB(TransactionalSystem txnSystem, NodeTupleTable prefixTable) {
         this.txnSystem = txnSystem;
         this.prefixTable = prefixTable;
     }
 
+    /** Record changes to the prefixes in the database change log. */
+    public void setChangeLog(ChangeLogTDB changeLog) {
+        this.changeLog = changeLog;
+    }
+
     public NodeTupleTable getNodeTupleTable() {
         return prefixTable;
     }
@@ -81,6 +87,8 @@ public class StoragePrefixesTDB implements StoragePrefixes {
     public void add(Node graphNode, String prefix, String iriStr) {
         ensureWriteTxn();
         add_ext(graphNode, prefix, iriStr);
+        if ( changeLog != null )
+            changeLog.prefixAdd(PrefixLib.canonicalGraphName(graphNode), prefix, iriStr);
     }
 
     /** Add without checks - used by the bulkloader when it takes control of the transaction. */  
@@ -109,17 +117,20 @@ public class StoragePrefixesTDB implements StoragePrefixes {
 
     private void remove(Node g, Node p, Node u) {
         ensureWriteTxn();
-        remove_ext(g, p, u);
+        List<Tuple<Node>> removed = remove_ext(g, p, u);
+        if ( changeLog != null )
+            removed.forEach(t->changeLog.prefixDelete(t.get(0), t.get(1).getLiteralLexicalForm()));
     }
 
     /** Remove without checks - used by the bulkloader when it takes control of the transaction. */  
-    private void remove_ext(Node g, Node p, Node u) {
+    private List<Tuple<Node>> remove_ext(Node g, Node p, Node u) {
         // See add_ext
         g = PrefixLib.canonicalGraphName(g);
         Iterator<Tuple<Node>> iter = prefixTable.find(g, p, u);
         List<Tuple<Node>> list = Iter.toList(iter);    // Materialize.
         for ( Tuple<Node> tuple : list )
             prefixTable.deleteRow(tuple.get(0), tuple.get(1), tuple.get(2));
+        return list;
     }
 
     @Override
@@ -24,6 +24,7 @@ import java.util.function.Supplier;
 import org.apache.jena.atlas.lib.InternalErrorException;
 import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.dboe.storage.StorageRDF;
+import org.apache.jena.dboe.storage.system.StorageLib;
 import org.apache.jena.dboe.transaction.txn.Transaction;
 import org.apache.jena.dboe.transaction.txn.TransactionalSystem;
 import org.apache.jena.graph.Node;
@@ -137,6 +138,11 @@ public class StorageTDB implements StorageRDF {
     public void removeAll(Node s, Node p, Node o) {
         checkActive();
         ensureWriteTxn();
+        if ( monitor != null ) {
+            // Delete by node so each deletion is notified.
+            StorageLib.removeTriples(this, s, p, o);
+            return;
+        }
         removeWorker(() -> tripleTable.getNodeTupleTable().findAsNodeIds(s,p,o),
                      x  -> tripleTable.getNodeTupleTable().getTupleTable().delete(x) );
     }
@@ -145,6 +151,10 @@ public class StorageTDB implements StorageRDF {
     public void removeAll(Node g, Node s, Node p, Node o) {
         checkActive();
         ensureWriteTxn();
+        if ( monitor != null ) {
+            StorageLib.removeQuads(this, g, s, p, o);
+            return;
+        }
         removeWorker(() -> quadTable.getNodeTupleTable().findAsNodeIds(g,s,p,o),
                      x  -> quadTable.getNodeTupleTable().getTupleTable().delete(x) );
     }
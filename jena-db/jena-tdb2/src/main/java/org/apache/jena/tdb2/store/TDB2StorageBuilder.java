@@ -30,7 +30,6 @@ import org.apache.jena.dboe.base.record.RecordFactory;
 import org.apache.jena.dboe.index.Index;
 import org.apache.jena.dboe.index.RangeIndex;
 import org.apache.jena.dboe.storage.DatabaseRDF;
-import org.apache.jena.dboe.storage.StoragePrefixes;
 import org.apache.jena.dboe.sys.Names;
 import org.apache.jena.dboe.trans.bplustree.BPlusTree;
 import org.apache.jena.dboe.trans.bplustree.BPlusTreeFactory;
@@ -101,16 +100,19 @@ public class TDB2StorageBuilder {
 
         TDB2StorageBuilder builder = new TDB2StorageBuilder(txnSystem, location, params, new ComponentIdMgr(UUID.randomUUID()));
         StorageTDB storage = builder.buildStorage();
-        StoragePrefixes prefixes = builder.buildPrefixes();
+        StoragePrefixesTDB prefixes = builder.buildPrefixes();
+        ChangeLogTDB changeLog = builder.buildChangeLog(storage, prefixes);
 
         // Finalize.
         builder.components.forEach(txnCoord::add);
         builder.listeners.forEach(txnCoord::addListener);
         // Freezes the TransactionCoordinator components
         txnCoord.start();
+        if ( changeLog != null )
+            changeLog.started();
         ReorderTransformation reorderTranform = chooseReorderTransformation(location);
         DatasetGraphTDB dsg = new DatasetGraphTDB(location, params, reorderTranform,
-                                                  storage, prefixes, txnSystem);
+                                                  storage, prefixes, txnSystem, changeLog);
 
         // Enable query processing.
         QC.setFactory(dsg.getContext(), OpExecutorTDB2.OpExecFactoryTDB);
@@ -210,12 +212,26 @@ public class TDB2StorageBuilder {
         return dsg;
     }
 
-    private StoragePrefixes buildPrefixes() {
+    private StoragePrefixesTDB buildPrefixes() {
         NodeTable nodeTablePrefixes = buildNodeTable(params.getPrefixTableBaseName());
         StoragePrefixesTDB prefixes = buildPrefixTable(nodeTablePrefixes);
         return prefixes;
     }
 
+    /** The change log, if enabled for this location, else null. */
+    private ChangeLogTDB buildChangeLog(StorageTDB storage, StoragePrefixesTDB prefixes) {
+        if ( location.isMem() || ! location.exists(Names.optChangeLog) )
+            return null;
+        TransBinaryDataFile logFile = makeBinaryDataFile(Names.changeLogBaseName);
+        components.add(logFile);
+        ChangeLogTDB changeLog = new ChangeLogTDB(txnSystem, logFile);
+        listeners.add(changeLog);
+        storage.setMonitor(changeLog);
+        prefixes.setChangeLog(changeLog);
+        log.debug("Change log");
+        return changeLog;
+    }
+
     private TripleTable buildTripleTable(NodeTable nodeTable) {
         String primary = params.getPrimaryIndexTriples();
         String[] indexes = params.getTripleIndexes();
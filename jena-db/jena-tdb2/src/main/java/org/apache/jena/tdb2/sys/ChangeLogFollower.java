@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.sys;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.jena.atlas.web.TypedInputStream;
+import org.apache.jena.riot.web.HttpOp;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.ChangeLogTDB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follow the change log of a TDB2 database ({@link ChangeLogTDB}), served over HTTP,
+ * and apply the changes to another dataset, usually another TDB2 database, so it is
+ * a read replica of the first one.
+ * <p>
+ * The feed URL is called as {@code feedURL?from=OFFSET&wait=MILLIS}. The offset of the
+ * last transaction applied is kept in a state file and updated after each
+ * transaction commits, so the follower resumes where it stopped. If the follower stops
+ * between the commit and the state file update, that transaction is applied again on
+ * restart, which does not change the data: each change is a set add or set delete.
+ * <p>
+ * The replica should start as a copy of the database at the offset in the state file:
+ * either both empty (and no state file), or a restored backup and the offset of the
+ * log when the backup was taken.
+ */
+public class ChangeLogFollower {
+    private static Logger LOG = LoggerFactory.getLogger(ChangeLogFollower.class);
+
+    public static final String paramFrom  = "from";
+    public static final String paramWait  = "wait";
+    public static final String paramLimit = "limit";
+
+    /** Pause after an error before trying again. */
+    public static long RetryMillis = 5000;
+
+    private final String feedURL;
+    private final DatasetGraph dsg;
+    private final Path stateFile;
+    private volatile long offset;
+    private volatile boolean running = false;
+    private Thread thread = null;
+
+    /**
+     * Create a follower of the change log at {@code feedURL}, applying the changes to
+     * {@code dsg} and recording progress in {@code stateFile}.
+     */
+    public ChangeLogFollower(String feedURL, DatasetGraph dsg, Path stateFile) {
+        this.feedURL = feedURL;
+        this.dsg = dsg;
+        this.stateFile = stateFile;
+        this.offset = readOffset(stateFile);
+    }
+
+    /** The log offset after the last transaction applied. */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Fetch and apply the changes since the last transaction applied.
+     * Return the number of bytes of log applied.
+     */
+    public long sync() {
+        return fetch(0);
+    }
+
+    /**
+     * Follow the log in a background thread. The server is asked to wait for up to
+     * {@code waitMillis} for new changes so changes are applied soon after they are
+     * committed.
+     */
+    public synchronized void start(long waitMillis) {
+        if ( running )
+            return;
+        running = true;
+        thread = new Thread(()->follow(waitMillis), "ChangeLogFollower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop following the log. */
+    public synchronized void stop() {
+        running = false;
+        if ( thread != null ) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void follow(long waitMillis) {
+        while ( running ) {
+            try {
+                fetch(waitMillis);
+            } catch (RuntimeException ex) {
+                if ( ! running )
+                    return;
+                LOG.warn("Change log "+feedURL+": "+ex.getMessage());
+                try { Thread.sleep(RetryMillis); }
+                catch (InterruptedException ex2) { return; }
+            }
+        }
+    }
+
+    private long fetch(long waitMillis) {
+        long start = offset;
+        String url = feedURL + (feedURL.contains("?") ? "&" : "?") + paramFrom + "=" + start;
+        if ( waitMillis > 0 )
+            url = url + "&" + paramWait + "=" + waitMillis;
+        try ( TypedInputStream in = HttpOp.execHttpGet(url) ) {
+            if ( in == null )
+                throw new TDBException("No change log: "+feedURL);
+            return ChangeLogReader.apply(in, dsg, (n)->setOffset(start+n));
+        }
+    }
+
+    private void setOffset(long newOffset) {
+        offset = newOffset;
+        if ( stateFile != null )
+            IOX.safeWrite(stateFile, out->out.write(Long.toString(newOffset).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static long readOffset(Path stateFile) {
+        if ( stateFile == null || ! Files.exists(stateFile) )
+            return 0;
+        String str = new String(IOX.readAll(stateFile), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(str);
+        } catch (NumberFormatException ex) {
+            throw new TDBException("Bad change log state file "+stateFile+": "+str);
+        }
+    }
+}
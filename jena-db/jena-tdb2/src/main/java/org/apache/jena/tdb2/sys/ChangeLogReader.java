@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.sys;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.tokens.Token;
+import org.apache.jena.riot.tokens.TokenType;
+import org.apache.jena.riot.tokens.Tokenizer;
+import org.apache.jena.riot.tokens.TokenizerFactory;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.ChangeLogTDB;
+
+/**
+ * Apply a change log, as written by {@link ChangeLogTDB}, to a {@link DatasetGraph}.
+ * Each transaction in the log is applied in a write transaction on the dataset.
+ */
+public class ChangeLogReader {
+
+    /**
+     * Apply the transactions read from {@code input}.
+     * After each transaction commits, {@code onCommit} is called with the number of
+     * bytes read so far, which is the offset in the log relative to the start of the
+     * input. A transaction not complete at the end of the input is aborted.
+     *
+     * @return The number of bytes of the transactions applied.
+     */
+    public static long apply(InputStream input, DatasetGraph dsg, LongConsumer onCommit) {
+        ChangeLogReader reader = new ChangeLogReader(input, dsg);
+        try {
+            return reader.applyAll(onCommit);
+        } finally {
+            reader.abortIfActive();
+        }
+    }
+
+    private final InputStream input;
+    private final DatasetGraph dsg;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+    private long bytesRead = 0;
+    private long lineNumber = 0;
+    private boolean inTransaction = false;
+
+    private ChangeLogReader(InputStream input, DatasetGraph dsg) {
+        this.input = new BufferedInputStream(input, 128*1024);
+        this.dsg = dsg;
+    }
+
+    private long applyAll(LongConsumer onCommit) {
+        long committed = 0;
+        for (;;) {
+            String str = readLine();
+            if ( str == null )
+                return committed;
+            if ( str.isEmpty() )
+                continue;
+            if ( applyLine(str) ) {
+                committed = bytesRead;
+                if ( onCommit != null )
+                    onCommit.accept(committed);
+            }
+        }
+    }
+
+    /** Apply one change. Return true if it was the end of a transaction. */
+    private boolean applyLine(String str) {
+        List<Node> terms = new ArrayList<>(4);
+        String code = parse(str, terms);
+        switch (code) {
+            case "TX":
+                check(!inTransaction, "Transaction already started");
+                dsg.begin(ReadWrite.WRITE);
+                inTransaction = true;
+                return false;
+            case "TC":
+                check(inTransaction, "No transaction to commit");
+                inTransaction = false;
+                try { dsg.commit(); }
+                finally { dsg.end(); }
+                return true;
+            case "A":
+                checkChange(terms, 3);
+                dsg.add(graph(terms, 3), terms.get(0), terms.get(1), terms.get(2));
+                return false;
+            case "D":
+                checkChange(terms, 3);
+                dsg.delete(graph(terms, 3), terms.get(0), terms.get(1), terms.get(2));
+                return false;
+            case "PA":
+                checkChange(terms, 2);
+                prefixMapping(terms, 2).setNsPrefix(terms.get(0).getLiteralLexicalForm(), terms.get(1).getURI());
+                return false;
+            case "PD":
+                checkChange(terms, 1);
+                prefixMapping(terms, 1).removeNsPrefix(terms.get(0).getLiteralLexicalForm());
+                return false;
+            default:
+                throw error("Unknown change: "+code);
+        }
+    }
+
+    private static Node graph(List<Node> terms, int idx) {
+        return ( terms.size() > idx ) ? terms.get(idx) : Quad.defaultGraphIRI;
+    }
+
+    private PrefixMapping prefixMapping(List<Node> terms, int idx) {
+        Graph graph = ( terms.size() > idx ) ? dsg.getGraph(terms.get(idx)) : dsg.getDefaultGraph();
+        return graph.getPrefixMapping();
+    }
+
+    private void checkChange(List<Node> terms, int n) {
+        check(inTransaction, "Change outside a transaction");
+        check(terms.size() == n || terms.size() == n+1, "Wrong number of terms");
+    }
+
+    private void check(boolean condition, String msg) {
+        if ( ! condition )
+            throw error(msg);
+    }
+
+    private TDBException error(String msg) {
+        return new TDBException("Change log, line "+lineNumber+": "+msg);
+    }
+
+    /** Parse a line, returning the change code and adding the terms to the list. */
+    private String parse(String str, List<Node> terms) {
+        Tokenizer tokenizer = TokenizerFactory.makeTokenizerString(str);
+        if ( ! tokenizer.hasNext() )
+            throw error("Empty line");
+        Token code = tokenizer.next();
+        if ( ! code.isWord() )
+            throw error("Expected a change code: "+code);
+        while ( tokenizer.hasNext() ) {
+            Token token = tokenizer.next();
+            if ( token.hasType(TokenType.DOT) ) {
+                if ( tokenizer.hasNext() )
+                    throw error("Trailing content after '.'");
+                return code.getImage();
+            }
+            if ( token.isIRI() )
+                terms.add(RiotLib.createIRIorBNode(token.getImage()));
+            else if ( token.isNode() )
+                terms.add(token.asNode());
+            else
+                throw error("Not an RDF term: "+token);
+        }
+        throw error("No '.' at the end of the line");
+    }
+
+    /** Read the next complete line, without the newline. Return null at end of input or for an incomplete line. */
+    private String readLine() {
+        line.reset();
+        try {
+            for (;;) {
+                int b = input.read();
+                if ( b == -1 )
+                    return null;
+                if ( b == '\n' ) {
+                    bytesRead += line.size()+1;
+                    lineNumber++;
+                    return new String(line.toByteArray(), StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+        } catch (IOException ex) {
+            throw IOX.exception(ex);
+        }
+    }
+
+    private void abortIfActive() {
+        if ( inTransaction ) {
+            inTransaction = false;
+            dsg.abort();
+            dsg.end();
+        }
+    }
+}
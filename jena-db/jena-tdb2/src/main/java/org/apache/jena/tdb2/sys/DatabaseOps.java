@@ -37,6 +37,7 @@ import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.system.Txn;
 import org.apache.jena.tdb2.TDBException;
 import org.apache.jena.tdb2.params.StoreParams;
+import org.apache.jena.tdb2.store.ChangeLogTDB;
 import org.apache.jena.tdb2.store.DatasetGraphSwitchable;
 import org.apache.jena.tdb2.store.DatasetGraphTDB;
 import org.slf4j.Logger;
@@ -91,6 +92,9 @@ public class DatabaseOps {
        if ( db == null ) {
            db = path.resolve(dbPrefix+SEP+startCount);
            IOX.createDirectory(db);
+           // A change log set up for the database container.
+           if ( location.exists(Names.optChangeLog) )
+               IOX.copy(location.getPath(Names.optChangeLog), db.resolve(Names.optChangeLog).toString());
        }
        Location loc2 = IOX.asLocation(db);
        DatasetGraphTDB dsg = StoreConnection.connectCreate(loc2, params).getDatasetGraphTDB();
@@ -231,9 +235,17 @@ public class DatabaseOps {
         txnMgr.tryBlockWriters();
         // txnMgr.begin(WRITE, false) will now bounce.
 
+        // The change log continues in the new database.
+        copyChangeLog(loc1, loc2);
+
         // Copy the latest generation.
         DatasetGraphTDB dsgCompact = StoreConnection.connectCreate(loc2).getDatasetGraphTDB();
+        ChangeLogTDB changeLog = dsgCompact.getChangeLog();
+        if ( changeLog != null )
+            changeLog.setRecording(false);
         CopyDSG.copy(dsgBase, dsgCompact);
+        if ( changeLog != null )
+            changeLog.setRecording(true);
 
         TransactionCoordinator txnMgr2 = dsgCompact.getTxnSystem().getTxnMgr();
         txnMgr2.startExclusiveMode();
@@ -270,6 +282,18 @@ public class DatabaseOps {
         copyFiles(loc1, loc2, files);
     }
 
+    /** Copy the change log files, if any, from {@code loc1} to {@code loc2}. There must be no active writer. */
+    private static void copyChangeLog(Location loc1, Location loc2) {
+        // The ".opt" file has already been copied.
+        FileFilter changeLogFiles = (pathname)->{
+            String fn = pathname.getName();
+            return fn.startsWith(Names.changeLogBaseName+".") && ! fn.equals(Names.optChangeLog);
+        };
+        File d = new File(loc1.getDirectoryPath());
+        File[] files = d.listFiles(changeLogFiles);
+        copyFiles(loc1, loc2, files);
+    }
+
     /** Copy a number of files from one location to another location. */
     private static void copyFiles(Location loc1, Location loc2, File[] files) {
         if ( files == null || files.length == 0 )
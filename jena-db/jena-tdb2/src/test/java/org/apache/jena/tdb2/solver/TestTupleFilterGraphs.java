@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.query.*;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+import org.apache.jena.tdb2.sys.TDBInternal;
+import org.junit.Test;
+
+/** {@link TupleFilterGraphs} gives the same results as testing each tuple. */
+public class TestTupleFilterGraphs
+{
+    private static final String PREFIX = "PREFIX : <http://example/>\n";
+    private static DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+    static {
+        Txn.executeWrite(dsg, ()->{
+            for ( int i = 0 ; i < 30 ; i++ ) {
+                for ( int j = 0 ; j < 10 ; j++ )
+                    dsg.add(SSE.parseQuad("(:g"+i+" :s"+j+" :p"+(j%3)+" "+(j%5)+")"));
+            }
+            dsg.add(SSE.parseQuad("(_ :s :p :o)"));
+        });
+    }
+
+    @Test public void graphFilter_none()     { test(false); }
+    @Test public void graphFilter_dft()      { test(true); }
+    @Test public void graphFilter_one()      { test(false, 3); }
+    @Test public void graphFilter_one_dft()  { test(true, 3); }
+    @Test public void graphFilter_some()     { test(false, 3, 7, 11); }
+    @Test public void graphFilter_many()     { test(true, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14); }
+
+    private static String[] queries = {
+        "SELECT * { ?s ?p ?o }",
+        "SELECT * { GRAPH ?g { ?s ?p ?o } }",
+        "SELECT * { GRAPH ?g { ?s :p1 ?o } }",
+        "SELECT * { GRAPH ?g { :s3 ?p ?o } }",
+        "SELECT * { GRAPH ?g { ?s :p1 ?o . ?s ?p ?o2 } }",
+        "SELECT * { GRAPH :g3 { ?s ?p ?o } }",
+        "SELECT * { GRAPH :g20 { ?s ?p ?o } }",
+        "SELECT * { GRAPH <urn:x-arq:UnionGraph> { ?s ?p ?o } }"
+    };
+
+    private static void test(boolean matchDefaultGraph, int... graphs) {
+        TupleFilterGraphs filter = filter(matchDefaultGraph, graphs);
+        // The same filter, not recognized as a graph filter.
+        Predicate<Tuple<NodeId>> predicate = t -> filter.test(t);
+        for ( String qs : queries ) {
+            long x1 = count(qs, filter);
+            long x2 = count(qs, predicate);
+            assertEquals(qs, x2, x1);
+        }
+    }
+
+    private static long count(String queryString, Predicate<Tuple<NodeId>> filter) {
+        return Txn.calculateRead(dsg, ()->{
+            Query query = QueryFactory.create(PREFIX+queryString);
+            try ( QueryExecution qExec = QueryExecutionFactory.create(query, DatasetFactory.wrap(dsg)) ) {
+                QC2.setFilter(qExec.getContext(), filter);
+                return (long)ResultSetFormatter.consume(qExec.execSelect());
+            }
+        });
+    }
+
+    private static TupleFilterGraphs filter(boolean matchDefaultGraph, int... graphs) {
+        Set<NodeId> ids = Txn.calculateRead(dsg, ()->{
+            NodeTable nodeTable = TDBInternal.getDatasetGraphTDB(dsg).getQuadTable().getNodeTupleTable().getNodeTable();
+            Set<NodeId> x = new HashSet<>();
+            for ( int i : graphs )
+                x.add(nodeTable.getNodeIdForNode(SSE.parseNode(":g"+i)));
+            return x;
+        });
+        return new TupleFilterGraphs() {
+            @Override
+            public boolean test(Tuple<NodeId> t) {
+                if ( t.len() == 3 )
+                    return matchDefaultGraph;
+                return ids.contains(t.get(0));
+            }
+
+            @Override
+            public Collection<NodeId> getGraphs() {
+                return ids;
+            }
+
+            @Override
+            public boolean matchDefaultGraph() {
+                return matchDefaultGraph;
+            }
+        };
+    }
+}
@@ -19,6 +19,10 @@
 package org.apache.jena.tdb2.store;
 
 import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.jena.atlas.lib.StrUtils;
 import org.apache.jena.dboe.base.file.Location;
 import org.apache.jena.system.Txn;
@@ -27,9 +31,11 @@ import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.engine.QueryExecutionAsync;
 import org.apache.jena.sparql.sse.SSE;
 import org.apache.jena.tdb2.TDB2;
 import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.tdb2.sys.TDBInternal;
 import org.apache.jena.update.*;
 import org.junit.Test;
 
@@ -202,6 +208,55 @@ public class Test_SPARQL_TDB
         });
     }
 
+    @Test public void sparql_txn_parallel_union()
+    {
+        Dataset dataset = create();
+        Txn.executeWrite(dataset, ()->{
+            update(dataset, "INSERT DATA { <x:s> <x:p> 1, 2, 3 . <x:s> <x:q> 4, 5 }");
+        });
+        String qs = "SELECT * { { <x:s> <x:p> ?o } UNION { <x:s> <x:q> ?o } }";
+        Txn.executeRead(dataset, ()->{
+            // Workers begin their own read transactions.
+            Thread thread = new Thread(()->Txn.executeWrite(dataset, ()->update(dataset, "INSERT DATA { <x:s> <x:q> 6 }")));
+            thread.start();
+            try { thread.join(); } catch (InterruptedException ex) { fail(); }
+            // Not the data of the caller's transaction: the branches run on the caller's thread.
+            try(QueryExecution qExec = QueryExecutionFactory.create(qs, dataset)) {
+                qExec.getContext().set(ARQ.parallelUnion, true);
+                assertEquals(5, ResultSetFormatter.consume(qExec.execSelect()));
+            }
+        });
+        Txn.executeRead(dataset, ()->{
+            try(QueryExecution qExec = QueryExecutionFactory.create(qs, dataset)) {
+                qExec.getContext().set(ARQ.parallelUnion, true);
+                assertEquals(6, ResultSetFormatter.consume(qExec.execSelect()));
+            }
+        });
+    }
+
+    @Test public void sparql_txn_async() throws Exception
+    {
+        Dataset dataset = create();
+        Txn.executeWrite(dataset, ()->{
+            update(dataset, "INSERT DATA { <x:s> <x:p> 1, 2, 3, 4, 5 }");
+        });
+        // Batches run on different threads, moving the transaction between them.
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            QueryExecution qExec = QueryExecutionFactory.create("SELECT * { ?s ?p ?o }", dataset);
+            try ( QueryExecutionAsync qExecAsync = QueryExecutionAsync.create(qExec, executor) ) {
+                int total = qExecAsync.nextBatch(1).get().size();
+                Txn.executeWrite(dataset, ()->update(dataset, "INSERT DATA { <x:s> <x:p> 6 }"));
+                for ( int i = 0 ; i < 10 ; i++ )
+                    total += qExecAsync.nextBatch(1).get().size();
+                // Not the data added after the query started.
+                assertEquals(5, total);
+                assertTrue(qExecAsync.isFinished());
+            }
+        } finally { executor.shutdown(); }
+        assertEquals(0, TDBInternal.getTransactionCoordinator(dataset.asDatasetGraph()).countActive());
+    }
+
     private int count(Dataset dataset)
     { return count(dataset, "SELECT * { ?s ?p ?o }"); }
 
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.sys;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.jena.atlas.lib.FileOps;
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.dboe.sys.Names;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.ChangeLogTDB;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestChangeLog
+{
+    private Location dir = null;
+
+    static Quad quad1 = SSE.parseQuad("(_ <http://example/s> <http://example/p> 1)");
+    static Quad quad2 = SSE.parseQuad("(<http://example/g> _:a <http://example/p> 'abc\\n')");
+    static Quad quad3 = SSE.parseQuad("(<http://example/g> <http://example/s> <http://example/q> 'x'@en)");
+    static Node graph = SSE.parseNode("<http://example/g>");
+
+    @Before
+    public void before() throws IOException {
+        String DIR = "target/ChangeLog";
+        FileOps.ensureDir(DIR);
+        FileOps.clearAll(DIR);
+        dir = Location.create(DIR);
+        // Enable the change log for the database.
+        Files.createFile(IOX.asPath(dir).resolve(Names.optChangeLog));
+    }
+
+    @After
+    public void after() {
+        TDBInternal.reset();
+    }
+
+    private static ChangeLogTDB changeLog(DatasetGraph dsg) {
+        return TDBInternal.getDatasetGraphTDB(dsg).getChangeLog();
+    }
+
+    private static String readLog(DatasetGraph dsg, long start, long limit) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Txn.executeRead(dsg, ()->{
+            try { changeLog(dsg).read(start, limit, out); }
+            catch (IOException ex) { throw IOX.exception(ex); }
+        });
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String readLog(DatasetGraph dsg) {
+        return readLog(dsg, 0, Long.MAX_VALUE);
+    }
+
+    @Test public void changelog_none() {
+        FileOps.clearAll(dir.getDirectoryPath());
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        assertNull(changeLog(dsg));
+    }
+
+    @Test public void changelog_record() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        assertNotNull(changeLog(dsg));
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(quad1);
+            dsg.add(quad2);
+            dsg.getDefaultGraph().getPrefixMapping().setNsPrefix("ex", "http://example/");
+        });
+        Txn.executeWrite(dsg, ()->dsg.delete(quad1));
+        String log = readLog(dsg);
+        String[] lines = log.split("\n");
+        assertEquals(8, lines.length);
+        assertEquals("TX .", lines[0]);
+        assertEquals("A <http://example/s> <http://example/p> \"1\"^^<http://www.w3.org/2001/XMLSchema#integer> .", lines[1]);
+        assertTrue(lines[2].startsWith("A <_:"));
+        assertTrue(lines[2].endsWith("<http://example/p> \"abc\\n\" <http://example/g> ."));
+        assertEquals("PA \"ex\" <http://example/> .", lines[3]);
+        assertEquals("TC .", lines[4]);
+        assertEquals("TX .", lines[5]);
+        assertEquals("D <http://example/s> <http://example/p> \"1\"^^<http://www.w3.org/2001/XMLSchema#integer> .", lines[6]);
+        assertEquals("TC .", lines[7]);
+    }
+
+    @Test public void changelog_abort() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->dsg.add(quad1));
+        String log1 = readLog(dsg);
+        dsg.begin(ReadWrite.WRITE);
+        dsg.add(quad2);
+        dsg.abort();
+        dsg.end();
+        // Nothing to record.
+        Txn.executeWrite(dsg, ()->{});
+        assertEquals(log1, readLog(dsg));
+    }
+
+    @Test public void changelog_removeAll() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->{ dsg.add(quad2); dsg.add(quad3); });
+        long offset = logLength(dsg);
+        Txn.executeWrite(dsg, ()->dsg.removeGraph(graph));
+        String log = readLog(dsg, offset, Long.MAX_VALUE);
+        assertEquals(4, log.split("\n").length);
+        assertTrue(log.contains("\nD "));
+    }
+
+    @Test public void changelog_offset() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->dsg.add(quad1));
+        long offset = logLength(dsg);
+        Txn.executeWrite(dsg, ()->dsg.add(quad2));
+        Txn.executeWrite(dsg, ()->dsg.add(quad3));
+        String all = readLog(dsg);
+        String rest = readLog(dsg, offset, Long.MAX_VALUE);
+        assertEquals(all.substring((int)offset), rest);
+        // Limit: stops at the end of a transaction.
+        String first = readLog(dsg, offset, 1);
+        assertTrue(first.startsWith("TX ."));
+        assertTrue(first.endsWith("TC .\n"));
+        assertEquals(3, first.split("\n").length);
+    }
+
+    @Test(expected=TDBException.class)
+    public void changelog_bad_offset() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->dsg.add(quad1));
+        readLog(dsg, 3, Long.MAX_VALUE);
+    }
+
+    @Test public void changelog_apply() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(quad1);
+            dsg.add(quad2);
+            dsg.getGraph(graph).getPrefixMapping().setNsPrefix("ex", "http://example/");
+        });
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(quad3);
+            dsg.delete(quad1);
+        });
+        String log = readLog(dsg);
+        DatasetGraph dsg2 = DatasetGraphFactory.createTxnMem();
+        long x = ChangeLogReader.apply(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)), dsg2, null);
+        assertEquals(log.getBytes(StandardCharsets.UTF_8).length, x);
+        Txn.executeRead(dsg, ()->Txn.executeRead(dsg2, ()->{
+            assertTrue(IsoMatcher.isomorphic(dsg, dsg2));
+            assertEquals("http://example/", dsg2.getGraph(graph).getPrefixMapping().getNsPrefixURI("ex"));
+        }));
+    }
+
+    @Test public void changelog_apply_partial() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->dsg.add(quad1));
+        long offset = logLength(dsg);
+        Txn.executeWrite(dsg, ()->dsg.add(quad2));
+        String log = readLog(dsg);
+        // Cut off in the middle of the second transaction.
+        String partial = log.substring(0, (int)offset+10);
+        DatasetGraph dsg2 = DatasetGraphFactory.createTxnMem();
+        long x = ChangeLogReader.apply(new ByteArrayInputStream(partial.getBytes(StandardCharsets.UTF_8)), dsg2, null);
+        assertEquals(offset, x);
+        Txn.executeRead(dsg2, ()->{
+            assertTrue(dsg2.contains(quad1));
+            assertFalse(dsg2.contains(quad2));
+        });
+    }
+
+    @Test public void changelog_compact() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        Txn.executeWrite(dsg, ()->{ dsg.add(quad1); dsg.add(quad2); });
+        String log1 = readLog(dsg);
+        DatabaseMgr.compact(dsg);
+        // Same log, not including the copy.
+        assertEquals(log1, readLog(dsg));
+        long offset = logLength(dsg);
+        Txn.executeWrite(dsg, ()->dsg.add(quad3));
+        String log2 = readLog(dsg, offset, Long.MAX_VALUE);
+        assertEquals(3, log2.split("\n").length);
+    }
+
+    private static long logLength(DatasetGraph dsg) {
+        return readLog(dsg).getBytes(StandardCharsets.UTF_8).length;
+    }
+}
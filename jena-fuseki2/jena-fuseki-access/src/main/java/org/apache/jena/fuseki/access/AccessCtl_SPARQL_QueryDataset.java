@@ -49,6 +49,14 @@ public class AccessCtl_SPARQL_QueryDataset extends SPARQL_QueryDataset {
         return Collections.singletonList("user");
     }
 
+    @Override
+    protected boolean cacheResults(HttpAction action) {
+        // Results depend on the user.
+        if ( DataAccessCtl.isAccessControlled(action.getDataset()) )
+            return false;
+        return super.cacheResults(action);
+    }
+
     /** Decide the dataset - this modifies the query
      *  If the query has a dataset description.
      */
@@ -19,6 +19,7 @@
 package org.apache.jena.fuseki.access;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -61,6 +62,16 @@ public abstract class GraphFilter<X> implements Predicate<Tuple<X>> {
 
     public abstract Symbol getContextKey();
 
+    /** The graphs that the filter accepts. */
+    public Set<X> getGraphs() {
+        return Collections.unmodifiableSet(graphs);
+    }
+
+    /** Whether the filter accepts the default graph. */
+    public boolean matchDefaultGraph() {
+        return matchDefaultGraph;
+    }
+
     @Override
     public boolean test(Tuple<X> t) {
         if ( t.len() == 3 ) {
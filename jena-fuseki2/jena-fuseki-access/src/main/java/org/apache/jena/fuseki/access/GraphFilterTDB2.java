@@ -27,13 +27,19 @@ import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.util.Symbol;
 import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.solver.TupleFilterGraphs;
 import org.apache.jena.tdb2.store.NodeId;
 import org.apache.jena.tdb2.store.nodetable.NodeTable;
 import org.apache.jena.tdb2.sys.SystemTDB;
 import org.apache.jena.tdb2.sys.TDBInternal;
 
-/** {@link GraphFilter} for TDB2 */
-class GraphFilterTDB2 extends GraphFilter<NodeId> {
+/**
+ * {@link GraphFilter} for TDB2.
+ * <p>
+ * This is also a {@link TupleFilterGraphs} so TDB2 accesses the indexes for the allowed
+ * graphs only, rather than testing every quad.
+ */
+class GraphFilterTDB2 extends GraphFilter<NodeId> implements TupleFilterGraphs {
 
     private GraphFilterTDB2(Collection<NodeId> matches, boolean matchDefaultGraph) {
         super(matches, matchDefaultGraph);
@@ -85,11 +85,13 @@ public class DEF
                                                                           contentTypeResultsXML,
                                                                           contentTypeXML,
                                                                           contentTypeResultsThrift,
+                                                                          contentTypeResultsColumnar,
                                                                           contentTypeTextPlain
                                                                           );
 
     // Offer for ASK
-    // This includes application/xml and application/json and excludes application/sparql-results+thrift
+    // This includes application/xml and application/json and excludes the binary formats
+    // application/sparql-results+thrift and application/sparql-results+columnar
     public static final AcceptList rsOfferBoolean      = AcceptList.create(contentTypeResultsJSON,
                                                                            contentTypeJSON,
                                                                            contentTypeTextCSV,
@@ -168,9 +168,13 @@ public class FusekiConfig {
      * @return RequestAuthorization
      */
     public static AuthPolicy allowedUsers(Resource resource) {
+        return usersPolicy(resource, pAllowedUsers);
+    }
+
+    private static AuthPolicy usersPolicy(Resource resource, Property property) {
         if ( resource == null )
             return null;
-        Collection<RDFNode> allowedUsers = BuildLib.getAll(resource, "fu:"+pAllowedUsers.getLocalName());
+        Collection<RDFNode> allowedUsers = BuildLib.getAll(resource, "fu:"+property.getLocalName());
         if ( allowedUsers == null )
             // Indicate no settings.
             return null;
@@ -192,6 +196,47 @@ public class FusekiConfig {
         return Auth.policyAllowSpecific(userNames);
     }
 
+    /** Get the admission control settings on a service or an endpoint.
+     * <pre>
+     *     fuseki:maxConcurrent 4 ;
+     *     fuseki:maxQueued 20 ;
+     *     fuseki:maxQueueWait 5000 ;          # milliseconds
+     *     fuseki:priorityUsers ( "user1" "user2" ) ;
+     * </pre>
+     * Returns null if there are no settings.
+     *
+     * @param resource
+     * @return AdmissionControl
+     */
+    public static AdmissionControl admissionControl(Resource resource) {
+        RDFNode maxConcurrent = getZeroOrOne(resource, pMaxConcurrent);
+        RDFNode maxQueued = getZeroOrOne(resource, pMaxQueued);
+        RDFNode maxQueueWait = getZeroOrOne(resource, pMaxQueueWait);
+        AuthPolicy priorityUsers = usersPolicy(resource, pPriorityUsers);
+        if ( maxConcurrent == null ) {
+            if ( maxQueued != null || maxQueueWait != null || priorityUsers != null )
+                throw new FusekiConfigException("Admission control settings but no fuseki:"+pMaxConcurrent.getLocalName()+": "+nodeLabel(resource));
+            return null;
+        }
+        long active = integerValue(resource, pMaxConcurrent, maxConcurrent);
+        long queued = ( maxQueued == null ) ? 0 : integerValue(resource, pMaxQueued, maxQueued);
+        long wait = ( maxQueueWait == null ) ? 0 : integerValue(resource, pMaxQueueWait, maxQueueWait);
+        if ( active <= 0 || active > Integer.MAX_VALUE )
+            throw new FusekiConfigException("Bad value for fuseki:"+pMaxConcurrent.getLocalName()+": "+nodeLabel(resource));
+        if ( queued < 0 || queued > Integer.MAX_VALUE )
+            throw new FusekiConfigException("Bad value for fuseki:"+pMaxQueued.getLocalName()+": "+nodeLabel(resource));
+        return new AdmissionControl((int)active, (int)queued, wait, priorityUsers);
+    }
+
+    private static long integerValue(Resource resource, Property property, RDFNode n) {
+        if ( n.isLiteral() ) {
+            try {
+                return Long.parseLong(n.asLiteral().getLexicalForm());
+            } catch (NumberFormatException ex) {}
+        }
+        throw new FusekiConfigException("Not an integer for fuseki:"+property.getLocalName()+": "+nodeLabel(resource));
+    }
+
     /**
      * Process a configuration file and return the {@link DataAccessPoint DataAccessPoints};
      * set the context provided for server-wide settings.
@@ -433,6 +478,7 @@ public class FusekiConfig {
         DataService dataService = buildDataService(svc, dsDescMap);
         AuthPolicy allowedUsers = allowedUsers(svc);
         dataService.setAuthPolicy(allowedUsers);
+        dataService.setAdmissionControl(admissionControl(svc));
         DataAccessPoint dataAccess = new DataAccessPoint(name, dataService);
         return dataAccess;
     }
@@ -543,6 +589,9 @@ public class FusekiConfig {
 
         Context cxt = parseContext(endpoint);
 
+        // fuseki:maxConcurrent etc.
+        AdmissionControl admissionControl = admissionControl(endpoint);
+
         // Per-endpoint context.  
         // Could add special names:
         //   fuseki:timeout
@@ -554,6 +603,7 @@ public class FusekiConfig {
             .endpointName(epName)
             .authPolicy(authPolicy)
             .context(cxt)
+            .admissionControl(admissionControl)
             .build();
         return ep;
     }
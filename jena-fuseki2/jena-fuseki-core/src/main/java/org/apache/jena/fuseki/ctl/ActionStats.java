@@ -103,6 +103,11 @@ public class ActionStats extends ActionContainerItem
         builder.key(CounterName.Requests.getName()).value(dSrv.getCounters().value(CounterName.Requests));
         builder.key(CounterName.RequestsGood.getName()).value(dSrv.getCounters().value(CounterName.RequestsGood));
         builder.key(CounterName.RequestsBad.getName()).value(dSrv.getCounters().value(CounterName.RequestsBad));
+        if ( dSrv.admissionControl() != null ) {
+            builder.key(CounterName.RequestsActive.getName()).value(dSrv.getCounters().value(CounterName.RequestsActive));
+            builder.key(CounterName.RequestsQueued.getName()).value(dSrv.getCounters().value(CounterName.RequestsQueued));
+            builder.key(CounterName.RequestsRejected.getName()).value(dSrv.getCounters().value(CounterName.RequestsRejected));
+        }
 
         builder.key(ServerConst.endpoints).startObject("endpoints");
         int unique = 0;
@@ -157,6 +162,11 @@ public class ActionStats extends ActionContainerItem
         out.println("    Requests      = " + dSrv.getCounters().value(CounterName.Requests));
         out.println("    Good          = " + dSrv.getCounters().value(CounterName.RequestsGood));
         out.println("    Bad           = " + dSrv.getCounters().value(CounterName.RequestsBad));
+        if ( dSrv.admissionControl() != null ) {
+            out.println("    Active        = " + dSrv.getCounters().value(CounterName.RequestsActive));
+            out.println("    Queued        = " + dSrv.getCounters().value(CounterName.RequestsQueued));
+            out.println("    Rejected      = " + dSrv.getCounters().value(CounterName.RequestsRejected));
+        }
 
         out.println("  SPARQL Query:");
         out.println("    Request       = " + counter(dSrv, Operation.Query, CounterName.Requests));
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.jetty;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * A Jetty {@link ThreadPool} that runs all work, including request handling,
+ * on an {@link Executor}.
+ * <p>
+ * This is for an executor that does not bound the number of tasks, such as
+ * {@link java.util.concurrent.Executors#newCachedThreadPool()} or a
+ * thread-per-task executor, so that requests waiting on slow clients or
+ * long-running SERVICE calls do not hold up other requests. Jetty's acceptors
+ * and selectors are long running tasks on the same executor: do not use an
+ * executor with a fixed, small number of threads.
+ * <p>
+ * Requests that wait inside Fuseki, queued by
+ * {@link org.apache.jena.fuseki.server.AdmissionControl} or for a TDB2 transaction,
+ * wait on {@code java.util.concurrent} locks, not monitors, so they do not pin
+ * the carrier thread of a thread-per-task executor of virtual threads.
+ * <p>
+ * If the executor is an {@link ExecutorService}, it is shut down when the
+ * server stops.
+ */
+public class JettyExecutorPool extends AbstractLifeCycle implements ThreadPool {
+
+    private final Executor executor;
+    private final AtomicInteger running = new AtomicInteger(0);
+
+    public JettyExecutorPool(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(()->{
+            running.incrementAndGet();
+            try { task.run(); }
+            finally { running.decrementAndGet(); }
+        });
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if ( executor instanceof ExecutorService )
+            ((ExecutorService)executor).shutdown();
+        super.doStop();
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        if ( executor instanceof ExecutorService ) {
+            ExecutorService executorService = (ExecutorService)executor;
+            while ( ! executorService.awaitTermination(1, TimeUnit.MINUTES) ) {}
+        }
+    }
+
+    /** The number of tasks running. */
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    /** Threads are created as needed so there are no idle threads. */
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
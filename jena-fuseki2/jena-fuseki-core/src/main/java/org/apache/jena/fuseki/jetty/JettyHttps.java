@@ -24,6 +24,7 @@ import org.eclipse.jetty.server.*;
 import org.eclipse.jetty.server.handler.SecuredRedirectHandler;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.ThreadPool;
 
 /** Library of functions to help with setting Jetty up with HTTPS.
  * This code is not supposed to be fully general.
@@ -50,8 +51,18 @@ public class JettyHttps {
      * If httpPort is -1, don't add http otherwise make http redirect to https.
      */
     public static Server jettyServerHttps(ServletContextHandler handler, String keystore, String certPassword, int httpPort, int httpsPort) {
+        return jettyServerHttps(handler, keystore, certPassword, httpPort, httpsPort, null);
+    }
+
+    /**
+     * Create a HTTPS Jetty server for the {@link ServletContextHandler} using the {@link ThreadPool}.
+     * <p>
+     * If httpPort is -1, don't add http otherwise make http redirect to https.
+     * If threadPool is null, use the Jetty default thread pool.
+     */
+    public static Server jettyServerHttps(ServletContextHandler handler, String keystore, String certPassword, int httpPort, int httpsPort, ThreadPool threadPool) {
         // Server handling http and https.
-        Server jettyServer = server(keystore, certPassword, httpPort, httpsPort);
+        Server jettyServer = server(keystore, certPassword, httpPort, httpsPort, threadPool);
         if ( httpPort > 0 ) {
             // Redirect http to https.
             // Order matters. Check https and bounce if http as first choice.
@@ -65,8 +76,8 @@ public class JettyHttps {
     /** Build the server - http and https connectors.
      * If httpPort is -1, don't add http.
      */
-    private static Server server(String keystore, String certPassword, int httpPort, int httpsPort) {
-        Server server = new Server();
+    private static Server server(String keystore, String certPassword, int httpPort, int httpsPort, ThreadPool threadPool) {
+        Server server = new Server(threadPool);
         if ( httpPort > 0 ) {
             ServerConnector plainConnector = httpConnector(server, httpPort, httpsPort);
             server.addConnector(plainConnector);
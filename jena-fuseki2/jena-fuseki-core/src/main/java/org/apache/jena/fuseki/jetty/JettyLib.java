@@ -216,6 +216,7 @@ public class JettyLib {
         mimeTypes.addMimeMapping("rsj",     WebContent.contentTypeResultsJSON);
         mimeTypes.addMimeMapping("rsx",     WebContent.contentTypeResultsXML);
         mimeTypes.addMimeMapping("srt",     WebContent.contentTypeResultsThrift);
+        mimeTypes.addMimeMapping("srcol",   WebContent.contentTypeResultsColumnar);
 
         // Other
         mimeTypes.addMimeMapping("txt",     WebContent.contentTypeTextPlain);
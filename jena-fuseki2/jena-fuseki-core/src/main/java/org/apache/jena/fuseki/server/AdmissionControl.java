@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.jena.fuseki.auth.AuthPolicy;
+
+/**
+ * Admission control for a {@link DataService} or an {@link Endpoint}: a limit on the
+ * number of requests executing at the same time, with a bounded queue of waiting
+ * requests. A request that can not be queued, or that waits longer than the maximum
+ * wait time, is rejected; the caller sends a 503 response.
+ * <p>
+ * Requests from users allowed by the priority policy are admitted before any waiting
+ * requests from other users.
+ */
+public class AdmissionControl {
+    private final int        maxActive;
+    private final int        maxQueued;
+    private final long       maxWaitMillis;
+    private final AuthPolicy priorityUsers;
+    private CounterSet       counters = null;
+
+    // A Lock, not a monitor: a request waiting to be admitted does not pin
+    // its thread when actions run on an executor that multiplexes tasks
+    // onto carrier threads (see FusekiServer.Builder.executor).
+    private final Lock      lock    = new ReentrantLock();
+    // Signalled when a request finishes or stops waiting.
+    private final Condition changed = lock.newCondition();
+
+    // Protected by the lock.
+    private int active         = 0;
+    private int queued         = 0;
+    private int queuedPriority = 0;
+
+    /**
+     * Admission control allowing at most {@code maxActive} requests executing and
+     * {@code maxQueued} requests waiting, for at most {@code maxWaitMillis}
+     * milliseconds (zero or less means no time limit).
+     * Users allowed by {@code priorityUsers} are admitted first; this may be null.
+     */
+    public AdmissionControl(int maxActive, int maxQueued, long maxWaitMillis, AuthPolicy priorityUsers) {
+        if ( maxActive <= 0 )
+            throw new IllegalArgumentException("Maximum concurrent requests must be positive: "+maxActive);
+        if ( maxQueued < 0 )
+            throw new IllegalArgumentException("Maximum queue length must not be negative: "+maxQueued);
+        this.maxActive = maxActive;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.priorityUsers = priorityUsers;
+    }
+
+    /** Add the admission control counters to the {@link CounterSet} of the owning {@link DataService} or {@link Endpoint}. */
+    /*package*/ void addCounters(CounterSet counterSet) {
+        if ( ! counterSet.contains(CounterName.RequestsActive) ) {
+            counterSet.add(CounterName.RequestsActive);
+            counterSet.add(CounterName.RequestsQueued);
+            counterSet.add(CounterName.RequestsRejected);
+        }
+        this.counters = counterSet;
+    }
+
+    public int getMaxActive()       { return maxActive; }
+    public int getMaxQueued()       { return maxQueued; }
+    public long getMaxWaitMillis()  { return maxWaitMillis; }
+
+    /** The suggested delay, in seconds, before a rejected request is retried. */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis));
+    }
+
+    /**
+     * Wait until the request can execute. Return true if admitted, in which case
+     * {@link #release} must be called when the request finishes, else false.
+     */
+    public boolean acquire(String user) {
+        boolean priority = priorityUsers != null && priorityUsers.isAllowed(user);
+        lock.lock();
+        try {
+            // New requests do not overtake waiting requests of the same or higher priority.
+            if ( active < maxActive && queuedPriority == 0 && ( priority || queued == 0 ) ) {
+                admit();
+                return true;
+            }
+            if ( queued + queuedPriority >= maxQueued ) {
+                counter(CounterName.RequestsRejected, +1);
+                return false;
+            }
+            enqueue(priority, +1);
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while ( active >= maxActive || ( !priority && queuedPriority > 0 ) ) {
+                    if ( maxWaitMillis <= 0 )
+                        changed.await();
+                    else {
+                        if ( remaining <= 0 ) {
+                            counter(CounterName.RequestsRejected, +1);
+                            return false;
+                        }
+                        remaining = changed.awaitNanos(remaining);
+                    }
+                }
+                admit();
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                counter(CounterName.RequestsRejected, +1);
+                return false;
+            } finally {
+                enqueue(priority, -1);
+                // Waiting requests of lower priority may now be able to proceed.
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** A request admitted by {@link #acquire} has finished. */
+    public void release() {
+        lock.lock();
+        try {
+            active--;
+            counter(CounterName.RequestsActive, -1);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued + queuedPriority;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit() {
+        active++;
+        counter(CounterName.RequestsActive, +1);
+    }
+
+    private void enqueue(boolean priority, int delta) {
+        if ( priority )
+            queuedPriority += delta;
+        else
+            queued += delta;
+        counter(CounterName.RequestsQueued, delta);
+    }
+
+    private void counter(CounterName name, int delta) {
+        if ( counters == null )
+            return;
+        if ( delta > 0 )
+            counters.inc(name);
+        else
+            counters.dec(name);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdmissionControl[active=%d, queued=%d, wait=%dms]", maxActive, maxQueued, maxWaitMillis);
+    }
+}
@@ -48,6 +48,12 @@ public class CounterName {
     public static final CounterName RequestsGood     = register("RequestsGood", "requests.good");
     public static final CounterName RequestsBad      = register("RequestsBad", "requests.bad");
 
+    // Admission control : requests executing, requests waiting (current values)
+    // and requests turned away.
+    public static final CounterName RequestsActive   = register("RequestsActive", "requests.active");
+    public static final CounterName RequestsQueued   = register("RequestsQueued", "requests.queued");
+    public static final CounterName RequestsRejected = register("RequestsRejected", "requests.rejected");
+
     // SPARQL Protocol - query and update - together with upload.
 
     // Query - standard and ...
@@ -48,6 +48,9 @@ public class DataService {
     // Dataset-level authorization policy.
     private AuthPolicy authPolicy                       = null;
 
+    // Dataset-level admission control.
+    private AdmissionControl admissionControl           = null;
+
     /**
      * Record which {@link DataAccessPoint DataAccessPoints} this {@code DataService} is
      * associated with. This is mainly for checking and development.
@@ -260,10 +263,26 @@ public class DataService {
         activeTxn.decrementAndGet();
     }
 
+    /**
+     * The data version of the dataset. This changes each time a write transaction
+     * on the dataset commits. See {@link DataVersion} for which commits are seen.
+     */
+    public long getDataVersion() {
+        return DataVersion.get(dataset).get();
+    }
+
+    /** Note that a transaction that may have changed the data has committed. */
+    public void commitTxn() {
+        DataVersion.get(dataset).commit();
+    }
+
     /** Shutdown and never use again. */
     public synchronized void shutdown() {
         if ( state == CLOSING )
             return;
+        QueryResultCache cache = QueryResultCache.get();
+        if ( cache != null )
+            cache.invalidate(this);
         expel(dataset);
         dataset = null;
         state = CLOSED;
@@ -295,5 +314,14 @@ public class DataService {
 
     /** Returning null implies no authorization control */
     public AuthPolicy authPolicy() { return authPolicy; }
+
+    public void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+        if ( admissionControl != null )
+            admissionControl.addCounters(counters);
+    }
+
+    /** Returning null implies no admission control */
+    public AdmissionControl admissionControl() { return admissionControl; }
 }
 
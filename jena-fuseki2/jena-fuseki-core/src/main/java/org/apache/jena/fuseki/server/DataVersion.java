@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionCoordinator;
+import org.apache.jena.dboe.transaction.txn.TransactionListener;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.apache.jena.tdb2.store.DatasetGraphSwitchable;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+/**
+ * The data version of a dataset: a number that changes each time a write transaction
+ * on the dataset commits.
+ * <p>
+ * There is one data version for each base dataset (the dataset inside any
+ * {@link DatasetGraphWrapper wrappers}), so all the services, and all the servers in
+ * the JVM, over the same dataset see the same version.
+ * <p>
+ * For TDB2, every write commit changes the version, including commits made other than
+ * through Fuseki. For other datasets, only commits made by Fuseki requests
+ * ({@link #commit}) are seen.
+ */
+public class DataVersion {
+
+    // Weak keys: an entry goes when the dataset is no longer used.
+    // Values must not refer to their dataset, except weakly.
+    private static final Map<DatasetGraph, DataVersion> versions = new WeakHashMap<>();
+
+    /** The data version of a dataset. */
+    public static DataVersion get(DatasetGraph dataset) {
+        DatasetGraph base = base(dataset);
+        synchronized(versions) {
+            return versions.computeIfAbsent(base, DataVersion::new);
+        }
+    }
+
+    // Unwrap to the dataset that holds the data. A TDB2 database is the switchable
+    // container, which stays the same when the database is compacted.
+    private static DatasetGraph base(DatasetGraph dataset) {
+        DatasetGraph dsg = dataset;
+        while ( dsg instanceof DatasetGraphWrapper && ! ( dsg instanceof DatasetGraphSwitchable ) )
+            dsg = ((DatasetGraphWrapper)dsg).getWrapped();
+        return dsg;
+    }
+
+    private final AtomicLong version = new AtomicLong(0);
+    private final WeakReference<DatasetGraph> dataset;
+    // TDB2: the coordinator being listened to. Compaction switches to a new coordinator.
+    private TransactionCoordinator coordinator = null;
+    // Not a monitor: adding the listener may wait, and request threads may be virtual threads.
+    private final Lock lock = new ReentrantLock();
+
+    private DataVersion(DatasetGraph dataset) {
+        this.dataset = new WeakReference<>(dataset);
+    }
+
+    /**
+     * The current data version.
+     * <p>
+     * Do not call inside a transaction: the first call for a TDB2 database
+     * adds a listener to the database which waits for active transactions to finish.
+     */
+    public long get() {
+        listenTDB2();
+        return version.get();
+    }
+
+    /** Note that a transaction that may have changed the data has committed. */
+    public void commit() {
+        version.incrementAndGet();
+    }
+
+    private void listenTDB2() {
+        DatasetGraph dsg = dataset.get();
+        if ( dsg == null || ! TDBInternal.isTDB2(dsg) )
+            return;
+        TransactionCoordinator txnMgr = TDBInternal.getTransactionCoordinator(dsg);
+        lock.lock();
+        try {
+            if ( txnMgr == null || txnMgr == coordinator )
+                return;
+            // Listeners are added to a running coordinator with modifyConfig.
+            txnMgr.modifyConfig(()->txnMgr.addListener(new TransactionListener() {
+                @Override
+                public void notifyCommitFinish(Transaction transaction) {
+                    if ( transaction.isWriteTxn() )
+                        version.incrementAndGet();
+                }
+            }));
+            // Commits on the previous coordinator, if any, were not seen while switching.
+            if ( coordinator != null )
+                version.incrementAndGet();
+            coordinator = txnMgr;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -192,9 +192,58 @@ public class Dispatcher {
         ActionProcessor processor = endpoint.getProcessor();
         if ( processor == null )
             ServletOps.errorBadRequest(format("No processor: dataset=%s: op=%s", dataAccessPoint.getName(), operation.getName()));
+
+        // ---- Admission control.
+        if ( endpoint.getAdmissionControl() != null || dataService.admissionControl() != null )
+            return new AdmittedProcessor(processor, endpoint.getAdmissionControl(), dataService.admissionControl());
         return processor;
     }
 
+    /**
+     * Execute a request when admitted by the endpoint admission control, then by the
+     * dataset admission control. Requests that are not admitted are rejected with 503.
+     */
+    private static class AdmittedProcessor implements ActionProcessor {
+        private final ActionProcessor processor;
+        private final AdmissionControl endpointControl;
+        private final AdmissionControl datasetControl;
+
+        AdmittedProcessor(ActionProcessor processor, AdmissionControl endpointControl, AdmissionControl datasetControl) {
+            this.processor = processor;
+            this.endpointControl = endpointControl;
+            this.datasetControl = datasetControl;
+        }
+
+        @Override
+        public void process(HttpAction action) {
+            String user = action.getUser();
+            if ( ! acquire(action, endpointControl, user) )
+                return;
+            try {
+                if ( ! acquire(action, datasetControl, user) )
+                    return;
+                try {
+                    processor.process(action);
+                } finally { release(datasetControl); }
+            } finally { release(endpointControl); }
+        }
+
+        private static boolean acquire(HttpAction action, AdmissionControl admissionControl, String user) {
+            if ( admissionControl == null )
+                return true;
+            if ( admissionControl.acquire(user) )
+                return true;
+            action.response.setHeader(HttpNames.hRetryAfter, Long.toString(admissionControl.getRetryAfterSeconds()));
+            ServletOps.error(HttpSC.SERVICE_UNAVAILABLE_503, "Server busy");
+            return false;
+        }
+
+        private static void release(AdmissionControl admissionControl) {
+            if ( admissionControl != null )
+                admissionControl.release();
+        }
+    }
+
     /**
      * Map request to operation name.
      * Returns the service name (the part after the "/" of the dataset part) or "".
@@ -38,6 +38,7 @@ public class Endpoint implements Counters {
     private final String          endpointName;
     private final AuthPolicy      authPolicy;
     private final Context         context;
+    private final AdmissionControl admissionControl;
     // Endpoint-level counters.
     private final CounterSet      counters = new CounterSet();
 
@@ -49,18 +50,22 @@ public class Endpoint implements Counters {
         return EndpointBuilder.create().operation(operation).endpointName(endpointName).authPolicy(requestAuth).build(); 
     }
     
-    /*package*/ Endpoint(Operation operation, String endpointName, AuthPolicy requestAuth, ActionProcessor processor, Context context) {
+    /*package*/ Endpoint(Operation operation, String endpointName, AuthPolicy requestAuth, ActionProcessor processor, Context context,
+                         AdmissionControl admissionControl) {
         this.operation = Objects.requireNonNull(operation, "operation");
         // Canonicalise to "" for dataset-level operations.
         this.endpointName = endpointName==null? DatasetEP : endpointName;
         this.authPolicy = requestAuth;
         this.context = context;
         this.processor = processor;
+        this.admissionControl = admissionControl;
         
         // Standard counters - there may be others
         counters.add(CounterName.Requests);
         counters.add(CounterName.RequestsGood);
         counters.add(CounterName.RequestsBad);
+        if ( admissionControl != null )
+            admissionControl.addCounters(counters);
         // Default. Better to explicitly set later.
         //processor = OperationRegistry.get().findHandler(operation);
     }
@@ -102,6 +107,11 @@ public class Endpoint implements Counters {
         return authPolicy;
     }
 
+    /** Returning null implies no admission control */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
     public long getRequests() {
         return counters.value(CounterName.Requests);
     }
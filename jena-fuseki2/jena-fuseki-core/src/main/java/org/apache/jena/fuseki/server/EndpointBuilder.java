@@ -32,6 +32,7 @@ public class EndpointBuilder {
     private String          endpointName = null;
     private AuthPolicy      authPolicy   = null;
     private ActionProcessor processor    = null;
+    private AdmissionControl admissionControl = null;
 
     public static EndpointBuilder create() { return new EndpointBuilder(); }
 
@@ -62,6 +63,11 @@ public class EndpointBuilder {
         return this;
     }
 
+    public EndpointBuilder admissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+        return this;
+    }
+
     public Context context() { return context; }
 
     public Operation operation() { return operation; }
@@ -72,8 +78,10 @@ public class EndpointBuilder {
 
     public ActionProcessor processor() { return processor; }
 
+    public AdmissionControl admissionControl() { return admissionControl; }
+
     public Endpoint build() {
         Objects.requireNonNull(operation, "Operation for Endpoint");
-        return new Endpoint(operation, endpointName, authPolicy, processor, context);
+        return new Endpoint(operation, endpointName, authPolicy, processor, context, admissionControl);
     }
 }
@@ -53,6 +53,12 @@ public class FusekiVocab
     public static final Property pAllowTimeoutOverride      = property("allowTimeoutOverride");
     public static final Property pMaximumTimeoutOverride    = property("maximumTimeoutOverride");
 
+    // Admission control - on a service or an endpoint.
+    public static final Property pMaxConcurrent             = property("maxConcurrent");
+    public static final Property pMaxQueued                 = property("maxQueued");
+    public static final Property pMaxQueueWait              = property("maxQueueWait");
+    public static final Property pPriorityUsers             = property("priorityUsers");
+
     // Server endpoints.
     public static final Property pServerPing        = property("pingEP");
     public static final Property pServerStats       = property("statsEP");
@@ -79,6 +85,8 @@ public class FusekiVocab
     public static final Resource opNoOp        = resource("no-op");
     public static final Resource opNoOp_alt    = resource("no_op");
     public static final Resource opShacl       = resource("shacl");
+    public static final Resource opBatch       = resource("batch");
+    public static final Resource opChanges     = resource("changes");
     
     // Internal
     private static final String stateNameActive     = DataServiceStatus.ACTIVE.name;
@@ -89,6 +89,8 @@ public class Operation {
     public static final Operation GSP_RW   = alloc(FusekiVocab.opGSP_rw.asNode(), "gsp-rw", "Graph Store Protocol");
     public static final Operation NoOp     = alloc(FusekiVocab.opNoOp.asNode(),   "no-op",  "No Op");
     public static final Operation Shacl    = alloc(FusekiVocab.opShacl.asNode(),  "SHACL",  "SHACL Validation");
+    public static final Operation Batch    = alloc(FusekiVocab.opBatch.asNode(),  "batch",  "Batch Upload");
+    public static final Operation Changes  = alloc(FusekiVocab.opChanges.asNode(), "changes", "Change Feed");
     static {
         // Not everyone will remember "_" vs "-" so ...
         altName(FusekiVocab.opNoOp_alt,   FusekiVocab.opNoOp); 
@@ -48,6 +48,8 @@ public class OperationRegistry {
     private static final ActionService gspServlet_RW   = new GSP_RW();
     private static final ActionService noOperation     = new NoOpActionService();
     private static final ActionService shaclValidation = new SHACL_Validation();
+    private static final ActionService batchUpload     = new BatchUpload();
+    private static final ActionService changeFeed      = new ChangeFeed();
 
     /** The server-wide standard configuration. */
     private static final OperationRegistry stdConfig   = stdConfig();
@@ -68,6 +70,8 @@ public class OperationRegistry {
         stdOpReg.register(Operation.GSP_R,   null, gspServlet_R);
         stdOpReg.register(Operation.GSP_RW,  null, gspServlet_RW);
         stdOpReg.register(Operation.NoOp,    null, noOperation);
+        stdOpReg.register(Operation.Batch,   null, batchUpload);
+        stdOpReg.register(Operation.Changes, null, changeFeed);
         return stdOpReg;
     }
 
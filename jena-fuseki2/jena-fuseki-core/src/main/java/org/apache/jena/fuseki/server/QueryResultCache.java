@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cache of serialized query results, shared by all the datasets of the server.
+ * <p>
+ * An entry is for one data version of the dataset of a {@link DataService}
+ * ({@link DataVersion}). The data version changes when a write transaction
+ * commits, so entries for earlier versions are never returned; they are
+ * removed on lookup or by eviction.
+ * <p>
+ * The cache is bounded by the total size in bytes of the results held. The least
+ * recently used entries are evicted first.
+ * <p>
+ * Caching is off by default: see {@link #enable(long)}.
+ */
+public class QueryResultCache {
+
+    private static volatile QueryResultCache cache = null;
+
+    /**
+     * Turn on result caching, holding at most {@code maxBytes} of results.
+     * A single result is cached only if it is no larger than a sixteenth of this.
+     */
+    public static void enable(long maxBytes) {
+        enable(maxBytes, maxBytes/16);
+    }
+
+    /**
+     * Turn on result caching, holding at most {@code maxBytes} of results, with a
+     * limit on the size of any one result.
+     */
+    public static void enable(long maxBytes, long maxEntryBytes) {
+        if ( maxBytes <= 0 )
+            throw new IllegalArgumentException("Cache size must be positive: "+maxBytes);
+        cache = new QueryResultCache(maxBytes, (int)Math.min(maxEntryBytes, Integer.MAX_VALUE-8));
+    }
+
+    /** Turn off result caching and drop all entries. */
+    public static void disable() {
+        cache = null;
+    }
+
+    /** The cache, or null if result caching is not enabled. */
+    public static QueryResultCache get() {
+        return cache;
+    }
+
+    /** Cache key : the dataset, the query and the request settings that determine the response format. */
+    public static final class Key {
+        private final DataService dataService;
+        private final String query;
+        private final String format;
+
+        public Key(DataService dataService, String query, String format) {
+            this.dataService = Objects.requireNonNull(dataService);
+            this.query = Objects.requireNonNull(query);
+            this.format = Objects.requireNonNull(format);
+        }
+
+        public DataService getDataService() { return dataService; }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dataService, query, format);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj )
+                return true;
+            if ( !(obj instanceof Key) )
+                return false;
+            Key other = (Key)obj;
+            return dataService == other.dataService && query.equals(other.query) && format.equals(other.format);
+        }
+    }
+
+    /** A cached response. */
+    public static final class Entry {
+        private final long dataVersion;
+        private final String contentType;
+        private final String etag;
+        private final byte[] bytes;
+
+        public Entry(long dataVersion, String contentType, String etag, byte[] bytes) {
+            this.dataVersion = dataVersion;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.bytes = bytes;
+        }
+
+        public long getDataVersion()    { return dataVersion; }
+        /** The HTTP Content-Type, including any charset. */
+        public String getContentType()  { return contentType; }
+        public String getETag()         { return etag; }
+        public byte[] getBytes()        { return bytes; }
+    }
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    // Distinguishes ETags from different runs of the server : data versions restart from zero.
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    // Access order.
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    private QueryResultCache(long maxBytes, int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /** The largest result, in bytes, that will be cached. */
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * The entity tag for the result of a request at a data version. This is fixed
+     * before the results are produced so it can be sent as a header.
+     */
+    public String etag(Key key, long dataVersion) {
+        int h1 = key.query.hashCode();
+        int h2 = key.format.hashCode();
+        return "\""+epoch+"-"+Long.toHexString(dataVersion)+"-"+Integer.toHexString(h1)+Integer.toHexString(h2)+"\"";
+    }
+
+    /** Get the entry for the key at the data version, or null. */
+    public synchronized Entry get(Key key, long dataVersion) {
+        Entry entry = entries.get(key);
+        if ( entry != null && entry.dataVersion != dataVersion ) {
+            remove(key);
+            entry = null;
+        }
+        if ( entry == null )
+            misses++;
+        else
+            hits++;
+        return entry;
+    }
+
+    /** Add an entry, evicting least recently used entries to stay within the size limit. */
+    public synchronized void put(Key key, Entry entry) {
+        if ( entry.bytes.length > maxEntryBytes )
+            return;
+        remove(key);
+        entries.put(key, entry);
+        totalBytes += entry.bytes.length;
+        Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+        while ( totalBytes > maxBytes && iter.hasNext() ) {
+            Entry e = iter.next().getValue();
+            totalBytes -= e.bytes.length;
+            iter.remove();
+        }
+    }
+
+    /** Remove all entries for a {@link DataService}. */
+    public synchronized void invalidate(DataService dataService) {
+        Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+        while ( iter.hasNext() ) {
+            Map.Entry<Key, Entry> e = iter.next();
+            if ( e.getKey().dataService == dataService ) {
+                totalBytes -= e.getValue().bytes.length;
+                iter.remove();
+            }
+        }
+    }
+
+    /** Remove all entries. */
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private void remove(Key key) {
+        Entry old = entries.remove(key);
+        if ( old != null )
+            totalBytes -= old.bytes.length;
+    }
+
+    public synchronized int size()          { return entries.size(); }
+    public synchronized long sizeBytes()    { return totalBytes; }
+    public synchronized long getHits()      { return hits; }
+    public synchronized long getMisses()    { return misses; }
+}
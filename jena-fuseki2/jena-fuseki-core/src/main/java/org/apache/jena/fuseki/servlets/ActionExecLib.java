@@ -32,6 +32,7 @@ import org.apache.jena.atlas.logging.Log;
 import org.apache.jena.atlas.web.HttpException;
 import org.apache.jena.fuseki.Fuseki;
 import org.apache.jena.fuseki.server.*;
+import org.apache.jena.query.QueryBudgetExceededException;
 import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.riot.web.HttpNames;
 import org.apache.jena.web.HttpSC;
@@ -101,6 +102,9 @@ public class ActionExecLib {
                 //    protocol -- SPARQL_Query.setAnyTimeouts
                 String message = String.format("Query timed out");
                 ServletOps.responseSendError(response, HttpSC.SERVICE_UNAVAILABLE_503, message);
+            } catch (QueryBudgetExceededException ex) {
+                // ARQ.queryMemoryBudget or ARQ.queryCostLimit
+                ServletOps.responseSendError(response, HttpSC.SERVICE_UNAVAILABLE_503, ex.getMessage());
             } catch (ActionErrorException ex) {
                 if ( ex.getCause() != null )
                     Log.warn(Fuseki.serverLog, "ActionErrorException with cause", ex);
@@ -21,6 +21,9 @@ package org.apache.jena.fuseki.servlets;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.CharacterCodingException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -44,6 +47,7 @@ import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.riot.system.StreamRDFLib;
 import org.apache.jena.riot.web.HttpNames;
 import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.web.HttpSC;
 
 /** Operations related to servlets */
 
@@ -235,7 +239,7 @@ public class ActionLib {
             }
         }
         InputStream input = null;
-        try { input = action.request.getInputStream(); }
+        try { input = getInputStream(action); }
         catch (IOException ex) { IO.exception(ex); }
 
         Graph graph = GraphFactory.createDefaultGraph();
@@ -274,6 +278,31 @@ public class ActionLib {
         return FusekiNetLib.getContentType(action.request);
     }
     
+    /**
+     * Get the request body, decoding it if it has a {@code Content-Encoding} of
+     * "gzip" or "deflate". Any other content encoding is rejected with
+     * 415 (Unsupported Media Type).
+     */
+    public static InputStream getInputStream(HttpAction action) throws IOException {
+        InputStream input = action.request.getInputStream();
+        String encoding = action.request.getHeader(HttpNames.hContentEncoding);
+        if ( encoding == null )
+            return input;
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "":
+            case "identity":
+                return input;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(input, 64*1024);
+            case "deflate":
+                return new InflaterInputStream(input);
+            default:
+                ServletOps.error(HttpSC.UNSUPPORTED_MEDIA_TYPE_415, "Unsupported Content-Encoding: "+encoding);
+                return null;
+        }
+    }
+
     public static void setCommonHeadersForOptions(HttpServletResponse httpResponse) {
         if ( Fuseki.CORS_ENABLED )
             httpResponse.setHeader(HttpNames.hAccessControlAllowHeaders, "X-Requested-With, Content-Type, Authorization");
@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.servlets;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.jena.atlas.json.JsonBuilder;
+import org.apache.jena.atlas.json.JsonValue;
+import org.apache.jena.atlas.web.ContentType;
+import org.apache.jena.fuseki.system.UploadDetails;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.lang.CollectorStreamQuads;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.ErrorHandlerFactory;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.web.HttpNames;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.web.HttpSC;
+
+/**
+ * Upload of data in batches. A client splits a large load into batches, numbered
+ * from 0, and sends each batch as the body of a POST to
+ * {@code ?upload=ID&batch=N}. Batches can be sent concurrently and in any order.
+ * <p>
+ * Batch numbers are idempotent within an upload: a batch that has already been
+ * received is acknowledged and not applied again, so a failed load can be resumed by
+ * sending the same upload again. {@code GET ?upload=ID} returns the batch numbers
+ * received so far; a client can use this to skip those batches.
+ * <p>
+ * By default, each batch is applied in its own transaction. The body is parsed
+ * before the write transaction starts so concurrent batches are parsed in parallel.
+ * With {@code &mode=staged}, batches are kept in temporary files and nothing is
+ * applied until {@code POST ?upload=ID&commit=true}, which applies all the batches in
+ * one transaction (parsing in parallel, applying in batch order).
+ * <p>
+ * {@code DELETE ?upload=ID} finishes an upload and discards the record of the
+ * batches received. A commit also finishes the upload. Uploads not used for
+ * {@link #IdleTimeoutMillis} are discarded.
+ * <p>
+ * Blank node labels are scoped to the upload, not to each batch, so the same label in
+ * two batches is the same blank node. RDF Thrift, which the client sends by default,
+ * keeps blank node labels as they are.
+ */
+public class BatchUpload extends BaseActionREST {
+
+    public static final String paramUpload = "upload";
+    public static final String paramBatch  = "batch";
+    public static final String paramMode   = "mode";
+    public static final String paramCommit = "commit";
+    public static final String modeStaged  = "staged";
+
+    /** Discard uploads that have not been used for this long. */
+    public static long IdleTimeoutMillis = 24*60*60*1000L;
+
+    // Upload state, by dataset and upload id.
+    private final Map<String, BatchState> uploads = new ConcurrentHashMap<>();
+
+    public BatchUpload() {}
+
+    @Override
+    public void validate(HttpAction action) {
+        String uploadId = action.request.getParameter(paramUpload);
+        if ( uploadId == null || uploadId.isEmpty() )
+            ServletOps.errorBadRequest("No upload id: ?"+paramUpload+"= required");
+    }
+
+    /** Report on an upload. */
+    @Override
+    protected void doGet(HttpAction action) {
+        BatchState state = uploads.get(key(action));
+        if ( state == null )
+            ServletOps.errorNotFound("No such upload: "+uploadId(action));
+        ServletOps.sendJsonReponse(action, state.asJson());
+    }
+
+    @Override
+    protected void doPost(HttpAction action) {
+        purgeIdle();
+        if ( isTrue(action.request.getParameter(paramCommit)) ) {
+            commit(action);
+            return;
+        }
+        long batchNumber = batchNumber(action);
+        boolean staged = modeStaged.equals(action.request.getParameter(paramMode));
+        BatchState state = uploads.computeIfAbsent(key(action), (k)->new BatchState(uploadId(action), staged));
+        if ( state.staged != staged )
+            ServletOps.errorBadRequest("Upload "+state.uploadId+" is "+(state.staged ? "" : "not ")+"staged");
+
+        switch (state.claim(batchNumber)) {
+            case DONE:
+                action.log.info(format("[%d] Batch %s/%d: already received", action.id, state.uploadId, batchNumber));
+                ServletOps.success(action);
+                return;
+            case IN_PROGRESS:
+                ServletOps.error(HttpSC.CONFLICT_409, "Batch "+batchNumber+" is being received");
+                return;
+            case CLAIMED:
+                break;
+        }
+        boolean done = false;
+        try {
+            if ( staged )
+                stageBatch(action, state, batchNumber);
+            else
+                applyBatch(action, state, batchNumber);
+            done = true;
+        } finally {
+            state.release(batchNumber, done);
+        }
+    }
+
+    /** Finish an upload. */
+    @Override
+    protected void doDelete(HttpAction action) {
+        BatchState state = uploads.remove(key(action));
+        if ( state == null )
+            ServletOps.errorNotFound("No such upload: "+uploadId(action));
+        state.discard();
+        ServletOps.successNoContent(action);
+    }
+
+    /** Parse the body then apply it in a write transaction. */
+    private void applyBatch(HttpAction action, BatchState state, long batchNumber) {
+        CollectorStreamQuads collector = new CollectorStreamQuads();
+        try ( InputStream input = ActionLib.getInputStream(action) ) {
+            parse(action, state, input, lang(action), StreamRDFLib.extendTriplesToQuads(collector));
+        } catch (IOException ex) {
+            ServletOps.errorOccurred(ex);
+        }
+        Collection<Quad> quads = collector.getCollected();
+        action.beginWrite();
+        try {
+            StreamRDF dest = StreamRDFLib.dataset(decideDataset(action));
+            quads.forEach(dest::quad);
+            action.commit();
+        } catch (RuntimeException ex) {
+            action.abort();
+            throw ex;
+        } finally {
+            action.end();
+        }
+        long triples = quads.stream().filter(Quad::isTriple).count();
+        long quadCount = quads.size()-triples;
+        action.log.info(format("[%d] Batch %s/%d: %s", action.id, state.uploadId, batchNumber,
+                               UploadDetails.detailsStr(quads.size(), triples, quadCount)));
+        ServletOps.sendJsonReponse(action, UploadDetails.detailsJson(quads.size(), triples, quadCount));
+    }
+
+    /** Keep the body in a temporary file until commit. */
+    private void stageBatch(HttpAction action, BatchState state, long batchNumber) {
+        Lang lang = lang(action);
+        Path path = null;
+        try ( InputStream input = ActionLib.getInputStream(action) ) {
+            path = Files.createTempFile("fuseki-batch-", ".rdf");
+            Files.copy(input, path, StandardCopyOption.REPLACE_EXISTING);
+            state.addStaged(batchNumber, path, lang);
+        } catch (IOException ex) {
+            if ( path != null )
+                path.toFile().delete();
+            ServletOps.errorOccurred(ex);
+        }
+        action.log.info(format("[%d] Batch %s/%d: staged", action.id, state.uploadId, batchNumber));
+        ServletOps.success(action);
+    }
+
+    /** Apply the staged batches, in order, in one transaction. */
+    private void commit(HttpAction action) {
+        BatchState state = uploads.get(key(action));
+        if ( state == null )
+            ServletOps.errorNotFound("No such upload: "+uploadId(action));
+        if ( ! state.staged )
+            ServletOps.errorBadRequest("Upload "+state.uploadId+" is not staged");
+        if ( ! state.startCommit() )
+            ServletOps.error(HttpSC.CONFLICT_409, "Upload "+state.uploadId+" is still receiving batches");
+
+        List<StagedBatch> batches = state.stagedBatches();
+        int threads = Math.max(1, Math.min(batches.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long count = 0;
+        long triples = 0;
+        long quadCount = 0;
+        boolean committed = false;
+        action.beginWrite();
+        try {
+            StreamRDF dest = StreamRDFLib.dataset(decideDataset(action));
+            // Parse ahead, at most "threads" batches in memory, apply in order.
+            Deque<Future<Collection<Quad>>> pending = new ArrayDeque<>();
+            Iterator<StagedBatch> iter = batches.iterator();
+            while ( iter.hasNext() || ! pending.isEmpty() ) {
+                while ( iter.hasNext() && pending.size() < threads ) {
+                    StagedBatch batch = iter.next();
+                    pending.add(executor.submit(()->parseStaged(action, state, batch)));
+                }
+                Collection<Quad> quads = pending.removeFirst().get();
+                for ( Quad q : quads ) {
+                    dest.quad(q);
+                    count++;
+                    if ( q.isTriple() )
+                        triples++;
+                    else
+                        quadCount++;
+                }
+            }
+            action.commit();
+            committed = true;
+        } catch (ExecutionException ex) {
+            action.abort();
+            if ( ex.getCause() instanceof ActionErrorException )
+                throw (ActionErrorException)ex.getCause();
+            if ( ex.getCause() instanceof RiotException )
+                ServletOps.errorBadRequest("Parse error: "+ex.getCause().getMessage());
+            ServletOps.errorOccurred(ex.getCause());
+        } catch (InterruptedException ex) {
+            action.abort();
+            ServletOps.errorOccurred(ex);
+        } catch (RuntimeException ex) {
+            action.abort();
+            throw ex;
+        } finally {
+            action.end();
+            executor.shutdownNow();
+            if ( committed ) {
+                uploads.remove(key(action));
+                state.discard();
+            } else
+                state.endCommit();
+        }
+        action.log.info(format("[%d] Upload %s: %d batches committed: %s", action.id, state.uploadId, batches.size(),
+                               UploadDetails.detailsStr(count, triples, quadCount)));
+        ServletOps.sendJsonReponse(action, UploadDetails.detailsJson(count, triples, quadCount));
+    }
+
+    private static Collection<Quad> parseStaged(HttpAction action, BatchState state, StagedBatch batch) throws IOException {
+        CollectorStreamQuads collector = new CollectorStreamQuads();
+        try ( InputStream input = Files.newInputStream(batch.path) ) {
+            parse(action, state, input, batch.lang, StreamRDFLib.extendTriplesToQuads(collector));
+        }
+        return collector.getCollected();
+    }
+
+    private static void parse(HttpAction action, BatchState state, InputStream input, Lang lang, StreamRDF dest) {
+        try {
+            RDFParser.create()
+                .source(input)
+                .lang(lang)
+                .labelToNode(LabelToNode.createScopeByDocumentHash(state.seed))
+                .errorHandler(ErrorHandlerFactory.errorHandlerStd(action.log))
+                .parse(dest);
+        } catch (RiotException ex) { ServletOps.errorBadRequest("Parse error: "+ex.getMessage()); }
+    }
+
+    private static Lang lang(HttpAction action) {
+        ContentType ct = ActionLib.getContentType(action);
+        if ( ct == null )
+            ServletOps.errorBadRequest("No Content-Type");
+        Lang lang = RDFLanguages.contentTypeToLang(ct.getContentType());
+        if ( lang == null )
+            ServletOps.errorBadRequest("Unknown content type for RDF: "+ct);
+        return lang;
+    }
+
+    private static String uploadId(HttpAction action) {
+        return action.request.getParameter(paramUpload);
+    }
+
+    private static String key(HttpAction action) {
+        return action.getDatasetName()+" "+uploadId(action);
+    }
+
+    private static long batchNumber(HttpAction action) {
+        String x = action.request.getParameter(paramBatch);
+        if ( x == null )
+            ServletOps.errorBadRequest("No batch number: ?"+paramBatch+"= required");
+        try {
+            long n = Long.parseLong(x);
+            if ( n < 0 )
+                ServletOps.errorBadRequest("Negative batch number: "+x);
+            return n;
+        } catch (NumberFormatException ex) {
+            ServletOps.errorBadRequest("Bad batch number: "+x);
+            return -1;
+        }
+    }
+
+    private static boolean isTrue(String x) {
+        return x != null && x.equalsIgnoreCase("true");
+    }
+
+    private void purgeIdle() {
+        long now = System.currentTimeMillis();
+        uploads.values().removeIf(state -> {
+            if ( ! state.isIdle(now) )
+                return false;
+            state.discard();
+            return true;
+        });
+    }
+
+    private static class StagedBatch {
+        final long batchNumber;
+        final Path path;
+        final Lang lang;
+        StagedBatch(long batchNumber, Path path, Lang lang) {
+            this.batchNumber = batchNumber;
+            this.path = path;
+            this.lang = lang;
+        }
+    }
+
+    private enum Claim { CLAIMED, IN_PROGRESS, DONE }
+
+    /** The batches of one upload. */
+    private static class BatchState {
+        final String uploadId;
+        final boolean staged;
+        // Blank node scope for the upload.
+        final UUID seed = UUID.randomUUID();
+        private final Set<Long> done = new HashSet<>();
+        private final Set<Long> inProgress = new HashSet<>();
+        private final Map<Long, StagedBatch> stagedBatches = new TreeMap<>();
+        private boolean committing = false;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        BatchState(String uploadId, boolean staged) {
+            this.uploadId = uploadId;
+            this.staged = staged;
+        }
+
+        synchronized Claim claim(long batchNumber) {
+            lastUsed = System.currentTimeMillis();
+            if ( done.contains(batchNumber) )
+                return Claim.DONE;
+            if ( committing || inProgress.contains(batchNumber) )
+                return Claim.IN_PROGRESS;
+            inProgress.add(batchNumber);
+            return Claim.CLAIMED;
+        }
+
+        synchronized void release(long batchNumber, boolean success) {
+            inProgress.remove(batchNumber);
+            if ( success )
+                done.add(batchNumber);
+            lastUsed = System.currentTimeMillis();
+        }
+
+        synchronized void addStaged(long batchNumber, Path path, Lang lang) {
+            stagedBatches.put(batchNumber, new StagedBatch(batchNumber, path, lang));
+        }
+
+        synchronized List<StagedBatch> stagedBatches() {
+            return new ArrayList<>(stagedBatches.values());
+        }
+
+        synchronized boolean startCommit() {
+            if ( committing || ! inProgress.isEmpty() )
+                return false;
+            committing = true;
+            return true;
+        }
+
+        synchronized void endCommit() {
+            committing = false;
+            lastUsed = System.currentTimeMillis();
+        }
+
+        boolean isIdle(long now) {
+            synchronized(this) {
+                if ( committing || ! inProgress.isEmpty() )
+                    return false;
+            }
+            return now - lastUsed > IdleTimeoutMillis;
+        }
+
+        synchronized void discard() {
+            for ( StagedBatch batch : stagedBatches.values() ) {
+                try { Files.deleteIfExists(batch.path); }
+                catch (IOException ex) {}
+            }
+            stagedBatches.clear();
+        }
+
+        synchronized JsonValue asJson() {
+            JsonBuilder builder = new JsonBuilder();
+            builder.startObject()
+                .key(paramUpload).value(uploadId)
+                .key(modeStaged).value(staged)
+                .key("batches").startArray();
+            for ( long n : new TreeSet<>(done) )
+                builder.value(n);
+            builder.finishArray().finishObject();
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.servlets;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.ChangeLogTDB;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.sys.ChangeLogFollower;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+/**
+ * The change log of a TDB2 database ({@link ChangeLogTDB}) as a feed. This is used by
+ * {@link ChangeLogFollower} to keep a read replica up to date.
+ * <p>
+ * {@code GET ?from=OFFSET} returns the transactions committed after {@code OFFSET}, a
+ * byte offset in the log. A client starts at 0; the next offset is the previous
+ * offset plus the length of the response. With {@code &wait=MILLIS}, the request
+ * waits (up to {@link #MaxWaitMillis}) for a commit if there are no changes after the
+ * offset. {@code &limit=BYTES} is the size after which the response ends at the next
+ * transaction end (default {@link #DftLimit}).
+ * <p>
+ * The dataset must be a TDB2 database with the change log enabled, otherwise the
+ * response is 404.
+ */
+public class ChangeFeed extends BaseActionREST {
+
+    public static final String contentTypePatch = "application/rdf-patch";
+
+    /** The longest time a request waits for new changes. */
+    public static long MaxWaitMillis = 60*1000;
+
+    /** Default size, in bytes, after which the response ends at a transaction end. */
+    public static long DftLimit = 16*1024*1024;
+
+    public ChangeFeed() {}
+
+    @Override
+    public void validate(HttpAction action) {
+        longParam(action, ChangeLogFollower.paramFrom, 0);
+        longParam(action, ChangeLogFollower.paramWait, 0);
+        longParam(action, ChangeLogFollower.paramLimit, 0);
+    }
+
+    @Override
+    protected void doGet(HttpAction action) {
+        long from = longParam(action, ChangeLogFollower.paramFrom, 0);
+        long wait = Math.min(longParam(action, ChangeLogFollower.paramWait, 0), MaxWaitMillis);
+        long limit = longParam(action, ChangeLogFollower.paramLimit, DftLimit);
+
+        // Wait outside a transaction.
+        if ( wait > 0 )
+            changeLog(action.getDataset()).awaitChanges(from, wait);
+
+        action.beginRead();
+        try {
+            ChangeLogTDB changeLog = changeLog(action.getActiveDSG());
+            action.response.setContentType(contentTypePatch);
+            action.response.setCharacterEncoding(WebContent.charsetUTF8);
+            long end = changeLog.read(from, limit, action.response.getOutputStream());
+            if ( action.verbose )
+                action.log.info(format("[%d] Changes: %d to %d", action.id, from, end));
+            ServletOps.success(action);
+        } catch (TDBException ex) {
+            // Bad offset. Nothing has been sent.
+            ServletOps.errorBadRequest(ex.getMessage());
+        } catch (IOException ex) {
+            ServletOps.errorOccurred(ex);
+        } finally {
+            action.endRead();
+        }
+    }
+
+    private static ChangeLogTDB changeLog(DatasetGraph dsg) {
+        DatasetGraphTDB dsgtdb = TDBInternal.getDatasetGraphTDB(dsg);
+        if ( dsgtdb == null || dsgtdb.getChangeLog() == null )
+            ServletOps.errorNotFound("No change log for this dataset");
+        return dsgtdb.getChangeLog();
+    }
+
+    private static long longParam(HttpAction action, String name, long dftValue) {
+        String str = action.request.getParameter(name);
+        if ( str == null )
+            return dftValue;
+        try {
+            long x = Long.parseLong(str);
+            if ( x < 0 )
+                ServletOps.errorBadRequest("Negative value: "+name+"="+str);
+            return x;
+        } catch (NumberFormatException ex) {
+            ServletOps.errorBadRequest("Not a number: "+name+"="+str);
+            return -1;
+        }
+    }
+}
@@ -324,6 +324,8 @@ public class HttpAction
     public void commit() {
         dataService.finishTxn();
         transactional.commit();
+        // After the commit : a request that sees the new data version sees the new data.
+        dataService.commitTxn();
         end();
     }
 
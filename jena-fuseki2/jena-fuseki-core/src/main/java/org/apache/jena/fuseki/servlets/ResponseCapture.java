@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.jena.riot.web.HttpNames;
+
+/**
+ * Response wrapper that keeps a copy of the bytes sent, up to a limit, so the
+ * response can be put in the {@link org.apache.jena.fuseki.server.QueryResultCache}.
+ * <p>
+ * The response is still sent as it is written; nothing is delayed.
+ * A response with a validator is allowed to be stored by clients, but they must
+ * revalidate it.
+ */
+class ResponseCapture extends HttpServletResponseWrapper {
+    private final int limit;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private boolean overflow = false;
+    private ServletOutputStream output = null;
+
+    ResponseCapture(HttpServletResponse response, int limit) {
+        super(response);
+        this.limit = limit;
+    }
+
+    /** The bytes of the response, or null if the response was not captured completely. */
+    byte[] getBytes() {
+        return overflow ? null : bytes.toByteArray();
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ( HttpNames.hCacheControl.equals(name) )
+            value = "no-cache";
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        // Not captured.
+        overflow = true;
+        return super.getWriter();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if ( output == null )
+            output = new CaptureOutputStream(super.getOutputStream());
+        return output;
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if ( overflow )
+            return;
+        if ( bytes.size() + len > limit ) {
+            overflow = true;
+            bytes.reset();
+            return;
+        }
+        bytes.write(b, off, len);
+    }
+
+    private class CaptureOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out;
+        private final byte[] oneByte = new byte[1];
+
+        CaptureOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            oneByte[0] = (byte)b;
+            capture(oneByte, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+    }
+}
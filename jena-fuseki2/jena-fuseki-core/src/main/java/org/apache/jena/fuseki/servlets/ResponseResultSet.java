@@ -35,6 +35,7 @@ import org.apache.jena.atlas.web.MediaType;
 import org.apache.jena.fuseki.DEF;
 import org.apache.jena.fuseki.FusekiException;
 import org.apache.jena.fuseki.system.ConNeg;
+import org.apache.jena.query.QueryBudgetExceededException;
 import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.query.ResultSet;
 import org.apache.jena.query.ResultSetFormatter;
@@ -62,6 +63,7 @@ public class ResponseResultSet
     private static final String contentOutputCSV           = "csv";
     private static final String contentOutputTSV           = "tsv";
     private static final String contentOutputThrift        = "thrift";
+    private static final String contentOutputColumnar      = "columnar";
 
     public static Map<String,String> shortNamesResultSet = new HashMap<>();
     static {
@@ -73,6 +75,7 @@ public class ResponseResultSet
         ResponseOps.put(shortNamesResultSet, contentOutputCSV,    contentTypeTextCSV);
         ResponseOps.put(shortNamesResultSet, contentOutputTSV,    contentTypeTextTSV);
         ResponseOps.put(shortNamesResultSet, contentOutputThrift, contentTypeResultsThrift);
+        ResponseOps.put(shortNamesResultSet, contentOutputColumnar, contentTypeResultsColumnar);
     }
 
     interface OutputContent { void output(ServletOutputStream out) throws IOException; }
@@ -140,7 +143,7 @@ public class ResponseResultSet
         // (1) charset is a feature of XML, not the response
         // (2) ?stylesheet=
         //
-        // Thrift is special because
+        // Thrift and columnar are special because
         // (1) charset is meaningless
         // (2) there is no boolean result form.
 
@@ -171,6 +174,11 @@ public class ResponseResultSet
                 ServletOps.errorBadRequest("Can't write a boolean result in thrift");
             charset = null;
         }
+        if (Objects.equals(serializationType, WebContent.contentTypeResultsColumnar) ) {
+            if ( booleanResult != null )
+                ServletOps.errorBadRequest("Can't write a boolean result in the columnar format");
+            charset = null;
+        }
 
         //Finally, the general case
         generalOutput(action, lang, contentType, charset, cxt, jsonCallback, resultSet, booleanResult);
@@ -236,6 +244,14 @@ public class ResponseResultSet
                 out.flush();
                 // No point raising an exception - 200 was sent already.
                 //errorOccurred(ex);
+            } catch (QueryBudgetExceededException ex) {
+                // As above, for the query memory budget.
+                action.response.setStatus(HttpSC.SERVICE_UNAVAILABLE_503);
+                action.log.info(format("[%d] Query memory budget exceeded - results truncated (but 200 may have already been sent)", action.id));
+                out.println();
+                out.println("##  Query stopped: memory budget exceeded   ##");
+                out.println("##  ****     Incomplete results      ****   ##");
+                out.flush();
             }
         // Includes client gone.
         } catch (IOException ex) { ServletOps.errorOccurred(ex); }
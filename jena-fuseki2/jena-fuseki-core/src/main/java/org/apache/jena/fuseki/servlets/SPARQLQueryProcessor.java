@@ -31,7 +31,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.jena.atlas.io.IO;
@@ -40,6 +42,8 @@ import org.apache.jena.atlas.json.JsonObject;
 import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.atlas.web.ContentType;
 import org.apache.jena.fuseki.Fuseki;
+import org.apache.jena.fuseki.server.DataService;
+import org.apache.jena.fuseki.server.QueryResultCache;
 import org.apache.jena.fuseki.system.FusekiNetLib;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
@@ -227,7 +231,7 @@ public abstract class SPARQLQueryProcessor extends ActionService
     protected void executeBody(HttpAction action) {
         String queryString = null;
         try {
-            InputStream input = action.request.getInputStream();
+            InputStream input = ActionLib.getInputStream(action);
             queryString = IO.readWholeFileAsUTF8(input);
         } catch (IOException ex) {
             ServletOps.errorOccurred(ex);
@@ -262,6 +266,21 @@ public abstract class SPARQLQueryProcessor extends ActionService
             ServletOps.errorBadRequest("Error: \n" + queryString + "\n\r" + ex.getMessage());
         }
 
+        // Read the data version before the transaction starts.
+        QueryResultCache cache = QueryResultCache.get();
+        QueryResultCache.Key cacheKey = ( cache == null ) ? null : cacheKey(action, queryStringLog);
+        long dataVersion = ( cacheKey == null ) ? -1 : cacheKey.getDataService().getDataVersion();
+        if ( cacheKey != null && sendCachedResults(action, cache, cacheKey, dataVersion) )
+            return;
+
+        HttpServletResponseTracker response = action.response;
+        ResponseCapture capture = null;
+        if ( cacheKey != null ) {
+            capture = new ResponseCapture(response, cache.getMaxEntryBytes());
+            action.response = new HttpServletResponseTracker(action, capture);
+            action.response.setHeader(hETag, cache.etag(cacheKey, dataVersion));
+        }
+
         // Assumes finished whole thing by end of sendResult.
         try {
             action.beginRead();
@@ -285,7 +304,102 @@ public abstract class SPARQLQueryProcessor extends ActionService
             // Additional counter information.
             incCounter(action.getEndpoint().getCounters(), QueryTimeouts);
             throw ex;
-        } finally { action.endRead(); }
+        } finally {
+            action.endRead();
+            action.response = response;
+        }
+
+        if ( capture != null )
+            putCachedResults(action, cache, cacheKey, dataVersion, capture);
+    }
+
+    // Queries whose results may change without the data changing.
+    private static final Pattern NotCacheable = Pattern.compile("\\b(?:NOW|RAND|UUID|STRUUID|BNODE|SERVICE)\\b");
+
+    /**
+     * Whether the results of queries of this action can be put in the
+     * {@link QueryResultCache}, if it is enabled. The default is "no": this is only
+     * safe when the results depend only on the request and the data of the action's
+     * {@link DataService}.
+     */
+    protected boolean cacheResults(HttpAction action) {
+        return false;
+    }
+
+    /** The cache key for the query, or null if the results are not to be cached. */
+    private QueryResultCache.Key cacheKey(HttpAction action, String queryStringLog) {
+        DataService dataService = action.getDataService();
+        if ( dataService == null || ! cacheResults(action) )
+            return null;
+        // The query string is in the standard (serialized) form. Keywords and functions
+        // are in upper case; a false match means the results are not cached.
+        if ( NotCacheable.matcher(queryStringLog).find() )
+            return null;
+        // Everything in the request that affects the dataset or the format of the results.
+        HttpServletRequest request = action.request;
+        StringJoiner variant = new StringJoiner("\n");
+        variant.add(Objects.toString(request.getHeader(hAccept), ""));
+        for ( String param : Arrays.asList(paramOutput1, paramOutput2, paramStyleSheet, paramCallback, paramForceAccept,
+                                           paramAccept, paramDefaultGraphURI, paramNamedGraphURI) ) {
+            String[] values = request.getParameterValues(param);
+            if ( values != null )
+                variant.add(param+"="+String.join("&", values));
+        }
+        return new QueryResultCache.Key(dataService, queryStringLog, variant.toString());
+    }
+
+    /** Send the response from the cache, if possible. Return true if a response was sent. */
+    private static boolean sendCachedResults(HttpAction action, QueryResultCache cache, QueryResultCache.Key key, long dataVersion) {
+        QueryResultCache.Entry entry = cache.get(key, dataVersion);
+        if ( entry == null )
+            return false;
+        action.response.setHeader(hCacheControl, "no-cache");
+        action.response.setHeader(hETag, entry.getETag());
+        if ( HttpNames.METHOD_GET.equals(action.request.getMethod()) && matchETag(action.request.getHeader(hIfNoneMatch), entry.getETag()) ) {
+            action.log.info(format("[%d] Not modified", action.id));
+            ServletOps.success(action, HttpSC.NOT_MODIFIED_304);
+            return true;
+        }
+        action.log.info(format("[%d] Cached results", action.id));
+        try {
+            action.response.setContentType(entry.getContentType());
+            action.response.setContentLength(entry.getBytes().length);
+            ServletOps.success(action);
+            ServletOutputStream out = action.response.getOutputStream();
+            out.write(entry.getBytes());
+            out.flush();
+        } catch (IOException ex) { ServletOps.errorOccurred(ex); }
+        return true;
+    }
+
+    /** Does an If-None-Match header match the entity tag? (Weak comparison) */
+    private static boolean matchETag(String ifNoneMatch, String etag) {
+        if ( ifNoneMatch == null )
+            return false;
+        for ( String x : ifNoneMatch.split(",") ) {
+            x = x.trim();
+            if ( x.startsWith("W/") )
+                x = x.substring(2);
+            if ( x.equals("*") || x.equals(etag) )
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Put a response in the cache if it completed successfully and no write
+     * transaction has committed since the data version was read.
+     */
+    private static void putCachedResults(HttpAction action, QueryResultCache cache, QueryResultCache.Key key, long dataVersion, ResponseCapture capture) {
+        if ( action.statusCode != HttpSC.OK_200 )
+            return;
+        byte[] bytes = capture.getBytes();
+        if ( bytes == null )
+            return;
+        if ( dataVersion != key.getDataService().getDataVersion() )
+            return;
+        String etag = cache.etag(key, dataVersion);
+        cache.put(key, new QueryResultCache.Entry(dataVersion, action.responseContentType, etag, bytes));
     }
 
     /**
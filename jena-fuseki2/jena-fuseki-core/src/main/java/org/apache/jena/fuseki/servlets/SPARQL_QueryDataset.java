@@ -35,6 +35,11 @@ public class SPARQL_QueryDataset extends SPARQLQueryProcessor {
     @Override
     protected void validateQuery(HttpAction action, Query query) { }
 
+    @Override
+    protected boolean cacheResults(HttpAction action) {
+        return true;
+    }
+
     @Override
     protected Pair<DatasetGraph, Query> decideDataset(HttpAction action, Query query, String queryStringLog) {
         return decideDatasetDynamic(action, query, queryStringLog);
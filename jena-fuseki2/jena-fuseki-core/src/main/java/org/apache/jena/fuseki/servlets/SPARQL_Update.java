@@ -163,7 +163,7 @@ public class SPARQL_Update extends ActionService
 
     private void executeBody(HttpAction action) {
         InputStream input = null;
-        try { input = action.request.getInputStream(); }
+        try { input = ActionLib.getInputStream(action); }
         catch (IOException ex) { ServletOps.errorOccurred(ex); }
 
         if ( action.verbose ) {
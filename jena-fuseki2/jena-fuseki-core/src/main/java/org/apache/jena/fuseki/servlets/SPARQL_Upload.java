@@ -42,7 +42,9 @@ import org.apache.jena.web.HttpSC;
  * This class works with general HTML form file upload where the name is somewhere in the form and that may be
  * after the data.
  *
- * Consider this service useful for small files and use GSP or quads POST for large ones.
+ * If the dataset supports transactions with abort, the data is sent straight into the
+ * dataset. Otherwise, the data is parsed into memory first; consider this service
+ * useful for small files and use GSP or quads POST for large ones.
  */
 public class SPARQL_Upload extends ActionService
 {
@@ -150,13 +152,26 @@ public class SPARQL_Upload extends ActionService
         finally { action.end(); }
     }
 
-    // TODO Improve.  Needs Upload code rework.
     /**
-     * Transactional - we'd like better handle the data and go straight to the destination, with an abort on parse error.
-     * Use Graph Store protocol for bulk uploads.
+     * Transactional - send the data straight to the destination, with an abort on parse error.
      */
     private static long uploadTxn(HttpAction action, String base) {
-        return uploadNonTxn(action, base);
+        action.beginWrite();
+        try {
+            long count = Upload.multipartUploadTxn(action, base, action.getActiveDSG());
+            action.log.info(format("[%d] Upload: %d triple(s)/quad(s)", action.id, count));
+            action.commit();
+            return count;
+        } catch (ActionErrorException ex) {
+            // Any ServletOps.error, including parse errors.
+            action.abort();
+            throw ex;
+        } catch (RuntimeException ex) {
+            action.abort();
+            ServletOps.errorOccurred(ex.getMessage());
+            return -1;
+        }
+        finally { action.end(); }
     }
 
 }
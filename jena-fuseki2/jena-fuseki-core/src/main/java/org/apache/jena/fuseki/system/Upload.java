@@ -25,6 +25,9 @@ import static org.apache.jena.riot.WebContent.matchContentType;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.fileupload.FileItemIterator;
@@ -32,25 +35,39 @@ import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.apache.commons.fileupload.util.Streams;
 import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.web.ContentType;
 import org.apache.jena.fuseki.servlets.ActionErrorException;
 import org.apache.jena.fuseki.servlets.ActionLib;
 import org.apache.jena.fuseki.servlets.HttpAction;
 import org.apache.jena.fuseki.servlets.ServletOps;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.iri.IRI;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFLanguages;
 import org.apache.jena.riot.RiotParseException;
 import org.apache.jena.riot.lang.StreamRDFCounting;
+import org.apache.jena.riot.system.AsyncParser;
 import org.apache.jena.riot.system.IRIResolver;
 import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.riot.system.StreamRDFLib;
 import org.apache.jena.riot.web.HttpNames;
+import org.apache.jena.shared.uuid.JenaUUID;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
 
 public class Upload {
 
+    /**
+     * Request bodies of at least this size, or of unknown size, are parsed on a separate
+     * thread so parsing overlaps with adding the data to the destination.
+     * See {@link AsyncParser}.
+     */
+    public static long ParseAheadThreshold = 10*1024*1024;
+
     /** Parse the body contents to the {@link StreamRDF}.
      *  This function is used by GSP.
      */
@@ -74,14 +91,20 @@ public class Upload {
             return null;
         }
         InputStream input = null;
-        try { input = action.request.getInputStream(); }
+        try { input = ActionLib.getInputStream(action); }
         catch (IOException ex) { IO.exception(ex); }
 
         long len = action.request.getContentLengthLong();
 
         StreamRDFCounting countingDest = StreamRDFLib.count(dest);
         try {
-            ActionLib.parse(action, countingDest, input, lang, base);
+            // A compressed body may be much larger than its Content-Length.
+            boolean encoded = action.request.getHeader(HttpNames.hContentEncoding) != null;
+            if ( len < 0 || len >= ParseAheadThreshold || encoded ) {
+                InputStream input1 = input;
+                AsyncParser.parse(stream->ActionLib.parse(action, stream, input1, lang, base), countingDest);
+            } else
+                ActionLib.parse(action, countingDest, input, lang, base);
             UploadDetails details = new UploadDetails(countingDest.count(), countingDest.countTriples(),countingDest.countQuads());
             action.log.info(format("[%d] Body: Content-Length=%d, Content-Type=%s, Charset=%s => %s : %s",
                                    action.id, len, ct.getContentType(), ct.getCharset(), lang.getName(),
@@ -205,24 +228,7 @@ public class Upload {
                     String value = Streams.asString(stream, "UTF-8");
                     if ( fieldName.equals(HttpNames.paramGraph) ) {
                         graphName = value;
-                        if ( graphName != null && !graphName.equals("") && !graphName.equals(HttpNames.valueDefault) ) {
-                            // -- Check IRI with additional checks.
-                            IRI iri = IRIResolver.parseIRI(value);
-                            if ( iri.hasViolation(false) )
-                                ServletOps.errorBadRequest("Bad IRI: " + graphName);
-                            if ( iri.getScheme() == null )
-                                ServletOps.errorBadRequest("Bad IRI: no IRI scheme name: " + graphName);
-                            if ( iri.getScheme().equalsIgnoreCase("http") || iri.getScheme().equalsIgnoreCase("https") ) {
-                                // Redundant??
-                                if ( iri.getRawHost() == null )
-                                    ServletOps.errorBadRequest("Bad IRI: no host name: " + graphName);
-                                if ( iri.getRawPath() == null || iri.getRawPath().length() == 0 )
-                                    ServletOps.errorBadRequest("Bad IRI: no path: " + graphName);
-                                if ( iri.getRawPath().charAt(0) != '/' )
-                                    ServletOps.errorBadRequest("Bad IRI: Path does not start '/': " + graphName);
-                            }
-                            // End check IRI
-                        }
+                        checkGraphName(graphName);
                     } else if ( fieldName.equals(HttpNames.paramDefaultGraphURI) )
                         graphName = null;
                     else
@@ -274,5 +280,132 @@ public class Upload {
         catch (ActionErrorException ex) { throw ex; }
         catch (Exception ex)            { ServletOps.errorOccurred(ex); return null; }
     }
+
+    /**
+     * Process an HTTP file upload of RDF using the name field for the graph name destination,
+     * sending the data straight into the dataset. This must be called inside a write transaction
+     * which is aborted if there is an error.
+     * <p>
+     * If the name field comes after the data, the triples are loaded into a temporary graph
+     * in the dataset and moved to the destination graph at the end.
+     * This function is used by SPARQL_Upload for {@code fuseki:serviceUpload}.
+     * @return the number of triples and quads
+     */
+    public static long multipartUploadTxn(HttpAction action, String base, DatasetGraph dsg) {
+        ServletFileUpload upload = new ServletFileUpload();
+        String graphName = null;
+        boolean seenGraphName = false;
+        Node tmpGraph = null;
+        StreamRDFCounting dest = StreamRDFLib.count(StreamRDFLib.dataset(dsg));
+
+        try {
+            FileItemIterator iter = upload.getItemIterator(action.request);
+            while (iter.hasNext()) {
+                FileItemStream item = iter.next();
+                String fieldName = item.getFieldName();
+                InputStream stream = item.openStream();
+                if ( item.isFormField() ) {
+                    // Graph name.
+                    String value = Streams.asString(stream, "UTF-8");
+                    if ( fieldName.equals(HttpNames.paramGraph) ) {
+                        graphName = value;
+                        seenGraphName = true;
+                        checkGraphName(graphName);
+                    } else if ( fieldName.equals(HttpNames.paramDefaultGraphURI) ) {
+                        graphName = null;
+                        seenGraphName = true;
+                    } else
+                        action.log.info(format("[%d] Upload: Field=%s ignored", action.id, fieldName));
+                } else {
+                    String name = item.getName();
+                    if ( name == null || name.equals("") || name.equals("UNSET FILE NAME") )
+                        ServletOps.errorBadRequest("No name for content - can't determine RDF syntax");
+
+                    ContentType ct = ContentType.create(item.getContentType());
+                    Lang lang = RDFLanguages.contentTypeToLang(ct.getContentType());
+                    if ( lang == null ) {
+                        lang = RDFLanguages.filenameToLang(name);
+                        // See multipartUploadWorker
+                        if ( name.endsWith(".gz") )
+                            stream = new GZIPInputStream(stream);
+                    }
+                    if ( lang == null )
+                        // Desperate.
+                        lang = RDFLanguages.RDFXML;
+
+                    action.log.info(format("[%d] Upload: Filename: %s, Content-Type=%s, Charset=%s => %s", action.id, name,
+                                           ct.getContentType(), ct.getCharset(), lang.getName()));
+
+                    StreamRDF x = dest;
+                    if ( ! RDFLanguages.isQuads(lang) ) {
+                        Node gn;
+                        if ( seenGraphName )
+                            gn = graphNode(graphName);
+                        else {
+                            // Destination not known yet.
+                            if ( tmpGraph == null )
+                                tmpGraph = NodeFactory.createURI("urn:x-arq:upload:"+JenaUUID.generate().asString());
+                            gn = tmpGraph;
+                        }
+                        x = StreamRDFLib.extendTriplesToQuads(gn, dest);
+                    }
+                    ActionLib.parse(action, x, stream, lang, base);
+                }
+            }
+            if ( tmpGraph != null )
+                moveGraph(dsg, tmpGraph, graphNode(graphName));
+            return dest.count();
+        }
+        catch (ActionErrorException ex) { throw ex; }
+        catch (Exception ex)            { ServletOps.errorOccurred(ex); return -1; }
+    }
+
+    private static Node graphNode(String graphName) {
+        if ( graphName == null || graphName.equals("") || graphName.equals(HttpNames.valueDefault) )
+            return Quad.defaultGraphNodeGenerated;
+        return NodeFactory.createURI(graphName);
+    }
+
+    // Move in batches - the dataset may not allow changes while iterating.
+    private static void moveGraph(DatasetGraph dsg, Node src, Node dst) {
+        final int BatchSize = 10_000;
+        List<Triple> triples = new ArrayList<>(BatchSize);
+        for ( ;; ) {
+            triples.clear();
+            Iterator<Quad> iter = dsg.find(src, Node.ANY, Node.ANY, Node.ANY);
+            try {
+                while ( iter.hasNext() && triples.size() < BatchSize )
+                    triples.add(iter.next().asTriple());
+            } finally { Iter.close(iter); }
+            if ( triples.isEmpty() )
+                break;
+            for ( Triple t : triples ) {
+                dsg.delete(src, t.getSubject(), t.getPredicate(), t.getObject());
+                dsg.add(dst, t.getSubject(), t.getPredicate(), t.getObject());
+            }
+        }
+        dsg.removeGraph(src);
+    }
+
+    private static void checkGraphName(String graphName) {
+        if ( graphName == null || graphName.equals("") || graphName.equals(HttpNames.valueDefault) )
+            return;
+        // -- Check IRI with additional checks.
+        IRI iri = IRIResolver.parseIRI(graphName);
+        if ( iri.hasViolation(false) )
+            ServletOps.errorBadRequest("Bad IRI: " + graphName);
+        if ( iri.getScheme() == null )
+            ServletOps.errorBadRequest("Bad IRI: no IRI scheme name: " + graphName);
+        if ( iri.getScheme().equalsIgnoreCase("http") || iri.getScheme().equalsIgnoreCase("https") ) {
+            // Redundant??
+            if ( iri.getRawHost() == null )
+                ServletOps.errorBadRequest("Bad IRI: no host name: " + graphName);
+            if ( iri.getRawPath() == null || iri.getRawPath().length() == 0 )
+                ServletOps.errorBadRequest("Bad IRI: no path: " + graphName);
+            if ( iri.getRawPath().charAt(0) != '/' )
+                ServletOps.errorBadRequest("Bad IRI: Path does not start '/': " + graphName);
+        }
+        // End check IRI
+    }
 }
 
@@ -22,6 +22,7 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 import javax.servlet.Filter;
@@ -40,6 +41,7 @@ import org.apache.jena.fuseki.build.FusekiConfig;
 import org.apache.jena.fuseki.ctl.ActionPing;
 import org.apache.jena.fuseki.ctl.ActionStats;
 import org.apache.jena.fuseki.jetty.FusekiErrorHandler1;
+import org.apache.jena.fuseki.jetty.JettyExecutorPool;
 import org.apache.jena.fuseki.jetty.JettyHttps;
 import org.apache.jena.fuseki.jetty.JettyLib;
 import org.apache.jena.fuseki.metrics.MetricsProviderRegistry;
@@ -63,10 +65,13 @@ import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 
 /**
@@ -242,6 +247,8 @@ public class FusekiServer {
         private boolean                  verbose            = false;
         private boolean                  withStats          = false;
         private boolean                  withPing           = false;
+        private boolean                  withCompression    = false;
+        private ThreadPool               threadPool         = null;
 
         // Server wide authorization policy.
         // Endpoints, datasets and graphs within datasets may have addition policies.
@@ -393,6 +400,38 @@ public class FusekiServer {
             return this;
         }
 
+        /**
+         * Compress HTTP responses with gzip when the client asks for it ("Accept-Encoding: gzip").
+         * Request bodies sent with "Content-Encoding: gzip" are decoded whether or not this is set.
+         */
+        public Builder enableCompression(boolean withCompression) {
+            this.withCompression = withCompression;
+            return this;
+        }
+
+        /**
+         * Set the Jetty {@link ThreadPool} that runs requests.
+         * The default is a Jetty {@link QueuedThreadPool} (bounded, 200 threads).
+         */
+        public Builder threadPool(ThreadPool threadPool) {
+            requireNonNull(threadPool, "threadPool");
+            this.threadPool = threadPool;
+            return this;
+        }
+
+        /**
+         * Run requests on an {@link Executor} with no bound on the number of concurrent requests,
+         * in place of the default bounded Jetty thread pool.
+         * This stops slow clients and long-running SERVICE calls taking up all the threads.
+         * The executor should create threads as needed, for example
+         * {@link java.util.concurrent.Executors#newCachedThreadPool()}
+         * or a thread-per-task executor. See {@link JettyExecutorPool}.
+         */
+        public Builder executor(Executor executor) {
+            requireNonNull(executor, "executor");
+            return threadPool(new JettyExecutorPool(executor));
+        }
+
         /**
          * Add the dataset with given name and a default set of services including update.
          * This is equivalent to {@code add(name, dataset, true)}.
@@ -762,10 +801,10 @@ public class FusekiServer {
                 Server server;
                 if ( serverHttpsPort == -1 ) {
                     // HTTP
-                    server = jettyServer(handler, serverPort);
+                    server = jettyServer(handler, serverPort, threadPool);
                 } else {
                     // HTTPS, no http redirection.
-                    server = jettyServerHttps(handler, serverPort, serverHttpsPort, httpsKeystore, httpsKeystorePasswd);
+                    server = jettyServerHttps(handler, serverPort, serverHttpsPort, httpsKeystore, httpsKeystorePasswd, threadPool);
                 }
                 if ( networkLoopback )
                     applyLocalhost(server);
@@ -948,6 +987,12 @@ public class FusekiServer {
             context.setDisplayName(Fuseki.servletRequestLogName);
             context.setErrorHandler(new FusekiErrorHandler1());
             context.setContextPath(contextPath);
+            if ( withCompression ) {
+                GzipHandler gzipHandler = new GzipHandler();
+                // SPARQL queries are often POSTs.
+                gzipHandler.setIncludedMethods("GET", "POST");
+                context.setGzipHandler(gzipHandler);
+            }
             // securityHandler done in buildAccessControl
             return context;
         }
@@ -993,8 +1038,9 @@ public class FusekiServer {
         }
 
         /** Jetty server with one connector/port. */
-        private static Server jettyServer(ServletContextHandler handler, int port) {
-            Server server = new Server();
+        private static Server jettyServer(ServletContextHandler handler, int port, ThreadPool threadPool) {
+            // Null threadPool is the Jetty default.
+            Server server = new Server(threadPool);
             HttpConnectionFactory f1 = new HttpConnectionFactory();
             // Some people do try very large operations ... really, should use POST.
             f1.getHttpConfiguration().setRequestHeaderSize(512 * 1024);
@@ -1010,8 +1056,8 @@ public class FusekiServer {
         }
 
         /** Jetty server with https. */
-        private static Server jettyServerHttps(ServletContextHandler handler, int httpPort, int httpsPort, String keystore, String certPassword) {
-            return JettyHttps.jettyServerHttps(handler, keystore, certPassword, httpPort, httpsPort);
+        private static Server jettyServerHttps(ServletContextHandler handler, int httpPort, int httpsPort, String keystore, String certPassword, ThreadPool threadPool) {
+            return JettyHttps.jettyServerHttps(handler, keystore, certPassword, httpPort, httpsPort, threadPool);
         }
 
         /** Restrict connectors to localhost */
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import javax.servlet.Filter;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServlet;
@@ -30,6 +31,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.fuseki.Fuseki;
+import org.apache.jena.fuseki.jetty.JettyExecutorPool;
 import org.apache.jena.fuseki.metrics.MetricsProviderRegistry;
 import org.apache.jena.fuseki.server.DataAccessPointRegistry;
 import org.apache.jena.fuseki.server.OperationRegistry;
@@ -49,6 +51,8 @@ import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -169,6 +173,7 @@ public class JettyServer {
         private SecurityHandler          securityHandler    = null;
         private ErrorHandler             errorHandler       = new PlainErrorHandler();
         private Map<String, Object>      servletAttr        = new HashMap<>();
+        private ThreadPool               threadPool         = null;
 
         public Builder() {}
 
@@ -206,6 +211,22 @@ public class JettyServer {
             return this;
         }
 
+        /** Set the Jetty {@link ThreadPool}. The default is a Jetty {@link QueuedThreadPool}. */
+        public Builder threadPool(ThreadPool threadPool) {
+            requireNonNull(threadPool, "threadPool");
+            this.threadPool = threadPool;
+            return this;
+        }
+
+        /**
+         * Run requests on an {@link Executor} with no bound on the number of concurrent requests.
+         * See {@link JettyExecutorPool}.
+         */
+        public Builder executor(Executor executor) {
+            requireNonNull(executor, "executor");
+            return threadPool(new JettyExecutorPool(executor));
+        }
+
         /** Set the location (filing system directory) to serve static file from. */
         public Builder staticFileBase(String directory) {
             requireNonNull(directory, "directory");
@@ -284,7 +305,7 @@ public class JettyServer {
         public JettyServer build() {
             ServletContextHandler handler = buildServletContext();
             // Use HandlerCollection for several ServletContextHandlers and thus several ServletContext.
-            Server server = jettyServer(port, loopback);
+            Server server = jettyServer(port, loopback, threadPool);
             server.setHandler(handler);
             return new JettyServer(port, server);
         }
@@ -352,8 +373,9 @@ public class JettyServer {
         }
 
         /** Jetty server */
-        private static Server jettyServer(int port, boolean loopback) {
-            Server server = new Server();
+        private static Server jettyServer(int port, boolean loopback, ThreadPool threadPool) {
+            // Null threadPool is the Jetty default.
+            Server server = new Server(threadPool);
             HttpConnectionFactory f1 = new HttpConnectionFactory();
 
             //f1.getHttpConfiguration().setRequestHeaderSize(512 * 1024);
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main.cmds;
+
+import jena.cmd.ArgDecl;
+import jena.cmd.CmdException;
+import org.apache.jena.atlas.lib.FileOps;
+import org.apache.jena.atlas.logging.LogCtl;
+import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.fuseki.Fuseki;
+import org.apache.jena.fuseki.main.FusekiServer;
+import org.apache.jena.fuseki.server.DataAccessPoint;
+import org.apache.jena.fuseki.system.FusekiLogging;
+
+/**
+ * Benchmark a Fuseki setup: start an in-process server using the same dataset
+ * arguments as {@link FusekiMainCmd} then replay a query log against it with
+ * {@link QueryReplay}, printing throughput, latency percentiles and
+ * per-query-shape statistics.
+ * <p>
+ * Runs with different {@code --loc}, {@code --conf}, {@code --set} (ARQ context,
+ * including optimizer settings) or JVM options compare the setups on the same
+ * query mix.
+ */
+public class FusekiBenchCmd {
+    // See FusekiMainCmd: FusekiLogging runs before any Jena code can trigger logging setup.
+    static { FusekiLogging.setLogging(); }
+
+    static public void main(String... argv) {
+        new FusekiBench(argv).mainRun();
+    }
+
+    /*package*/ static class FusekiBench extends FusekiMain {
+        private static ArgDecl  argQueries      = new ArgDecl(ArgDecl.HasValue, "queries", "log");
+        private static ArgDecl  argThreads      = new ArgDecl(ArgDecl.HasValue, "threads", "clients");
+        private static ArgDecl  argThink        = new ArgDecl(ArgDecl.HasValue, "think");
+        private static ArgDecl  argRepeat       = new ArgDecl(ArgDecl.HasValue, "repeat");
+        private static ArgDecl  argWarmup       = new ArgDecl(ArgDecl.HasValue, "warmup");
+        private static ArgDecl  argService      = new ArgDecl(ArgDecl.HasValue, "service");
+
+        private String queryLog;
+        private String servicePath;
+        private int threads = 4;
+        private long thinkTime = 0;
+        private int repeat = 1;
+        private int warmup = 0;
+
+        /*package*/ FusekiBench(String... argv) {
+            super(argv);
+            getUsage().startCategory("Benchmark");
+            add(argQueries, "--queries=FILE", "Query log to replay (Fuseki action log)");
+            add(argThreads, "--threads=N",    "Number of concurrent clients (default 4)");
+            add(argThink,   "--think=MS",     "Client think time between queries in milliseconds (default 0)");
+            add(argRepeat,  "--repeat=N",     "Number of times to replay the log (default 1)");
+            add(argWarmup,  "--warmup=N",     "Number of untimed replays before the measured run (default 0)");
+            add(argService, "--service=PATH", "Query service path (default: the dataset path)");
+        }
+
+        @Override
+        protected String getSummary() {
+            return getCommandName() + " --queries=FILE [--threads=N] [--think=MS] [--repeat=N] " + argUsage;
+        }
+
+        @Override
+        protected void processModulesAndArgs() {
+            super.processModulesAndArgs();
+            if ( ! contains(argQueries) )
+                throw new CmdException("No query log: --"+argQueries.getKeyName());
+            queryLog = getValue(argQueries);
+            if ( ! FileOps.exists(queryLog) )
+                throw new CmdException("File not found: "+queryLog);
+
+            threads = intValue(argThreads, threads, 1);
+            thinkTime = intValue(argThink, (int)thinkTime, 0);
+            repeat = intValue(argRepeat, repeat, 1);
+            warmup = intValue(argWarmup, warmup, 0);
+
+            if ( contains(argService) )
+                servicePath = DataAccessPoint.canonical(getValue(argService));
+            else if ( serverConfig.datasetPath != null )
+                servicePath = serverConfig.datasetPath;
+            else
+                throw new CmdException("No dataset path: use --"+argService.getKeyName()+" with a configuration file");
+
+            // In-process only, on a free port unless one is given.
+            serverConfig.loopback = true;
+            if ( ! contains("port") )
+                serverConfig.port = WebLib.choosePort();
+        }
+
+        private int intValue(ArgDecl arg, int dftValue, int minValue) {
+            if ( ! contains(arg) )
+                return dftValue;
+            String str = getValue(arg);
+            try {
+                int x = Integer.parseInt(str);
+                if ( x < minValue )
+                    throw new CmdException(arg.getKeyName() + " : must be at least "+minValue+": " + str);
+                return x;
+            } catch (NumberFormatException ex) {
+                throw new CmdException(arg.getKeyName() + " : bad number: " + str);
+            }
+        }
+
+        @Override
+        protected void exec() {
+            QueryReplay.QueryLog log = QueryReplay.readLog(queryLog);
+            if ( log.getQueries().isEmpty() ) {
+                if ( log.getSkipped() > 0 )
+                    throw new CmdException("No queries read from "+queryLog+": "+log.getSkipped()+" logged queries skipped (verbose action log?)");
+                throw new CmdException("No queries found in "+queryLog);
+            }
+            // One log line per request would swamp the report.
+            if ( ! isVerbose() ) {
+                LogCtl.setLevel(Fuseki.actionLogName, "WARN");
+                LogCtl.setLevel(Fuseki.requestLogName, "WARN");
+            }
+            FusekiServer server = buildServer();
+            server.start();
+            try {
+                String serviceURL = "http://localhost:"+server.getPort()+servicePath;
+                QueryReplay replay = new QueryReplay(serviceURL, threads, thinkTime);
+                if ( warmup > 0 )
+                    replay.run(log, warmup);
+                QueryReplay.Report report = replay.run(log, repeat);
+                report.print(System.out);
+            } finally {
+                server.stop();
+            }
+        }
+
+        @Override
+        protected String getCommandName() {
+            return "fuseki-bench";
+        }
+    }
+}
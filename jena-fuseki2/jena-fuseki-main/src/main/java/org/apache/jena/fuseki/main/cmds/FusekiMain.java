@@ -105,7 +105,7 @@ public class FusekiMain extends CmdARQ {
         // private static ModLocation modLocation = new ModLocation();
         private static ModDatasetAssembler modDataset      = new ModDatasetAssembler();
 
-        private final ServerConfig serverConfig  = new ServerConfig();
+        /*package*/ final ServerConfig serverConfig  = new ServerConfig();
         private boolean useTDB2;
 
         /** Build, but do not start, a server based on command line syntax. */
@@ -390,11 +390,11 @@ public class FusekiMain extends CmdARQ {
             serverConfig.withPing = contains(argWithPing);
             serverConfig.withStats = contains(argWithStats);
 
-//            if ( contains(argGZip) ) {
-//                if ( !hasValueOfTrue(argGZip) && !hasValueOfFalse(argGZip) )
-//                    throw new CmdException(argGZip.getNames().get(0) + ": Not understood: " + getValue(argGZip));
-//                jettyServerConfig.enableCompression = super.hasValueOfTrue(argGZip);
-//            }
+            if ( contains(argGZip) ) {
+                if ( !hasValueOfTrue(argGZip) && !hasValueOfFalse(argGZip) )
+                    throw new CmdException(argGZip.getNames().get(0) + ": Not understood: " + getValue(argGZip));
+                serverConfig.withCompression = super.hasValueOfTrue(argGZip);
+            }
         }
 
         private int portNumber(ArgDecl arg) {
@@ -435,7 +435,7 @@ public class FusekiMain extends CmdARQ {
             }
         }
 
-        private FusekiServer buildServer() {
+        protected FusekiServer buildServer() {
             return buildServer(serverConfig);
         }
 
@@ -496,6 +496,9 @@ public class FusekiMain extends CmdARQ {
             if ( serverConfig.withStats )
                 builder.enableStats(true);
 
+            if ( serverConfig.withCompression )
+                builder.enableCompression(true);
+
             return builder.build();
         }
 
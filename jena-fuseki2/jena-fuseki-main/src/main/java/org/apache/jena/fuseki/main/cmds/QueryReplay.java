@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main.cmds;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.fuseki.FusekiException;
+import org.apache.jena.fuseki.servlets.ServletOps;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.*;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.graph.NodeTransform;
+import org.apache.jena.sparql.graph.NodeTransformLib;
+
+/**
+ * Replay a log of SPARQL queries against a query service, with a number of client
+ * threads and a think time between requests, and collect latency statistics.
+ * <p>
+ * Queries are grouped by "shape": the query algebra with literals replaced by a
+ * placeholder, so the same query with different constants counts as one shape.
+ * <p>
+ * The log formats read by {@link #readLog} are the Fuseki action log ({@code [N] Query = ...})
+ * and NCSA request log lines where the request URI has a {@code query=} parameter.
+ * The Fuseki {@link org.apache.jena.fuseki.server.RequestLog} does not include the
+ * query string so use the action log from a Fuseki server.
+ * <p>
+ * The action log is not a lossless record of the queries:
+ * <ul>
+ * <li>Normally, the query is logged on one line with newlines replaced by spaces,
+ * so a query with a {@code #} comment loses the text after the comment. Such queries
+ * usually no longer parse and are counted as unparsed in the {@link Report}.
+ * <li>In verbose mode, the query is logged on the lines after {@code Query = },
+ * which can not be reliably separated from other log output. These queries are not
+ * replayed; they are counted as skipped in the {@link QueryLog} and the {@link Report}.
+ * </ul>
+ */
+public class QueryReplay {
+
+    private static final Pattern actionLogQuery = Pattern.compile("\\[\\d+\\] Query =(.*)$");
+    private static final Pattern requestLine    = Pattern.compile("\"(?:GET|POST) [^ \"?]*\\?([^ \"]*)");
+
+    /** Read the queries from a log file. Lines that are not a logged query are ignored. */
+    public static QueryLog readLog(String filename) {
+        try ( InputStream in = IO.openFileEx(filename) ) {
+            return readLog(in);
+        } catch (IOException ex) { IO.exception(ex); return null; }
+    }
+
+    /** Read the queries from a log. Lines that are not a logged query are ignored. */
+    public static QueryLog readLog(InputStream input) {
+        List<String> queries = new ArrayList<>();
+        long skipped = 0;
+        BufferedReader r = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            for (;;) {
+                String line = r.readLine();
+                if ( line == null )
+                    break;
+                String qs = extractQuery(line);
+                if ( qs == null )
+                    continue;
+                if ( qs.isEmpty() )
+                    skipped++;
+                else
+                    queries.add(qs);
+            }
+        } catch (IOException ex) { IO.exception(ex); }
+        return new QueryLog(queries, skipped);
+    }
+
+    /**
+     * The query string in a log line, null if the line is not a logged query, or the
+     * empty string for a logged query that can not be read from the line, such as a
+     * verbose action log entry where the query is on the following lines.
+     */
+    /*package*/ static String extractQuery(String line) {
+        Matcher m = actionLogQuery.matcher(line);
+        if ( m.find() ) {
+            return m.group(1).trim();
+        }
+        m = requestLine.matcher(line);
+        if ( m.find() ) {
+            for ( String param : m.group(1).split("&") ) {
+                if ( param.startsWith("query=") ) {
+                    try {
+                        return URLDecoder.decode(param.substring("query=".length()), "UTF-8");
+                    } catch (UnsupportedEncodingException | IllegalArgumentException ex) {
+                        return "";
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The shape of a query: the query form and the algebra expression with literals
+     * replaced by a placeholder.
+     */
+    public static String shape(Query query) {
+        Op op = Algebra.compile(query);
+        op = NodeTransformLib.transform(literalPlaceholder, op);
+        return queryForm(query)+" "+op.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    private static String queryForm(Query query) {
+        switch (query.getQueryType()) {
+            case Query.QueryTypeSelect :    return "SELECT";
+            case Query.QueryTypeAsk :       return "ASK";
+            case Query.QueryTypeConstruct : return "CONSTRUCT";
+            case Query.QueryTypeDescribe :  return "DESCRIBE";
+            case Query.QueryTypeJson :      return "JSON";
+            default :                       return "UNKNOWN";
+        }
+    }
+
+    private static final Node placeholder = NodeFactory.createLiteral("?");
+    private static final NodeTransform literalPlaceholder = (n) -> n.isLiteral() ? placeholder : n;
+
+    private final String serviceURL;
+    private final int threads;
+    private final long thinkTimeMillis;
+
+    /**
+     * Replay queries against the query service {@code serviceURL}
+     * using {@code threads} clients, with a pause of {@code thinkTimeMillis}
+     * after each response before a client sends its next query.
+     */
+    public QueryReplay(String serviceURL, int threads, long thinkTimeMillis) {
+        Objects.requireNonNull(serviceURL, "serviceURL");
+        if ( threads < 1 )
+            throw new IllegalArgumentException("Threads must be at least one: "+threads);
+        if ( thinkTimeMillis < 0 )
+            throw new IllegalArgumentException("Negative think time: "+thinkTimeMillis);
+        this.serviceURL = serviceURL;
+        this.threads = threads;
+        this.thinkTimeMillis = thinkTimeMillis;
+    }
+
+    /**
+     * Send the queries read from a log, {@code repeat} times over, and return the report.
+     * The report includes the number of logged queries that could not be read.
+     */
+    public Report run(QueryLog log, int repeat) {
+        Report report = run(log.getQueries(), repeat);
+        report.skipped = log.getSkipped();
+        return report;
+    }
+
+    /**
+     * Send the queries, {@code repeat} times over, and return the report.
+     * Queries that do not parse are not sent and are counted in the report.
+     */
+    public Report run(List<String> queryStrings, int repeat) {
+        if ( repeat < 0 )
+            throw new IllegalArgumentException("Negative repeat: "+repeat);
+        Report report = new Report(threads);
+        List<Query> queries = new ArrayList<>(queryStrings.size());
+        List<ShapeStats> shapes = new ArrayList<>(queryStrings.size());
+        for ( String qs : queryStrings ) {
+            Query query;
+            try {
+                query = QueryFactory.create(qs, Syntax.syntaxARQ);
+            } catch (QueryParseException ex) {
+                report.unparsed++;
+                continue;
+            }
+            queries.add(query);
+            shapes.add(report.shapeStats(shape(query), qs));
+        }
+
+        long total = (long)queries.size() * repeat;
+        AtomicLong next = new AtomicLong(0);
+        Runnable client = ()->{
+            for (;;) {
+                long i = next.getAndIncrement();
+                if ( i >= total )
+                    return;
+                int idx = (int)(i % queries.size());
+                long start = System.nanoTime();
+                boolean ok = execute(queries.get(idx));
+                shapes.get(idx).record(System.nanoTime() - start, ok);
+                if ( thinkTimeMillis > 0 )
+                    Lib.sleep((int)thinkTimeMillis);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> clients = new ArrayList<>(threads);
+            for ( int i = 0 ; i < threads ; i++ )
+                clients.add(executor.submit(client));
+            for ( Future<?> f : clients )
+                f.get();
+            report.elapsedNanos = System.nanoTime() - start;
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new FusekiException("Query replay failed", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    /** Execute a query, reading all of the results. Return false if there was an error. */
+    private boolean execute(Query query) {
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(serviceURL, query) ) {
+            switch (query.getQueryType()) {
+                case Query.QueryTypeSelect :
+                    ResultSetFormatter.consume(qExec.execSelect());
+                    break;
+                case Query.QueryTypeAsk :
+                    qExec.execAsk();
+                    break;
+                case Query.QueryTypeConstruct :
+                    consume(qExec.execConstructTriples());
+                    break;
+                case Query.QueryTypeDescribe :
+                    consume(qExec.execDescribeTriples());
+                    break;
+                case Query.QueryTypeJson :
+                    qExec.execJson();
+                    break;
+                default :
+                    return false;
+            }
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private static void consume(Iterator<Triple> iter) {
+        while(iter.hasNext())
+            iter.next();
+    }
+
+    /** The queries read from a log. */
+    public static class QueryLog {
+        private final List<String> queries;
+        private final long skipped;
+
+        private QueryLog(List<String> queries, long skipped) {
+            this.queries = Collections.unmodifiableList(queries);
+            this.skipped = skipped;
+        }
+
+        public List<String> getQueries()    { return queries; }
+        /** Number of logged queries that could not be read from the log. */
+        public long getSkipped()            { return skipped; }
+    }
+
+    /** Latencies for one query shape. */
+    public static class ShapeStats {
+        private final String label;
+        private final String shape;
+        private final String example;
+        private long[] latencies = new long[64];
+        private int count = 0;
+        private long errors = 0;
+
+        private ShapeStats(String label, String shape, String example) {
+            this.label = label;
+            this.shape = shape;
+            this.example = example;
+        }
+
+        private synchronized void record(long nanos, boolean ok) {
+            if ( count == latencies.length )
+                latencies = Arrays.copyOf(latencies, 2*count);
+            latencies[count++] = nanos;
+            if ( ! ok )
+                errors++;
+        }
+
+        public String getLabel()    { return label; }
+        public String getShape()    { return shape; }
+        /** The first query seen with this shape. */
+        public String getExample()  { return example; }
+        public synchronized long getCount()  { return count; }
+        public synchronized long getErrors() { return errors; }
+
+        /** Sorted latencies, in nanoseconds. */
+        private synchronized long[] sorted() {
+            long[] x = Arrays.copyOf(latencies, count);
+            Arrays.sort(x);
+            return x;
+        }
+    }
+
+    /** The outcome of a replay. */
+    public static class Report {
+        private final int threads;
+        // Shape string -> stats, in order of first appearance.
+        private final Map<String, ShapeStats> shapes = new LinkedHashMap<>();
+        private long unparsed = 0;
+        private long skipped = 0;
+        private long elapsedNanos = 0;
+
+        private Report(int threads) {
+            this.threads = threads;
+        }
+
+        private ShapeStats shapeStats(String shape, String queryString) {
+            return shapes.computeIfAbsent(shape, s->new ShapeStats("S"+(shapes.size()+1), s, queryString));
+        }
+
+        public Collection<ShapeStats> getShapes()   { return Collections.unmodifiableCollection(shapes.values()); }
+        /** Number of queries in the log that did not parse and were not sent. */
+        public long getUnparsed()                   { return unparsed; }
+        /** Number of queries in the log that could not be read and were not sent. */
+        public long getSkipped()                    { return skipped; }
+        public long getElapsedMillis()              { return elapsedNanos / 1_000_000; }
+        public long getCount()                      { return shapes.values().stream().mapToLong(ShapeStats::getCount).sum(); }
+        public long getErrors()                     { return shapes.values().stream().mapToLong(ShapeStats::getErrors).sum(); }
+
+        /** Queries per second. */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getCount() * 1e9 / elapsedNanos;
+        }
+
+        /** The latency in milliseconds at percentile {@code pc} (0-100) over all queries. */
+        public double percentile(double pc) {
+            long[] all = shapes.values().stream().map(ShapeStats::sorted).flatMapToLong(Arrays::stream).sorted().toArray();
+            return percentile(all, pc);
+        }
+
+        public void print(PrintStream out) {
+            out.printf("Queries: %d  Errors: %d  Unparsed: %d  Skipped: %d  Threads: %d  Time: %.3fs  Throughput: %.1f q/s\n",
+                       getCount(), getErrors(), unparsed, skipped, threads, elapsedNanos / 1e9, getThroughput());
+            long[] all = shapes.values().stream().map(ShapeStats::sorted).flatMapToLong(Arrays::stream).sorted().toArray();
+            out.printf("Latency (ms): mean %.2f  p50 %.2f  p95 %.2f  p99 %.2f  max %.2f\n",
+                       mean(all), percentile(all, 50), percentile(all, 95), percentile(all, 99), percentile(all, 100));
+            out.println();
+            out.printf("%-6s %8s %7s %9s %9s %9s %9s %9s\n", "Shape", "Count", "Errors", "Mean", "p50", "p95", "p99", "Max");
+            for ( ShapeStats s : shapes.values() ) {
+                long[] x = s.sorted();
+                out.printf("%-6s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f\n", s.label, x.length, s.getErrors(),
+                           mean(x), percentile(x, 50), percentile(x, 95), percentile(x, 99), percentile(x, 100));
+            }
+            out.println();
+            for ( ShapeStats s : shapes.values() )
+                out.printf("%-6s %s\n", s.label, ServletOps.formatForLog(s.example));
+        }
+
+        private static double mean(long[] x) {
+            return x.length == 0 ? 0 : Arrays.stream(x).average().getAsDouble() / 1e6;
+        }
+
+        // Nearest-rank percentile, in milliseconds.
+        private static double percentile(long[] sorted, double pc) {
+            if ( sorted.length == 0 )
+                return 0;
+            int idx = (int)Math.ceil(pc / 100.0 * sorted.length) - 1;
+            idx = Math.max(0, Math.min(sorted.length - 1, idx));
+            return sorted[idx] / 1e6;
+        }
+    }
+}
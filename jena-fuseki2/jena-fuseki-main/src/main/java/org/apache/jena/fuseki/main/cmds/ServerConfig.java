@@ -39,6 +39,8 @@ class ServerConfig {
 
     public boolean withPing           = false;
     public boolean withStats          = false;
+    /** Compress responses (HTTP Accept-Encoding) */
+    public boolean withCompression    = false;
 
     // This is set ...
     public DatasetGraph dsg           = null;
@@ -32,6 +32,12 @@ import org.junit.runners.Suite.SuiteClasses;
   , TestFusekiMainCmd.class
   , TestStdSetup.class
   , TestFusekiShaclValidation.class
+  , TestQueryResultCache.class
+  , TestAdmissionControl.class
+  , TestCompression.class
+  , TestBatchUpload.class
+  , TestChangeFeed.class
+  , TestQueryReplay.class
 })
 public class TS_FusekiMain {}
 
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.*;
+
+import org.apache.jena.fuseki.auth.AuthPolicy;
+import org.apache.jena.fuseki.server.AdmissionControl;
+import org.junit.Test;
+
+public class TestAdmissionControl {
+
+    private static AuthPolicy priority = (user) -> "admin".equals(user);
+
+    @Test public void admission_01() {
+        AdmissionControl ac = new AdmissionControl(2, 0, 0, null);
+        assertTrue(ac.acquire("user"));
+        assertTrue(ac.acquire("user"));
+        // No queue.
+        assertFalse(ac.acquire("user"));
+        ac.release();
+        assertTrue(ac.acquire("user"));
+        assertEquals(2, ac.getActive());
+    }
+
+    @Test public void admission_02() {
+        // Timeout while waiting.
+        AdmissionControl ac = new AdmissionControl(1, 1, 50, null);
+        assertTrue(ac.acquire("user"));
+        assertFalse(ac.acquire("user"));
+        assertEquals(0, ac.getQueued());
+        assertEquals(1, ac.getActive());
+    }
+
+    @Test public void admission_03() throws Exception {
+        // Queue full.
+        AdmissionControl ac = new AdmissionControl(1, 1, 0, null);
+        assertTrue(ac.acquire("user"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> f = executor.submit(()->ac.acquire("user"));
+            waitForQueued(ac, 1);
+            assertFalse(ac.acquire("user"));
+            ac.release();
+            assertTrue(f.get(5, TimeUnit.SECONDS));
+            assertEquals(1, ac.getActive());
+        } finally { executor.shutdownNow(); }
+    }
+
+    @Test public void admission_04() throws Exception {
+        // Priority user overtakes a waiting request.
+        AdmissionControl ac = new AdmissionControl(1, 2, 0, priority);
+        assertTrue(ac.acquire("user"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> f1 = executor.submit(()->ac.acquire("user"));
+            waitForQueued(ac, 1);
+            Future<Boolean> f2 = executor.submit(()->ac.acquire("admin"));
+            waitForQueued(ac, 2);
+            ac.release();
+            assertTrue(f2.get(5, TimeUnit.SECONDS));
+            assertFalse(f1.isDone());
+            ac.release();
+            assertTrue(f1.get(5, TimeUnit.SECONDS));
+        } finally { executor.shutdownNow(); }
+    }
+
+    private static void waitForQueued(AdmissionControl ac, int n) throws InterruptedException {
+        for ( int i = 0 ; i < 500 && ac.getQueued() < n ; i++ )
+            Thread.sleep(10);
+        assertEquals(n, ac.getQueued());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.entity.StringEntity;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.atlas.lib.IRILib;
+import org.apache.jena.atlas.web.TypedInputStream;
+import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.fuseki.server.Operation;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.rdfconnection.RemoteBatchLoader;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.web.HttpOp;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.system.Txn;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestBatchUpload {
+
+    private static FusekiServer server = null;
+    private static DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+    private static String URL;
+    private static Node nodeG = NodeFactory.createURI("http://example/g");
+
+    @BeforeClass public static void beforeClass() {
+        int port = WebLib.choosePort();
+        server = FusekiServer.create()
+            .port(port)
+            .add("/ds", dsg)
+            .addEndpoint("/ds", "batch", Operation.Batch)
+            .build();
+        server.start();
+        URL = "http://localhost:"+port+"/ds/batch";
+    }
+
+    @AfterClass public static void afterClass() {
+        if ( server != null )
+            server.stop();
+    }
+
+    @Before public void before() {
+        Txn.executeWrite(dsg, ()->dsg.clear());
+    }
+
+    private static InputStream data(int n) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < n ; i++ )
+            sb.append("<http://example/s"+i+"> <http://example/p> \""+i+"\" .\n");
+        sb.append("<http://example/s> <http://example/p> \"x\" <http://example/g> .\n");
+        return new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long size() {
+        return Txn.calculateRead(dsg, ()->dsg.getDefaultGraph().size()+dsg.getGraph(nodeG).size());
+    }
+
+    @Test public void batch_01() {
+        RemoteBatchLoader loader = RemoteBatchLoader.create().destination(URL).batchSize(100).build();
+        long count = loader.load(data(1000), Lang.NQUADS);
+        assertEquals(1001, count);
+        assertEquals(1001, size());
+    }
+
+    @Test public void batch_02() {
+        RemoteBatchLoader loader = RemoteBatchLoader.create()
+            .destination(URL)
+            .batchSize(100)
+            .singleTransaction(true)
+            .build();
+        long count = loader.load(data(1000), Lang.NQUADS);
+        assertEquals(1001, count);
+        assertEquals(1001, size());
+    }
+
+    @Test public void batch_03() {
+        // Same batch twice: applied once; recorded.
+        String url = URL+"?upload=batch03&batch=0";
+        for ( int i = 0 ; i < 2 ; i++ ) {
+            StringEntity entity = new StringEntity("<http://example/s> <http://example/p> _:b .", StandardCharsets.UTF_8);
+            entity.setContentType(WebContent.contentTypeNTriples);
+            HttpOp.execHttpPost(url, entity);
+        }
+        assertEquals(1, size());
+        try ( TypedInputStream in = HttpOp.execHttpGet(URL+"?upload=batch03", WebContent.contentTypeJSON) ) {
+            JsonObject obj = JSON.parse(in);
+            assertEquals(1, obj.get("batches").getAsArray().size());
+        }
+        HttpOp.execHttpDelete(URL+"?upload=batch03");
+    }
+
+    @Test public void batch_04() {
+        // Blank node labels are scoped to the upload, not the batch.
+        String data = "_:b <http://example/p> \"1\" .\n_:b <http://example/q> \"2\" .\n";
+        RemoteBatchLoader loader = RemoteBatchLoader.create()
+            .destination(URL)
+            .batchSize(1)
+            .format(RDFFormat.NTRIPLES)
+            .build();
+        loader.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), Lang.NTRIPLES);
+        long subjects = Txn.calculateRead(dsg, ()->dsg.getDefaultGraph().find().mapWith(t->t.getSubject()).toSet().size());
+        assertEquals(1, subjects);
+    }
+
+    @Test public void batch_05() {
+        // Resume: batches already received are not sent again.
+        String uploadId = "batch05";
+        RemoteBatchLoader loader = RemoteBatchLoader.create()
+            .destination(URL)
+            .uploadId(uploadId)
+            .batchSize(100)
+            .format(RDFFormat.NQUADS)
+            .build();
+        StringEntity entity = new StringEntity("<http://example/other> <http://example/p> \"0\" .", StandardCharsets.UTF_8);
+        entity.setContentType(WebContent.contentTypeNQuads);
+        // Batch 0 is already received (with different content).
+        HttpOp.execHttpPost(URL+"?upload="+uploadId+"&batch=0", entity);
+        loader.load(data(200), Lang.NQUADS);
+        // 1 + batches 1 and 2 (100 + 1).
+        assertEquals(102, size());
+    }
+
+    @Test public void batch_06() {
+        // Resume with a blank node used on both sides of the batch boundary.
+        String uploadId = "batch06";
+        String line1 = "_:b <http://example/p> \"1\" .\n";
+        String bad = "<http://example/s> <http://example/p> .\n";
+        String line2 = "_:b <http://example/q> \"2\" .\n";
+        try {
+            // Fails after batch 0 has been sent.
+            loader06(uploadId).load(new ByteArrayInputStream((line1+bad).getBytes(StandardCharsets.UTF_8)), Lang.NTRIPLES);
+            fail("Expected a parse error");
+        } catch (RiotException ex) {}
+        assertEquals(1, size());
+        loader06(uploadId).load(new ByteArrayInputStream((line1+line2).getBytes(StandardCharsets.UTF_8)), Lang.NTRIPLES);
+        assertEquals(2, size());
+        long subjects = Txn.calculateRead(dsg, ()->dsg.getDefaultGraph().find().mapWith(t->t.getSubject()).toSet().size());
+        assertEquals(1, subjects);
+    }
+
+    @Test public void batch_07() {
+        // Upload id that needs encoding in the URL.
+        String uploadId = "batch 07&batch=9";
+        RemoteBatchLoader loader = RemoteBatchLoader.create()
+            .destination(URL)
+            .uploadId(uploadId)
+            .batchSize(100)
+            .format(RDFFormat.NQUADS)
+            .build();
+        StringEntity entity = new StringEntity("<http://example/other> <http://example/p> \"0\" .", StandardCharsets.UTF_8);
+        entity.setContentType(WebContent.contentTypeNQuads);
+        // Batch 0 is already received under this upload id.
+        HttpOp.execHttpPost(URL+"?upload="+IRILib.encodeUriComponent(uploadId)+"&batch=0", entity);
+        loader.load(data(200), Lang.NQUADS);
+        assertEquals(102, size());
+    }
+
+    private static RemoteBatchLoader loader06(String uploadId) {
+        return RemoteBatchLoader.create()
+            .destination(URL)
+            .uploadId(uploadId)
+            .batchSize(1)
+            .format(RDFFormat.NTRIPLES)
+            .build();
+    }
+}
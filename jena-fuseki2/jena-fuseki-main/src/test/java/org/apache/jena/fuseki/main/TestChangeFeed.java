@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.jena.atlas.lib.FileOps;
+import org.apache.jena.atlas.web.HttpException;
+import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.dboe.sys.Names;
+import org.apache.jena.fuseki.server.Operation;
+import org.apache.jena.riot.web.HttpOp;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.sys.ChangeLogFollower;
+import org.apache.jena.tdb2.sys.TDBInternal;
+import org.apache.jena.web.HttpSC;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestChangeFeed {
+
+    private static final String DIR = "target/changefeed";
+    private static FusekiServer server = null;
+    private static DatasetGraph dsg;
+    private static String URL;
+    private static String URLnone;
+
+    static Quad quad1 = SSE.parseQuad("(_ <http://example/s> <http://example/p> 1)");
+    static Quad quad2 = SSE.parseQuad("(<http://example/g> _:a <http://example/p> 'abc')");
+    static Quad quad3 = SSE.parseQuad("(<http://example/g> <http://example/s> <http://example/q> 3)");
+
+    @BeforeClass public static void beforeClass() throws IOException {
+        FileOps.ensureDir(DIR);
+        FileOps.clearAll(DIR);
+        Files.createFile(Paths.get(DIR, Names.optChangeLog));
+        dsg = DatabaseMgr.connectDatasetGraph(Location.create(DIR));
+        int port = WebLib.choosePort();
+        server = FusekiServer.create()
+            .port(port)
+            .add("/ds", dsg)
+            .addEndpoint("/ds", "changes", Operation.Changes)
+            .add("/mem", DatasetGraphFactory.createTxnMem())
+            .addEndpoint("/mem", "changes", Operation.Changes)
+            .build();
+        server.start();
+        URL = "http://localhost:"+port+"/ds/changes";
+        URLnone = "http://localhost:"+port+"/mem/changes";
+    }
+
+    @AfterClass public static void afterClass() {
+        if ( server != null )
+            server.stop();
+        TDBInternal.reset();
+    }
+
+    @Test public void changes_01() {
+        Txn.executeWrite(dsg, ()->{ dsg.add(quad1); dsg.add(quad2); });
+        String log = HttpOp.execHttpGetString(URL+"?from=0");
+        assertTrue(log.startsWith("TX .\n"));
+        assertTrue(log.endsWith("TC .\n"));
+    }
+
+    @Test public void changes_02() {
+        Txn.executeWrite(dsg, ()->dsg.add(quad1));
+        String log1 = HttpOp.execHttpGetString(URL+"?from=0");
+        Txn.executeWrite(dsg, ()->dsg.add(quad3));
+        String log2 = HttpOp.execHttpGetString(URL+"?from="+log1.length());
+        assertEquals(3, log2.split("\n").length);
+        // No changes.
+        String log3 = HttpOp.execHttpGetString(URL+"?from="+(log1.length()+log2.length())+"&wait=100");
+        assertEquals("", log3);
+    }
+
+    @Test public void changes_bad_offset() {
+        Txn.executeWrite(dsg, ()->dsg.add(quad1));
+        try {
+            HttpOp.execHttpGetString(URL+"?from=1");
+            fail("Expected an HttpException");
+        } catch (HttpException ex) {
+            assertEquals(HttpSC.BAD_REQUEST_400, ex.getStatusCode());
+        }
+    }
+
+    @Test public void changes_no_log() {
+        try {
+            HttpOp.execHttpGetString(URLnone+"?from=0");
+            fail("Expected an HttpException");
+        } catch (HttpException ex) {
+            assertEquals(HttpSC.NOT_FOUND_404, ex.getStatusCode());
+        }
+    }
+
+    @Test public void follower_01() throws IOException {
+        Txn.executeWrite(dsg, ()->{ dsg.add(quad1); dsg.add(quad2); });
+        DatasetGraph replica = DatasetGraphFactory.createTxnMem();
+        Path state = Files.createTempFile(Paths.get(DIR), "follower", ".state");
+        Files.delete(state);
+        ChangeLogFollower follower = new ChangeLogFollower(URL, replica, state);
+        follower.sync();
+        assertTrue(follower.getOffset() > 0);
+        Txn.executeWrite(dsg, ()->{ dsg.add(quad3); dsg.delete(quad1); });
+        follower.sync();
+        Txn.executeRead(dsg, ()->Txn.executeRead(replica, ()->assertTrue(IsoMatcher.isomorphic(dsg, replica))));
+
+        // Resume from the state file.
+        ChangeLogFollower follower2 = new ChangeLogFollower(URL, replica, state);
+        assertEquals(follower.getOffset(), follower2.getOffset());
+        assertEquals(0, follower2.sync());
+    }
+
+    @Test public void follower_02() throws Exception {
+        DatasetGraph replica = DatasetGraphFactory.createTxnMem();
+        ChangeLogFollower follower = new ChangeLogFollower(URL, replica, null);
+        follower.start(1000);
+        try {
+            Txn.executeWrite(dsg, ()->dsg.add(quad3));
+            for ( int i = 0 ; i < 50 ; i++ ) {
+                if ( Txn.calculateRead(replica, ()->replica.contains(quad3)) )
+                    break;
+                Thread.sleep(100);
+            }
+            assertTrue(Txn.calculateRead(replica, ()->replica.contains(quad3)));
+        } finally {
+            follower.stop();
+        }
+    }
+}
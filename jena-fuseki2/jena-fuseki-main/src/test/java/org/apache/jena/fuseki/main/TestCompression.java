@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.client.HttpClient;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicHeader;
+import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.rdfconnection.RDFConnectionRemote;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.web.HttpNames;
+import org.apache.jena.riot.web.HttpOp;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.web.HttpSC;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Compressed request bodies and responses. */
+public class TestCompression {
+
+    private static FusekiServer server = null;
+    private static DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+    private static String URL;
+
+    private static Graph graph = SSE.parseGraph("(graph (:s :p 1) (:s :p 2) (:s :q 'abc'))");
+
+    @BeforeClass public static void beforeClass() {
+        int port = WebLib.choosePort();
+        server = FusekiServer.create()
+            .port(port)
+            .add("/ds", dsg)
+            .enableCompression(true)
+            .build();
+        server.start();
+        URL = "http://localhost:"+port+"/ds";
+    }
+
+    @AfterClass public static void afterClass() {
+        if ( server != null )
+            server.stop();
+    }
+
+    @Before public void before() {
+        try ( RDFConnection conn = RDFConnectionRemote.create().destination(URL).build() ) {
+            conn.update("CLEAR ALL");
+        }
+    }
+
+    private static RDFConnection connection() {
+        return RDFConnectionRemote.create().destination(URL).compressRequests(true).build();
+    }
+
+    @Test public void compress_request_graph() {
+        try ( RDFConnection conn = connection() ) {
+            conn.put(ModelFactory.createModelForGraph(graph));
+            Model m = conn.fetch();
+            assertTrue(graph.isIsomorphicWith(m.getGraph()));
+        }
+    }
+
+    @Test public void compress_request_dataset() {
+        Dataset ds = DatasetFactory.create();
+        ds.addNamedModel("http://example/g", ModelFactory.createModelForGraph(graph));
+        try ( RDFConnection conn = connection() ) {
+            conn.loadDataset(ds);
+            Model m = conn.fetch("http://example/g");
+            assertTrue(graph.isIsomorphicWith(m.getGraph()));
+        }
+    }
+
+    @Test public void compress_request_file() throws IOException {
+        // A file that is already compressed is sent as-is.
+        Path path = Files.createTempFile("data", ".ttl.gz");
+        try {
+            try ( OutputStream out = new GZIPOutputStream(Files.newOutputStream(path)) ) {
+                RDFDataMgr.write(out, graph, RDFFormat.TURTLE);
+            }
+            try ( RDFConnection conn = RDFConnectionRemote.create().destination(URL).build() ) {
+                conn.load(path.toString());
+                Model m = conn.fetch();
+                assertTrue(graph.isIsomorphicWith(m.getGraph()));
+            }
+        } finally { Files.delete(path); }
+    }
+
+    @Test public void compress_request_unsupported() {
+        StringEntity entity = new StringEntity("<s> <p> <o> .", "UTF-8");
+        entity.setContentType("application/n-triples");
+        entity.setContentEncoding("br");
+        FusekiTestLib.expectFail(()->HttpOp.execHttpPost(URL+"/data", entity), HttpSC.Code.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @Test public void compress_response() {
+        try ( RDFConnection conn = connection() ) {
+            conn.put(ModelFactory.createModelForGraph(graph));
+        }
+        // Client that asks for gzip and does not decompress the response itself.
+        HttpClient client = HttpClients.custom()
+            .disableContentCompression()
+            .setDefaultHeaders(Collections.singletonList(new BasicHeader(HttpNames.hAcceptEncoding, "gzip")))
+            .build();
+        HttpOp.execHttpGet(URL+"/data", "application/n-triples", (base, response)->{
+            Header h = response.getFirstHeader(HttpNames.hContentEncoding);
+            assertNotNull(h);
+            assertEquals("gzip", h.getValue());
+        }, client, null);
+    }
+
+    @Test public void compress_response_not_requested() {
+        try ( RDFConnection conn = connection() ) {
+            conn.put(ModelFactory.createModelForGraph(graph));
+        }
+        HttpClient client = HttpClients.custom().disableContentCompression().build();
+        HttpOp.execHttpGet(URL+"/data", "application/n-triples", (base, response)->{
+            assertNull(response.getFirstHeader(HttpNames.hContentEncoding));
+        }, client, null);
+    }
+}
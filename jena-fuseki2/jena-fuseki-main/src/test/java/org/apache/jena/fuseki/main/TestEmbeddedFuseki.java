@@ -25,6 +25,12 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.apache.http.HttpEntity;
@@ -34,6 +40,7 @@ import org.apache.jena.atlas.web.ContentType;
 import org.apache.jena.atlas.web.HttpException;
 import org.apache.jena.atlas.web.TypedInputStream;
 import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.fuseki.server.AdmissionControl;
 import org.apache.jena.fuseki.server.DataAccessPointRegistry;
 import org.apache.jena.fuseki.server.DataService;
 import org.apache.jena.fuseki.server.Operation;
@@ -304,6 +311,59 @@ public class TestEmbeddedFuseki {
         } finally { server.stop(); }
     }
 
+    // Requests run on an executor in place of the Jetty thread pool.
+    @Test public void embedded_22() {
+        DatasetGraph dsg = dataset();
+        int port = WebLib.choosePort();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        FusekiServer server = FusekiServer.create()
+            .add("/ds", dsg)
+            .executor(executor)
+            .port(port)
+            .build();
+        server.start();
+        try {
+            query("http://localhost:"+port+"/ds/query", "SELECT * { ?s ?p ?o}", qExec-> {
+                ResultSet rs = qExec.execSelect();
+                assertFalse(rs.hasNext());
+            });
+        } finally { server.stop(); }
+        assertTrue(executor.isShutdown());
+    }
+
+    // Requests run on an executor and wait for admission.
+    @Test public void embedded_23() throws Exception {
+        DatasetGraph dsg = dataset();
+        int port = WebLib.choosePort();
+        DataService dSrv = new DataService(dsg);
+        dSrv.addEndpoint(Operation.Query, "query");
+        AdmissionControl admission = new AdmissionControl(1, 20, 0, null);
+        dSrv.setAdmissionControl(admission);
+        FusekiServer server = FusekiServer.create()
+            .add("/ds", dSrv)
+            .executor(Executors.newCachedThreadPool())
+            .port(port)
+            .build();
+        server.start();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for ( int i = 0 ; i < 16 ; i++ )
+                results.add(clients.submit(()->{
+                    try (QueryExecution qExec = QueryExecutionFactory.sparqlService("http://localhost:"+port+"/ds/query", "ASK{}") ) {
+                        return qExec.execAsk();
+                    }
+                }));
+            for ( Future<Boolean> f : results )
+                assertTrue(f.get(30, TimeUnit.SECONDS));
+            assertEquals(0, admission.getActive());
+            assertEquals(0, admission.getQueued());
+        } finally {
+            clients.shutdownNow();
+            server.stop();
+        }
+    }
+
     /** Create an HttpEntity for the graph */
     protected static HttpEntity graphToHttpEntity(final Graph graph) {
         final RDFFormat syntax = RDFFormat.TURTLE_BLOCKS;
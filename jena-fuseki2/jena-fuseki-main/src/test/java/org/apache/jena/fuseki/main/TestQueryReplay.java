@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.fuseki.main.cmds.QueryReplay;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestQueryReplay {
+
+    private static FusekiServer server = null;
+    private static String URL;
+
+    @BeforeClass public static void beforeClass() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(SSE.parseQuad("(_ :s :p 1)"));
+            dsg.add(SSE.parseQuad("(_ :s :p 2)"));
+        });
+        int port = WebLib.choosePort();
+        server = FusekiServer.create()
+            .port(port)
+            .add("/ds", dsg)
+            .build();
+        server.start();
+        URL = "http://localhost:"+port+"/ds";
+    }
+
+    @AfterClass public static void afterClass() {
+        if ( server != null )
+            server.stop();
+    }
+
+    private static QueryReplay.QueryLog readLog(String... lines) {
+        String x = String.join("\n", lines);
+        return QueryReplay.readLog(new ByteArrayInputStream(x.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test public void replay_log_01() {
+        QueryReplay.QueryLog log = readLog(
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] POST http://localhost:3030/ds",
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] Query = SELECT * { ?s ?p ?o }",
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] 200 OK (5 ms)",
+            "[2019-02-01 10:00:01] Fuseki     INFO  [2] Update = INSERT DATA { <x> <y> <z> }");
+        assertEquals(Arrays.asList("SELECT * { ?s ?p ?o }"), log.getQueries());
+        assertEquals(0, log.getSkipped());
+    }
+
+    @Test public void replay_log_02() {
+        QueryReplay.QueryLog log = readLog(
+            "127.0.0.1 - - [01/Feb/2019:10:00:00 +0000] \"GET /ds/query?query=ASK%7B%7D&output=json HTTP/1.1\" 200 20 \"\" \"curl\"",
+            // No query string
+            "127.0.0.1 - - [01/Feb/2019:10:00:00 +0000] \"POST /ds/query\" 200 20 \"\" \"curl\"");
+        assertEquals(Arrays.asList("ASK{}"), log.getQueries());
+        assertEquals(0, log.getSkipped());
+    }
+
+    @Test public void replay_log_03() {
+        // Verbose action log: the query is on the following lines and is skipped.
+        QueryReplay.QueryLog log = readLog(
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] Query = ",
+            "SELECT *",
+            "{ ?s ?p ?o }",
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] 200 OK (5 ms)",
+            "[2019-02-01 10:00:01] Fuseki     INFO  [2] Query = ASK {}");
+        assertEquals(Arrays.asList("ASK {}"), log.getQueries());
+        assertEquals(1, log.getSkipped());
+    }
+
+    @Test public void replay_log_04() {
+        // Newlines are flattened in the action log so a comment hides the rest of the query.
+        QueryReplay.QueryLog log = readLog(
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] Query = SELECT * # All  { ?s ?p ?o }");
+        QueryReplay.Report report = new QueryReplay(URL, 1, 0).run(log, 1);
+        assertEquals(0, report.getCount());
+        assertEquals(1, report.getUnparsed());
+        assertEquals(0, report.getSkipped());
+    }
+
+    @Test public void replay_shape_01() {
+        String s1 = QueryReplay.shape(QueryFactory.create("SELECT * { ?s ?p 1 FILTER(?s != 'a') }"));
+        String s2 = QueryReplay.shape(QueryFactory.create("SELECT * { ?s ?p 2 FILTER(?s != 'b') }"));
+        String s3 = QueryReplay.shape(QueryFactory.create("SELECT * { ?s ?q 2 FILTER(?s != 'b') }"));
+        assertEquals(s1, s2);
+        assertTrue(!s1.equals(s3));
+    }
+
+    @Test public void replay_run_01() {
+        List<String> queries = Arrays.asList(
+            "SELECT * { ?s ?p 1 }",
+            "SELECT * { ?s ?p 2 }",
+            "ASK { ?s ?p ?o }",
+            "CONSTRUCT WHERE { ?s ?p ?o }",
+            "Not SPARQL");
+        QueryReplay.Report report = new QueryReplay(URL, 3, 0).run(queries, 4);
+        assertEquals(16, report.getCount());
+        assertEquals(0, report.getErrors());
+        assertEquals(1, report.getUnparsed());
+        assertEquals(3, report.getShapes().size());
+        assertTrue(report.percentile(50) <= report.percentile(100));
+    }
+
+    @Test public void replay_run_02() {
+        // Bad service: all requests fail.
+        List<String> queries = Arrays.asList("ASK{}");
+        QueryReplay.Report report = new QueryReplay(URL+"/noSuchService", 2, 1).run(queries, 3);
+        assertEquals(3, report.getCount());
+        assertEquals(3, report.getErrors());
+    }
+
+    @Test public void replay_run_03() {
+        QueryReplay.QueryLog log = readLog(
+            "[2019-02-01 10:00:00] Fuseki     INFO  [1] Query = ",
+            "ASK {}",
+            "[2019-02-01 10:00:01] Fuseki     INFO  [2] Query = ASK {}");
+        QueryReplay.Report report = new QueryReplay(URL, 1, 0).run(log, 2);
+        assertEquals(2, report.getCount());
+        assertEquals(1, report.getSkipped());
+    }
+}
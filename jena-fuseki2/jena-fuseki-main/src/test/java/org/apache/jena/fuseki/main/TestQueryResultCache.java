@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.apache.jena.atlas.lib.IRILib;
+import org.apache.jena.atlas.web.WebLib;
+import org.apache.jena.fuseki.server.QueryResultCache;
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.web.HttpNames;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.update.UpdateExecutionFactory;
+import org.apache.jena.update.UpdateFactory;
+import org.apache.jena.web.HttpSC;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestQueryResultCache {
+
+    private FusekiServer server;
+    private String serverURL;
+    private DatasetGraph tdb2;
+    private String datasetURL;
+    private CloseableHttpClient client;
+
+    @Before public void before() {
+        QueryResultCache.enable(1024*1024);
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        tdb2 = DatabaseMgr.createDatasetGraph();
+        int port = WebLib.choosePort();
+        server = FusekiServer.create().port(port)
+            .add("/ds", dsg, true)
+            .add("/ds2", dsg, true)
+            .add("/tdb2", tdb2, true)
+            .build();
+        server.start();
+        serverURL = "http://localhost:"+port;
+        datasetURL = serverURL+"/ds";
+        client = HttpClients.createDefault();
+        update("INSERT DATA { <http://example/s> <http://example/p> 1 }");
+    }
+
+    @After public void after() throws IOException {
+        client.close();
+        server.stop();
+        QueryResultCache.disable();
+    }
+
+    private static final String queryString = "SELECT * { ?s ?p ?o }";
+
+    private void update(String updateString) {
+        UpdateExecutionFactory.createRemote(UpdateFactory.create(updateString), datasetURL+"/update").execute();
+    }
+
+    private HttpResponse query(String queryString, String accept, String ifNoneMatch) throws IOException {
+        return query(datasetURL, queryString, accept, ifNoneMatch);
+    }
+
+    private HttpResponse query(String datasetURL, String queryString, String accept, String ifNoneMatch) throws IOException {
+        HttpGet request = new HttpGet(datasetURL+"/query?query="+IRILib.encodeUriComponent(queryString));
+        request.setHeader(HttpNames.hAccept, accept);
+        if ( ifNoneMatch != null )
+            request.setHeader(HttpNames.hIfNoneMatch, ifNoneMatch);
+        HttpResponse response = client.execute(request);
+        // Consume the body.
+        if ( response.getEntity() != null )
+            EntityUtils.toString(response.getEntity());
+        return response;
+    }
+
+    private static String etag(HttpResponse response) {
+        return response.containsHeader(HttpNames.hETag) ? response.getFirstHeader(HttpNames.hETag).getValue() : null;
+    }
+
+    @Test public void cache_01() throws IOException {
+        HttpResponse response1 = query(queryString, WebContent.contentTypeResultsJSON, null);
+        assertEquals(HttpSC.OK_200, response1.getStatusLine().getStatusCode());
+        String etag = etag(response1);
+        assertNotNull(etag);
+        assertEquals(1, QueryResultCache.get().size());
+
+        HttpResponse response2 = query(queryString, WebContent.contentTypeResultsJSON, null);
+        assertEquals(HttpSC.OK_200, response2.getStatusLine().getStatusCode());
+        assertEquals(etag, etag(response2));
+        assertEquals(1, QueryResultCache.get().getHits());
+    }
+
+    @Test public void cache_02() throws IOException {
+        HttpResponse response1 = query(queryString, WebContent.contentTypeResultsJSON, null);
+        String etag = etag(response1);
+        HttpResponse response2 = query(queryString, WebContent.contentTypeResultsJSON, etag);
+        assertEquals(HttpSC.NOT_MODIFIED_304, response2.getStatusLine().getStatusCode());
+    }
+
+    @Test public void cache_03() throws IOException {
+        // Different format.
+        HttpResponse response1 = query(queryString, WebContent.contentTypeResultsJSON, null);
+        HttpResponse response2 = query(queryString, WebContent.contentTypeResultsXML, etag(response1));
+        assertEquals(HttpSC.OK_200, response2.getStatusLine().getStatusCode());
+        assertNotEquals(etag(response1), etag(response2));
+        assertEquals(2, QueryResultCache.get().size());
+    }
+
+    @Test public void cache_04() throws IOException {
+        // A commit invalidates the cached results.
+        HttpResponse response1 = query(queryString, WebContent.contentTypeResultsJSON, null);
+        String etag = etag(response1);
+        update("INSERT DATA { <http://example/s> <http://example/p> 2 }");
+        HttpResponse response2 = query(queryString, WebContent.contentTypeResultsJSON, etag);
+        assertEquals(HttpSC.OK_200, response2.getStatusLine().getStatusCode());
+        assertNotEquals(etag, etag(response2));
+        assertEquals(0, QueryResultCache.get().getHits());
+    }
+
+    @Test public void cache_05() throws IOException {
+        // Not cached.
+        HttpResponse response = query("SELECT (NOW() AS ?now) {}", WebContent.contentTypeResultsJSON, null);
+        assertEquals(HttpSC.OK_200, response.getStatusLine().getStatusCode());
+        assertNull(etag(response));
+        assertEquals(0, QueryResultCache.get().size());
+    }
+
+    @Test public void cache_06() throws IOException {
+        // Two services over the same dataset: a commit through one invalidates the other.
+        HttpResponse response1 = query(serverURL+"/ds2", queryString, WebContent.contentTypeResultsJSON, null);
+        String etag = etag(response1);
+        update("INSERT DATA { <http://example/s> <http://example/p> 2 }");
+        HttpResponse response2 = query(serverURL+"/ds2", queryString, WebContent.contentTypeResultsJSON, etag);
+        assertEquals(HttpSC.OK_200, response2.getStatusLine().getStatusCode());
+        assertNotEquals(etag, etag(response2));
+        assertEquals(0, QueryResultCache.get().getHits());
+    }
+
+    @Test public void cache_07() throws IOException {
+        // TDB2: a commit not made through the server invalidates the cached results.
+        String url = serverURL+"/tdb2";
+        HttpResponse response1 = query(url, queryString, WebContent.contentTypeResultsJSON, null);
+        String etag = etag(response1);
+        Txn.executeWrite(tdb2, ()->tdb2.add(SSE.parseQuad("(_ :s :p :o)")));
+        HttpResponse response2 = query(url, queryString, WebContent.contentTypeResultsJSON, etag);
+        assertEquals(HttpSC.OK_200, response2.getStatusLine().getStatusCode());
+        assertNotEquals(etag, etag(response2));
+        // Unchanged: cached.
+        HttpResponse response3 = query(url, queryString, WebContent.contentTypeResultsJSON, etag(response2));
+        assertEquals(HttpSC.NOT_MODIFIED_304, response3.getStatusLine().getStatusCode());
+    }
+}
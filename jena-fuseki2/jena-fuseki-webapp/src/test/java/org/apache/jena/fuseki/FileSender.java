@@ -40,6 +40,8 @@ public class FileSender {
 //    HttpResponse response = client.execute(request);
 
     class Entry {
+        // Set for a form field, not a file.
+        String fieldName;
         String fileName;
         String content;
         String contentType;
@@ -59,7 +61,15 @@ public class FileSender {
         items.add(e);
     }
 
-    public void send(String method) {
+    public void addField(String name, String value) {
+        Entry e = new Entry();
+        e.fieldName = name;
+        e.content = value;
+        items.add(e);
+    }
+
+    /** Send the request and return the HTTP response code. */
+    public int send(String method) {
         try {
             String WNL = "\r\n";   // Web newline
             String boundary = UUID.randomUUID().toString();
@@ -71,8 +81,12 @@ public class FileSender {
             try ( PrintStream ps = new PrintStream(connection.getOutputStream()); ) {
                 for ( Entry e : items ) {
                     ps.print("--" + boundary+WNL);
-                    ps.print("Content-Disposition: form-data; name=\"FILE\"; filename=\""+e.fileName+"\""+WNL);
-                    ps.print("Content-Type: "+e.contentType+";charset=UTF-8"+WNL);
+                    if ( e.fieldName != null ) {
+                        ps.print("Content-Disposition: form-data; name=\""+e.fieldName+"\""+WNL);
+                    } else {
+                        ps.print("Content-Disposition: form-data; name=\"FILE\"; filename=\""+e.fileName+"\""+WNL);
+                        ps.print("Content-Type: "+e.contentType+";charset=UTF-8"+WNL);
+                    }
                     ps.print(WNL);
                     ps.print(e.content);
                     ps.print(WNL);
@@ -80,8 +94,8 @@ public class FileSender {
                 ps.print("--" + boundary + "--"+WNL);
             }
             connection.connect();
-            int responseCode = connection.getResponseCode();
-        } catch (IOException ex) { IO.exception(ex); }
+            return connection.getResponseCode();
+        } catch (IOException ex) { IO.exception(ex); return -1; }
     }
 }
 
@@ -21,11 +21,15 @@ package org.apache.jena.fuseki;
 import org.apache.jena.atlas.web.TypedInputStream;
 import org.apache.jena.query.DatasetAccessor;
 import org.apache.jena.query.DatasetAccessorFactory;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.ResultSetFormatter;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFLanguages;
 import org.apache.jena.riot.web.HttpOp;
+import org.apache.jena.web.HttpSC;
 import org.junit.Test;
 
 /**
@@ -123,4 +127,84 @@ public class TestFileUpload extends AbstractFusekiTest {
         assertEquals(0, m.size());
     }
 
+    // The upload service, which takes the destination graph from the "graph" form field.
+    // The data is streamed into the dataset inside a write transaction.
+
+    private static String serviceUpload() { return ServerCtl.urlDataset()+"/upload"; }
+
+    @Test
+    public void upload_service_01() {
+        FileSender x = new FileSender(serviceUpload());
+        x.addField("graph", "http://example/g");
+        x.add("D.ttl", "<http://example/s> <http://example/p> 1, 2 .", "text/turtle");
+        assertEquals(HttpSC.OK_200, x.send("POST"));
+
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(ServerCtl.serviceGSP());
+        assertEquals(2, du.getModel("http://example/g").size());
+        assertEquals(0, du.getModel().size());
+        assertEquals(0, countTempGraphs());
+    }
+
+    @Test
+    public void upload_service_02() {
+        // Graph name after the data: the data goes into a temporary graph first.
+        FileSender x = new FileSender(serviceUpload());
+        x.add("D.ttl", "<http://example/s> <http://example/p> 1, 2 .", "text/turtle");
+        x.add("D.nt", "<http://example/s> <http://example/p> <http://example/o> .", "application/n-triples");
+        x.addField("graph", "http://example/g");
+        assertEquals(HttpSC.OK_200, x.send("POST"));
+
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(ServerCtl.serviceGSP());
+        assertEquals(3, du.getModel("http://example/g").size());
+        assertEquals(0, du.getModel().size());
+        assertEquals(0, countTempGraphs());
+    }
+
+    @Test
+    public void upload_service_03() {
+        // No graph name: the default graph.
+        FileSender x = new FileSender(serviceUpload());
+        x.add("D.ttl", "<http://example/s> <http://example/p> 1, 2 .", "text/turtle");
+        assertEquals(HttpSC.OK_200, x.send("POST"));
+
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(ServerCtl.serviceGSP());
+        assertEquals(2, du.getModel().size());
+        assertEquals(0, countTempGraphs());
+    }
+
+    @Test
+    public void upload_service_bad_01() {
+        // Parse error after some triples have been added: the transaction is aborted.
+        FileSender x = new FileSender(serviceUpload());
+        x.addField("graph", "http://example/g");
+        x.add("D.ttl", "<http://example/s> <http://example/p> 1, 2 . <http://example/s> <http://example/p>", "text/turtle");
+        assertEquals(HttpSC.BAD_REQUEST_400, x.send("POST"));
+
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(ServerCtl.serviceGSP());
+        assertFalse(du.containsModel("http://example/g"));
+        assertEquals(0, countTempGraphs());
+    }
+
+    @Test
+    public void upload_service_bad_02() {
+        // Parse error in the second file, with the data going into a temporary graph.
+        FileSender x = new FileSender(serviceUpload());
+        x.add("D.ttl", "<http://example/s> <http://example/p> 1, 2 .", "text/turtle");
+        x.add("D.nt", "<http://example/s> <http://example/p> .", "application/n-triples");
+        x.addField("graph", "http://example/g");
+        assertEquals(HttpSC.BAD_REQUEST_400, x.send("POST"));
+
+        DatasetAccessor du = DatasetAccessorFactory.createHTTP(ServerCtl.serviceGSP());
+        assertFalse(du.containsModel("http://example/g"));
+        assertEquals(0, du.getModel().size());
+        assertEquals(0, countTempGraphs());
+    }
+
+    // Graphs used by the upload service to hold data before the graph name is known.
+    private static int countTempGraphs() {
+        String qs = "SELECT DISTINCT ?g { GRAPH ?g { ?s ?p ?o } FILTER(STRSTARTS(STR(?g), 'urn:x-arq:upload:')) }";
+        try ( QueryExecution qExec = QueryExecutionFactory.sparqlService(ServerCtl.serviceQuery(), qs) ) {
+            return ResultSetFormatter.consume(qExec.execSelect());
+        }
+    }
 }
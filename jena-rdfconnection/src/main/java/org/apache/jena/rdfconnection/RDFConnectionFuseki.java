@@ -87,7 +87,7 @@ public class RDFConnectionFuseki extends RDFConnectionRemote {
             base.outputQuads, base.outputTriples,
             base.acceptDataset, base.acceptGraph,
             base.acceptSparqlResults, base.acceptSelectResult, base.acceptAskResult,
-            base.parseCheckQueries, base.parseCheckUpdates);
+            base.parseCheckQueries, base.parseCheckUpdates, base.compressRequests);
     }
     
     protected RDFConnectionFuseki(Transactional txnLifecycle, HttpClient httpClient, HttpContext httpContext, String destination,
@@ -95,11 +95,25 @@ public class RDFConnectionFuseki extends RDFConnectionRemote {
                                   String acceptDataset, String acceptGraph, 
                                   String acceptSparqlResults, String acceptSelectResult, String acceptAskResult,
                                   boolean parseCheckQueries, boolean parseCheckUpdates) {
+        this(txnLifecycle, httpClient, httpContext, 
+             destination, queryURL, updateURL, gspURL,
+             outputQuads, outputTriples, 
+             acceptDataset, acceptGraph,
+             acceptSparqlResults, acceptSelectResult, acceptAskResult, parseCheckQueries, parseCheckUpdates,
+             false);
+    }
+    
+    protected RDFConnectionFuseki(Transactional txnLifecycle, HttpClient httpClient, HttpContext httpContext, String destination,
+                                  String queryURL, String updateURL, String gspURL, RDFFormat outputQuads, RDFFormat outputTriples,
+                                  String acceptDataset, String acceptGraph, 
+                                  String acceptSparqlResults, String acceptSelectResult, String acceptAskResult,
+                                  boolean parseCheckQueries, boolean parseCheckUpdates, boolean compressRequests) {
         super(txnLifecycle, httpClient, httpContext, 
               destination, queryURL, updateURL, gspURL,
               outputQuads, outputTriples, 
               acceptDataset, acceptGraph,
-              acceptSparqlResults, acceptSelectResult, acceptAskResult, parseCheckQueries, parseCheckUpdates);
+              acceptSparqlResults, acceptSelectResult, acceptAskResult, parseCheckQueries, parseCheckUpdates,
+              compressRequests);
     }
     
     // Fuseki specific operations.
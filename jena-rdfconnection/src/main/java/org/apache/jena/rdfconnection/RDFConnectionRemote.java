@@ -25,6 +25,7 @@ import java.util.function.Supplier;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.EntityTemplate;
@@ -86,6 +87,8 @@ public class RDFConnectionRemote implements RDFConnection {
     protected final boolean parseCheckQueries;
     // Whether to check SPARQL updates given as strings by parsing them.
     protected final boolean parseCheckUpdates;
+    // Whether to gzip request bodies.
+    protected final boolean compressRequests;
 
     /** Create a {@link RDFConnectionRemoteBuilder}. */
     public static RDFConnectionRemoteBuilder create() {
@@ -100,13 +103,26 @@ public class RDFConnectionRemote implements RDFConnection {
         return new RDFConnectionRemoteBuilder(base);
     }
 
-    // Used by the builder.
     protected RDFConnectionRemote(Transactional txnLifecycle, HttpClient httpClient, HttpContext httpContext, String destination,
                                    String queryURL, String updateURL, String gspURL, RDFFormat outputQuads, RDFFormat outputTriples,
                                    String acceptDataset, String acceptGraph,
                                    String acceptSparqlResults,
                                    String acceptSelectResult, String acceptAskResult,
                                    boolean parseCheckQueries, boolean parseCheckUpdates) {
+        this(txnLifecycle, httpClient, httpContext, destination,
+             queryURL, updateURL, gspURL, outputQuads, outputTriples,
+             acceptDataset, acceptGraph,
+             acceptSparqlResults, acceptSelectResult, acceptAskResult,
+             parseCheckQueries, parseCheckUpdates, false);
+    }
+
+    // Used by the builder.
+    protected RDFConnectionRemote(Transactional txnLifecycle, HttpClient httpClient, HttpContext httpContext, String destination,
+                                   String queryURL, String updateURL, String gspURL, RDFFormat outputQuads, RDFFormat outputTriples,
+                                   String acceptDataset, String acceptGraph,
+                                   String acceptSparqlResults,
+                                   String acceptSelectResult, String acceptAskResult,
+                                   boolean parseCheckQueries, boolean parseCheckUpdates, boolean compressRequests) {
         this.httpClient = httpClient;
         this.httpContext = httpContext;
         this.destination = destination;
@@ -125,6 +141,7 @@ public class RDFConnectionRemote implements RDFConnection {
         this.acceptAskResult = acceptAskResult;
         this.parseCheckQueries = parseCheckQueries;
         this.parseCheckUpdates = parseCheckUpdates;
+        this.compressRequests = compressRequests;
     }
 
     /** Return the {@link HttpClient} in-use. */
@@ -487,7 +504,21 @@ public class RDFConnectionRemote implements RDFConnection {
         // HttpClient Content type.
         ContentType ct = ContentType.create(lang.getContentType().getContentType(), charset);
         // Repeatable.
-        return new FileEntity(new File(filename), ct);
+        FileEntity entity = new FileEntity(new File(filename), ct);
+        if ( filename.endsWith(".gz") ) {
+            // Already compressed.
+            entity.setContentEncoding("gzip");
+            return entity;
+        }
+        return compress(entity);
+    }
+
+    /** Gzip the entity if this connection compresses request bodies. */
+    protected HttpEntity compress(HttpEntity entity) {
+        if ( ! compressRequests )
+            return entity;
+        // Repeatable if the underlying entity is repeatable.
+        return new GzipCompressingEntity(entity);
     }
 
     /** Create an HttpEntity for the graph */
@@ -498,7 +529,7 @@ public class RDFConnectionRemote implements RDFConnection {
     /** Create an HttpEntity for the graph. */
     protected HttpEntity graphToHttpEntity(Graph graph, RDFFormat syntax) {
         // Length - leaves connection reusable. 
-        return graphToHttpEntityWithLength(graph, syntax);
+        return compress(graphToHttpEntityWithLength(graph, syntax));
     }
     
     /** 
@@ -536,7 +567,7 @@ public class RDFConnectionRemote implements RDFConnection {
     /** Create an HttpEntity for the dataset */
     protected HttpEntity datasetToHttpEntity(DatasetGraph dataset, RDFFormat syntax) {
         // Length - leaves connection reusable. 
-        return datasetToHttpEntityWithLength(dataset, syntax);
+        return compress(datasetToHttpEntityWithLength(dataset, syntax));
     }
         
     private HttpEntity datasetToHttpEntityWithLength(DatasetGraph dataset, RDFFormat syntax) {
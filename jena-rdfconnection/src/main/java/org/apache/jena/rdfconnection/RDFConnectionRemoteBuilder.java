@@ -61,6 +61,8 @@ public class RDFConnectionRemoteBuilder {
     // Whether to parse SPARQL Queries and Updates for checkign purposes.
     protected boolean       parseCheckQueries   = true;
     protected boolean       parseCheckUpdates   = true;
+    // Whether to gzip request bodies sent to the server.
+    protected boolean       compressRequests    = false;
 
     protected RDFConnectionRemoteBuilder() { 
         // Default settings are the member declarations.
@@ -87,6 +89,7 @@ public class RDFConnectionRemoteBuilder {
         acceptAskResult     = base.acceptAskResult;
         parseCheckQueries   = base.parseCheckQueries;
         parseCheckUpdates   = base.parseCheckUpdates;
+        compressRequests    = base.compressRequests;
     }
     
     /** URL of the remote SPARQL endpoint.
@@ -276,6 +279,19 @@ public class RDFConnectionRemoteBuilder {
         return this;
     }
     
+    /**
+     * Set whether to compress the data sent by {@code load} and {@code put} operations.
+     * The request body is sent with "Content-Encoding: gzip".
+     * The server must support compressed request bodies (Fuseki does).
+     * <p>
+     * Files that are already gzip compressed ("*.gz") are always sent as they are,
+     * with "Content-Encoding: gzip".
+     */
+    public RDFConnectionRemoteBuilder compressRequests(boolean compress) {
+        this.compressRequests = compress;
+        return this;
+    }
+
     private Function<RDFConnectionRemoteBuilder, RDFConnection> creator = null;
     /** Provide an alternative function to make the {@link RDFConnection} object.
      * <p>
@@ -312,6 +328,6 @@ public class RDFConnectionRemoteBuilder {
                                         outputQuads, outputTriples,
                                         acceptDataset, acceptGraph,
                                         acceptSparqlResults, acceptSelectResult, acceptAskResult,
-                                        parseCheckQueries, parseCheckUpdates);
+                                        parseCheckQueries, parseCheckUpdates, compressRequests);
     }
 }
\ No newline at end of file
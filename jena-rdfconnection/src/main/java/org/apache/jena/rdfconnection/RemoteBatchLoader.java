@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.rdfconnection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.jena.atlas.json.JSON;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.atlas.lib.IRILib;
+import org.apache.jena.atlas.web.HttpException;
+import org.apache.jena.atlas.web.TypedInputStream;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.riot.web.HttpOp;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.web.HttpSC;
+
+/**
+ * Load data into a remote dataset in batches, using the Fuseki batch upload
+ * operation ({@code fuseki:batch}).
+ * <p>
+ * The data is parsed and split into numbered batches of {@link Builder#batchSize}
+ * triples or quads. Batches are serialized (RDF Thrift by default) and sent
+ * concurrently. A batch that fails is retried; if it still fails, the load stops and
+ * throws an exception. Loading again with the same upload id resumes the load: the
+ * batches the server has already received are skipped.
+ * <p>
+ * By default, the server applies each batch in its own transaction. With
+ * {@link Builder#singleTransaction}, the server keeps the batches until the end of the
+ * load and then applies them all in one transaction.
+ *
+ * <pre>
+ *    RemoteBatchLoader loader = RemoteBatchLoader.create()
+ *        .destination("http://localhost:3030/ds/batch")
+ *        .batchSize(100_000)
+ *        .build();
+ *    loader.load("data.nq.gz");
+ * </pre>
+ */
+public class RemoteBatchLoader {
+
+    private final String destination;
+    private final String uploadId;
+    private final int batchSize;
+    private final int parallelism;
+    private final int retries;
+    private final boolean singleTransaction;
+    private final RDFFormat format;
+    private final HttpClient httpClient;
+
+    /** Create a {@link Builder}. */
+    public static Builder create() {
+        return new Builder();
+    }
+
+    private RemoteBatchLoader(String destination, String uploadId, int batchSize, int parallelism, int retries,
+                              boolean singleTransaction, RDFFormat format, HttpClient httpClient) {
+        this.destination = destination;
+        this.uploadId = uploadId;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.retries = retries;
+        this.singleTransaction = singleTransaction;
+        this.format = format;
+        this.httpClient = httpClient;
+    }
+
+    /** The upload id. Use this id to resume a load that failed. */
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    /**
+     * Load a file. The syntax is determined from the file extension.
+     * Return the number of triples and quads sent.
+     */
+    public long load(String filename) {
+        return load(RDFParser.create().source(filename));
+    }
+
+    /** Load from an {@code InputStream}. Return the number of triples and quads sent. */
+    public long load(InputStream input, Lang lang) {
+        return load(RDFParser.create().source(input).lang(lang));
+    }
+
+    private long load(RDFParserBuilder parser) {
+        Set<Long> received = received();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Batcher batcher = new Batcher(executor, received);
+        // Blank nodes are allocated from the upload id so that loading again
+        // to resume sends the same blank node labels as the earlier attempt.
+        UUID seed = UUID.nameUUIDFromBytes(uploadId.getBytes(StandardCharsets.UTF_8));
+        parser.labelToNode(LabelToNode.createScopeByDocumentHash(seed));
+        try {
+            parser.parse(batcher);
+            batcher.awaitAll();
+        } catch (RuntimeException ex) {
+            // Either a batch failed and stopped the parser, or the parser failed.
+            if ( batcher.failure.get() == null ) {
+                // Parser failed. Let the batches already sent complete so a later load resumes after them.
+                batcher.awaitAll();
+                throw ex;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Throwable failure = batcher.failure.get();
+        if ( failure != null )
+            throw new JenaConnectionException("Batch upload "+uploadId+" failed. Load again with the same upload id to resume.", failure);
+        if ( batcher.batchNumber == 0 )
+            // No data.
+            return 0;
+        if ( singleTransaction )
+            HttpOp.execHttpPost(url("&commit=true"), null, httpClient, null);
+        else
+            HttpOp.execHttpDelete(url(""), null, httpClient, null);
+        return batcher.count;
+    }
+
+    /** The batches the server already has for this upload. */
+    private Set<Long> received() {
+        Set<Long> received = new HashSet<>();
+        try ( TypedInputStream in = HttpOp.execHttpGet(url(""), WebContent.contentTypeJSON, httpClient, null) ) {
+            if ( in == null )
+                // 404 : New upload.
+                return received;
+            JsonObject obj = JSON.parse(in);
+            JsonArray batches = obj.get("batches").getAsArray();
+            batches.forEach(v->received.add(v.getAsNumber().value().longValue()));
+        }
+        return received;
+    }
+
+    private String url(String extra) {
+        String sep = destination.contains("?") ? "&" : "?";
+        String x = destination+sep+"upload="+IRILib.encodeUriComponent(uploadId)+extra;
+        if ( singleTransaction )
+            x = x+"&mode=staged";
+        return x;
+    }
+
+    private void send(long batchNumber, List<Quad> quads) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128*1024);
+        StreamRDF writer = StreamRDFWriter.getWriterStream(out, format);
+        writer.start();
+        for ( Quad quad : quads ) {
+            if ( quad.isTriple() )
+                writer.triple(quad.asTriple());
+            else
+                writer.quad(quad);
+        }
+        writer.finish();
+        ByteArrayEntity entity = new ByteArrayEntity(out.toByteArray());
+        entity.setContentType(format.getLang().getContentType().getContentType());
+        String url = url("&batch="+batchNumber);
+        for ( int attempt = 0 ; ; attempt++ ) {
+            try {
+                HttpOp.execHttpPost(url, entity, httpClient, null);
+                return;
+            } catch (HttpException ex) {
+                if ( attempt >= retries || ! retryable(ex) )
+                    throw ex;
+            }
+            try {
+                Thread.sleep(100L << Math.min(attempt, 6));
+            } catch (InterruptedException ex) {
+                throw new JenaConnectionException("Interrupted", ex);
+            }
+        }
+    }
+
+    private static boolean retryable(HttpException ex) {
+        int code = ex.getStatusCode();
+        // -1 is an I/O error; 409 is the batch being received by an earlier attempt.
+        return code < 0 || code == HttpSC.CONFLICT_409 || code >= 500;
+    }
+
+    /** Thrown to stop the parser after a batch has failed. */
+    private static class BatchFailedException extends RuntimeException {
+        BatchFailedException() { super(null, null, false, false); }
+    }
+
+    /** Collect triples and quads into batches, and send the batches. */
+    private class Batcher extends StreamRDFBase {
+        private final ExecutorService executor;
+        private final Set<Long> received;
+        // Limit the number of batches in memory.
+        private final Semaphore inFlight = new Semaphore(2*parallelism);
+        private final List<Future<?>> futures = new ArrayList<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private List<Quad> batch = new ArrayList<>();
+        private long batchNumber = 0;
+        long count = 0;
+
+        Batcher(ExecutorService executor, Set<Long> received) {
+            this.executor = executor;
+            this.received = received;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            add(Quad.create(Quad.tripleInQuad, triple));
+        }
+
+        @Override
+        public void quad(Quad quad) {
+            add(quad);
+        }
+
+        private void add(Quad quad) {
+            batch.add(quad);
+            count++;
+            if ( batch.size() >= batchSize )
+                dispatch();
+        }
+
+        @Override
+        public void finish() {
+            if ( ! batch.isEmpty() )
+                dispatch();
+        }
+
+        private void dispatch() {
+            List<Quad> quads = batch;
+            long n = batchNumber++;
+            batch = new ArrayList<>(batchSize);
+            if ( failure.get() != null )
+                throw new BatchFailedException();
+            if ( received.contains(n) )
+                return;
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException ex) {
+                throw new JenaConnectionException("Interrupted", ex);
+            }
+            futures.removeIf(Future::isDone);
+            futures.add(executor.submit(()->{
+                try {
+                    send(n, quads);
+                } catch (Throwable th) {
+                    failure.compareAndSet(null, th);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+
+        void awaitAll() {
+            for ( Future<?> f : futures ) {
+                try { f.get(); }
+                catch (InterruptedException | ExecutionException ex) { failure.compareAndSet(null, ex); }
+            }
+        }
+    }
+
+    public static class Builder {
+        private String      destination       = null;
+        private String      uploadId          = null;
+        private int         batchSize         = 100_000;
+        private int         parallelism       = 4;
+        private int         retries           = 3;
+        private boolean     singleTransaction = false;
+        private RDFFormat   format            = RDFFormat.RDF_THRIFT;
+        private HttpClient  httpClient        = null;
+
+        private Builder() {}
+
+        /** URL of the batch upload endpoint, e.g. {@code http://localhost:3030/ds/batch}. */
+        public Builder destination(String destination) {
+            this.destination = Objects.requireNonNull(destination);
+            return this;
+        }
+
+        /**
+         * Set the upload id. To resume a load, use the id of the load that failed.
+         * The default is a new UUID.
+         */
+        public Builder uploadId(String uploadId) {
+            this.uploadId = uploadId;
+            return this;
+        }
+
+        /** Number of triples or quads in each batch. */
+        public Builder batchSize(int batchSize) {
+            if ( batchSize <= 0 )
+                throw new IllegalArgumentException("Batch size must be positive: "+batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /** Number of batches sent at the same time. */
+        public Builder parallelism(int parallelism) {
+            if ( parallelism <= 0 )
+                throw new IllegalArgumentException("Parallelism must be positive: "+parallelism);
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /** Number of times to retry a batch after a server error or I/O error. */
+        public Builder retries(int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        /**
+         * Whether the server applies all the batches in one transaction at the end of
+         * the load (true), or each batch in its own transaction (false, the default).
+         */
+        public Builder singleTransaction(boolean singleTransaction) {
+            this.singleTransaction = singleTransaction;
+            return this;
+        }
+
+        /** Syntax used to send batches. This must be a streaming syntax for quads. */
+        public Builder format(RDFFormat format) {
+            this.format = Objects.requireNonNull(format);
+            return this;
+        }
+
+        /** Set the {@link HttpClient} to use. */
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        public RemoteBatchLoader build() {
+            Objects.requireNonNull(destination, "No destination");
+            String id = ( uploadId != null ) ? uploadId : UUID.randomUUID().toString();
+            return new RemoteBatchLoader(destination, id, batchSize, parallelism, retries,
+                                         singleTransaction, format, httpClient);
+        }
+    }
+}